@@ -0,0 +1,309 @@
+package com.expense.management.analytics;
+
+import com.expense.management.dto.ExpenseExtractRow;
+import com.expense.management.enums.ApprovalLevel;
+import com.expense.management.model.ExpenseStatus;
+import com.expense.management.repository.ExpenseRepository;
+import org.apache.arrow.compression.CommonsCompressionFactory;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeStampMilliVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.compression.CompressionUtil;
+import org.apache.arrow.vector.dictionary.Dictionary;
+import org.apache.arrow.vector.dictionary.DictionaryProvider;
+import org.apache.arrow.vector.ipc.ArrowFileWriter;
+import org.apache.arrow.vector.ipc.message.IpcOption;
+import org.apache.arrow.vector.types.DateUnit;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.DictionaryEncoding;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk extract of every expense, joined with its owner and role, as an Arrow IPC file
+ * (Feather v2), readable by pyarrow, pandas, Polars, DuckDB and Spark.
+ *
+ * Rows are read in keyset pages and written as record batches of {@code batch-rows}
+ * rows, so only one batch is held in memory. Status and approval level are dictionary
+ * encoded from their enums, and batches are ZSTD compressed by default. Category,
+ * priority and role are open-ended, so they are plain strings: the file format writes
+ * dictionaries once, before the first batch, and a value added while an extract is
+ * running could not be added to them.
+ *
+ * Arrow's memory module needs {@code --add-opens=java.base/java.nio=ALL-UNNAMED} on JDK 17.
+ */
+@Service
+public class ArrowExpenseExporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArrowExpenseExporter.class);
+
+    @Value("${app.bi-export.batch-rows:65536}")
+    private int batchRows;
+
+    @Value("${app.bi-export.compression:zstd}")
+    private String compression;
+
+    // Nightly extracts are written here when set
+    @Value("${app.bi-export.dir:}")
+    private String exportDir;
+
+    @Value("${app.bi-export.keep:7}")
+    private int keepFiles;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    /** A dictionary-encoded enum column: codes in the batch, values once per file. */
+    private static final class DictionaryColumn {
+        private final String name;
+        private final DictionaryEncoding encoding;
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values;
+        private IntVector vector;
+
+        DictionaryColumn(String name, long id, Enum<?>[] constants) {
+            this.name = name;
+            this.encoding = new DictionaryEncoding(id, false, new ArrowType.Int(32, true));
+            this.values = Arrays.stream(constants).map(Enum::name).toList();
+            for (int i = 0; i < values.size(); i++) {
+                codes.put(values.get(i), i);
+            }
+        }
+
+        Field field() {
+            return new Field(name, new FieldType(true, new ArrowType.Int(32, true), encoding), null);
+        }
+
+        Dictionary dictionary(BufferAllocator allocator) {
+            VarCharVector dictionary = new VarCharVector(name + "_dictionary", allocator);
+            dictionary.allocateNew(values.size());
+            for (int i = 0; i < values.size(); i++) {
+                dictionary.setSafe(i, values.get(i).getBytes(StandardCharsets.UTF_8));
+            }
+            dictionary.setValueCount(values.size());
+            return new Dictionary(dictionary, encoding);
+        }
+
+        void set(int row, Enum<?> value) {
+            if (value != null) {
+                vector.setSafe(row, codes.get(value.name()));
+            } else {
+                vector.setNull(row);
+            }
+        }
+    }
+
+    /**
+     * Write the extract to {@code out}, which is closed afterwards.
+     * @return the number of rows written
+     */
+    public long write(OutputStream out) throws IOException {
+        DictionaryColumn status = new DictionaryColumn("status", 1, ExpenseStatus.values());
+        DictionaryColumn level = new DictionaryColumn("approval_level", 2, ApprovalLevel.values());
+        List<DictionaryColumn> dictionaries = List.of(status, level);
+
+        Schema schema = new Schema(List.of(
+                new Field("id", FieldType.notNullable(new ArrowType.Int(64, true)), null),
+                new Field("date", FieldType.nullable(new ArrowType.Date(DateUnit.DAY)), null),
+                new Field("created_at", FieldType.nullable(new ArrowType.Timestamp(TimeUnit.MILLISECOND, null)), null),
+                new Field("amount", FieldType.notNullable(new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE)), null),
+                new Field("category", FieldType.nullable(ArrowType.Utf8.INSTANCE), null),
+                new Field("description", FieldType.nullable(ArrowType.Utf8.INSTANCE), null),
+                status.field(),
+                level.field(),
+                new Field("priority", FieldType.nullable(ArrowType.Utf8.INSTANCE), null),
+                new Field("approved_by_manager_id", FieldType.nullable(new ArrowType.Int(64, true)), null),
+                new Field("user_id", FieldType.nullable(new ArrowType.Int(64, true)), null),
+                new Field("user_name", FieldType.nullable(ArrowType.Utf8.INSTANCE), null),
+                new Field("user_email", FieldType.nullable(ArrowType.Utf8.INSTANCE), null),
+                new Field("user_role", FieldType.nullable(ArrowType.Utf8.INSTANCE), null)));
+
+        long rows = 0;
+        try (BufferAllocator allocator = new RootAllocator();
+             VectorSchemaRoot root = VectorSchemaRoot.create(schema, allocator)) {
+            DictionaryProvider.MapDictionaryProvider provider = new DictionaryProvider.MapDictionaryProvider();
+            for (DictionaryColumn column : dictionaries) {
+                provider.put(column.dictionary(allocator));
+            }
+            try (ArrowFileWriter writer = new ArrowFileWriter(root, provider, Channels.newChannel(out),
+                    Map.of("source", "enterprise-expense-management", "generated_on", LocalDate.now().toString()),
+                    IpcOption.DEFAULT, CommonsCompressionFactory.INSTANCE, codec())) {
+                writer.start();
+
+                BigIntVector id = (BigIntVector) root.getVector("id");
+                DateDayVector date = (DateDayVector) root.getVector("date");
+                TimeStampMilliVector createdAt = (TimeStampMilliVector) root.getVector("created_at");
+                Float8Vector amount = (Float8Vector) root.getVector("amount");
+                VarCharVector category = (VarCharVector) root.getVector("category");
+                VarCharVector description = (VarCharVector) root.getVector("description");
+                VarCharVector priority = (VarCharVector) root.getVector("priority");
+                BigIntVector approvedBy = (BigIntVector) root.getVector("approved_by_manager_id");
+                BigIntVector userId = (BigIntVector) root.getVector("user_id");
+                VarCharVector userName = (VarCharVector) root.getVector("user_name");
+                VarCharVector userEmail = (VarCharVector) root.getVector("user_email");
+                VarCharVector role = (VarCharVector) root.getVector("user_role");
+                for (DictionaryColumn column : dictionaries) {
+                    column.vector = (IntVector) root.getVector(column.name);
+                }
+
+                int pageSize = Math.min(batchRows, 5000);
+                int inBatch = 0;
+                long afterId = 0L;
+                List<ExpenseExtractRow> page;
+                root.allocateNew();
+                do {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new InterruptedIOException("Extract cancelled");
+                    }
+                    page = expenseRepository.findExtractRowsAfter(afterId, PageRequest.of(0, pageSize));
+                    for (ExpenseExtractRow row : page) {
+                        int i = inBatch++;
+                        id.setSafe(i, row.getId());
+                        if (row.getDate() != null) {
+                            date.setSafe(i, (int) row.getDate().toEpochDay());
+                        } else {
+                            date.setNull(i);
+                        }
+                        if (row.getCreatedAt() != null) {
+                            createdAt.setSafe(i, row.getCreatedAt().toInstant(ZoneOffset.UTC).toEpochMilli());
+                        } else {
+                            createdAt.setNull(i);
+                        }
+                        amount.setSafe(i, row.getAmount());
+                        setString(category, i, row.getCategory());
+                        setString(description, i, row.getDescription());
+                        status.set(i, row.getStatus());
+                        level.set(i, row.getLevel());
+                        setString(priority, i, row.getPriority());
+                        setLong(approvedBy, i, row.getApprovedByManagerId());
+                        setLong(userId, i, row.getUserId());
+                        setString(userName, i, row.getUserName());
+                        setString(userEmail, i, row.getUserEmail());
+                        setString(role, i, row.getRoleName());
+
+                        if (inBatch == batchRows) {
+                            root.setRowCount(inBatch);
+                            writer.writeBatch();
+                            rows += inBatch;
+                            inBatch = 0;
+                            for (FieldVector vector : root.getFieldVectors()) {
+                                vector.reset();
+                            }
+                        }
+                    }
+                    if (!page.isEmpty()) {
+                        afterId = page.get(page.size() - 1).getId();
+                    }
+                } while (page.size() == pageSize);
+
+                if (inBatch > 0 || rows == 0) {
+                    root.setRowCount(inBatch);
+                    writer.writeBatch();
+                    rows += inBatch;
+                }
+                writer.end();
+            } finally {
+                for (DictionaryColumn column : dictionaries) {
+                    provider.lookup(column.encoding.getId()).getVector().close();
+                }
+            }
+        }
+        return rows;
+    }
+
+    // Nightly extract into app.bi-export.dir, keeping the newest app.bi-export.keep files
+    @Scheduled(cron = "${app.bi-export.cron:0 0 2 * * *}")
+    public void writeNightlyExtract() {
+        if (exportDir == null || exportDir.isBlank()) {
+            return;
+        }
+        try {
+            Path dir = Paths.get(exportDir).toAbsolutePath();
+            Files.createDirectories(dir);
+            Path target = dir.resolve("expenses-" + LocalDate.now() + ".arrow");
+            Path part = dir.resolve(target.getFileName() + ".part");
+            long start = System.currentTimeMillis();
+            long rows = write(Files.newOutputStream(part));
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Wrote {} expenses to {} ({} bytes) in {} ms", rows, target, Files.size(target),
+                    System.currentTimeMillis() - start);
+            pruneOldExtracts(dir);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Nightly expense extract failed", e);
+        }
+    }
+
+    private void pruneOldExtracts(Path dir) throws IOException {
+        List<Path> extracts = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "expenses-*.arrow")) {
+            files.forEach(extracts::add);
+        }
+        // Names sort by date
+        extracts.sort(null);
+        for (int i = 0; i < extracts.size() - keepFiles; i++) {
+            Files.deleteIfExists(extracts.get(i));
+        }
+    }
+
+    private CompressionUtil.CodecType codec() {
+        switch (compression.toLowerCase()) {
+            case "none":
+                return CompressionUtil.CodecType.NO_COMPRESSION;
+            case "lz4":
+                return CompressionUtil.CodecType.LZ4_FRAME;
+            default:
+                return CompressionUtil.CodecType.ZSTD;
+        }
+    }
+
+    private static void setString(VarCharVector vector, int row, String value) {
+        if (value != null) {
+            vector.setSafe(row, value.getBytes(StandardCharsets.UTF_8));
+        } else {
+            vector.setNull(row);
+        }
+    }
+
+    private static void setLong(BigIntVector vector, int row, Long value) {
+        if (value != null) {
+            vector.setSafe(row, value);
+        } else {
+            vector.setNull(row);
+        }
+    }
+}
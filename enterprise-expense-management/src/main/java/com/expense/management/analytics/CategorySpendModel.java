@@ -0,0 +1,156 @@
+package com.expense.management.analytics;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+
+/**
+ * Running approved-spend statistics of one category, enough to project its month-end
+ * total without looking at history again:
+ * <ul>
+ *   <li>the current month's spend per day of month,</li>
+ *   <li>an exponentially weighted mean and variance of daily spend, folded in as days
+ *       end (today is still open),</li>
+ *   <li>a day-of-month profile: the exponentially weighted share of a month's spend
+ *       falling on each day, folded in as months close.</li>
+ * </ul>
+ * Recording an amount is O(1). An amount dated on an already folded day of the current
+ * month corrects the mean exactly; its effect on the variance and on closed months waits
+ * for the next rebuild.
+ *
+ * Not thread-safe.
+ */
+final class CategorySpendModel {
+
+    private static final int MAX_DAYS = 31;
+
+    private final double alpha;
+    private final double seasonalityWeight;
+
+    private YearMonth month;
+    private final double[] days = new double[MAX_DAYS];
+    private long lastFolded;
+    private long foldedDays;
+    private double dailyMean;
+    private double dailyVariance;
+    private double[] profile;
+
+    /**
+     * @param start first day observed; earlier days count as unknown, later ones as zero until spend arrives
+     * @param alpha weight of each new day in the daily mean and variance
+     * @param seasonalityWeight weight of each newly closed month in the day-of-month profile
+     */
+    CategorySpendModel(LocalDate start, double alpha, double seasonalityWeight) {
+        this.alpha = alpha;
+        this.seasonalityWeight = seasonalityWeight;
+        this.month = YearMonth.from(start);
+        this.lastFolded = start.toEpochDay() - 1;
+    }
+
+    /** Record {@code amount} (negative to take spend back) dated {@code date}. */
+    void add(LocalDate date, double amount, LocalDate today) {
+        advanceTo(today);
+        if (!YearMonth.from(date).equals(month)) {
+            // Closed or future months only change through a rebuild
+            return;
+        }
+        days[date.getDayOfMonth() - 1] += amount;
+        long age = lastFolded - date.toEpochDay();
+        if (age >= 0 && foldedDays > 0) {
+            dailyMean += alpha * amount * Math.pow(1 - alpha, age);
+        }
+    }
+
+    /** Fold every day before {@code today} and move to today's month. */
+    void advanceTo(LocalDate today) {
+        long yesterday = today.toEpochDay() - 1;
+        while (lastFolded < yesterday) {
+            LocalDate day = LocalDate.ofEpochDay(lastFolded + 1);
+            rollTo(YearMonth.from(day));
+            fold(days[day.getDayOfMonth() - 1]);
+            lastFolded++;
+        }
+        rollTo(YearMonth.from(today));
+    }
+
+    private void fold(double spend) {
+        if (foldedDays++ == 0) {
+            dailyMean = spend;
+            return;
+        }
+        double diff = spend - dailyMean;
+        dailyMean += alpha * diff;
+        dailyVariance = (1 - alpha) * (dailyVariance + alpha * diff * diff);
+    }
+
+    private void rollTo(YearMonth target) {
+        if (!target.isAfter(month)) {
+            return;
+        }
+        closeMonth();
+        Arrays.fill(days, 0);
+        month = target;
+    }
+
+    private void closeMonth() {
+        double total = 0;
+        for (double spend : days) {
+            total += spend;
+        }
+        if (total <= 0) {
+            return;
+        }
+        if (profile == null) {
+            profile = new double[MAX_DAYS];
+            for (int i = 0; i < MAX_DAYS; i++) {
+                profile[i] = days[i] / total;
+            }
+            return;
+        }
+        for (int i = 0; i < MAX_DAYS; i++) {
+            profile[i] += seasonalityWeight * (days[i] / total - profile[i]);
+        }
+    }
+
+    YearMonth getMonth() {
+        return month;
+    }
+
+    /** Spend recorded for the current month so far, including anything dated later this month. */
+    double monthToDate() {
+        double total = 0;
+        for (double spend : days) {
+            total += spend;
+        }
+        return total;
+    }
+
+    double dailyMean() {
+        return dailyMean;
+    }
+
+    double dailyVariance() {
+        return dailyVariance;
+    }
+
+    /**
+     * Share of a typical month's spend that falls after day {@code elapsed} of a month
+     * of {@code length} days; spread evenly until a month with spend has closed.
+     */
+    double remainingShare(int elapsed, int length) {
+        double total = 0;
+        double remaining = 0;
+        if (profile != null) {
+            for (int i = 0; i < length; i++) {
+                total += profile[i];
+                if (i >= elapsed) {
+                    remaining += profile[i];
+                }
+            }
+        }
+        if (total <= 0) {
+            return (double) (length - elapsed) / length;
+        }
+        return remaining / total;
+    }
+}
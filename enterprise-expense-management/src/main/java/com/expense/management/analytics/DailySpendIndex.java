@@ -0,0 +1,197 @@
+package com.expense.management.analytics;
+
+import com.expense.management.events.ExpenseChangedEvent;
+import com.expense.management.events.ExpenseFact;
+import com.expense.management.model.ExpenseStatus;
+import com.expense.management.repository.ExpenseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Approved spend per calendar day, keyed by epoch day so any date range is a
+ * sub-map view. Maintained incrementally from {@link ExpenseChangedEvent}s
+ * (an edit or status change moves its amount between days) and rebuilt from a
+ * GROUP BY query on startup. Range queries roll days up into day/week/month
+ * buckets and downsample to the caller's point budget with LTTB.
+ */
+@Component
+public class DailySpendIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(DailySpendIndex.class);
+
+    public static final int MAX_POINTS = 5000;
+    private static final long MAX_RANGE_DAYS = 366L * 50;
+
+    public enum Bucket {
+        DAY, WEEK, MONTH;
+
+        public static Bucket fromName(String name) {
+            if (name == null || name.isBlank()) {
+                return DAY;
+            }
+            try {
+                return valueOf(name.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown bucket: " + name + " (expected day, week or month)");
+            }
+        }
+
+        LocalDate start(LocalDate date) {
+            switch (this) {
+                case WEEK:
+                    return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                case MONTH:
+                    return date.withDayOfMonth(1);
+                default:
+                    return date;
+            }
+        }
+
+        LocalDate next(LocalDate bucketStart) {
+            switch (this) {
+                case WEEK:
+                    return bucketStart.plusWeeks(1);
+                case MONTH:
+                    return bucketStart.plusMonths(1);
+                default:
+                    return bucketStart.plusDays(1);
+            }
+        }
+    }
+
+    private record DayTotal(double sum, long count) {
+        DayTotal plus(DayTotal other) {
+            return new DayTotal(sum + other.sum, count + other.count);
+        }
+    }
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    // Replaced wholesale by a rebuild, so readers see either the old days or the new ones
+    private volatile ConcurrentSkipListMap<Long, DayTotal> days = new ConcurrentSkipListMap<>();
+
+    // Serializes incremental updates against a rebuild swapping the map
+    private final Object updateMonitor = new Object();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            long start = System.currentTimeMillis();
+            int loaded = rebuildFromDatabase();
+            logger.info("Loaded {} days of approved spend in {} ms", loaded, System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            logger.error("Could not load the daily spend index", e);
+        }
+    }
+
+    /** @return the number of distinct days with approved spend */
+    public int rebuildFromDatabase() {
+        synchronized (updateMonitor) {
+            List<Object[]> rows = expenseRepository.sumAmountByDate(ExpenseStatus.APPROVED);
+            ConcurrentSkipListMap<Long, DayTotal> loaded = new ConcurrentSkipListMap<>();
+            for (Object[] row : rows) {
+                LocalDate date = (LocalDate) row[0];
+                double sum = ((Number) row[1]).doubleValue();
+                long count = ((Number) row[2]).longValue();
+                loaded.put(date.toEpochDay(), new DayTotal(sum, count));
+            }
+            days = loaded;
+            return rows.size();
+        }
+    }
+
+    @EventListener
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        synchronized (updateMonitor) {
+            apply(event.getBefore(), -1);
+            apply(event.getAfter(), 1);
+        }
+    }
+
+    private void apply(ExpenseFact fact, int sign) {
+        if (fact == null || !fact.isApproved() || fact.date() == null) {
+            return;
+        }
+        long day = fact.date().toEpochDay();
+        DayTotal delta = new DayTotal(sign * fact.amount(), sign);
+        DayTotal result = days.merge(day, delta, DayTotal::plus);
+        if (result != null && result.count() <= 0) {
+            days.remove(day);
+        }
+    }
+
+    /**
+     * Approved spend between {@code from} and {@code to} (inclusive) summed per bucket,
+     * with empty buckets reported as zero, then downsampled to at most {@code maxPoints}.
+     */
+    public Map<String, Object> series(LocalDate from, LocalDate to, Bucket bucket, int maxPoints) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'");
+        }
+        if (to.toEpochDay() - from.toEpochDay() > MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Range is limited to 50 years");
+        }
+        if (maxPoints < 3 || maxPoints > MAX_POINTS) {
+            throw new IllegalArgumentException("points must be between 3 and " + MAX_POINTS);
+        }
+
+        // One slot per bucket so empty periods still plot as zero
+        List<LocalDate> starts = new ArrayList<>();
+        for (LocalDate start = bucket.start(from); !start.isAfter(to); start = bucket.next(start)) {
+            starts.add(start);
+        }
+        int bucketCount = starts.size();
+        double[] x = new double[bucketCount];
+        double[] sums = new double[bucketCount];
+        long[] counts = new long[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            x[i] = starts.get(i).toEpochDay();
+        }
+
+        ConcurrentSkipListMap<Long, DayTotal> current = days;
+        int slot = 0;
+        long nextBoundary = bucketCount > 1 ? starts.get(1).toEpochDay() : Long.MAX_VALUE;
+        for (Map.Entry<Long, DayTotal> entry : current.subMap(from.toEpochDay(), true, to.toEpochDay(), true).entrySet()) {
+            long day = entry.getKey();
+            while (day >= nextBoundary) {
+                slot++;
+                nextBoundary = slot + 1 < bucketCount ? starts.get(slot + 1).toEpochDay() : Long.MAX_VALUE;
+            }
+            sums[slot] += entry.getValue().sum();
+            counts[slot] += entry.getValue().count();
+        }
+
+        int[] kept = Lttb.downsample(x, sums, maxPoints);
+        List<Map<String, Object>> points = new ArrayList<>(kept.length);
+        for (int index : kept) {
+            Map<String, Object> point = new LinkedHashMap<>();
+            point.put("date", starts.get(index).toString());
+            point.put("amount", Math.round(sums[index] * 100) / 100.0);
+            point.put("count", counts[index]);
+            points.add(point);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("from", from.toString());
+        result.put("to", to.toString());
+        result.put("bucket", bucket.name().toLowerCase());
+        result.put("buckets", bucketCount);
+        result.put("downsampled", kept.length < bucketCount);
+        result.put("points", points);
+        return result;
+    }
+}
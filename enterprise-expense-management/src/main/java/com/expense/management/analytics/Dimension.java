@@ -0,0 +1,22 @@
+package com.expense.management.analytics;
+
+/**
+ * Columns of the expense fact store that queries can group by.
+ */
+public enum Dimension {
+    CATEGORY,
+    MONTH,
+    STATUS,
+    LEVEL,
+    USER,
+    PRIORITY;
+
+    public static Dimension fromName(String name) {
+        for (Dimension dimension : values()) {
+            if (dimension.name().equalsIgnoreCase(name.trim())) {
+                return dimension;
+            }
+        }
+        throw new IllegalArgumentException("Unknown group-by dimension: " + name);
+    }
+}
@@ -0,0 +1,636 @@
+package com.expense.management.analytics;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import com.expense.management.dto.AnalyticsQueryRequest;
+import com.expense.management.dto.AnalyticsQueryResponse;
+import com.expense.management.dto.AnalyticsQueryResponse.GroupRow;
+import com.expense.management.enums.ApprovalLevel;
+import com.expense.management.events.ExpenseChangedEvent;
+import com.expense.management.events.ExpenseFact;
+import com.expense.management.model.ExpenseStatus;
+import com.expense.management.repository.ExpenseRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * In-memory columnar copy of the expense facts used for ad-hoc group-by/filter
+ * queries. Each attribute lives in its own primitive array (amount, epoch day,
+ * dictionary-encoded category/user/priority, status/level ordinals), rows are
+ * kept sorted by expense id, and deletions are tombstoned until the next rebuild.
+ *
+ * The store is loaded from the database on startup and kept current from
+ * {@link ExpenseChangedEvent}s. Queries scan the columns in parallel on a
+ * fork-join pool while holding the read lock.
+ */
+@Component
+public class ExpenseColumnStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpenseColumnStore.class);
+
+    private static final int LOAD_PAGE_SIZE = 5000;
+    private static final int SCAN_SPLIT_THRESHOLD = 1 << 16;
+    // Group spaces up to this size are aggregated in flat arrays instead of a hash map
+    private static final int DENSE_GROUP_LIMIT = 4096;
+    private static final int DEFAULT_RESULT_LIMIT = 1000;
+    private static final int MAX_RESULT_LIMIT = 100_000;
+    static final int NO_DATE = Integer.MIN_VALUE;
+
+    private final ExpenseRepository expenseRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ForkJoinPool scanPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    private final Object rebuildMonitor = new Object();
+
+    // Guarded by lock
+    private Columns columns = new Columns(1024);
+    // Non-null while a rebuild is loading; events are replayed onto the new columns before the swap
+    private List<ExpenseChangedEvent> eventsDuringRebuild;
+
+    @Value("${app.analytics.rebuild-on-startup:true}")
+    private boolean rebuildOnStartup;
+
+    public ExpenseColumnStore(ExpenseRepository expenseRepository) {
+        this.expenseRepository = expenseRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (!rebuildOnStartup) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            int rows = rebuildFromDatabase();
+            logger.info("Loaded {} expense facts into the analytics column store in {} ms",
+                    rows, System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            logger.error("Could not load the analytics column store", e);
+        }
+    }
+
+    /**
+     * Reload every expense from the database into fresh columns and swap them in.
+     * Queries keep running against the old columns while the load is in progress.
+     * @return the number of live rows after the rebuild
+     */
+    public int rebuildFromDatabase() {
+        synchronized (rebuildMonitor) {
+            lock.writeLock().lock();
+            try {
+                eventsDuringRebuild = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            Columns fresh = new Columns(1024);
+            boolean loaded = false;
+            try {
+                long afterId = 0L;
+                List<ExpenseFact> page;
+                do {
+                    page = expenseRepository.findFactsAfter(afterId, PageRequest.of(0, LOAD_PAGE_SIZE));
+                    for (ExpenseFact fact : page) {
+                        fresh.upsert(fact);
+                    }
+                    if (!page.isEmpty()) {
+                        afterId = page.get(page.size() - 1).id();
+                    }
+                } while (page.size() == LOAD_PAGE_SIZE);
+                loaded = true;
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    if (loaded) {
+                        for (ExpenseChangedEvent event : eventsDuringRebuild) {
+                            apply(fresh, event);
+                        }
+                        columns = fresh;
+                    }
+                    eventsDuringRebuild = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            return fresh.liveCount;
+        }
+    }
+
+    @EventListener
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            apply(columns, event);
+            if (eventsDuringRebuild != null) {
+                eventsDuringRebuild.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void apply(Columns target, ExpenseChangedEvent event) {
+        ExpenseFact fact = event.getCurrent();
+        if (fact == null || fact.id() == null) {
+            return;
+        }
+        if (event.getType() == ExpenseChangedEvent.Type.DELETED) {
+            target.remove(fact.id());
+        } else {
+            target.upsert(fact);
+        }
+    }
+
+    public AnalyticsQueryResponse query(AnalyticsQueryRequest request) {
+        long start = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            Columns c = columns;
+            ScanPlan plan = new ScanPlan(c, request);
+            Partial result = c.size == 0
+                    ? new Partial(plan.keySpace)
+                    : scanPool.invoke(new ScanTask(c, plan, 0, c.size));
+
+            List<GroupRow> rows = toRows(c, plan, result);
+            rows.sort(Comparator.comparingDouble(GroupRow::getSum).reversed());
+            int limit = request.getLimit() != null
+                    ? Math.max(1, Math.min(request.getLimit(), MAX_RESULT_LIMIT))
+                    : DEFAULT_RESULT_LIMIT;
+            if (rows.size() > limit) {
+                rows = new ArrayList<>(rows.subList(0, limit));
+            }
+
+            AnalyticsQueryResponse response = new AnalyticsQueryResponse();
+            response.setRows(rows);
+            response.setMatchedRows(result.matched);
+            response.setScannedRows(c.size);
+            response.setElapsedMicros((System.nanoTime() - start) / 1000);
+            return response;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("rows", columns.size);
+            stats.put("liveRows", columns.liveCount);
+            stats.put("categories", columns.categoryDict.size());
+            stats.put("users", columns.userDict.size());
+            stats.put("priorities", columns.priorityDict.size());
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scanPool.shutdown();
+    }
+
+    private static List<GroupRow> toRows(Columns c, ScanPlan plan, Partial result) {
+        List<GroupRow> rows = new ArrayList<>();
+        if (result.dense != null) {
+            for (int key = 0; key < plan.keySpace; key++) {
+                int offset = key * 4;
+                if (result.dense[offset] > 0) {
+                    rows.add(toRow(c, plan, key, result.dense, offset));
+                }
+            }
+        } else {
+            for (Map.Entry<Long, double[]> entry : result.sparse.entrySet()) {
+                rows.add(toRow(c, plan, entry.getKey(), entry.getValue(), 0));
+            }
+        }
+        return rows;
+    }
+
+    private static GroupRow toRow(Columns c, ScanPlan plan, long key, double[] agg, int offset) {
+        Map<String, Object> group = new LinkedHashMap<>();
+        Object[] labels = new Object[plan.dims.length];
+        long remaining = key;
+        for (int d = plan.dims.length - 1; d >= 0; d--) {
+            int code = (int) (remaining % plan.cardinalities[d]);
+            remaining /= plan.cardinalities[d];
+            labels[d] = label(c, plan, plan.dims[d], code);
+        }
+        for (int d = 0; d < plan.dims.length; d++) {
+            group.put(plan.dims[d].name().toLowerCase(Locale.ROOT), labels[d]);
+        }
+
+        GroupRow row = new GroupRow();
+        row.setGroup(group);
+        row.setCount((long) agg[offset]);
+        row.setSum(agg[offset + 1]);
+        row.setMin(agg[offset + 2]);
+        row.setMax(agg[offset + 3]);
+        row.setAvg(agg[offset + 1] / agg[offset]);
+        return row;
+    }
+
+    private static Object label(Columns c, ScanPlan plan, Dimension dimension, int code) {
+        switch (dimension) {
+            case CATEGORY:
+                return c.categoryDict.decode(code);
+            case USER:
+                return c.userDict.decode(code);
+            case PRIORITY:
+                return c.priorityDict.decode(code);
+            case MONTH: {
+                if (code == 0) {
+                    return null;
+                }
+                int month = plan.minMonth + code - 1;
+                return YearMonth.of(month / 12, month % 12 + 1).toString();
+            }
+            case STATUS:
+                return code == 0 ? null : ExpenseStatus.values()[code - 1].name();
+            case LEVEL:
+                return code == 0 ? null : ApprovalLevel.values()[code - 1].name();
+            default:
+                throw new IllegalStateException("Unhandled dimension " + dimension);
+        }
+    }
+
+    private static Partial scanRange(Columns c, ScanPlan plan, int lo, int hi) {
+        Partial partial = new Partial(plan.keySpace);
+        Dimension[] dims = plan.dims;
+        long[] cardinalities = plan.cardinalities;
+        for (int row = lo; row < hi; row++) {
+            if (!c.live[row]) {
+                continue;
+            }
+            double amount = c.amounts[row];
+            if (amount < plan.minAmount || amount > plan.maxAmount) {
+                continue;
+            }
+            if (plan.dateFilter) {
+                int day = c.epochDays[row];
+                if (day == NO_DATE || day < plan.fromDay || day > plan.toDay) {
+                    continue;
+                }
+            }
+            if (plan.categoryMask != null && !plan.categoryMask[c.categories[row]]
+                    || plan.userMask != null && !plan.userMask[c.users[row]]
+                    || plan.priorityMask != null && !plan.priorityMask[c.priorities[row]]
+                    || plan.statusMask != null && !plan.statusMask[c.statuses[row]]
+                    || plan.levelMask != null && !plan.levelMask[c.levels[row]]) {
+                continue;
+            }
+            long key = 0;
+            for (int d = 0; d < dims.length; d++) {
+                key = key * cardinalities[d] + code(c, plan, dims[d], row);
+            }
+            partial.add(key, amount);
+        }
+        return partial;
+    }
+
+    private static int code(Columns c, ScanPlan plan, Dimension dimension, int row) {
+        switch (dimension) {
+            case CATEGORY:
+                return c.categories[row];
+            case USER:
+                return c.users[row];
+            case PRIORITY:
+                return c.priorities[row];
+            case STATUS:
+                return c.statuses[row];
+            case LEVEL:
+                return c.levels[row];
+            case MONTH:
+                return c.months[row] == NO_DATE ? 0 : c.months[row] - plan.minMonth + 1;
+            default:
+                throw new IllegalStateException("Unhandled dimension " + dimension);
+        }
+    }
+
+    private static final class ScanTask extends RecursiveTask<Partial> {
+        private final Columns columns;
+        private final ScanPlan plan;
+        private final int lo;
+        private final int hi;
+
+        ScanTask(Columns columns, ScanPlan plan, int lo, int hi) {
+            this.columns = columns;
+            this.plan = plan;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (hi - lo <= SCAN_SPLIT_THRESHOLD) {
+                return scanRange(columns, plan, lo, hi);
+            }
+            int mid = (lo + hi) >>> 1;
+            ScanTask left = new ScanTask(columns, plan, lo, mid);
+            left.fork();
+            Partial right = new ScanTask(columns, plan, mid, hi).compute();
+            Partial merged = left.join();
+            merged.merge(right);
+            return merged;
+        }
+    }
+
+    /**
+     * Aggregates (count, sum, min, max) per group key, either in a flat array
+     * indexed by key or in a hash map when the key space is large.
+     */
+    private static final class Partial {
+        final double[] dense;
+        final Map<Long, double[]> sparse;
+        long matched;
+
+        Partial(long keySpace) {
+            if (keySpace <= DENSE_GROUP_LIMIT) {
+                dense = new double[(int) keySpace * 4];
+                sparse = null;
+            } else {
+                dense = null;
+                sparse = new HashMap<>();
+            }
+        }
+
+        void add(long key, double amount) {
+            matched++;
+            if (dense != null) {
+                accumulate(dense, (int) key * 4, 1, amount, amount, amount);
+            } else {
+                double[] agg = sparse.get(key);
+                if (agg == null) {
+                    sparse.put(key, new double[] { 1, amount, amount, amount });
+                } else {
+                    accumulate(agg, 0, 1, amount, amount, amount);
+                }
+            }
+        }
+
+        void merge(Partial other) {
+            matched += other.matched;
+            if (dense != null) {
+                for (int offset = 0; offset < dense.length; offset += 4) {
+                    if (other.dense[offset] > 0) {
+                        accumulate(dense, offset, other.dense[offset], other.dense[offset + 1],
+                                other.dense[offset + 2], other.dense[offset + 3]);
+                    }
+                }
+            } else {
+                for (Map.Entry<Long, double[]> entry : other.sparse.entrySet()) {
+                    double[] theirs = entry.getValue();
+                    double[] ours = sparse.get(entry.getKey());
+                    if (ours == null) {
+                        sparse.put(entry.getKey(), theirs);
+                    } else {
+                        accumulate(ours, 0, theirs[0], theirs[1], theirs[2], theirs[3]);
+                    }
+                }
+            }
+        }
+
+        private static void accumulate(double[] agg, int offset, double count, double sum, double min, double max) {
+            if (agg[offset] == 0) {
+                agg[offset + 2] = min;
+                agg[offset + 3] = max;
+            } else {
+                agg[offset + 2] = Math.min(agg[offset + 2], min);
+                agg[offset + 3] = Math.max(agg[offset + 3], max);
+            }
+            agg[offset] += count;
+            agg[offset + 1] += sum;
+        }
+    }
+
+    /**
+     * A query compiled against one version of the columns: group-by dimensions with
+     * their cardinalities, and filters turned into range bounds and code masks.
+     */
+    private static final class ScanPlan {
+        final Dimension[] dims;
+        final long[] cardinalities;
+        final long keySpace;
+        final int minMonth;
+        final double minAmount;
+        final double maxAmount;
+        final boolean dateFilter;
+        final int fromDay;
+        final int toDay;
+        final boolean[] categoryMask;
+        final boolean[] userMask;
+        final boolean[] priorityMask;
+        final boolean[] statusMask;
+        final boolean[] levelMask;
+
+        ScanPlan(Columns c, AnalyticsQueryRequest request) {
+            List<String> groupBy = request.getGroupBy() != null ? request.getGroupBy() : List.of();
+            dims = new Dimension[groupBy.size()];
+            cardinalities = new long[groupBy.size()];
+            minMonth = c.minMonth;
+            long space = 1;
+            for (int d = 0; d < dims.length; d++) {
+                dims[d] = Dimension.fromName(groupBy.get(d));
+                cardinalities[d] = Math.max(1, cardinality(c, dims[d]));
+                try {
+                    space = Math.multiplyExact(space, cardinalities[d]);
+                } catch (ArithmeticException e) {
+                    throw new IllegalArgumentException("Too many group-by combinations");
+                }
+            }
+            keySpace = space;
+
+            minAmount = request.getMinAmount() != null ? request.getMinAmount() : Double.NEGATIVE_INFINITY;
+            maxAmount = request.getMaxAmount() != null ? request.getMaxAmount() : Double.POSITIVE_INFINITY;
+            dateFilter = request.getFrom() != null || request.getTo() != null;
+            fromDay = request.getFrom() != null ? (int) request.getFrom().toEpochDay() : Integer.MIN_VALUE + 1;
+            toDay = request.getTo() != null ? (int) request.getTo().toEpochDay() : Integer.MAX_VALUE;
+
+            categoryMask = mask(request.getCategories(), c.categoryDict);
+            userMask = mask(request.getUserIds(), c.userDict);
+            priorityMask = mask(request.getPriorities(), c.priorityDict);
+            statusMask = enumMask(request.getStatuses(), ExpenseStatus.class);
+            levelMask = enumMask(request.getLevels(), ApprovalLevel.class);
+        }
+
+        private static long cardinality(Columns c, Dimension dimension) {
+            switch (dimension) {
+                case CATEGORY:
+                    return c.categoryDict.size();
+                case USER:
+                    return c.userDict.size();
+                case PRIORITY:
+                    return c.priorityDict.size();
+                case STATUS:
+                    return ExpenseStatus.values().length + 1L;
+                case LEVEL:
+                    return ApprovalLevel.values().length + 1L;
+                case MONTH:
+                    return c.maxMonth >= c.minMonth ? (long) c.maxMonth - c.minMonth + 2 : 1;
+                default:
+                    throw new IllegalStateException("Unhandled dimension " + dimension);
+            }
+        }
+
+        private static <T> boolean[] mask(List<T> values, ValueDictionary<T> dictionary) {
+            if (values == null || values.isEmpty()) {
+                return null;
+            }
+            boolean[] mask = new boolean[dictionary.size()];
+            for (T value : values) {
+                int code = dictionary.lookup(value);
+                if (code >= 0) {
+                    mask[code] = true;
+                }
+            }
+            return mask;
+        }
+
+        // Enum columns store ordinal + 1, with 0 reserved for null
+        private static <E extends Enum<E>> boolean[] enumMask(List<String> values, Class<E> type) {
+            if (values == null || values.isEmpty()) {
+                return null;
+            }
+            boolean[] mask = new boolean[type.getEnumConstants().length + 1];
+            for (String value : values) {
+                try {
+                    mask[Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT)).ordinal() + 1] = true;
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Unknown " + type.getSimpleName() + ": " + value);
+                }
+            }
+            return mask;
+        }
+    }
+
+    /**
+     * The column arrays. Rows are kept sorted by expense id so lookups are a binary
+     * search; ids normally arrive in ascending order, so inserts are appends.
+     */
+    static final class Columns {
+        final ValueDictionary<String> categoryDict = new ValueDictionary<>();
+        final ValueDictionary<Long> userDict = new ValueDictionary<>();
+        final ValueDictionary<String> priorityDict = new ValueDictionary<>();
+
+        long[] ids;
+        double[] amounts;
+        int[] epochDays;
+        int[] months;
+        int[] categories;
+        int[] users;
+        int[] priorities;
+        byte[] statuses;
+        byte[] levels;
+        boolean[] live;
+        int size;
+        int liveCount;
+        int minMonth = Integer.MAX_VALUE;
+        int maxMonth = Integer.MIN_VALUE;
+
+        Columns(int capacity) {
+            ids = new long[capacity];
+            amounts = new double[capacity];
+            epochDays = new int[capacity];
+            months = new int[capacity];
+            categories = new int[capacity];
+            users = new int[capacity];
+            priorities = new int[capacity];
+            statuses = new byte[capacity];
+            levels = new byte[capacity];
+            live = new boolean[capacity];
+        }
+
+        void upsert(ExpenseFact fact) {
+            long id = fact.id();
+            int row = Arrays.binarySearch(ids, 0, size, id);
+            if (row < 0) {
+                row = -row - 1;
+                openSlot(row);
+                ids[row] = id;
+                live[row] = false;
+            }
+            if (!live[row]) {
+                live[row] = true;
+                liveCount++;
+            }
+            write(row, fact);
+        }
+
+        void remove(long id) {
+            int row = Arrays.binarySearch(ids, 0, size, id);
+            if (row >= 0 && live[row]) {
+                live[row] = false;
+                liveCount--;
+            }
+        }
+
+        private void write(int row, ExpenseFact fact) {
+            amounts[row] = fact.amount();
+            if (fact.date() != null) {
+                epochDays[row] = (int) fact.date().toEpochDay();
+                int month = fact.date().getYear() * 12 + fact.date().getMonthValue() - 1;
+                months[row] = month;
+                minMonth = Math.min(minMonth, month);
+                maxMonth = Math.max(maxMonth, month);
+            } else {
+                epochDays[row] = NO_DATE;
+                months[row] = NO_DATE;
+            }
+            categories[row] = categoryDict.encode(fact.category());
+            users[row] = userDict.encode(fact.userId());
+            priorities[row] = priorityDict.encode(fact.priority());
+            statuses[row] = (byte) (fact.status() == null ? 0 : fact.status().ordinal() + 1);
+            levels[row] = (byte) (fact.level() == null ? 0 : fact.level().ordinal() + 1);
+        }
+
+        private void openSlot(int row) {
+            if (size == ids.length) {
+                int capacity = ids.length * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                amounts = Arrays.copyOf(amounts, capacity);
+                epochDays = Arrays.copyOf(epochDays, capacity);
+                months = Arrays.copyOf(months, capacity);
+                categories = Arrays.copyOf(categories, capacity);
+                users = Arrays.copyOf(users, capacity);
+                priorities = Arrays.copyOf(priorities, capacity);
+                statuses = Arrays.copyOf(statuses, capacity);
+                levels = Arrays.copyOf(levels, capacity);
+                live = Arrays.copyOf(live, capacity);
+            }
+            if (row < size) {
+                // Out-of-order id (e.g. concurrent inserts committing in a different order)
+                int tail = size - row;
+                System.arraycopy(ids, row, ids, row + 1, tail);
+                System.arraycopy(amounts, row, amounts, row + 1, tail);
+                System.arraycopy(epochDays, row, epochDays, row + 1, tail);
+                System.arraycopy(months, row, months, row + 1, tail);
+                System.arraycopy(categories, row, categories, row + 1, tail);
+                System.arraycopy(users, row, users, row + 1, tail);
+                System.arraycopy(priorities, row, priorities, row + 1, tail);
+                System.arraycopy(statuses, row, statuses, row + 1, tail);
+                System.arraycopy(levels, row, levels, row + 1, tail);
+                System.arraycopy(live, row, live, row + 1, tail);
+            }
+            size++;
+        }
+    }
+}
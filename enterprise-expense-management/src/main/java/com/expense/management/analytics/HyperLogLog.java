@@ -0,0 +1,101 @@
+package com.expense.management.analytics;
+
+/**
+ * HyperLogLog distinct-count estimator over long values (e.g. user ids) with
+ * 2^precision one-byte registers. Relative standard error is 1.04 / sqrt(2^precision);
+ * small cardinalities fall back to linear counting. Sketches with the same precision
+ * merge by taking the register-wise maximum.
+ *
+ * Not thread-safe.
+ */
+public final class HyperLogLog {
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("precision must be between 4 and 18");
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    public void add(long value) {
+        long hash = mix64(value);
+        int index = (int) (hash >>> (64 - precision));
+        long remaining = hash << precision;
+        int rank = remaining == 0 ? 64 - precision + 1 : Long.numberOfLeadingZeros(remaining) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge sketches with different precision");
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += Math.scalb(1.0, -register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public double relativeStandardError() {
+        return 1.04 / Math.sqrt(registers.length);
+    }
+
+    public byte[] toBytes() {
+        byte[] data = new byte[registers.length + 1];
+        data[0] = (byte) precision;
+        System.arraycopy(registers, 0, data, 1, registers.length);
+        return data;
+    }
+
+    public static HyperLogLog fromBytes(byte[] data) {
+        HyperLogLog sketch = new HyperLogLog(data[0]);
+        if (data.length != sketch.registers.length + 1) {
+            throw new IllegalArgumentException("Corrupt HyperLogLog sketch");
+        }
+        System.arraycopy(data, 1, sketch.registers, 0, sketch.registers.length);
+        return sketch;
+    }
+
+    private static double alpha(int m) {
+        switch (m) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1 + 1.079 / m);
+        }
+    }
+
+    // SplitMix64 finalizer: spreads sequential ids over the whole 64-bit space
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
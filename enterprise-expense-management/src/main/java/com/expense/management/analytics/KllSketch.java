@@ -0,0 +1,270 @@
+package com.expense.management.analytics;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * KLL quantile sketch (Karnin, Lang, Liberty) over double values. Keeps a stack of
+ * compactors whose capacities shrink geometrically towards the bottom; a full
+ * compactor sorts its items and promotes every other one to the next level with
+ * double weight. Sketches built on different nodes or time slices can be merged.
+ *
+ * Not thread-safe.
+ */
+public final class KllSketch {
+
+    private static final double CAPACITY_DECAY = 2.0 / 3.0;
+    private static final byte FORMAT_VERSION = 1;
+
+    private final int k;
+    private double[][] levels = new double[0][];
+    private int[] sizes = new int[0];
+    private int height;
+    private int retained;
+    private int maxRetained;
+    private long count;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+
+    public KllSketch(int k) {
+        if (k < 8) {
+            throw new IllegalArgumentException("k must be at least 8");
+        }
+        this.k = k;
+        grow();
+    }
+
+    public void update(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        append(0, value);
+        retained++;
+        count++;
+        min = Double.isNaN(min) ? value : Math.min(min, value);
+        max = Double.isNaN(max) ? value : Math.max(max, value);
+        if (retained >= maxRetained) {
+            compress();
+        }
+    }
+
+    public void merge(KllSketch other) {
+        if (other.count == 0) {
+            return;
+        }
+        while (height < other.height) {
+            grow();
+        }
+        for (int h = 0; h < other.height; h++) {
+            for (int i = 0; i < other.sizes[h]; i++) {
+                append(h, other.levels[h][i]);
+            }
+        }
+        count += other.count;
+        min = Double.isNaN(min) ? other.min : Math.min(min, other.min);
+        max = Double.isNaN(max) ? other.max : Math.max(max, other.max);
+        retained = totalRetained();
+        while (retained >= maxRetained) {
+            compress();
+        }
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Approximate value at each normalized rank in {@code ranks} (0..1).
+     * Returns NaN for every rank if the sketch is empty.
+     */
+    public double[] quantiles(double[] ranks) {
+        double[] result = new double[ranks.length];
+        if (count == 0) {
+            Arrays.fill(result, Double.NaN);
+            return result;
+        }
+
+        // Flatten the retained items with their weights (2^level) and sort by value
+        double[] values = new double[retained];
+        long[] weights = new long[retained];
+        int n = 0;
+        for (int h = 0; h < height; h++) {
+            for (int i = 0; i < sizes[h]; i++) {
+                values[n] = levels[h][i];
+                weights[n] = 1L << h;
+                n++;
+            }
+        }
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+
+        long totalWeight = 0;
+        for (int i = 0; i < n; i++) {
+            totalWeight += weights[i];
+        }
+        for (int r = 0; r < ranks.length; r++) {
+            double rank = ranks[r];
+            if (rank < 0 || rank > 1) {
+                throw new IllegalArgumentException("Rank must be between 0 and 1: " + rank);
+            }
+            if (rank == 0) {
+                result[r] = min;
+                continue;
+            }
+            if (rank == 1) {
+                result[r] = max;
+                continue;
+            }
+            double target = rank * totalWeight;
+            long cumulative = 0;
+            result[r] = max;
+            for (int i = 0; i < n; i++) {
+                cumulative += weights[order[i]];
+                if (cumulative >= target) {
+                    result[r] = values[order[i]];
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Single-sided normalized rank error at ~99% confidence for this k, using the
+     * empirical fit published with the Apache DataSketches KLL implementation.
+     */
+    public double normalizedRankError() {
+        return normalizedRankError(k);
+    }
+
+    public static double normalizedRankError(int k) {
+        return 2.296 / Math.pow(k, 0.9723);
+    }
+
+    public byte[] toBytes() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + retained * 8);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(FORMAT_VERSION);
+            out.writeInt(k);
+            out.writeLong(count);
+            out.writeDouble(min);
+            out.writeDouble(max);
+            out.writeInt(height);
+            for (int h = 0; h < height; h++) {
+                out.writeInt(sizes[h]);
+                for (int i = 0; i < sizes[h]; i++) {
+                    out.writeDouble(levels[h][i]);
+                }
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static KllSketch fromBytes(byte[] data) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+            byte version = in.readByte();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported KLL sketch format " + version);
+            }
+            KllSketch sketch = new KllSketch(in.readInt());
+            sketch.count = in.readLong();
+            sketch.min = in.readDouble();
+            sketch.max = in.readDouble();
+            int height = in.readInt();
+            while (sketch.height < height) {
+                sketch.grow();
+            }
+            for (int h = 0; h < height; h++) {
+                int size = in.readInt();
+                for (int i = 0; i < size; i++) {
+                    sketch.append(h, in.readDouble());
+                }
+            }
+            sketch.retained = sketch.totalRetained();
+            return sketch;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void grow() {
+        height++;
+        levels = Arrays.copyOf(levels, height);
+        levels[height - 1] = new double[16];
+        sizes = Arrays.copyOf(sizes, height);
+        maxRetained = 0;
+        for (int h = 0; h < height; h++) {
+            maxRetained += capacity(h);
+        }
+    }
+
+    private int capacity(int level) {
+        int depth = height - level - 1;
+        return (int) Math.ceil(Math.pow(CAPACITY_DECAY, depth) * k) + 1;
+    }
+
+    private void append(int level, double value) {
+        if (sizes[level] == levels[level].length) {
+            levels[level] = Arrays.copyOf(levels[level], levels[level].length * 2);
+        }
+        levels[level][sizes[level]++] = value;
+    }
+
+    private void compress() {
+        for (int h = 0; h < height; h++) {
+            if (sizes[h] >= capacity(h)) {
+                if (h + 1 >= height) {
+                    grow();
+                }
+                compact(h);
+                retained = totalRetained();
+                if (retained < maxRetained) {
+                    break;
+                }
+            }
+        }
+    }
+
+    // Sort the level and promote one item of each adjacent pair, chosen by a shared coin flip
+    private void compact(int level) {
+        double[] items = levels[level];
+        int size = sizes[level];
+        Arrays.sort(items, 0, size);
+        int leftover = size % 2;
+        int offset = ThreadLocalRandom.current().nextBoolean() ? 1 : 0;
+        for (int i = leftover + offset; i < size; i += 2) {
+            append(level + 1, items[i]);
+        }
+        sizes[level] = leftover;
+    }
+
+    private int totalRetained() {
+        int total = 0;
+        for (int h = 0; h < height; h++) {
+            total += sizes[h];
+        }
+        return total;
+    }
+}
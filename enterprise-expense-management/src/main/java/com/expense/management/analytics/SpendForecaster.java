@@ -0,0 +1,201 @@
+package com.expense.management.analytics;
+
+import com.expense.management.dto.SpendForecast;
+import com.expense.management.events.ExpenseChangedEvent;
+import com.expense.management.events.ExpenseFact;
+import com.expense.management.model.ExpenseStatus;
+import com.expense.management.repository.ExpenseRepository;
+import com.expense.management.services.BudgetService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Month-end spend projections per category, from a {@link CategorySpendModel} per
+ * category that approvals update in O(1).
+ *
+ * The projection is month-to-date spend plus the recent daily mean scaled to the share
+ * of a typical month still ahead, so a category that spends early in the month is not
+ * projected to keep that pace. Breach probability treats the remaining days as
+ * independent with the recent daily variance and uses the normal approximation.
+ *
+ * Models are built from {@code history-months} of daily totals on startup and rebuilt
+ * nightly, which also picks up late approvals of closed months.
+ */
+@Service
+public class SpendForecaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpendForecaster.class);
+
+    @Value("${app.forecast.history-months:12}")
+    private int historyMonths;
+
+    @Value("${app.forecast.daily-half-life-days:14}")
+    private double dailyHalfLifeDays;
+
+    @Value("${app.forecast.seasonality-weight:0.25}")
+    private double seasonalityWeight;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private BudgetService budgetService;
+
+    // Replaced in tests to pin "today"
+    private Clock clock = Clock.systemDefaultZone();
+
+    private volatile Map<String, CategorySpendModel> models = new ConcurrentHashMap<>();
+
+    // Event updates share the read lock; a rebuild takes the write lock so none land between its query and swap
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            long start = System.currentTimeMillis();
+            int rows = rebuildFromDatabase();
+            logger.info("Built spend forecasts from {} daily totals in {} ms", rows, System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            logger.error("Could not build spend forecasts", e);
+        }
+    }
+
+    /** @return the number of (day, category) totals replayed */
+    @Scheduled(cron = "${app.forecast.rebuild-cron:0 15 3 * * *}")
+    public int rebuildFromDatabase() {
+        lock.writeLock().lock();
+        try {
+            LocalDate today = LocalDate.now(clock);
+            LocalDate from = YearMonth.from(today).minusMonths(Math.max(1, historyMonths)).atDay(1);
+            List<Object[]> rows = expenseRepository.sumAmountByDateAndCategory(ExpenseStatus.APPROVED,
+                    from, YearMonth.from(today).atEndOfMonth());
+
+            Map<String, CategorySpendModel> rebuilt = new ConcurrentHashMap<>();
+            for (Object[] row : rows) {
+                LocalDate date = (LocalDate) row[0];
+                CategorySpendModel model = rebuilt.computeIfAbsent((String) row[1], c -> newModel(from));
+                // Rows are in date order, so each day is complete before it is folded; later days wait for today
+                model.add(date, ((Number) row[2]).doubleValue(), date.isAfter(today) ? today : date);
+            }
+            for (CategorySpendModel model : rebuilt.values()) {
+                model.advanceTo(today);
+            }
+            models = rebuilt;
+            return rows.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        lock.readLock().lock();
+        try {
+            apply(event.getBefore(), -1);
+            apply(event.getAfter(), 1);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(ExpenseFact fact, int sign) {
+        if (fact == null || !fact.isApproved() || fact.date() == null || fact.category() == null) {
+            return;
+        }
+        LocalDate today = LocalDate.now(clock);
+        CategorySpendModel model = models.computeIfAbsent(fact.category(), c -> newModel(today));
+        synchronized (model) {
+            model.add(fact.date(), sign * fact.amount(), today);
+        }
+    }
+
+    /** The current month's forecast of {@code category}; zero spend if nothing was approved in it recently. */
+    public SpendForecast forecast(String category) {
+        LocalDate today = LocalDate.now(clock);
+        CategorySpendModel model = models.get(category);
+        if (model == null) {
+            model = newModel(today);
+        }
+        synchronized (model) {
+            model.advanceTo(today);
+            return project(category, model, today);
+        }
+    }
+
+    /** Forecasts of every category with recent approved spend or a budget, by category. */
+    public List<SpendForecast> forecasts() {
+        TreeSet<String> categories = new TreeSet<>(models.keySet());
+        YearMonth month = YearMonth.now(clock);
+        budgetService.getStatuses(month).forEach(status -> {
+            if (status.getCategory() != null && status.getLimit() != null) {
+                categories.add(status.getCategory());
+            }
+        });
+        List<SpendForecast> forecasts = new ArrayList<>();
+        for (String category : categories) {
+            forecasts.add(forecast(category));
+        }
+        return forecasts;
+    }
+
+    private SpendForecast project(String category, CategorySpendModel model, LocalDate today) {
+        YearMonth month = model.getMonth();
+        int length = month.lengthOfMonth();
+        int elapsed = today.getDayOfMonth();
+        int remainingDays = length - elapsed;
+        double remainingShare = model.remainingShare(elapsed, length);
+
+        double monthToDate = model.monthToDate();
+        double projected = monthToDate + model.dailyMean() * length * remainingShare;
+        // Spread of a sum of remainingDays independent days, scaled by how busy those days usually are
+        double stdDev = remainingDays == 0 ? 0
+                : Math.sqrt(model.dailyVariance() * remainingDays) * remainingShare * length / remainingDays;
+
+        Double budget = budgetService.getLimit(month, category);
+        Double breachProbability = budget == null ? null : breachProbability(projected, stdDev, budget);
+        return new SpendForecast(category, month.toString(), today, round(monthToDate), round(model.dailyMean()),
+                round(projected), round(stdDev), budget, breachProbability);
+    }
+
+    static double breachProbability(double projected, double stdDev, double budget) {
+        if (stdDev < 1e-9) {
+            return projected > budget ? 1.0 : 0.0;
+        }
+        return 1.0 - normalCdf((budget - projected) / stdDev);
+    }
+
+    // Abramowitz & Stegun 7.1.26, absolute error below 1.5e-7
+    static double normalCdf(double z) {
+        double x = Math.abs(z) / Math.sqrt(2);
+        double t = 1.0 / (1.0 + 0.3275911 * x);
+        double erf = 1.0 - t * (0.254829592 + t * (-0.284496736 + t * (1.421413741
+                + t * (-1.453152027 + t * 1.061405429)))) * Math.exp(-x * x);
+        return z >= 0 ? 0.5 * (1 + erf) : 0.5 * (1 - erf);
+    }
+
+    private CategorySpendModel newModel(LocalDate start) {
+        double alpha = 1 - Math.pow(0.5, 1 / Math.max(1.0, dailyHalfLifeDays));
+        return new CategorySpendModel(start, alpha, seasonalityWeight);
+    }
+
+    private static double round(double amount) {
+        return Math.round(amount * 100) / 100.0;
+    }
+}
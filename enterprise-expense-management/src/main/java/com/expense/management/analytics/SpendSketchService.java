@@ -0,0 +1,332 @@
+package com.expense.management.analytics;
+
+import com.expense.management.events.ExpenseChangedEvent;
+import com.expense.management.events.ExpenseFact;
+import com.expense.management.model.AnalyticsSketch;
+import com.expense.management.repository.AnalyticsSketchRepository;
+import com.expense.management.repository.ExpenseRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Approximate spend statistics that stay cheap regardless of tenant size:
+ * a KLL sketch of expense amounts per category and expense month (one fed at submission,
+ * one at approval) and a HyperLogLog of distinct submitters per expense month. Queries
+ * over several months or categories merge the matching sketches on read.
+ *
+ * Sketches are updated from {@link ExpenseChangedEvent}s, written to the
+ * analytics_sketches table on a fixed delay and reloaded on startup. Sketches only
+ * ever grow, so edits and deletes are not subtracted; a rebuild recomputes them
+ * from the expenses table.
+ */
+@Service
+public class SpendSketchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpendSketchService.class);
+
+    public static final int KLL_K = 200;
+    public static final int HLL_PRECISION = 14;
+
+    private static final String KLL_TYPE = "KLL";
+    private static final String HLL_TYPE = "HLL";
+    private static final int LOAD_PAGE_SIZE = 5000;
+    private static final String UNDATED = "undated";
+
+    /** Which point in the expense lifecycle feeds an amount sketch. */
+    public enum Basis {
+        SUBMITTED, APPROVED;
+
+        public static Basis fromName(String name) {
+            if (name == null || name.isBlank()) {
+                return APPROVED;
+            }
+            try {
+                return valueOf(name.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown basis: " + name + " (expected submitted or approved)");
+            }
+        }
+    }
+
+    @Autowired
+    private AnalyticsSketchRepository sketchRepository;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    // Keys: "kll:<basis>:<yyyy-MM or undated>:<category>" and "hll:<yyyy-MM>"
+    private volatile Map<String, KllSketch> amountSketches = new ConcurrentHashMap<>();
+    private volatile Map<String, HyperLogLog> submitterSketches = new ConcurrentHashMap<>();
+    private final Set<String> dirtyKeys = ConcurrentHashMap.newKeySet();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            List<AnalyticsSketch> stored = sketchRepository.findAll();
+            if (stored.isEmpty()) {
+                long start = System.currentTimeMillis();
+                int rows = rebuildFromDatabase();
+                logger.info("Built spend sketches from {} expenses in {} ms", rows, System.currentTimeMillis() - start);
+                return;
+            }
+            if (stored.stream().anyMatch(sketch -> KLL_TYPE.equals(sketch.getSketchType())
+                    && parseAmountKey(sketch.getSketchKey()) == null)) {
+                // Written before amount sketches were split by month
+                int rows = rebuildFromDatabase();
+                logger.info("Rebuilt spend sketches by month from {} expenses", rows);
+                return;
+            }
+            for (AnalyticsSketch sketch : stored) {
+                if (KLL_TYPE.equals(sketch.getSketchType())) {
+                    amountSketches.put(sketch.getSketchKey(), KllSketch.fromBytes(sketch.getData()));
+                } else if (HLL_TYPE.equals(sketch.getSketchType())) {
+                    submitterSketches.put(sketch.getSketchKey(), HyperLogLog.fromBytes(sketch.getData()));
+                }
+            }
+            logger.info("Loaded {} spend sketches", stored.size());
+        } catch (RuntimeException e) {
+            logger.error("Could not load spend sketches", e);
+        }
+    }
+
+    @EventListener
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        if (event.getType() == ExpenseChangedEvent.Type.CREATED) {
+            recordSubmission(event.getAfter(), amountSketches, submitterSketches);
+        }
+        if (event.becameApproved()) {
+            recordApproval(event.getAfter(), amountSketches);
+        }
+    }
+
+    /**
+     * Recompute every sketch from the expenses table, replace the in-memory set and
+     * persist it. Updates arriving while the scan runs may be missed until the next rebuild.
+     * @return the number of expenses scanned
+     */
+    public synchronized int rebuildFromDatabase() {
+        Map<String, KllSketch> amounts = new ConcurrentHashMap<>();
+        Map<String, HyperLogLog> submitters = new ConcurrentHashMap<>();
+        int rows = 0;
+        long afterId = 0L;
+        List<ExpenseFact> page;
+        do {
+            page = expenseRepository.findFactsAfter(afterId, PageRequest.of(0, LOAD_PAGE_SIZE));
+            for (ExpenseFact fact : page) {
+                recordSubmission(fact, amounts, submitters);
+                if (fact.isApproved()) {
+                    recordApproval(fact, amounts);
+                }
+            }
+            rows += page.size();
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).id();
+            }
+        } while (page.size() == LOAD_PAGE_SIZE);
+
+        amountSketches = amounts;
+        submitterSketches = submitters;
+        sketchRepository.deleteAllInBatch();
+        dirtyKeys.addAll(amounts.keySet());
+        dirtyKeys.addAll(submitters.keySet());
+        flush();
+        return rows;
+    }
+
+    /** Write every sketch touched since the last flush. */
+    @Scheduled(fixedDelayString = "${app.analytics.sketch-flush-interval-ms:60000}")
+    public void flush() {
+        if (dirtyKeys.isEmpty()) {
+            return;
+        }
+        List<AnalyticsSketch> batch = new ArrayList<>();
+        for (String key : new ArrayList<>(dirtyKeys)) {
+            dirtyKeys.remove(key);
+            KllSketch kll = amountSketches.get(key);
+            if (kll != null) {
+                synchronized (kll) {
+                    batch.add(new AnalyticsSketch(key, KLL_TYPE, kll.toBytes()));
+                }
+                continue;
+            }
+            HyperLogLog hll = submitterSketches.get(key);
+            if (hll != null) {
+                synchronized (hll) {
+                    batch.add(new AnalyticsSketch(key, HLL_TYPE, hll.toBytes()));
+                }
+            }
+        }
+        try {
+            sketchRepository.saveAll(batch);
+        } catch (RuntimeException e) {
+            // Keep them dirty so the next run retries
+            for (AnalyticsSketch sketch : batch) {
+                dirtyKeys.add(sketch.getSketchKey());
+            }
+            logger.error("Could not persist {} spend sketches", batch.size(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * Approximate amount quantiles of expenses dated in [from, to]. A null category merges
+     * the sketches of every category; a null month range covers every month, undated
+     * expenses included.
+     */
+    public Map<String, Object> quantiles(String category, Basis basis, YearMonth from, YearMonth to,
+                                         double[] ranks) {
+        if ((from == null) != (to == null)) {
+            throw new IllegalArgumentException("'from' and 'to' must be given together");
+        }
+        if (from != null && to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'");
+        }
+        KllSketch merged = new KllSketch(KLL_K);
+        for (Map.Entry<String, KllSketch> entry : amountSketches.entrySet()) {
+            String[] key = parseAmountKey(entry.getKey());
+            if (key == null || !key[0].equals(basis.name().toLowerCase())) {
+                continue;
+            }
+            if (category != null && !key[2].equalsIgnoreCase(category)) {
+                continue;
+            }
+            if (from != null) {
+                if (key[1].equals(UNDATED)) {
+                    continue;
+                }
+                YearMonth month = YearMonth.parse(key[1]);
+                if (month.isBefore(from) || month.isAfter(to)) {
+                    continue;
+                }
+            }
+            KllSketch sketch = entry.getValue();
+            synchronized (sketch) {
+                merged.merge(sketch);
+            }
+        }
+
+        double[] values = merged.quantiles(ranks);
+        Map<String, Object> quantiles = new LinkedHashMap<>();
+        for (int i = 0; i < ranks.length; i++) {
+            quantiles.put(String.valueOf(ranks[i]), Double.isNaN(values[i]) ? null : values[i]);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("category", category);
+        result.put("basis", basis.name().toLowerCase());
+        result.put("from", from == null ? null : from.toString());
+        result.put("to", to == null ? null : to.toString());
+        result.put("count", merged.getCount());
+        result.put("min", merged.getCount() == 0 ? null : merged.getMin());
+        result.put("max", merged.getCount() == 0 ? null : merged.getMax());
+        result.put("quantiles", quantiles);
+        result.put("normalizedRankError", merged.normalizedRankError());
+        result.put("errorConfidence", 0.99);
+        return result;
+    }
+
+    /**
+     * Approximate number of distinct users who submitted expenses dated in [from, to].
+     */
+    public Map<String, Object> distinctSubmitters(YearMonth from, YearMonth to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'");
+        }
+        HyperLogLog merged = new HyperLogLog(HLL_PRECISION);
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            HyperLogLog sketch = submitterSketches.get(monthKey(month));
+            if (sketch != null) {
+                synchronized (sketch) {
+                    merged.merge(sketch);
+                }
+            }
+        }
+
+        long estimate = merged.estimate();
+        double error = merged.relativeStandardError();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("from", from.toString());
+        result.put("to", to.toString());
+        result.put("estimate", estimate);
+        result.put("relativeStandardError", error);
+        result.put("lowerBound95", Math.max(0, (long) Math.floor(estimate * (1 - 2 * error))));
+        result.put("upperBound95", (long) Math.ceil(estimate * (1 + 2 * error)));
+        return result;
+    }
+
+    private void recordSubmission(ExpenseFact fact, Map<String, KllSketch> amounts,
+                                  Map<String, HyperLogLog> submitters) {
+        if (fact == null) {
+            return;
+        }
+        updateAmount(amounts, amountKey(Basis.SUBMITTED, fact), fact.amount());
+        if (fact.date() != null && fact.userId() != null) {
+            String key = monthKey(YearMonth.from(fact.date()));
+            HyperLogLog sketch = submitters.computeIfAbsent(key, k -> new HyperLogLog(HLL_PRECISION));
+            synchronized (sketch) {
+                sketch.add(fact.userId());
+            }
+            dirtyKeys.add(key);
+        }
+    }
+
+    private void recordApproval(ExpenseFact fact, Map<String, KllSketch> amounts) {
+        if (fact != null) {
+            updateAmount(amounts, amountKey(Basis.APPROVED, fact), fact.amount());
+        }
+    }
+
+    private void updateAmount(Map<String, KllSketch> amounts, String key, double amount) {
+        KllSketch sketch = amounts.computeIfAbsent(key, k -> new KllSketch(KLL_K));
+        synchronized (sketch) {
+            sketch.update(amount);
+        }
+        dirtyKeys.add(key);
+    }
+
+    private static String amountKey(Basis basis, ExpenseFact fact) {
+        String month = fact.date() == null ? UNDATED : YearMonth.from(fact.date()).toString();
+        String category = fact.category() == null ? "" : fact.category().toUpperCase();
+        return "kll:" + basis.name().toLowerCase() + ":" + month + ":" + category;
+    }
+
+    // {basis, month, category}, or null for a key without a month
+    private static String[] parseAmountKey(String key) {
+        String[] parts = key.split(":", 4);
+        if (parts.length != 4 || !parts[0].equals("kll")) {
+            return null;
+        }
+        if (!parts[2].equals(UNDATED)) {
+            try {
+                YearMonth.parse(parts[2]);
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+        return new String[] {parts[1], parts[2], parts[3]};
+    }
+
+    private static String monthKey(YearMonth month) {
+        return "hll:" + month;
+    }
+}
@@ -0,0 +1,40 @@
+package com.expense.management.analytics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps distinct values to dense int codes so columns can be stored as int arrays.
+ * Not thread-safe; callers guard it with the owning store's lock.
+ */
+final class ValueDictionary<T> {
+
+    private final Map<T, Integer> codes = new HashMap<>();
+    private final List<T> values = new ArrayList<>();
+
+    int encode(T value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            values.add(value);
+            codes.put(value, code);
+        }
+        return code;
+    }
+
+    /** Returns the code of a known value, or -1 if it has never been encoded. */
+    int lookup(T value) {
+        Integer code = codes.get(value);
+        return code != null ? code : -1;
+    }
+
+    T decode(int code) {
+        return values.get(code);
+    }
+
+    int size() {
+        return values.size();
+    }
+}
@@ -0,0 +1,367 @@
+package com.expense.management.audit;
+
+import com.expense.management.model.AuditLog;
+import com.expense.management.repository.AuditLogRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes audit events off the request thread. Events go into a {@link RingBuffer}
+ * and a single writer thread inserts them in batches, one transaction per batch;
+ * sequence ids and {@code hibernate.jdbc.batch_size} let Hibernate send each batch
+ * as one JDBC batch, which the MySQL driver rewrites into multi-row INSERTs.
+ *
+ * Durability ({@code app.audit.durability}):
+ * <ul>
+ *   <li>{@code async}: return as soon as the event is buffered; a crash loses what is still buffered.</li>
+ *   <li>{@code sync-on-commit}: buffer the event once the caller's transaction commits (right away
+ *       without one) and wait until its batch is committed. Waiting callers share batches, so this
+ *       costs one round trip per batch rather than per event. Events of rolled-back transactions
+ *       are not written.</li>
+ * </ul>
+ * When the buffer is full ({@code app.audit.overflow}): {@code block} waits up to
+ * {@code block-timeout-ms} for space and then writes the event itself, {@code caller-runs}
+ * writes it on the calling thread straight away, and {@code drop} discards it.
+ *
+ * {@code app.audit.sink} picks the destination: the audit_logs table, the local
+ * hash-chained {@link AuditSegmentStore}, or both (segments first, so the chain holds
+ * every event even when the database insert fails).
+ *
+ * On shutdown the writer drains the buffer before the data source closes, and anything
+ * offered after its last drain is written by the shutdown thread or the producer
+ * itself; events logged after that are written by the caller.
+ */
+@Component
+public class AuditAppender {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditAppender.class);
+
+    public enum Durability {
+        ASYNC, SYNC_ON_COMMIT;
+
+        public static Durability fromName(String name) {
+            return valueOf(name.trim().toUpperCase().replace('-', '_'));
+        }
+    }
+
+    public enum Overflow {
+        BLOCK, CALLER_RUNS, DROP;
+
+        public static Overflow fromName(String name) {
+            return valueOf(name.trim().toUpperCase().replace('-', '_'));
+        }
+    }
+
+    /** Where events go: the audit_logs table, the hash-chained {@link AuditSegmentStore}, or both. */
+    public enum Sink {
+        DATABASE, SEGMENTS, BOTH;
+
+        public static Sink fromName(String name) {
+            return valueOf(name.trim().toUpperCase());
+        }
+
+        public boolean toDatabase() {
+            return this != SEGMENTS;
+        }
+
+        public boolean toSegments() {
+            return this != DATABASE;
+        }
+    }
+
+    private record Pending(AuditLog log, CompletableFuture<Void> written) {
+    }
+
+    @Value("${app.audit.sink:database}")
+    private String sinkName;
+
+    @Value("${app.audit.durability:async}")
+    private String durabilityName;
+
+    @Value("${app.audit.overflow:block}")
+    private String overflowName;
+
+    @Value("${app.audit.buffer-size:8192}")
+    private int bufferSize;
+
+    @Value("${app.audit.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.audit.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${app.audit.block-timeout-ms:1000}")
+    private long blockTimeoutMs;
+
+    @Value("${app.audit.sync-timeout-ms:5000}")
+    private long syncTimeoutMs;
+
+    @Value("${app.audit.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private AuditSegmentStore segmentStore;
+
+    private Sink sink;
+    private Durability durability;
+    private Overflow overflow;
+    private RingBuffer<Pending> buffer;
+    private TransactionTemplate transaction;
+    private Thread writer;
+    private volatile boolean running;
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong writtenByCaller = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        sink = Sink.fromName(sinkName);
+        durability = Durability.fromName(durabilityName);
+        overflow = Overflow.fromName(overflowName);
+        buffer = new RingBuffer<>(bufferSize);
+        transaction = new TransactionTemplate(transactionManager);
+        // Never join, or mark rollback-only, the transaction of a caller writing inline
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        running = true;
+        writer = new Thread(this::runWriter, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(shutdownTimeoutMs);
+        if (writer.isAlive()) {
+            logger.warn("Audit writer did not drain within {} ms; {} events left unwritten",
+                    shutdownTimeoutMs, buffer.size());
+            return;
+        }
+        // A producer that saw running before it was cleared may have offered after the writer's last drain
+        flushRemaining();
+    }
+
+    /** Record {@code log}; with {@code sync-on-commit}, returns once it is committed or the wait times out. */
+    public void append(AuditLog log) {
+        if (durability == Durability.ASYNC) {
+            enqueue(new Pending(log, null));
+            return;
+        }
+        Pending pending = new Pending(log, new CompletableFuture<>());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(pending);
+                    await(pending);
+                }
+            });
+        } else {
+            enqueue(pending);
+            await(pending);
+        }
+    }
+
+    private void enqueue(Pending pending) {
+        if (!running) {
+            writeBatch(List.of(pending));
+            writtenByCaller.incrementAndGet();
+            return;
+        }
+        if (buffer.offer(pending)) {
+            accepted(pending);
+            return;
+        }
+        switch (overflow) {
+            case DROP:
+                if (dropped.incrementAndGet() % 1000 == 1) {
+                    logger.warn("Audit buffer full, {} events dropped so far", dropped.get());
+                }
+                if (pending.written() != null) {
+                    pending.written().completeExceptionally(new IllegalStateException("Audit buffer full"));
+                }
+                return;
+            case BLOCK:
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(blockTimeoutMs);
+                LockSupport.unpark(writer);
+                while (System.nanoTime() < deadline) {
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(200));
+                    if (buffer.offer(pending)) {
+                        accepted(pending);
+                        return;
+                    }
+                }
+                // fall through: the writer is stuck, so write this one ourselves
+            default:
+                writeBatch(List.of(pending));
+                writtenByCaller.incrementAndGet();
+        }
+    }
+
+    private void accepted(Pending pending) {
+        if (running) {
+            signal(pending);
+        } else {
+            // Shutdown started after the check in enqueue and the writer may already have exited
+            flushRemaining();
+        }
+    }
+
+    // Write whatever is buffered on the calling thread
+    private void flushRemaining() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            try {
+                writeBatch(batch);
+            } catch (RuntimeException e) {
+                logger.error("Audit writer failed", e);
+            }
+            batch.clear();
+        }
+    }
+
+    // Wake the writer early when someone is waiting or a full batch is ready; otherwise it wakes every flush interval
+    private void signal(Pending pending) {
+        if (pending.written() != null || buffer.size() >= batchSize) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private void await(Pending pending) {
+        try {
+            pending.written().get(syncTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (TimeoutException e) {
+            logger.warn("Audit event {} for {} not committed within {} ms",
+                    pending.log().getAction(), pending.log().getUser(), syncTimeoutMs);
+        } catch (ExecutionException e) {
+            logger.warn("Audit event {} for {} was not written: {}",
+                    pending.log().getAction(), pending.log().getUser(), e.getCause().getMessage());
+        }
+    }
+
+    private void runWriter() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        while (running || !buffer.isEmpty()) {
+            buffer.drainTo(batch, batchSize);
+            if (batch.isEmpty()) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+                continue;
+            }
+            try {
+                writeBatch(batch);
+            } catch (RuntimeException e) {
+                logger.error("Audit writer failed", e);
+            }
+            batch.clear();
+        }
+    }
+
+    private void writeBatch(List<Pending> batch) {
+        List<AuditLog> logs = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            logs.add(pending.log());
+        }
+        if (sink.toSegments()) {
+            try {
+                segmentStore.append(logs);
+            } catch (IOException | RuntimeException e) {
+                logger.error("Could not append {} audit events to the segment store", batch.size(), e);
+                if (!sink.toDatabase()) {
+                    failed.addAndGet(batch.size());
+                    batch.forEach(pending -> complete(pending, e));
+                    return;
+                }
+            }
+        }
+        if (sink.toDatabase()) {
+            writeToDatabase(batch, logs);
+        } else {
+            written.addAndGet(batch.size());
+            batch.forEach(pending -> complete(pending, null));
+        }
+    }
+
+    private void writeToDatabase(List<Pending> batch, List<AuditLog> logs) {
+        try {
+            transaction.executeWithoutResult(status -> auditLogRepository.saveAll(logs));
+            written.addAndGet(batch.size());
+            for (Pending pending : batch) {
+                complete(pending, null);
+            }
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                failed.incrementAndGet();
+                logger.error("Could not write audit event {} for {}",
+                        batch.get(0).log().getAction(), batch.get(0).log().getUser(), e);
+                complete(batch.get(0), e);
+                return;
+            }
+            // Find the bad rows instead of losing the whole batch
+            logger.warn("Audit batch of {} failed, retrying one by one: {}", batch.size(), e.getMessage());
+            for (Pending pending : batch) {
+                pending.log().setId(null);
+                writeToDatabase(List.of(pending), List.of(pending.log()));
+            }
+        }
+    }
+
+    private static void complete(Pending pending, Throwable error) {
+        if (pending.written() == null) {
+            return;
+        }
+        if (error == null) {
+            pending.written().complete(null);
+        } else {
+            pending.written().completeExceptionally(error);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("sink", sink.name());
+        stats.put("durability", durability.name());
+        stats.put("overflow", overflow.name());
+        stats.put("buffered", buffer.size());
+        stats.put("capacity", buffer.capacity());
+        stats.put("written", written.get());
+        stats.put("writtenByCaller", writtenByCaller.get());
+        stats.put("dropped", dropped.get());
+        stats.put("failed", failed.get());
+        return stats;
+    }
+}
@@ -0,0 +1,114 @@
+package com.expense.management.audit;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Re-walks the hash chain of an audit segment directory: every segment header must
+ * continue from the last hash of the one before, sequence numbers must have no gaps,
+ * and every record's hash must match its payload. The first broken link is reported.
+ *
+ * Runs inside the application ({@code GET /api/admin/audit/verify}) or on its own against
+ * a copy of the directory:
+ * <pre>
+ * java -cp app.jar -Dloader.main=com.expense.management.audit.AuditChainVerifier \
+ *      org.springframework.boot.loader.launch.PropertiesLauncher /path/to/audit-segments
+ * </pre>
+ */
+public final class AuditChainVerifier {
+
+    /** Outcome of a walk; {@code error} says where the chain broke and is null when it is intact. */
+    public record Result(boolean valid, int segments, long records, Long lastSeq, String lastHash, String error) {
+    }
+
+    private AuditChainVerifier() {
+    }
+
+    public static void main(String[] args) {
+        Path dir = Paths.get(args.length > 0 ? args[0] : "audit-segments");
+        Result result = verify(dir, Map.of());
+        System.out.printf("%s: %d segments, %d records, last seq %s, last hash %s%n",
+                result.valid() ? "OK" : "BROKEN", result.segments(), result.records(), result.lastSeq(), result.lastHash());
+        if (!result.valid()) {
+            System.out.println(result.error());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @param limits end offsets to stop reading at, by first sequence number; lets the
+     *               store verify its active segment without reading a record mid-write
+     */
+    public static Result verify(Path dir, Map<Long, Long> limits) {
+        TreeSet<Long> firstSeqs;
+        try (Stream<Path> files = Files.list(dir)) {
+            firstSeqs = files.map(AuditSegmentFormat::firstSeqOf)
+                    .filter(seq -> seq >= 0)
+                    .collect(Collectors.toCollection(TreeSet::new));
+        } catch (IOException e) {
+            return new Result(false, 0, 0, null, null, "Cannot list " + dir + ": " + e.getMessage());
+        }
+
+        MessageDigest digest = AuditSegmentFormat.sha256();
+        byte[] hash = null;
+        Long expectedSeq = null;
+        long records = 0;
+        int segments = 0;
+        for (long firstSeq : firstSeqs) {
+            String name = AuditSegmentFormat.baseName(firstSeq);
+            long limit = limits.getOrDefault(firstSeq, Long.MAX_VALUE);
+            try (DataInputStream in = AuditSegmentFormat.open(dir, firstSeq)) {
+                AuditSegmentFormat.Header header = AuditSegmentFormat.readHeader(in);
+                if (header.firstSeq() != firstSeq) {
+                    return broken(segments, records, expectedSeq, hash, name + ": header says it starts at seq " + header.firstSeq());
+                }
+                if (expectedSeq != null && firstSeq != expectedSeq) {
+                    return broken(segments, records, expectedSeq, hash, name + ": expected it to start at seq " + expectedSeq);
+                }
+                if (hash != null && !Arrays.equals(header.previousHash(), hash)) {
+                    return broken(segments, records, expectedSeq, hash, name + ": does not continue from the previous segment's last hash");
+                }
+                // The oldest segment left anchors the chain
+                hash = header.previousHash();
+                expectedSeq = firstSeq;
+
+                long offset = AuditSegmentFormat.HEADER_BYTES;
+                AuditSegmentFormat.StoredRecord stored;
+                while (offset < limit && (stored = AuditSegmentFormat.readRecord(in, offset)) != null) {
+                    if (stored.record().seq() != expectedSeq) {
+                        return broken(segments, records, expectedSeq, hash,
+                                name + ": record at offset " + offset + " has seq " + stored.record().seq() + ", expected " + expectedSeq);
+                    }
+                    byte[] computed = AuditSegmentFormat.chain(digest, hash, stored.payload());
+                    if (!Arrays.equals(computed, stored.hash())) {
+                        return broken(segments, records, expectedSeq, hash,
+                                name + ": hash mismatch at seq " + expectedSeq + " (offset " + offset + ")");
+                    }
+                    hash = computed;
+                    expectedSeq++;
+                    records++;
+                    offset = stored.end();
+                }
+                segments++;
+            } catch (IOException e) {
+                return broken(segments, records, expectedSeq, hash, name + ": " + e.getMessage());
+            }
+        }
+        return new Result(true, segments, records, expectedSeq == null ? null : expectedSeq - 1,
+                hash == null ? null : AuditSegmentFormat.hex(hash), null);
+    }
+
+    private static Result broken(int segments, long records, Long expectedSeq, byte[] hash, String error) {
+        return new Result(false, segments, records, expectedSeq == null ? null : expectedSeq - 1,
+                hash == null ? null : AuditSegmentFormat.hex(hash), error);
+    }
+}
@@ -0,0 +1,17 @@
+package com.expense.management.audit;
+
+/**
+ * One audit event as stored in a segment file. {@code seq} numbers records across all
+ * segments without gaps; {@code appendedAt} (epoch millis) is when the record was
+ * written and never decreases, so it is what time-range reads and the sparse index
+ * use. {@code timestamp} is the event's own ISO local date-time.
+ */
+public record AuditRecord(
+        long seq,
+        long appendedAt,
+        String timestamp,
+        String user,
+        String action,
+        String details,
+        String status) {
+}
@@ -0,0 +1,214 @@
+package com.expense.management.audit;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * On-disk layout of audit segments, shared by {@link AuditSegmentStore} and
+ * {@link AuditChainVerifier}.
+ *
+ * <pre>
+ * segment  = header record* [zero int]
+ * header   = "AUDSEG01" firstSeq:long createdAt:long previousHash:byte[32]
+ * record   = length:int payload:byte[length] hash:byte[32]
+ * payload  = seq:long appendedAt:long timestamp user action details status   (strings: length:int, -1 for null, UTF-8)
+ * hash     = SHA-256(previous record's hash || payload)
+ * index    = (appendedAt:long seq:long offset:long)*   every few records, offsets into the uncompressed segment
+ * </pre>
+ * The first record of the first segment chains from 32 zero bytes; every later segment's
+ * header repeats the hash it continues from. Closed segments are gzipped whole.
+ */
+final class AuditSegmentFormat {
+
+    static final byte[] MAGIC = "AUDSEG01".getBytes(StandardCharsets.US_ASCII);
+    static final int HASH_BYTES = 32;
+    static final int HEADER_BYTES = MAGIC.length + 8 + 8 + HASH_BYTES;
+    static final int INDEX_ENTRY_BYTES = 24;
+    static final int MAX_PAYLOAD_BYTES = 1 << 20;
+    // Length, seq, appendedAt, five empty strings and the hash
+    static final int MIN_RECORD_BYTES = 4 + 8 + 8 + 5 * 4 + HASH_BYTES;
+    static final byte[] GENESIS_HASH = new byte[HASH_BYTES];
+
+    static final String SEGMENT_SUFFIX = ".seg";
+    static final String COMPRESSED_SUFFIX = ".seg.gz";
+    static final String INDEX_SUFFIX = ".idx";
+    private static final Pattern SEGMENT_NAME = Pattern.compile("audit-(\\d{20})\\.seg(\\.gz)?");
+
+    private AuditSegmentFormat() {
+    }
+
+    record Header(long firstSeq, long createdAt, byte[] previousHash) {
+    }
+
+    /** A record read back with where it sat in the uncompressed segment. */
+    record StoredRecord(AuditRecord record, byte[] payload, byte[] hash, long offset, long end) {
+    }
+
+    static String baseName(long firstSeq) {
+        return String.format("audit-%020d", firstSeq);
+    }
+
+    /** First sequence number of a segment file name, or -1 if it is not one. */
+    static long firstSeqOf(Path file) {
+        Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+        return matcher.matches() ? Long.parseLong(matcher.group(1)) : -1;
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    static byte[] chain(MessageDigest digest, byte[] previousHash, byte[] payload) {
+        digest.reset();
+        digest.update(previousHash);
+        return digest.digest(payload);
+    }
+
+    static void writeHeader(ByteBuffer target, Header header) {
+        target.put(MAGIC);
+        target.putLong(header.firstSeq());
+        target.putLong(header.createdAt());
+        target.put(header.previousHash());
+    }
+
+    static Header readHeader(DataInputStream in) throws IOException {
+        byte[] magic = new byte[MAGIC.length];
+        in.readFully(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not an audit segment");
+        }
+        long firstSeq = in.readLong();
+        long createdAt = in.readLong();
+        byte[] previousHash = new byte[HASH_BYTES];
+        in.readFully(previousHash);
+        return new Header(firstSeq, createdAt, previousHash);
+    }
+
+    static byte[] encode(AuditRecord record) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeLong(record.seq());
+            out.writeLong(record.appendedAt());
+            writeString(out, record.timestamp());
+            writeString(out, record.user());
+            writeString(out, record.action());
+            writeString(out, record.details());
+            writeString(out, record.status());
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static AuditRecord decode(byte[] payload) throws IOException {
+        return decode(new DataInputStream(new ByteArrayInputStream(payload)));
+    }
+
+    /** Number of bytes the payload at the start of {@code bytes} takes up. */
+    static int payloadLength(byte[] bytes) throws IOException {
+        ByteArrayInputStream in = new ByteArrayInputStream(bytes);
+        decode(new DataInputStream(in));
+        return bytes.length - in.available();
+    }
+
+    private static AuditRecord decode(DataInputStream in) throws IOException {
+        return new AuditRecord(in.readLong(), in.readLong(), readString(in), readString(in), readString(in),
+                readString(in), readString(in));
+    }
+
+    /**
+     * The record at {@code offset}, or null at the end of the segment: a zero length,
+     * end of file, or a record cut short by a crash mid-write.
+     * @throws IOException if the bytes there cannot be a record
+     */
+    static StoredRecord readRecord(DataInputStream in, long offset) throws IOException {
+        int length;
+        byte[] payload;
+        byte[] hash = new byte[HASH_BYTES];
+        try {
+            length = in.readInt();
+            if (length == 0) {
+                return null;
+            }
+            if (length < 0 || length > MAX_PAYLOAD_BYTES) {
+                throw new IOException("Bad record length " + length + " at offset " + offset);
+            }
+            payload = new byte[length];
+            in.readFully(payload);
+            in.readFully(hash);
+        } catch (EOFException e) {
+            return null;
+        }
+        return new StoredRecord(decode(payload), payload, hash, offset, offset + 4 + length + HASH_BYTES);
+    }
+
+    /**
+     * Open the uncompressed bytes of segment {@code firstSeq}, positioned after the header
+     * has been read by the caller. Falls back to the gzipped file if the plain one was
+     * compressed away in the meantime.
+     */
+    static DataInputStream open(Path dir, long firstSeq) throws IOException {
+        Path plain = dir.resolve(baseName(firstSeq) + SEGMENT_SUFFIX);
+        try {
+            return new DataInputStream(new BufferedInputStream(Files.newInputStream(plain), 64 * 1024));
+        } catch (NoSuchFileException e) {
+            InputStream compressed = Files.newInputStream(dir.resolve(baseName(firstSeq) + COMPRESSED_SUFFIX));
+            return new DataInputStream(new BufferedInputStream(new GZIPInputStream(compressed, 64 * 1024), 64 * 1024));
+        }
+    }
+
+    static String hex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        // Payloads are read from memory, so a damaged length is caught before it is allocated
+        if (length > in.available()) {
+            throw new IOException("Bad string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,655 @@
+package com.expense.management.audit;
+
+import com.expense.management.model.AuditLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Append-only, tamper-evident audit storage on local disk (see {@link AuditSegmentFormat}
+ * for the layout). Records are length-prefixed and each carries the SHA-256 of the
+ * previous record's hash and its own payload, so editing, removing or reordering any
+ * record breaks every hash after it; {@link AuditChainVerifier} re-walks the chain.
+ *
+ * The active segment is memory-mapped at {@code max-bytes} and written in place; each
+ * append forces the mapping to disk unless {@code fsync} is off. A segment is closed when
+ * the next record would not fit or once it is {@code max-age-minutes} old, and closed
+ * segments are gzipped in the background. Every {@code index-interval} records a
+ * (time, seq, offset) entry goes to the segment's sparse index, so a time-range read
+ * skips whole segments and seeks near its start within one.
+ *
+ * On startup the newest uncompressed segment is re-scanned. A record torn by a crash
+ * fails its length or hash check and is the last one written, so a bad record with only
+ * zeros after it is cut off. A bad record followed by more records is damage, not a
+ * crash: the segment is left as it is, appends go to a new segment numbered past
+ * everything in it, and {@link #verify()} reports the break.
+ *
+ * Active only when {@code app.audit.sink} includes segments. Truncating the closed
+ * segment while it is still mapped relies on Linux semantics.
+ */
+@Component
+public class AuditSegmentStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditSegmentStore.class);
+
+    @Value("${app.audit.sink:database}")
+    private String sinkName;
+
+    @Value("${app.audit.segments.dir:audit-segments}")
+    private String dirName;
+
+    @Value("${app.audit.segments.max-bytes:67108864}")
+    private long maxBytes;
+
+    @Value("${app.audit.segments.max-age-minutes:1440}")
+    private long maxAgeMinutes;
+
+    @Value("${app.audit.segments.index-interval:256}")
+    private int indexInterval;
+
+    @Value("${app.audit.segments.fsync:true}")
+    private boolean fsync;
+
+    private record IndexEntry(long appendedAt, long seq, long offset) {
+    }
+
+    private boolean enabled;
+    private Path dir;
+    private ThreadPoolExecutor compressor;
+    private final MessageDigest digest = AuditSegmentFormat.sha256();
+
+    // First seq of every segment -> appendedAt of its first record, or -1 while unknown
+    private final ConcurrentSkipListMap<Long, Long> segmentStarts = new ConcurrentSkipListMap<>();
+
+    // Active segment and chain state, guarded by this
+    private FileChannel channel;
+    private MappedByteBuffer mapped;
+    private FileChannel indexChannel;
+    private long activeFirstSeq = -1;
+    private long activeCreatedAt;
+    private int position;
+    private long recordsInSegment;
+    private long nextSeq = 1;
+    private byte[] lastHash = AuditSegmentFormat.GENESIS_HASH;
+    private long lastAppendedAt;
+
+    // Offset up to which the active segment's records are complete
+    private volatile long committedEnd;
+
+    // Why the newest segment was set aside at startup, or null
+    private String chainBreak;
+
+    @PostConstruct
+    public void init() throws IOException {
+        enabled = AuditAppender.Sink.fromName(sinkName).toSegments();
+        if (!enabled) {
+            return;
+        }
+        if (maxBytes < 4096 || maxBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("app.audit.segments.max-bytes must be between 4096 and " + Integer.MAX_VALUE);
+        }
+        dir = Paths.get(dirName).toAbsolutePath();
+        Files.createDirectories(dir);
+        compressor = new ThreadPoolExecutor(1, 1, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "audit-segment-compress");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                });
+        recover();
+        logger.info("Audit segments in {}: {} segments, next seq {}", dir, segmentStarts.size(), nextSeq);
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException, InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        // The active segment stays open on disk and is resumed on the next start
+        if (channel != null) {
+            mapped.force();
+            indexChannel.force(true);
+            channel.close();
+            indexChannel.close();
+            channel = null;
+        }
+        compressor.shutdown();
+        compressor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Append {@code logs} in order and, with {@code fsync}, force them to disk.
+     * @return the sequence number given to the first of them
+     */
+    public synchronized long append(List<AuditLog> logs) throws IOException {
+        checkEnabled();
+        long now = System.currentTimeMillis();
+        if (channel != null && recordsInSegment > 0 && now - activeCreatedAt >= TimeUnit.MINUTES.toMillis(maxAgeMinutes)) {
+            roll();
+        }
+        long first = nextSeq;
+        for (AuditLog log : logs) {
+            long appendedAt = Math.max(now, lastAppendedAt);
+            AuditRecord record = new AuditRecord(nextSeq, appendedAt,
+                    log.getTimestamp() != null ? log.getTimestamp().toString() : null,
+                    log.getUser(), log.getAction(), log.getDetails(), log.getStatus());
+            byte[] payload = AuditSegmentFormat.encode(record);
+            // Room is always left for a zero length after the last record
+            int size = 4 + payload.length + AuditSegmentFormat.HASH_BYTES;
+            if (AuditSegmentFormat.HEADER_BYTES + size + 4 > maxBytes) {
+                throw new IOException("An audit record of " + payload.length + " bytes does not fit in a segment");
+            }
+            if (channel != null && position + size + 4 > maxBytes) {
+                roll();
+            }
+            if (channel == null) {
+                openSegment(appendedAt);
+            }
+            if (recordsInSegment % indexInterval == 0) {
+                writeIndexEntry(new IndexEntry(appendedAt, nextSeq, position));
+            }
+
+            byte[] hash = AuditSegmentFormat.chain(digest, lastHash, payload);
+            mapped.put(position + 4, payload);
+            mapped.put(position + 4 + payload.length, hash);
+            // The length goes in last, so a concurrent reader never sees a length without its bytes
+            mapped.putInt(position, payload.length);
+            position += size;
+            lastHash = hash;
+            lastAppendedAt = appendedAt;
+            nextSeq++;
+            recordsInSegment++;
+        }
+        if (fsync && channel != null) {
+            mapped.force();
+            indexChannel.force(false);
+        }
+        committedEnd = position;
+        return first;
+    }
+
+    // Close segments that have aged out even if nothing is being appended
+    @Scheduled(fixedDelayString = "${app.audit.segments.roll-check-interval-ms:60000}")
+    public void rollExpired() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            if (channel != null && recordsInSegment > 0
+                    && System.currentTimeMillis() - activeCreatedAt >= TimeUnit.MINUTES.toMillis(maxAgeMinutes)) {
+                roll();
+            }
+        }
+    }
+
+    /**
+     * Records appended within [fromMillis, toMillis), oldest first, at most {@code limit}.
+     */
+    public List<AuditRecord> read(long fromMillis, long toMillis, int limit) throws IOException {
+        checkEnabled();
+        long activeSeq;
+        long activeEnd;
+        synchronized (this) {
+            activeSeq = activeFirstSeq;
+            activeEnd = committedEnd;
+        }
+        List<AuditRecord> result = new ArrayList<>();
+        List<Map.Entry<Long, Long>> segments = new ArrayList<>(segmentStarts.entrySet());
+        for (int i = 0; i < segments.size() && result.size() < limit; i++) {
+            long firstSeq = segments.get(i).getKey();
+            long start = segments.get(i).getValue();
+            long nextStart = i + 1 < segments.size() ? segments.get(i + 1).getValue() : -1;
+            if (nextStart >= 0 && nextStart < fromMillis) {
+                // Append times never decrease, so everything here is older than the next segment's first record
+                continue;
+            }
+            if (start >= toMillis) {
+                break;
+            }
+            long end = firstSeq == activeSeq ? activeEnd : Long.MAX_VALUE;
+            readSegment(firstSeq, fromMillis, toMillis, limit, end, result);
+        }
+        return result;
+    }
+
+    private void readSegment(long firstSeq, long fromMillis, long toMillis, int limit, long end,
+                             List<AuditRecord> result) throws IOException {
+        long offset = AuditSegmentFormat.HEADER_BYTES;
+        for (IndexEntry entry : readIndex(firstSeq)) {
+            if (entry.appendedAt() >= fromMillis) {
+                break;
+            }
+            offset = entry.offset();
+        }
+        try (DataInputStream in = AuditSegmentFormat.open(dir, firstSeq)) {
+            AuditSegmentFormat.readHeader(in);
+            in.skipNBytes(offset - AuditSegmentFormat.HEADER_BYTES);
+            AuditSegmentFormat.StoredRecord stored;
+            while (result.size() < limit && offset < end && (stored = AuditSegmentFormat.readRecord(in, offset)) != null) {
+                long appendedAt = stored.record().appendedAt();
+                if (appendedAt >= toMillis) {
+                    return;
+                }
+                if (appendedAt >= fromMillis) {
+                    result.add(stored.record());
+                }
+                offset = stored.end();
+            }
+        }
+    }
+
+    /** Re-walk the whole chain, up to the last complete record of the active segment. */
+    public AuditChainVerifier.Result verify() {
+        checkEnabled();
+        long activeSeq;
+        long activeEnd;
+        String recordedBreak;
+        synchronized (this) {
+            activeSeq = activeFirstSeq;
+            activeEnd = committedEnd;
+            recordedBreak = chainBreak;
+        }
+        AuditChainVerifier.Result result = AuditChainVerifier.verify(dir, activeSeq >= 0 ? Map.of(activeSeq, activeEnd) : Map.of());
+        if (result.valid() && recordedBreak != null) {
+            // A zeroed length reads as a clean end, and the damaged segment may since have been removed
+            return new AuditChainVerifier.Result(false, result.segments(), result.records(), result.lastSeq(),
+                    result.lastHash(), recordedBreak);
+        }
+        return result;
+    }
+
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        if (enabled) {
+            stats.put("dir", dir.toString());
+            stats.put("segments", segmentStarts.size());
+            stats.put("nextSeq", nextSeq);
+            stats.put("lastHash", AuditSegmentFormat.hex(lastHash));
+            stats.put("activeSegmentBytes", channel != null ? position : 0);
+            stats.put("pendingCompression", compressor.getQueue().size() + compressor.getActiveCount());
+            if (chainBreak != null) {
+                stats.put("chainBreak", chainBreak);
+            }
+        }
+        return stats;
+    }
+
+    private void checkEnabled() {
+        if (!enabled) {
+            throw new IllegalStateException("Audit segment storage is off (app.audit.sink=" + sinkName + ")");
+        }
+    }
+
+    private void openSegment(long firstAppendedAt) throws IOException {
+        String base = AuditSegmentFormat.baseName(nextSeq);
+        channel = FileChannel.open(dir.resolve(base + AuditSegmentFormat.SEGMENT_SUFFIX),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, maxBytes);
+        activeCreatedAt = System.currentTimeMillis();
+        AuditSegmentFormat.writeHeader(mapped, new AuditSegmentFormat.Header(nextSeq, activeCreatedAt, lastHash));
+        indexChannel = FileChannel.open(dir.resolve(base + AuditSegmentFormat.INDEX_SUFFIX),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        activeFirstSeq = nextSeq;
+        position = AuditSegmentFormat.HEADER_BYTES;
+        recordsInSegment = 0;
+        committedEnd = position;
+        segmentStarts.put(activeFirstSeq, firstAppendedAt);
+    }
+
+    private void roll() throws IOException {
+        mapped.force();
+        // Drop the unused zero-filled tail; nothing touches the mapping after this
+        channel.truncate(position);
+        channel.close();
+        indexChannel.force(true);
+        indexChannel.close();
+        long closed = activeFirstSeq;
+        channel = null;
+        mapped = null;
+        indexChannel = null;
+        activeFirstSeq = -1;
+        compressor.execute(() -> compress(closed));
+    }
+
+    private void writeIndexEntry(IndexEntry entry) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(AuditSegmentFormat.INDEX_ENTRY_BYTES);
+        buffer.putLong(entry.appendedAt()).putLong(entry.seq()).putLong(entry.offset()).flip();
+        while (buffer.hasRemaining()) {
+            indexChannel.write(buffer);
+        }
+    }
+
+    private List<IndexEntry> readIndex(long firstSeq) throws IOException {
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(dir.resolve(AuditSegmentFormat.baseName(firstSeq) + AuditSegmentFormat.INDEX_SUFFIX));
+        } catch (NoSuchFileException e) {
+            return List.of();
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        List<IndexEntry> entries = new ArrayList<>();
+        // A trailing partial entry is one still being written
+        while (buffer.remaining() >= AuditSegmentFormat.INDEX_ENTRY_BYTES) {
+            entries.add(new IndexEntry(buffer.getLong(), buffer.getLong(), buffer.getLong()));
+        }
+        return entries;
+    }
+
+    // Runs on the compressor thread; the plain file stays readable until the gzip is complete
+    private void compress(long firstSeq) {
+        String base = AuditSegmentFormat.baseName(firstSeq);
+        Path plain = dir.resolve(base + AuditSegmentFormat.SEGMENT_SUFFIX);
+        Path compressed = dir.resolve(base + AuditSegmentFormat.COMPRESSED_SUFFIX);
+        Path part = dir.resolve(base + AuditSegmentFormat.COMPRESSED_SUFFIX + ".tmp");
+        try {
+            try (InputStream in = Files.newInputStream(plain);
+                 OutputStream out = new GZIPOutputStream(Files.newOutputStream(part), 64 * 1024)) {
+                in.transferTo(out);
+            }
+            Files.move(part, compressed, StandardCopyOption.ATOMIC_MOVE);
+            Files.delete(plain);
+        } catch (IOException e) {
+            logger.warn("Could not compress audit segment {}; it stays uncompressed", plain, e);
+            try {
+                Files.deleteIfExists(part);
+            } catch (IOException ignored) {
+                // retried from scratch on the next start
+            }
+        }
+    }
+
+    private void recover() throws IOException {
+        TreeSet<Long> plain = new TreeSet<>();
+        TreeSet<Long> compressed = new TreeSet<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    Files.delete(file);
+                    continue;
+                }
+                long firstSeq = AuditSegmentFormat.firstSeqOf(file);
+                if (firstSeq >= 0) {
+                    (name.endsWith(AuditSegmentFormat.COMPRESSED_SUFFIX) ? compressed : plain).add(firstSeq);
+                }
+            }
+        }
+        // A gzip only appears once it is complete, so a plain copy next to it is left over from a crash
+        for (Long firstSeq : compressed) {
+            if (plain.remove(firstSeq)) {
+                Files.delete(dir.resolve(AuditSegmentFormat.baseName(firstSeq) + AuditSegmentFormat.SEGMENT_SUFFIX));
+            }
+        }
+        TreeSet<Long> all = new TreeSet<>(plain);
+        all.addAll(compressed);
+        for (Long firstSeq : all) {
+            List<IndexEntry> index = readIndex(firstSeq);
+            segmentStarts.put(firstSeq, index.isEmpty() ? -1L : index.get(0).appendedAt());
+        }
+        if (all.isEmpty()) {
+            return;
+        }
+
+        long newest = all.last();
+        if (plain.contains(newest) && !hasHeader(newest)) {
+            // Created just before a crash, before its header reached the disk
+            logger.warn("Removing empty audit segment {}", AuditSegmentFormat.baseName(newest));
+            Files.delete(dir.resolve(AuditSegmentFormat.baseName(newest) + AuditSegmentFormat.SEGMENT_SUFFIX));
+            Files.deleteIfExists(dir.resolve(AuditSegmentFormat.baseName(newest) + AuditSegmentFormat.INDEX_SUFFIX));
+            plain.remove(newest);
+            all.remove(newest);
+            segmentStarts.remove(newest);
+            if (all.isEmpty()) {
+                return;
+            }
+            newest = all.last();
+        }
+        if (plain.contains(newest)) {
+            resume(newest);
+        } else {
+            restoreChainEnd(newest);
+        }
+        for (Long firstSeq : plain.headSet(newest)) {
+            compressor.execute(() -> compress(firstSeq));
+        }
+    }
+
+    // False only for a segment whose header bytes are all zero; anything else is left for resume() to judge
+    private boolean hasHeader(long firstSeq) throws IOException {
+        Path file = dir.resolve(AuditSegmentFormat.baseName(firstSeq) + AuditSegmentFormat.SEGMENT_SUFFIX);
+        try (InputStream in = Files.newInputStream(file)) {
+            for (byte b : in.readNBytes(AuditSegmentFormat.HEADER_BYTES)) {
+                if (b != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    // Pick up the chain from the last record of a closed segment
+    private void restoreChainEnd(long firstSeq) throws IOException {
+        try (DataInputStream in = AuditSegmentFormat.open(dir, firstSeq)) {
+            AuditSegmentFormat.Header header = AuditSegmentFormat.readHeader(in);
+            nextSeq = header.firstSeq();
+            lastHash = header.previousHash();
+            long offset = AuditSegmentFormat.HEADER_BYTES;
+            AuditSegmentFormat.StoredRecord stored;
+            while ((stored = AuditSegmentFormat.readRecord(in, offset)) != null) {
+                nextSeq = stored.record().seq() + 1;
+                lastHash = stored.hash();
+                lastAppendedAt = stored.record().appendedAt();
+                offset = stored.end();
+            }
+        }
+    }
+
+    // Reopen the newest segment for appending after its last intact record
+    private void resume(long firstSeq) throws IOException {
+        String base = AuditSegmentFormat.baseName(firstSeq);
+        Path file = dir.resolve(base + AuditSegmentFormat.SEGMENT_SUFFIX);
+        AuditSegmentFormat.Header header;
+        long end = AuditSegmentFormat.HEADER_BYTES;
+        long records = 0;
+        long firstAppendedAt = -1;
+        boolean damaged = false;
+        try (DataInputStream in = AuditSegmentFormat.open(dir, firstSeq)) {
+            header = AuditSegmentFormat.readHeader(in);
+            nextSeq = header.firstSeq();
+            lastHash = header.previousHash();
+            AuditSegmentFormat.StoredRecord stored;
+            while (true) {
+                try {
+                    stored = AuditSegmentFormat.readRecord(in, end);
+                } catch (IOException e) {
+                    damaged = true;
+                    break;
+                }
+                if (stored == null) {
+                    break;
+                }
+                if (stored.record().seq() != nextSeq
+                        || !Arrays.equals(AuditSegmentFormat.chain(digest, lastHash, stored.payload()), stored.hash())) {
+                    damaged = true;
+                    break;
+                }
+                if (firstAppendedAt < 0) {
+                    firstAppendedAt = stored.record().appendedAt();
+                }
+                lastHash = stored.hash();
+                lastAppendedAt = stored.record().appendedAt();
+                nextSeq++;
+                records++;
+                end = stored.end();
+            }
+        }
+        segmentStarts.put(firstSeq, firstAppendedAt);
+
+        try (FileChannel segment = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (!zeroFrom(segment, recordEnd(segment, end))) {
+                setAside(firstSeq, segment, end);
+                return;
+            }
+        }
+
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        if (damaged) {
+            // A crash leaves a zero length, so a bad record is worth keeping for whoever investigates
+            Path copy = dir.resolve(base + AuditSegmentFormat.SEGMENT_SUFFIX + ".damaged-" + System.currentTimeMillis());
+            Files.copy(file, copy);
+            logger.error("Audit segment {} has a damaged record after seq {}; kept a copy as {}", base, nextSeq - 1, copy);
+        }
+        if (size > end) {
+            // Cut off a torn record and the zero-filled tail so no stale bytes follow the new records
+            channel.truncate(end);
+        }
+        mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(maxBytes, end + 4));
+        Path indexPath = dir.resolve(base + AuditSegmentFormat.INDEX_SUFFIX);
+        long validEnd = end;
+        long keptEntries = readIndex(firstSeq).stream().filter(entry -> entry.offset() < validEnd).count();
+        indexChannel = FileChannel.open(indexPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        indexChannel.truncate(keptEntries * AuditSegmentFormat.INDEX_ENTRY_BYTES);
+        indexChannel.position(keptEntries * AuditSegmentFormat.INDEX_ENTRY_BYTES);
+
+        activeFirstSeq = firstSeq;
+        activeCreatedAt = header.createdAt();
+        position = (int) end;
+        recordsInSegment = records;
+        committedEnd = end;
+    }
+
+    // More records follow the bad one at badOffset, so it was not torn by a crash. Leave the segment and
+    // its index untouched for the verifier and whoever investigates, and carry on in a new segment whose
+    // numbers start past every record the old one may hold
+    private void setAside(long firstSeq, FileChannel segment, long badOffset) throws IOException {
+        String base = AuditSegmentFormat.baseName(firstSeq);
+        long size = segment.size();
+        long intactSeq = nextSeq - 1;
+        long highestSeq = intactSeq;
+        // Step over the bad record, then through the rest by length alone, without trusting the hashes
+        long offset = recordEnd(segment, badOffset);
+        while (offset + 4 <= size) {
+            int length = readAt(segment, offset, 4).getInt();
+            if (length <= 0 || length > AuditSegmentFormat.MAX_PAYLOAD_BYTES
+                    || offset + 4 + length + AuditSegmentFormat.HASH_BYTES > size) {
+                break;
+            }
+            ByteBuffer bytes = readAt(segment, offset + 4, length + AuditSegmentFormat.HASH_BYTES);
+            byte[] payload = new byte[length];
+            byte[] hash = new byte[AuditSegmentFormat.HASH_BYTES];
+            bytes.get(payload).get(hash);
+            AuditRecord record;
+            try {
+                record = AuditSegmentFormat.decode(payload);
+            } catch (IOException e) {
+                break;
+            }
+            highestSeq = Math.max(highestSeq, record.seq());
+            lastAppendedAt = Math.max(lastAppendedAt, record.appendedAt());
+            lastHash = hash;
+            offset += 4 + length + AuditSegmentFormat.HASH_BYTES;
+        }
+        if (!zeroFrom(segment, offset)) {
+            // Lost track of the records; no record is shorter than MIN_RECORD_BYTES
+            highestSeq = Math.max(highestSeq,
+                    firstSeq + (size - AuditSegmentFormat.HEADER_BYTES) / AuditSegmentFormat.MIN_RECORD_BYTES);
+        }
+        nextSeq = highestSeq + 1;
+        chainBreak = base + ": damaged record after seq " + intactSeq + " (offset " + badOffset
+                + ") with more records after it; segment left as found, appending from seq " + nextSeq;
+        logger.error("Audit segment {} has a damaged record after seq {} followed by more records; "
+                + "left it as found and appending to a new segment from seq {}", base, intactSeq, nextSeq);
+    }
+
+    // Where the record at offset ends, going by its length; while the length is still zero, by the payload
+    // a crash may have left behind it
+    private static long recordEnd(FileChannel segment, long offset) throws IOException {
+        long size = segment.size();
+        if (offset + 4 > size) {
+            return size;
+        }
+        int length = readAt(segment, offset, 4).getInt();
+        if (length > 0 && length <= AuditSegmentFormat.MAX_PAYLOAD_BYTES) {
+            return offset + 4 + length + AuditSegmentFormat.HASH_BYTES;
+        }
+        if (length == 0) {
+            ByteBuffer rest = readAt(segment, offset + 4, (int) Math.min(AuditSegmentFormat.MAX_PAYLOAD_BYTES, size - offset - 4));
+            byte[] bytes = new byte[rest.remaining()];
+            rest.get(bytes);
+            try {
+                return offset + 4 + AuditSegmentFormat.payloadLength(bytes) + AuditSegmentFormat.HASH_BYTES;
+            } catch (IOException e) {
+                // not a payload; anything after the length counts as more records
+            }
+        }
+        return offset + 4;
+    }
+
+    private static boolean zeroFrom(FileChannel segment, long offset) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        long size = segment.size();
+        while (offset < size) {
+            buffer.clear();
+            int read = segment.read(buffer, offset);
+            if (read < 0) {
+                break;
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                if (buffer.get() != 0) {
+                    return false;
+                }
+            }
+            offset += read;
+        }
+        return true;
+    }
+
+    private static ByteBuffer readAt(FileChannel channel, long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                break;
+            }
+        }
+        return buffer.flip();
+    }
+}
@@ -0,0 +1,44 @@
+package com.expense.management.config;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+import org.hibernate.cache.spi.entry.StandardCacheEntryImpl;
+import org.hibernate.cache.spi.support.AbstractReadWriteAccess;
+
+import java.io.Serializable;
+
+/**
+ * Approximate size in bytes of a second-level cache entry, so regions can be bounded
+ * by memory rather than entry count. Users carry their profile image, which can be
+ * megabytes, so a count alone says little about how much heap the region holds.
+ * Configured as the weigher of the users region in application.conf.
+ */
+public class CacheEntryWeigher implements Weigher<Object, Object> {
+
+    // Rough cost of the entry, its key and the disassembled state array
+    private static final int ENTRY_OVERHEAD = 128;
+
+    @Override
+    public int weigh(Object key, Object value) {
+        Object entry = value instanceof AbstractReadWriteAccess.Item item ? item.getValue() : value;
+        long bytes = ENTRY_OVERHEAD;
+        if (entry instanceof StandardCacheEntryImpl cacheEntry) {
+            for (Serializable field : cacheEntry.getDisassembledState()) {
+                bytes += estimate(field);
+            }
+        }
+        return (int) Math.min(Integer.MAX_VALUE, bytes);
+    }
+
+    private static long estimate(Object field) {
+        if (field == null) {
+            return 8;
+        }
+        if (field instanceof byte[] bytes) {
+            return 16 + bytes.length;
+        }
+        if (field instanceof String text) {
+            return 40 + text.length();
+        }
+        return 24;
+    }
+}
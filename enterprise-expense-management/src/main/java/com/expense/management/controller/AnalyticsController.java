@@ -0,0 +1,183 @@
+package com.expense.management.controller;
+
+import com.expense.management.analytics.ArrowExpenseExporter;
+import com.expense.management.analytics.DailySpendIndex;
+import com.expense.management.analytics.ExpenseColumnStore;
+import com.expense.management.analytics.SpendForecaster;
+import com.expense.management.analytics.SpendSketchService;
+import com.expense.management.dto.AnalyticsQueryRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/analytics")
+@CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
+public class AnalyticsController {
+
+    @Autowired
+    private ExpenseColumnStore columnStore;
+
+    @Autowired
+    private SpendSketchService sketchService;
+
+    @Autowired
+    private DailySpendIndex dailySpendIndex;
+
+    @Autowired
+    private ArrowExpenseExporter arrowExporter;
+
+    @Autowired
+    private SpendForecaster spendForecaster;
+
+    /**
+     * Ad-hoc group-by/filter aggregation over the in-memory expense facts, e.g.
+     * {"groupBy": ["category", "month"], "statuses": ["APPROVED"], "from": "2024-01-01"}
+     */
+    @PostMapping("/query")
+    public ResponseEntity<?> query(@RequestBody AnalyticsQueryRequest request) {
+        try {
+            return ResponseEntity.ok(columnStore.query(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/rebuild")
+    public ResponseEntity<?> rebuild() {
+        long start = System.currentTimeMillis();
+        int rows = columnStore.rebuildFromDatabase();
+        return ResponseEntity.ok(Map.of(
+            "rows", rows,
+            "elapsedMs", System.currentTimeMillis() - start
+        ));
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> stats() {
+        return ResponseEntity.ok(columnStore.stats());
+    }
+
+    /**
+     * Approximate amount percentiles from the KLL sketches, e.g.
+     * /quantiles?category=TRAVEL&basis=approved&from=2024-01&to=2024-03&q=0.5,0.9,0.99.
+     * Omitting the category merges all categories; omitting the months covers all of them.
+     * {@code to} defaults to {@code from}. Ranks are within normalizedRankError of the true rank.
+     */
+    @GetMapping("/quantiles")
+    public ResponseEntity<?> quantiles(@RequestParam(required = false) String category,
+                                       @RequestParam(required = false) String basis,
+                                       @RequestParam(required = false) String from,
+                                       @RequestParam(required = false) String to,
+                                       @RequestParam(defaultValue = "0.5,0.9,0.95,0.99") String q) {
+        try {
+            YearMonth start = from == null || from.isBlank() ? null : YearMonth.parse(from);
+            YearMonth end = to == null || to.isBlank() ? start : YearMonth.parse(to);
+            String[] parts = q.split(",");
+            double[] ranks = new double[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                ranks[i] = Double.parseDouble(parts[i].trim());
+                if (ranks[i] < 0 || ranks[i] > 1) {
+                    throw new IllegalArgumentException("Quantiles must be between 0 and 1");
+                }
+            }
+            String selected = category == null || category.isBlank() ? null : category.trim();
+            return ResponseEntity.ok(sketchService.quantiles(selected, SpendSketchService.Basis.fromName(basis),
+                    start, end, ranks));
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Invalid quantile list: " + q));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Months must use the yyyy-MM format"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Approximate distinct submitters for a month range (yyyy-MM), e.g.
+     * /distinct-submitters?from=2024-01&to=2024-03. {@code to} defaults to {@code from}.
+     */
+    @GetMapping("/distinct-submitters")
+    public ResponseEntity<?> distinctSubmitters(@RequestParam String from,
+                                                @RequestParam(required = false) String to) {
+        try {
+            YearMonth start = YearMonth.parse(from);
+            YearMonth end = to == null || to.isBlank() ? start : YearMonth.parse(to);
+            return ResponseEntity.ok(sketchService.distinctSubmitters(start, end));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Months must use the yyyy-MM format"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/sketches/rebuild")
+    public ResponseEntity<?> rebuildSketches() {
+        long start = System.currentTimeMillis();
+        int rows = sketchService.rebuildFromDatabase();
+        return ResponseEntity.ok(Map.of(
+            "rows", rows,
+            "elapsedMs", System.currentTimeMillis() - start
+        ));
+    }
+
+    /**
+     * Approved spend over time for charts, e.g.
+     * /timeseries?from=2021-01-01&to=2024-12-31&bucket=day&points=400.
+     * Defaults to the last year in daily buckets; long ranges are reduced to
+     * {@code points} representative points with LTTB.
+     */
+    @GetMapping("/timeseries")
+    public ResponseEntity<?> timeseries(@RequestParam(required = false) String from,
+                                        @RequestParam(required = false) String to,
+                                        @RequestParam(required = false) String bucket,
+                                        @RequestParam(defaultValue = "500") int points) {
+        try {
+            LocalDate end = to == null || to.isBlank() ? LocalDate.now() : LocalDate.parse(to);
+            LocalDate start = from == null || from.isBlank() ? end.minusYears(1) : LocalDate.parse(from);
+            return ResponseEntity.ok(dailySpendIndex.series(start, end, DailySpendIndex.Bucket.fromName(bucket), points));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Dates must use the yyyy-MM-dd format"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Projected month-end approved spend and the probability of exceeding the budget,
+     * for one category or every category with recent spend or a budget, e.g.
+     * /forecast?category=TRAVEL.
+     */
+    @GetMapping("/forecast")
+    public ResponseEntity<?> forecast(@RequestParam(required = false) String category) {
+        if (category == null || category.isBlank()) {
+            return ResponseEntity.ok(spendForecaster.forecasts());
+        }
+        return ResponseEntity.ok(spendForecaster.forecast(category.trim()));
+    }
+
+    /**
+     * Every expense with its owner and role as a compressed Arrow IPC file, for BI
+     * tools that would otherwise page through the JSON API, e.g.
+     * {@code pyarrow.ipc.open_file(...)} or {@code pandas.read_feather(...)}.
+     */
+    @GetMapping("/export/expenses")
+    public void exportExpenses(HttpServletResponse response) throws IOException {
+        response.setContentType("application/vnd.apache.arrow.file");
+        response.setHeader("Content-Disposition", "attachment; filename=expenses-" + LocalDate.now() + ".arrow");
+        arrowExporter.write(response.getOutputStream());
+    }
+}
@@ -1,24 +1,83 @@
 package com.expense.management.controller;
 
-import com.expense.management.model.AuditLog;
-import com.expense.management.repository.AuditLogRepository;
+import com.expense.management.audit.AuditAppender;
+import com.expense.management.dto.AuditLogPage;
+import com.expense.management.services.AuditService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.List;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/audit")
 public class AuditLogController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    @Autowired
+    private AuditService auditService;
+
     @Autowired
-    private AuditLogRepository auditLogRepository;
+    private AuditAppender auditAppender;
 
+    /**
+     * The most recent audit logs as an array, newest first, e.g.
+     * /logs?user=a@b.com&action=UPDATE_USER_ROLE&from=2024-03-01&to=2024-03-31&limit=100.
+     * from/to take a date or a date-time; a date {@code to} includes that whole day.
+     * When there are older logs, the {@value #NEXT_CURSOR_HEADER} header holds the
+     * cursor to pass back for the next page.
+     */
     @GetMapping("/logs")
-    public ResponseEntity<List<AuditLog>> getAuditLogs() {
-        return ResponseEntity.ok(auditLogRepository.findAll());
+    public ResponseEntity<?> getAuditLogs(@RequestParam(required = false) String from,
+                                          @RequestParam(required = false) String to,
+                                          @RequestParam(required = false) String user,
+                                          @RequestParam(required = false) String action,
+                                          @RequestParam(required = false) String status,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(defaultValue = "50") int limit) {
+        try {
+            AuditLogPage page = auditService.findLogs(parseTime(from, false), parseTime(to, true),
+                    blankToNull(user), blankToNull(action), blankToNull(status), cursor, limit);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return response.body(page.getLogs());
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("message",
+                    "from and to must use the yyyy-MM-dd or yyyy-MM-ddTHH:mm:ss format"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // Buffer depth and write/drop counts of the batched audit writer
+    @GetMapping("/writer-stats")
+    public ResponseEntity<Map<String, Object>> getWriterStats() {
+        return ResponseEntity.ok(auditAppender.stats());
+    }
+
+    // A bare date is the start of that day, or of the next one for an exclusive upper bound
+    private static LocalDateTime parseTime(String value, boolean upperBound) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String trimmed = value.trim();
+        if (trimmed.length() == 10) {
+            LocalDate date = LocalDate.parse(trimmed);
+            return (upperBound ? date.plusDays(1) : date).atStartOfDay();
+        }
+        return LocalDateTime.parse(trimmed);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
     }
 }
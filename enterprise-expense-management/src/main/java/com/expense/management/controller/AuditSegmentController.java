@@ -0,0 +1,81 @@
+package com.expense.management.controller;
+
+import com.expense.management.audit.AuditChainVerifier;
+import com.expense.management.audit.AuditSegmentStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+/**
+ * Read and verify the hash-chained audit segments. Only available when
+ * {@code app.audit.sink} is segments or both.
+ */
+@RestController
+@RequestMapping("/api/admin/audit")
+@CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
+public class AuditSegmentController {
+
+    private static final int MAX_RECORDS = 1000;
+
+    @Autowired
+    private AuditSegmentStore segmentStore;
+
+    /** Re-walk the whole chain; 409 with the first broken link if it does not hold. */
+    @GetMapping("/verify")
+    public ResponseEntity<?> verify() {
+        if (!segmentStore.isEnabled()) {
+            return notEnabled();
+        }
+        AuditChainVerifier.Result result = segmentStore.verify();
+        return ResponseEntity.status(result.valid() ? HttpStatus.OK : HttpStatus.CONFLICT).body(result);
+    }
+
+    /**
+     * Records appended within [from, to), oldest first, e.g.
+     * /records?from=2024-03-01T00:00:00&to=2024-03-02T00:00:00&limit=200.
+     * Times are server local; {@code to} defaults to now.
+     */
+    @GetMapping("/records")
+    public ResponseEntity<?> records(@RequestParam String from,
+                                     @RequestParam(required = false) String to,
+                                     @RequestParam(defaultValue = "200") int limit) throws IOException {
+        if (!segmentStore.isEnabled()) {
+            return notEnabled();
+        }
+        if (limit < 1 || limit > MAX_RECORDS) {
+            return ResponseEntity.badRequest().body(Map.of("message", "limit must be between 1 and " + MAX_RECORDS));
+        }
+        try {
+            long fromMillis = toMillis(LocalDateTime.parse(from.trim()));
+            long toMillis = to == null || to.isBlank() ? System.currentTimeMillis() + 1 : toMillis(LocalDateTime.parse(to.trim()));
+            return ResponseEntity.ok(segmentStore.read(fromMillis, toMillis, limit));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", "from and to must use the yyyy-MM-ddTHH:mm:ss format"));
+        }
+    }
+
+    @GetMapping("/segments")
+    public ResponseEntity<Map<String, Object>> stats() {
+        return ResponseEntity.ok(segmentStore.stats());
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static ResponseEntity<?> notEnabled() {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Map.of("message", "Audit segments are not enabled (set app.audit.sink to segments or both)"));
+    }
+}
@@ -5,6 +5,9 @@ import com.expense.management.model.User;
 import com.expense.management.repository.RoleRepository;
 import com.expense.management.repository.UserRepository;
 import com.expense.management.security.JwtTokenProvider;
+import com.expense.management.security.LoginAttemptLimiter;
+import com.expense.management.security.PasswordHashingExecutor;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -12,6 +15,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -22,6 +26,9 @@ import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/auth")
@@ -43,117 +50,171 @@ public class AuthController {
     @Autowired
     private JwtTokenProvider tokenProvider;
 
-    @PostMapping(value = "/login", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<?> login(@RequestBody Map<String, String> loginRequest) {
-        try {
-            Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                    loginRequest.get("email"),
-                    loginRequest.get("password")
-                )
-            );
-
-            SecurityContextHolder.getContext().setAuthentication(authentication);
-            String jwt = tokenProvider.generateToken(authentication);
-            
-            User user = userRepository.findByEmail(loginRequest.get("email"))
-                .orElseThrow(() -> new RuntimeException("User not found after authentication"));
-
-            String roleName = (user.getRole() != null) ? user.getRole().getName() : "UNKNOWN_ROLE";
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("token", jwt);
-            response.put("user", Map.of(
-                "id", user.getId(),
-                "email", user.getEmail(),
-                "fullName", user.getFullName(),
-                "role", roleName,
-                "isAuthenticated", true
-            ));
-            response.put("redirect", "/dashboard");
+    @Autowired
+    private PasswordHashingExecutor passwordHashing;
 
-            return ResponseEntity.ok()
-                .header("Authorization", "Bearer " + jwt)
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(response);
-        } catch (Exception e) {
-            System.err.println("Login error: " + e.getMessage());
-            return ResponseEntity.badRequest()
+    @Autowired
+    private LoginAttemptLimiter loginAttempts;
+
+    @PostMapping(value = "/login", produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody Map<String, String> loginRequest,
+                                                      HttpServletRequest request) {
+        String email = loginRequest.get("email");
+        String ip = request.getRemoteAddr();
+        LoginAttemptLimiter.Attempt attempt = loginAttempts.tryAcquire(email, ip);
+        if (attempt == null) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
                 .contentType(MediaType.APPLICATION_JSON)
                 .body(Map.of(
-                    "message", "Invalid email or password",
-                    "error", e.getMessage(),
+                    "message", "Too many failed login attempts, please try again later",
                     "isAuthenticated", false
-                ));
+                )));
         }
-    }
 
-    @PostMapping(value = "/signup", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<?> signup(@RequestBody Map<String, String> signupRequest) {
         try {
-            // Validate required fields
-            if (!signupRequest.containsKey("email") || !signupRequest.containsKey("password") 
-                || !signupRequest.containsKey("fullName")) {
-                return ResponseEntity.badRequest()
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(Map.of("message", "Missing required fields"));
-            }
+            // bcrypt runs on the hashing pool and the rest on its completion pool; the request thread is released meanwhile
+            return CompletableFuture.supplyAsync(() -> authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(email, loginRequest.get("password"))),
+                    passwordHashing)
+                .<ResponseEntity<?>>handleAsync((authentication, error) -> {
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                        if (cause instanceof AuthenticationException) {
+                            attempt.failed();
+                        } else {
+                            attempt.abandoned();
+                        }
+                        return loginFailed(cause);
+                    }
+                    attempt.succeeded();
+                    try {
+                        return loginSucceeded(authentication, email);
+                    } catch (Exception e) {
+                        return loginFailed(e);
+                    }
+                }, passwordHashing.completions());
+        } catch (RejectedExecutionException e) {
+            attempt.abandoned();
+            return CompletableFuture.completedFuture(busy());
+        }
+    }
 
-            // Check if email already exists
-            if (userRepository.existsByEmail(signupRequest.get("email"))) {
-                return ResponseEntity.badRequest()
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(Map.of("message", "Email is already taken"));
-            }
+    private ResponseEntity<?> loginSucceeded(Authentication authentication, String email) {
+        String jwt = tokenProvider.generateToken(authentication);
+
+        User user = userRepository.findByEmail(email)
+            .orElseThrow(() -> new RuntimeException("User not found after authentication"));
+
+        String roleName = (user.getRole() != null) ? user.getRole().getName() : "UNKNOWN_ROLE";
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("token", jwt);
+        response.put("user", Map.of(
+            "id", user.getId(),
+            "email", user.getEmail(),
+            "fullName", user.getFullName(),
+            "role", roleName,
+            "isAuthenticated", true
+        ));
+        response.put("redirect", "/dashboard");
+
+        return ResponseEntity.ok()
+            .header("Authorization", "Bearer " + jwt)
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(response);
+    }
 
-            // Always assign EMPLOYEE role for new signups
-            Role role = roleRepository.findByName("ROLE_EMPLOYEE")
-                .orElseThrow(() -> new RuntimeException("Default role not found"));
-
-            // Create new user
-            User user = new User();
-            user.setEmail(signupRequest.get("email"));
-            user.setPassword(passwordEncoder.encode(signupRequest.get("password")));
-            user.setFullName(signupRequest.get("fullName"));
-            user.setRole(role);
-
-            user = userRepository.save(user);
-
-            // Generate token for auto-login after signup
-            Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                    user.getEmail(),
-                    signupRequest.get("password")
-                )
-            );
-            String jwt = tokenProvider.generateToken(authentication);
-
-            // Return success response with token
-            Map<String, Object> response = new HashMap<>();
-            response.put("message", "User registered successfully");
-            response.put("token", jwt);
-            response.put("user", Map.of(
-                "id", user.getId(),
-                "email", user.getEmail(),
-                "fullName", user.getFullName(),
-                "role", user.getRole().getName(),
-                "isAuthenticated", true
+    private ResponseEntity<?> loginFailed(Throwable e) {
+        System.err.println("Login error: " + e.getMessage());
+        return ResponseEntity.badRequest()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(Map.of(
+                "message", "Invalid email or password",
+                "error", String.valueOf(e.getMessage()),
+                "isAuthenticated", false
             ));
-            response.put("redirect", "/dashboard");
+    }
 
-            return ResponseEntity.ok()
-                .header("Authorization", "Bearer " + jwt)
+    private static ResponseEntity<?> busy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(Map.of(
+                "message", "The server is busy, please try again shortly",
+                "isAuthenticated", false
+            ));
+    }
+
+    @PostMapping(value = "/signup", produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ResponseEntity<?>> signup(@RequestBody Map<String, String> signupRequest) {
+        // Validate required fields
+        if (!signupRequest.containsKey("email") || !signupRequest.containsKey("password") 
+            || !signupRequest.containsKey("fullName")) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
                 .contentType(MediaType.APPLICATION_JSON)
-                .body(response);
-        } catch (Exception e) {
-            return ResponseEntity.badRequest()
+                .body(Map.of("message", "Missing required fields")));
+        }
+
+        // Check if email already exists
+        if (userRepository.existsByEmail(signupRequest.get("email"))) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
                 .contentType(MediaType.APPLICATION_JSON)
-                .body(Map.of(
-                    "message", "Error during signup",
-                    "error", e.getMessage(),
-                    "isAuthenticated", false
-                ));
+                .body(Map.of("message", "Email is already taken")));
         }
+
+        try {
+            return CompletableFuture.supplyAsync(() -> passwordEncoder.encode(signupRequest.get("password")),
+                    passwordHashing)
+                .<ResponseEntity<?>>thenApplyAsync(encodedPassword -> createUser(signupRequest, encodedPassword),
+                    passwordHashing.completions())
+                .exceptionally(error -> {
+                    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                    return ResponseEntity.badRequest()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(Map.of(
+                            "message", "Error during signup",
+                            "error", String.valueOf(cause.getMessage()),
+                            "isAuthenticated", false
+                        ));
+                });
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(busy());
+        }
+    }
+
+    private ResponseEntity<?> createUser(Map<String, String> signupRequest, String encodedPassword) {
+        // Always assign EMPLOYEE role for new signups
+        Role role = roleRepository.findByName("ROLE_EMPLOYEE")
+            .orElseThrow(() -> new RuntimeException("Default role not found"));
+
+        // Create new user
+        User user = new User();
+        user.setEmail(signupRequest.get("email"));
+        user.setPassword(encodedPassword);
+        user.setFullName(signupRequest.get("fullName"));
+        user.setRole(role);
+
+        user = userRepository.save(user);
+
+        // The password was just set, so the token is issued without verifying it again
+        String jwt = tokenProvider.generateToken(user.getEmail());
+
+        // Return success response with token
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "User registered successfully");
+        response.put("token", jwt);
+        response.put("user", Map.of(
+            "id", user.getId(),
+            "email", user.getEmail(),
+            "fullName", user.getFullName(),
+            "role", user.getRole().getName(),
+            "isAuthenticated", true
+        ));
+        response.put("redirect", "/dashboard");
+
+        return ResponseEntity.ok()
+            .header("Authorization", "Bearer " + jwt)
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(response);
     }
 
     @PostMapping("/profile/image")
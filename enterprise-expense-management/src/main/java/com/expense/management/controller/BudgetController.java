@@ -1,14 +1,21 @@
 package com.expense.management.controller;
 
+import com.expense.management.dto.BudgetStatus;
+import com.expense.management.services.BudgetService;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.Collections;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -16,23 +23,60 @@ import java.util.Map;
 @CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
 public class BudgetController {
 
-    // For simplicity, we'll use a static variable for now. 
-    // In a real application, this would be fetched from/saved to a database.
-    private static double MONTHLY_BUDGET = 50000.00;
+    @Autowired
+    private BudgetService budgetService;
 
+    // Company-wide budget of ?month=yyyy-MM, the current month by default
     @GetMapping("/monthly-budget")
-    public ResponseEntity<Map<String, Double>> getMonthlyBudget() {
-        return ResponseEntity.ok(Collections.singletonMap("budget", MONTHLY_BUDGET));
+    public ResponseEntity<?> getMonthlyBudget(@RequestParam(required = false) String month) {
+        YearMonth yearMonth = parseMonth(month);
+        if (yearMonth == null) {
+            return ResponseEntity.badRequest().body(Map.of("message", "month must look like 2024-03"));
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("budget", budgetService.getLimit(yearMonth, null));
+        response.put("month", yearMonth.toString());
+        return ResponseEntity.ok(response);
     }
 
+    // {"budget": 50000, "month": "2024-03", "category": "Travel"}; month and category are optional
     @PostMapping("/monthly-budget")
-    public ResponseEntity<String> setMonthlyBudget(@RequestBody Map<String, Double> request) {
-        Double newBudget = request.get("budget");
-        if (newBudget != null) {
-            MONTHLY_BUDGET = newBudget;
-            return ResponseEntity.ok("Monthly budget updated successfully to " + newBudget);
-        } else {
+    public ResponseEntity<String> setMonthlyBudget(@RequestBody Map<String, Object> request) {
+        if (!(request.get("budget") instanceof Number newBudget)) {
             return ResponseEntity.badRequest().body("Budget value not provided.");
         }
+        YearMonth yearMonth = parseMonth(request.get("month") != null ? request.get("month").toString() : null);
+        if (yearMonth == null) {
+            return ResponseEntity.badRequest().body("Month must look like 2024-03.");
+        }
+        String category = request.get("category") != null ? request.get("category").toString() : null;
+        try {
+            budgetService.setBudget(yearMonth, category, newBudget.doubleValue());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        return ResponseEntity.ok("Monthly budget updated successfully to " + newBudget);
+    }
+
+    // Approved spend against the company budget and every category budget of ?month=yyyy-MM
+    @GetMapping("/budget-status")
+    public ResponseEntity<?> getBudgetStatus(@RequestParam(required = false) String month) {
+        YearMonth yearMonth = parseMonth(month);
+        if (yearMonth == null) {
+            return ResponseEntity.badRequest().body(Map.of("message", "month must look like 2024-03"));
+        }
+        List<BudgetStatus> statuses = budgetService.getStatuses(yearMonth);
+        return ResponseEntity.ok(statuses);
+    }
+
+    private static YearMonth parseMonth(String month) {
+        if (month == null || month.isBlank()) {
+            return YearMonth.now();
+        }
+        try {
+            return YearMonth.parse(month.trim());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
     }
-} 
\ No newline at end of file
+}
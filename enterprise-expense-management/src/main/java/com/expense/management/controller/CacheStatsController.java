@@ -0,0 +1,64 @@
+package com.expense.management.controller;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Hit/miss counters of the Hibernate second-level cache, per region and in total.
+ * Counts are only collected while hibernate.generate_statistics is enabled.
+ */
+@RestController
+@RequestMapping("/api/admin/cache")
+@CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
+public class CacheStatsController {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> stats() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Map<String, Object> regions = new TreeMap<>();
+        for (String name : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(name);
+            Map<String, Object> counts = new LinkedHashMap<>();
+            counts.put("hits", region.getHitCount());
+            counts.put("misses", region.getMissCount());
+            counts.put("puts", region.getPutCount());
+            counts.put("hitRatio", ratio(region.getHitCount(), region.getMissCount()));
+            counts.put("elementsInMemory", region.getElementCountInMemory());
+            regions.put(name, counts);
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("enabled", statistics.isStatisticsEnabled());
+        body.put("entityHits", statistics.getSecondLevelCacheHitCount());
+        body.put("entityMisses", statistics.getSecondLevelCacheMissCount());
+        body.put("entityHitRatio", ratio(statistics.getSecondLevelCacheHitCount(),
+                statistics.getSecondLevelCacheMissCount()));
+        body.put("naturalIdHits", statistics.getNaturalIdCacheHitCount());
+        body.put("naturalIdMisses", statistics.getNaturalIdCacheMissCount());
+        body.put("naturalIdHitRatio", ratio(statistics.getNaturalIdCacheHitCount(),
+                statistics.getNaturalIdCacheMissCount()));
+        body.put("regions", regions);
+        return ResponseEntity.ok(body);
+    }
+
+    private static double ratio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+}
@@ -5,11 +5,16 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.expense.management.dto.DashboardDTO;
+import com.expense.management.enums.DashboardField;
 import com.expense.management.services.DashboardService;
 
+import java.util.EnumSet;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/dashboard")
 @CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
@@ -19,8 +24,14 @@ public class DashboardController {
     private DashboardService dashboardService;
 
     @GetMapping
-    public ResponseEntity<DashboardDTO> getDashboardData() {
-        DashboardDTO dashboardData = dashboardService.getDashboardData();
-        return ResponseEntity.ok(dashboardData);
+    public ResponseEntity<?> getDashboardData(@RequestParam(value = "fields", required = false) String fields) {
+        EnumSet<DashboardField> selected;
+        try {
+            selected = DashboardField.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+        DashboardDTO dashboardData = dashboardService.getDashboardData(selected);
+        return ResponseEntity.ok(DashboardField.view(dashboardData, selected));
     }
 } 
\ No newline at end of file
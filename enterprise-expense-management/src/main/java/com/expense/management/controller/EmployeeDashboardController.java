@@ -1,21 +1,26 @@
 package com.expense.management.controller;
 
 import com.expense.management.dto.DashboardDTO;
+import com.expense.management.dto.UserIdentity;
+import com.expense.management.enums.DashboardField;
 import com.expense.management.model.Expense;
 import com.expense.management.model.User;
 import com.expense.management.repository.ExpenseRepository;
 import com.expense.management.repository.UserRepository;
+import com.expense.management.security.CurrentUser;
 import com.expense.management.services.DashboardService;
 import com.expense.management.services.ExpenseService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
@@ -36,30 +41,33 @@ public class EmployeeDashboardController {
     private ExpenseService expenseService;
 
     @GetMapping
-    public ResponseEntity<DashboardDTO> getEmployeeDashboard() {
-        // Get current user email
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByEmail(email).orElse(null);
+    public ResponseEntity<?> getEmployeeDashboard(@RequestParam(value = "fields", required = false) String fields,
+                                                  @CurrentUser UserIdentity user) {
+        EnumSet<DashboardField> selected;
+        try {
+            selected = DashboardField.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+
         if (user == null) {
             return ResponseEntity.badRequest().build();
         }
         
-        // Get all this user's expenses (not just approved)
-        List<Expense> userExpenses = expenseService.getAllByUser(user);
-        DashboardDTO dashboard = dashboardService.getDashboardData(userExpenses);
-        return ResponseEntity.ok(dashboard);
+        // Get all this user's expenses (not just approved), only if a selected section needs them
+        User owner = userRepository.getReferenceById(user.getId());
+        DashboardDTO dashboard = dashboardService.getDashboardData(() -> expenseService.getAllByUser(owner), selected);
+        return ResponseEntity.ok(DashboardField.view(dashboard, selected));
     }
 
     @GetMapping("/expenses")
-    public ResponseEntity<List<Expense>> getEmployeeExpenses() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByEmail(email).orElse(null);
+    public ResponseEntity<List<Expense>> getEmployeeExpenses(@CurrentUser UserIdentity user) {
         if (user == null) {
             return ResponseEntity.badRequest().build();
         }
         
         // Get only this user's fully approved expenses
-        List<Expense> userApprovedExpenses = expenseService.getAllByUser(user).stream()
+        List<Expense> userApprovedExpenses = expenseService.getAllByUser(userRepository.getReferenceById(user.getId())).stream()
                 .filter(e -> e.getApprovalStatus().toString().equals("APPROVED"))
                 .collect(Collectors.toList());
         
@@ -1,19 +1,18 @@
 package com.expense.management.controller;
 
+import com.expense.management.dto.UserIdentity;
 import com.expense.management.model.Expense;
-import com.expense.management.model.User;
 import com.expense.management.repository.ExpenseRepository;
 import com.expense.management.repository.UserRepository;
+import com.expense.management.security.CurrentUser;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/employee")
@@ -25,15 +24,11 @@ public class EmployeeExpenseController {
     private UserRepository userRepository;
 
     @GetMapping("/expenses")
-    public ResponseEntity<List<Expense>> getEmployeeExpenses() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByEmail(email).orElse(null);
+    public ResponseEntity<List<Expense>> getEmployeeExpenses(@CurrentUser UserIdentity user) {
         if (user == null) {
             return ResponseEntity.badRequest().build();
         }
-        List<Expense> userExpenses = expenseRepository.findAll().stream()
-                .filter(e -> e.getUser() != null && e.getUser().getId().equals(user.getId()))
-                .collect(Collectors.toList());
+        List<Expense> userExpenses = expenseRepository.findByUser(userRepository.getReferenceById(user.getId()));
         return ResponseEntity.ok(userExpenses);
     }
 } 
\ No newline at end of file
@@ -1,49 +1,55 @@
 package com.expense.management.controller;
 
+import com.expense.management.dto.ExpenseReportRow;
+import com.expense.management.dto.UserIdentity;
 import com.expense.management.model.Budget;
 import com.expense.management.model.Expense;
 import com.expense.management.model.ExpenseStatus;
-import com.expense.management.model.User;
 import com.expense.management.enums.ApprovalLevel;
+import com.expense.management.events.ExpenseFact;
+import com.expense.management.reports.ExpenseReportTemplates;
+import com.expense.management.reports.PdfReportBackend;
+import com.expense.management.reports.ReportTemplate;
 import com.expense.management.repository.ExpenseRepository;
+import com.expense.management.security.CurrentUser;
+import com.expense.management.services.BudgetService;
 import com.expense.management.services.ExpenseService;
 import com.expense.management.services.CloudinaryService;
+import com.expense.management.services.ExpenseReportService;
+import com.expense.management.services.MonthEndReportService;
+import com.expense.management.services.PartitionedPdfRenderer;
+import com.expense.management.services.PendingApprovalCounters;
+import com.expense.management.services.ReceiptBundleService;
+import com.expense.management.services.ReportCache;
+import com.expense.management.services.ReportDataVersions;
 import com.expense.management.util.HibernateUtil;
 import org.hibernate.Session;
-import org.hibernate.Transaction;
 import org.hibernate.query.Query;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.context.SecurityContextHolder;
-import java.io.ByteArrayOutputStream;
+import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.util.Arrays;
+import java.time.Month;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 // PDF generation imports
-import com.itextpdf.text.Document;
 import com.itextpdf.text.DocumentException;
-import com.itextpdf.text.Element;
-import com.itextpdf.text.Font;
-import com.itextpdf.text.FontFactory;
-import com.itextpdf.text.Paragraph;
-import com.itextpdf.text.Phrase;
-import com.itextpdf.text.pdf.PdfPCell;
-import com.itextpdf.text.pdf.PdfPTable;
-import com.itextpdf.text.pdf.PdfWriter;
-import com.itextpdf.text.pdf.BaseFont;
-
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 @CrossOrigin(origins = "http://localhost:3000")
 @RestController
@@ -61,9 +67,38 @@ public class ExpenseController {
 	@Autowired
 	com.expense.management.repository.UserRepository userRepository;
 
+	@Autowired
+	BudgetService budgetService;
+
     @Autowired
     private CloudinaryService cloudinaryService;
 
+    @Autowired
+    private PendingApprovalCounters pendingCounters;
+
+    @Autowired
+    private ExpenseReportService reportService;
+
+    @Autowired
+    private PartitionedPdfRenderer partitionedPdfRenderer;
+
+    @Autowired
+    private ReportCache reportCache;
+
+    @Autowired
+    private ReportDataVersions dataVersions;
+
+    @Autowired
+    private MonthEndReportService monthEndReports;
+
+    @Autowired
+    private ReceiptBundleService receiptBundleService;
+
+    private static final PdfReportBackend PDF = new PdfReportBackend();
+
+    private static final String XLSX_CONTENT_TYPE =
+            "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
     ExpenseController(AuditLogController auditLogController) {
         this.auditLogController = auditLogController;
     }
@@ -76,7 +111,8 @@ public class ExpenseController {
 		        @RequestParam("date") String dateString,
 		        @RequestParam(value = "priority", required = false) String priority,
 		        @RequestParam(value = "comments", required = false) String comments,
-		        @RequestParam(value = "attachment", required = false) MultipartFile attachment) throws IOException {
+		        @RequestParam(value = "attachment", required = false) MultipartFile attachment,
+		        @CurrentUser UserIdentity user) throws IOException {
 	    
 		 Expense expense = new Expense();
 		    expense.setAmount(amount);
@@ -118,15 +154,17 @@ public class ExpenseController {
 		    }
 
 		    // Associate with current user
-		    String userEmail = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByEmail(userEmail).orElse(null);
-		    expense.setUser(user);
+		    expense.setUser(user != null ? userRepository.getReferenceById(user.getId()) : null);
+
+		    // Checked before saving, since an auto-approved expense counts towards the budget as soon as it is saved
+		    boolean overBudget = budgetService.wouldExceed(expense.getDate(), category, amount);
 
 		    expenseService.add(expense);
 		    
 		    // Create a custom response object to avoid circular reference
 		    Map<String, Object> response = new HashMap<>();
 		    response.put("message", "Expense saved successfully");
+		    response.put("overBudget", overBudget);
 		    
 		    Map<String, Object> expenseData = new HashMap<>();
 		    expenseData.put("id", expense.getId());
@@ -209,18 +247,13 @@ public class ExpenseController {
         return totalExpenses;
     }
 
+    // Category budgets are monthly budgets set from the current month on; see BudgetService
     @PostMapping("/budget")
     public String setBudget(@RequestBody Budget budget) {
-        Transaction transaction = null;
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            transaction = session.beginTransaction();
-            session.saveOrUpdate(budget);
-            transaction.commit();
+        try {
+            budgetService.setBudget(YearMonth.now(), budget.getCategory(), budget.getBudgetLimit());
             return "Budget set successfully!";
         } catch (Exception e) {
-            if (transaction != null) {
-                transaction.rollback();
-            }
             e.printStackTrace();
             return "Error setting budget.";
         }
@@ -228,11 +261,8 @@ public class ExpenseController {
 
     @GetMapping("/category-budget/{category}")
     public Budget getBudgetByCategory(@PathVariable String category) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            Query<Budget> query = session.createQuery("from Budget where category = :category", Budget.class);
-            query.setParameter("category", category);
-            return query.uniqueResult();
-        }
+        Double limit = budgetService.getLimit(YearMonth.now(), category);
+        return limit != null ? new Budget(category, limit) : null;
     }
 
     @DeleteMapping("/{expenseId}")
@@ -311,7 +341,7 @@ public class ExpenseController {
             }
             
             System.out.println("Deleting expense...");
-            expenseRepository.delete(expense);
+            expenseService.delete(expense);
             System.out.println("Expense deleted successfully!");
             return ResponseEntity.ok(Map.of("message", "Expense deleted successfully!"));
         } catch (Exception e) {
@@ -374,9 +404,7 @@ public class ExpenseController {
 
     // Approve expense by ID
     @PutMapping("/{id}/approve")
-    public ResponseEntity<?> approveExpense(@PathVariable Long id) {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User manager = userRepository.findByEmail(email).orElse(null);
+    public ResponseEntity<?> approveExpense(@PathVariable Long id, @CurrentUser UserIdentity manager) {
         if (manager == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Manager not found");
         }
@@ -386,9 +414,7 @@ public class ExpenseController {
 
     // Reject expense by ID
     @PutMapping("/{id}/reject")
-    public ResponseEntity<?> rejectExpense(@PathVariable Long id) {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User manager = userRepository.findByEmail(email).orElse(null);
+    public ResponseEntity<?> rejectExpense(@PathVariable Long id, @CurrentUser UserIdentity manager) {
         if (manager == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Manager not found");
         }
@@ -398,9 +424,7 @@ public class ExpenseController {
 
     // Endpoint to get all expenses processed by the current manager
     @GetMapping("/processed/manager")
-    public ResponseEntity<List<Map<String, Object>>> getProcessedByManager() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User manager = userRepository.findByEmail(email).orElse(null);
+    public ResponseEntity<List<Map<String, Object>>> getProcessedByManager(@CurrentUser UserIdentity manager) {
         if (manager == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
     	}
@@ -437,6 +461,33 @@ public class ExpenseController {
 
     // Role-specific endpoints for 3-level approval workflow
     
+    // Badge counts for polling: pending per level, what is waiting on the caller's role,
+    // and (for managers) how many of their approvals are still in flight
+    @GetMapping("/pending/counts")
+    public ResponseEntity<?> getPendingCounts(@CurrentUser UserIdentity user) {
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "User not found"));
+        }
+        Map<ApprovalLevel, Long> byLevel = pendingCounters.snapshot();
+        ApprovalLevel ownLevel = null;
+        if (user.getRole() != null) {
+            switch (user.getRole()) {
+                case "ROLE_MANAGER": ownLevel = ApprovalLevel.MANAGER; break;
+                case "ROLE_FINANCE": ownLevel = ApprovalLevel.FINANCE; break;
+                case "ROLE_ADMIN": ownLevel = ApprovalLevel.ADMIN; break;
+                default: break;
+            }
+        }
+        Map<String, Object> counts = new HashMap<>();
+        counts.put("byLevel", byLevel);
+        counts.put("total", byLevel.values().stream().mapToLong(Long::longValue).sum());
+        counts.put("waitingForYou", ownLevel != null ? byLevel.get(ownLevel) : 0L);
+        counts.put("approvedByYouInFlight", pendingCounters.inFlightFor(user.getId()));
+        return ResponseEntity.ok()
+                .header("Cache-Control", "no-cache")
+                .body(counts);
+    }
+
     // Get expenses pending manager approval
     @GetMapping("/pending/manager")
     public ResponseEntity<?> getExpensesPendingManagerApproval() {
@@ -467,9 +518,7 @@ public class ExpenseController {
 
     // Endpoint to get all expenses processed by the current finance user
     @GetMapping("/processed/finance")
-    public ResponseEntity<List<Map<String, Object>>> getProcessedByFinance() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User finance = userRepository.findByEmail(email).orElse(null);
+    public ResponseEntity<List<Map<String, Object>>> getProcessedByFinance(@CurrentUser UserIdentity finance) {
         if (finance == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
@@ -545,152 +594,34 @@ public class ExpenseController {
     }
 
     @GetMapping("/export/{format}")
-    public ResponseEntity<byte[]> exportExpenses(@PathVariable String format) {
-        try {
-            // Get current user
-            String userEmail = SecurityContextHolder.getContext().getAuthentication().getName();
-            com.expense.management.model.User user = userRepository.findByEmail(userEmail).orElse(null);
-            if (user == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("User not found".getBytes());
-            }
-            // Get user's expenses
-            List<Expense> userExpenses = expenseService.getAllByUser(user);
-            // Only include PENDING, APPROVED, or REJECTED
-            userExpenses = userExpenses.stream()
-                .filter(e -> Arrays.asList(ExpenseStatus.PENDING, ExpenseStatus.APPROVED, ExpenseStatus.REJECTED)
-                    .contains(e.getApprovalStatus()))
-                .collect(Collectors.toList());
-            
-            if (format.equalsIgnoreCase("pdf")) {
-                byte[] pdfBytes = generatePdfReport(userExpenses);
-                return ResponseEntity.ok()
-                        .header("Content-Disposition", "attachment; filename=expenses_report.pdf")
-                        .contentType(MediaType.APPLICATION_PDF)
-                        .body(pdfBytes);
-            } else if (format.equalsIgnoreCase("xlsx")) {
-                byte[] excelBytes = generateExcelReport(userExpenses);
-                return ResponseEntity.ok()
-                        .header("Content-Disposition", "attachment; filename=expenses_report.xlsx")
-                        .contentType(MediaType
-                                .parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
-                        .body(excelBytes);
-            } else {
-                return ResponseEntity.badRequest().body("Unsupported format".getBytes());
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error generating report".getBytes());
-        }
-    }
-    
-    private byte[] generatePdfReport(List<Expense> expenses) throws DocumentException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        Document document = new Document();
-        PdfWriter.getInstance(document, baos);
-        
-        document.open();
-        
-        // Add title
-        Font titleFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 18);
-        Paragraph title = new Paragraph("Expense Report", titleFont);
-        title.setAlignment(Element.ALIGN_CENTER);
-        document.add(title);
-        document.add(new Paragraph(" ")); // Spacing
-        
-        // Add date
-        Font dateFont = FontFactory.getFont(FontFactory.HELVETICA, 12);
-        Paragraph date = new Paragraph(
-                "Generated on: " + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd")), dateFont);
-        document.add(date);
-        document.add(new Paragraph(" ")); // Spacing
-        
-        // Create table
-        PdfPTable table = new PdfPTable(5);
-        table.setWidthPercentage(100);
-        
-        // Add headers
-        Font headerFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 10);
-        String[] headers = { "Date", "Category", "Description", "Amount", "Status" };
-        for (String header : headers) {
-            PdfPCell cell = new PdfPCell(new Phrase(header, headerFont));
-            cell.setHorizontalAlignment(Element.ALIGN_CENTER);
-            cell.setPadding(5);
-            table.addCell(cell);
+    public void exportExpenses(@PathVariable String format, @CurrentUser UserIdentity user,
+                               HttpServletResponse response) throws IOException {
+        if (user == null) {
+            writeError(response, HttpStatus.UNAUTHORIZED, "User not found");
+            return;
         }
-        
-        // Add data
-        Font dataFont = FontFactory.getFont(FontFactory.HELVETICA, 9);
-        double totalAmount = 0;
-        for (Expense expense : expenses) {
-            table.addCell(new PdfPCell(new Phrase(expense.getDate().toString(), dataFont)));
-            table.addCell(new PdfPCell(new Phrase(expense.getCategory(), dataFont)));
-            table.addCell(new PdfPCell(new Phrase(expense.getDescription(), dataFont)));
-            table.addCell(new PdfPCell(new Phrase("$" + String.format("%.2f", expense.getAmount()), dataFont)));
-            table.addCell(new PdfPCell(new Phrase(expense.getApprovalStatus().toString(), dataFont)));
-            totalAmount += expense.getAmount();
+        if (!format.equalsIgnoreCase("pdf")) {
+            writeError(response, HttpStatus.BAD_REQUEST, "Unsupported format");
+            return;
         }
-        
-        document.add(table);
-        document.add(new Paragraph(" ")); // Spacing
-        
-        // Add total
-        Font totalFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 12);
-        Paragraph total = new Paragraph("Total Amount: $" + String.format("%.2f", totalAmount), totalFont);
-        document.add(total);
-        
-        document.close();
-        return baos.toByteArray();
+        response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+        response.setHeader("Content-Disposition", "attachment; filename=expenses_report.pdf");
+        streamPdf(response, user.getId(), null, null, ExpenseReportTemplates.userExpenses());
     }
     
-    private String generateCsvReport(List<Expense> expenses) {
-        StringBuilder csv = new StringBuilder();
-        csv.append("Date,Category,Description,Amount,Status\n");
-        
-        for (Expense expense : expenses) {
-            csv.append(expense.getDate()).append(",")
-               .append(expense.getCategory()).append(",")
-               .append("\"").append(expense.getDescription().replace("\"", "\"\"")).append("\",")
-               .append(expense.getAmount()).append(",")
-               .append(expense.getApprovalStatus()).append("\n");
-        }
-        
-        return csv.toString();
-    }
-
-    private byte[] generateExcelReport(List<Expense> expenses) throws Exception {
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("Expenses");
-            int rowIdx = 0;
-            // Header
-            Row header = sheet.createRow(rowIdx++);
-            String[] columns = { "Date", "Category", "Description", "Amount", "Status" };
-            for (int i = 0; i < columns.length; i++) {
-                Cell cell = header.createCell(i);
-                cell.setCellValue(columns[i]);
-            }
-            // Data
-            for (Expense expense : expenses) {
-                Row row = sheet.createRow(rowIdx++);
-                row.createCell(0).setCellValue(expense.getDate() != null ? expense.getDate().toString() : "");
-                row.createCell(1).setCellValue(expense.getCategory() != null ? expense.getCategory() : "");
-                row.createCell(2).setCellValue(expense.getDescription() != null ? expense.getDescription() : "");
-                row.createCell(3).setCellValue(expense.getAmount());
-                row.createCell(4).setCellValue(
-                        expense.getApprovalStatus() != null ? expense.getApprovalStatus().toString() : "");
-            }
-            // Autosize columns
-            for (int i = 0; i < columns.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
-            // Write to byte array
-            try (java.io.ByteArrayOutputStream bos = new java.io.ByteArrayOutputStream()) {
-                workbook.write(bos);
-                return bos.toByteArray();
-            }
+    // Streams the workbook to the client as it is built instead of buffering it in memory
+    @GetMapping("/export/xlsx")
+    public void exportExpensesXlsx(@CurrentUser UserIdentity user, HttpServletResponse response) throws IOException {
+        if (user == null) {
+            writeError(response, HttpStatus.UNAUTHORIZED, "User not found");
+            return;
         }
+        response.setContentType(XLSX_CONTENT_TYPE);
+        response.setHeader("Content-Disposition", "attachment; filename=expenses_report.xlsx");
+        reportService.writeExcel(user.getId(), ExpenseReportTemplates.userExpenses(), response.getOutputStream());
     }
 
+    
     @PutMapping("/{expenseId}")
     public ResponseEntity<?> updateExpense(@PathVariable Long expenseId, @RequestBody Map<String, Object> updates) {
         try {
@@ -706,6 +637,7 @@ public class ExpenseController {
                 response.put("message", "You are not allowed to edit this expense.");
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
             }
+            ExpenseFact previous = ExpenseFact.of(expense);
             // Prepare updated values, fallback to current if not provided
             double amount = updates.containsKey("amount") && updates.get("amount") != null
                     ? Double.parseDouble(updates.get("amount").toString())
@@ -752,7 +684,7 @@ public class ExpenseController {
             expense.setDate(date);
             expense.setComments(comments);
             expense.setPriority(priority);
-            expenseRepository.save(expense);
+            expenseService.update(expense, previous);
             return ResponseEntity.ok(expense);
         } catch (Exception e) {
             e.printStackTrace();
@@ -763,16 +695,24 @@ public class ExpenseController {
     }
 
     @GetMapping("/export/yearly-trend/{year}")
-    public ResponseEntity<byte[]> exportYearlyTrendReport(@PathVariable int year) {
-        try {
-            // Get current user
-            String userEmail = SecurityContextHolder.getContext().getAuthentication().getName();
-            com.expense.management.model.User user = userRepository.findByEmail(userEmail).orElse(null);
-            if (user == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("User not found".getBytes());
-            }
+    public void exportYearlyTrendReport(@PathVariable int year, @CurrentUser UserIdentity user,
+                                        WebRequest webRequest, HttpServletResponse response) throws IOException {
+        if (user == null) {
+            writeError(response, HttpStatus.UNAUTHORIZED, "User not found");
+            return;
+        }
+        // Unchanged data means an unchanged report: answer 304 before touching the database
+        String key = ReportCache.key("yearly-trend", "user:" + user.getId(), "year=" + year,
+                dataVersions.forUser(user.getId()));
+        streamCachedPdf(response, webRequest, key, "yearly_trend_report_" + year + ".pdf",
+                "Error generating yearly trend report",
+                out -> reportCache.writeTo(key, yearlyTrendGenerator(user.getId(), year), out));
+    }
+
+    private ReportCache.Generator yearlyTrendGenerator(Long userId, int year) {
+        return out -> {
             // Get user's expenses for the year
-            List<Expense> userExpenses = expenseService.getAllByUser(user);
+            List<Expense> userExpenses = expenseService.getAllByUser(userRepository.getReferenceById(userId));
             // Filter for the given year
             List<Expense> yearlyExpenses = userExpenses.stream()
                     .filter(e -> e.getDate() != null && e.getDate().getYear() == year)
@@ -788,403 +728,277 @@ public class ExpenseController {
             }
 
             // Generate PDF
-            byte[] pdfBytes = generateYearlyTrendPdf(year, monthTotals);
-
-            return ResponseEntity.ok()
-                    .header("Content-Disposition", "attachment; filename=yearly_trend_report_" + year + ".pdf")
-                    .contentType(MediaType.APPLICATION_PDF)
-                    .body(pdfBytes);
-        } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error generating yearly trend report".getBytes());
-        }
+            writeYearlyTrendPdf(year, monthTotals, out);
+        };
     }
 
-    private byte[] generateYearlyTrendPdf(int year, Map<Integer, Double> monthTotals)
-            throws com.itextpdf.text.DocumentException {
-        java.io.ByteArrayOutputStream baos = new java.io.ByteArrayOutputStream();
-        com.itextpdf.text.Document document = new com.itextpdf.text.Document();
-        com.itextpdf.text.pdf.PdfWriter.getInstance(document, baos);
-
-        document.open();
-
-        com.itextpdf.text.Font titleFont = com.itextpdf.text.FontFactory
-                .getFont(com.itextpdf.text.FontFactory.HELVETICA_BOLD, 18);
-        com.itextpdf.text.Paragraph title = new com.itextpdf.text.Paragraph("Yearly Expense Trend Report - " + year,
-                titleFont);
-        title.setAlignment(com.itextpdf.text.Element.ALIGN_CENTER);
-        document.add(title);
-        document.add(new com.itextpdf.text.Paragraph(" "));
-
-        com.itextpdf.text.pdf.PdfPTable table = new com.itextpdf.text.pdf.PdfPTable(2);
-        table.setWidthPercentage(60);
-        table.setHorizontalAlignment(com.itextpdf.text.Element.ALIGN_CENTER);
-
-        com.itextpdf.text.Font headerFont = com.itextpdf.text.FontFactory
-                .getFont(com.itextpdf.text.FontFactory.HELVETICA_BOLD, 12);
-        com.itextpdf.text.pdf.PdfPCell monthHeader = new com.itextpdf.text.pdf.PdfPCell(
-                new com.itextpdf.text.Phrase("Month", headerFont));
-        com.itextpdf.text.pdf.PdfPCell totalHeader = new com.itextpdf.text.pdf.PdfPCell(
-                new com.itextpdf.text.Phrase("Total Spent", headerFont));
-        monthHeader.setHorizontalAlignment(com.itextpdf.text.Element.ALIGN_CENTER);
-        totalHeader.setHorizontalAlignment(com.itextpdf.text.Element.ALIGN_CENTER);
-        table.addCell(monthHeader);
-        table.addCell(totalHeader);
-
-        com.itextpdf.text.Font dataFont = com.itextpdf.text.FontFactory.getFont(com.itextpdf.text.FontFactory.HELVETICA,
-                11);
-        double yearlyTotal = 0;
+    private void writeYearlyTrendPdf(int year, Map<Integer, Double> monthTotals, OutputStream out) throws IOException {
+        List<ExpenseReportTemplates.MonthTotal> rows = new ArrayList<>(12);
         for (int m = 1; m <= 12; m++) {
-            String monthName = java.time.Month.of(m).name();
-            double total = monthTotals.get(m);
-            table.addCell(new com.itextpdf.text.pdf.PdfPCell(new com.itextpdf.text.Phrase(monthName, dataFont)));
-            table.addCell(new com.itextpdf.text.pdf.PdfPCell(
-                    new com.itextpdf.text.Phrase("$" + String.format("%.2f", total), dataFont)));
-            yearlyTotal += total;
+            rows.add(new ExpenseReportTemplates.MonthTotal(Month.of(m), monthTotals.get(m)));
         }
-        document.add(table);
-        document.add(new com.itextpdf.text.Paragraph(" "));
-
-        com.itextpdf.text.Font totalFont = com.itextpdf.text.FontFactory
-                .getFont(com.itextpdf.text.FontFactory.HELVETICA_BOLD, 14);
-        com.itextpdf.text.Paragraph total = new com.itextpdf.text.Paragraph(
-                "Yearly Total: $" + String.format("%.2f", yearlyTotal), totalFont);
-        total.setAlignment(com.itextpdf.text.Element.ALIGN_CENTER);
-        document.add(total);
-
-        document.close();
-        return baos.toByteArray();
+        PDF.write(ExpenseReportTemplates.yearlyTrend(year), rows, out);
     }
 
+    /**
+     * Detailed PDF of one month. {@code scope=company} covers every user and is limited
+     * to managers, finance and admins. Served from the report cache, which the month-end
+     * scheduler fills ahead of the rush after a month closes; a miss streams as it renders.
+     */
     @GetMapping("/export/monthly-detailed/{year}/{month}")
-    public ResponseEntity<byte[]> exportMonthlyDetailedReport(@PathVariable int year, @PathVariable int month) {
-        try {
-            String userEmail = SecurityContextHolder.getContext().getAuthentication().getName();
-            com.expense.management.model.User user = userRepository.findByEmail(userEmail).orElse(null);
-            if (user == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("User not found".getBytes());
-            }
-            // Get user's expenses for the month
-            List<Expense> userExpenses = expenseService.getAllByUser(user);
-            List<Expense> monthlyExpenses = userExpenses.stream()
-                    .filter(e -> e.getDate() != null && e.getDate().getYear() == year
-                            && e.getDate().getMonthValue() == month)
-                    .toList();
-
-            // Generate PDF
-            byte[] pdfBytes = generateMonthlyDetailedPdf(year, month, monthlyExpenses);
-
-            return ResponseEntity.ok()
-                    .header("Content-Disposition",
-                            "attachment; filename=monthly_detailed_report_" + year + "_" + month + ".pdf")
-                    .contentType(MediaType.APPLICATION_PDF)
-                    .body(pdfBytes);
-        } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error generating monthly detailed report".getBytes());
+    public void exportMonthlyDetailedReport(@PathVariable int year, @PathVariable int month,
+                                            @RequestParam(defaultValue = "user") String scope,
+                                            @CurrentUser UserIdentity user,
+                                            WebRequest webRequest, HttpServletResponse response) throws IOException {
+        if (user == null) {
+            writeError(response, HttpStatus.UNAUTHORIZED, "User not found");
+            return;
+        }
+        if (month < 1 || month > 12) {
+            writeError(response, HttpStatus.BAD_REQUEST, "Invalid month");
+            return;
+        }
+        if (!checkReportScope(user, scope, response)) {
+            return;
         }
+        Long ownerId = scope.equals("company") ? null : user.getId();
+        String key = monthEndReports.monthlyDetailedKey(ownerId, year, month);
+        String prefix = ownerId == null ? "company_monthly_report_" : "monthly_detailed_report_";
+        streamCachedPdf(response, webRequest, key, prefix + year + "_" + month + ".pdf",
+                "Error generating monthly detailed report",
+                out -> monthEndReports.writeMonthlyDetailed(key, ownerId, year, month, out));
     }
 
-    private byte[] generateMonthlyDetailedPdf(int year, int month, List<Expense> expenses)
-            throws com.itextpdf.text.DocumentException {
-        java.io.ByteArrayOutputStream baos = new java.io.ByteArrayOutputStream();
-        com.itextpdf.text.Document document = new com.itextpdf.text.Document();
-        com.itextpdf.text.pdf.PdfWriter.getInstance(document, baos);
-
-        document.open();
-
-        com.itextpdf.text.Font titleFont = com.itextpdf.text.FontFactory
-                .getFont(com.itextpdf.text.FontFactory.HELVETICA_BOLD, 18);
-        com.itextpdf.text.Paragraph title = new com.itextpdf.text.Paragraph(
-                "Detailed Monthly Expense Report - " + year + "-" + String.format("%02d", month), titleFont);
-        title.setAlignment(com.itextpdf.text.Element.ALIGN_CENTER);
-        document.add(title);
-        document.add(new com.itextpdf.text.Paragraph(" "));
-
-        com.itextpdf.text.pdf.PdfPTable table = new com.itextpdf.text.pdf.PdfPTable(5);
-        table.setWidthPercentage(100);
-
-        com.itextpdf.text.Font headerFont = com.itextpdf.text.FontFactory
-                .getFont(com.itextpdf.text.FontFactory.HELVETICA_BOLD, 12);
-        String[] headers = { "Date", "Category", "Description", "Amount", "Status" };
-        for (String header : headers) {
-            com.itextpdf.text.pdf.PdfPCell cell = new com.itextpdf.text.pdf.PdfPCell(
-                    new com.itextpdf.text.Phrase(header, headerFont));
-            cell.setHorizontalAlignment(com.itextpdf.text.Element.ALIGN_CENTER);
-            cell.setPadding(5);
-            table.addCell(cell);
+    /**
+     * Spending per category for one year; {@code scope=company} as for the monthly report.
+     */
+    @GetMapping("/export/category-spending/{year}")
+    public void exportCategorySpendingReport(@PathVariable int year,
+                                             @RequestParam(defaultValue = "user") String scope,
+                                             @CurrentUser UserIdentity user,
+                                             WebRequest webRequest, HttpServletResponse response) throws IOException {
+        if (user == null) {
+            writeError(response, HttpStatus.UNAUTHORIZED, "User not found");
+            return;
         }
-
-        com.itextpdf.text.Font dataFont = com.itextpdf.text.FontFactory.getFont(com.itextpdf.text.FontFactory.HELVETICA,
-                10);
-        double totalAmount = 0;
-        for (Expense expense : expenses) {
-            table.addCell(new com.itextpdf.text.pdf.PdfPCell(
-                    new com.itextpdf.text.Phrase(expense.getDate().toString(), dataFont)));
-            table.addCell(
-                    new com.itextpdf.text.pdf.PdfPCell(new com.itextpdf.text.Phrase(expense.getCategory(), dataFont)));
-            table.addCell(new com.itextpdf.text.pdf.PdfPCell(
-                    new com.itextpdf.text.Phrase(expense.getDescription(), dataFont)));
-            table.addCell(new com.itextpdf.text.pdf.PdfPCell(
-                    new com.itextpdf.text.Phrase("$" + String.format("%.2f", expense.getAmount()), dataFont)));
-            table.addCell(new com.itextpdf.text.pdf.PdfPCell(
-                    new com.itextpdf.text.Phrase(expense.getApprovalStatus().toString(), dataFont)));
-            totalAmount += expense.getAmount();
+        if (!checkReportScope(user, scope, response)) {
+            return;
         }
-
-        document.add(table);
-        document.add(new com.itextpdf.text.Paragraph(" "));
-
-        com.itextpdf.text.Font totalFont = com.itextpdf.text.FontFactory
-                .getFont(com.itextpdf.text.FontFactory.HELVETICA_BOLD, 14);
-        com.itextpdf.text.Paragraph total = new com.itextpdf.text.Paragraph(
-                "Monthly Total: $" + String.format("%.2f", totalAmount), totalFont);
-        total.setAlignment(com.itextpdf.text.Element.ALIGN_RIGHT);
-        document.add(total);
-
-        document.close();
-        return baos.toByteArray();
+        Long ownerId = scope.equals("company") ? null : user.getId();
+        String key = monthEndReports.categorySpendingKey(ownerId, year);
+        String prefix = ownerId == null ? "company_category_spending_report_" : "category_spending_report_";
+        streamCachedPdf(response, webRequest, key, prefix + year + ".pdf",
+                "Error generating category spending report",
+                out -> monthEndReports.writeCategorySpending(key, ownerId, year, out));
     }
 
-    @GetMapping("/export/category-spending/{year}")
-    public ResponseEntity<byte[]> exportCategorySpendingReport(@PathVariable int year) {
+    // Answers 304 if the client holds the current ETag, otherwise streams the cached or freshly rendered PDF
+    private void streamCachedPdf(HttpServletResponse response, WebRequest webRequest, String key, String fileName,
+                                 String errorMessage, ReportCache.Generator writer) throws IOException {
+        String etag = ReportCache.etag(key);
+        if (webRequest.checkNotModified(etag)) {
+            return;
+        }
+        response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+        response.setHeader("Content-Disposition", "attachment; filename=" + fileName);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue());
+        response.setHeader(HttpHeaders.ETAG, etag);
         try {
-            String userEmail = SecurityContextHolder.getContext().getAuthentication().getName();
-            com.expense.management.model.User user = userRepository.findByEmail(userEmail).orElse(null);
-            if (user == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("User not found".getBytes());
-            }
-            // Get user's expenses for the year
-            List<Expense> userExpenses = expenseService.getAllByUser(user);
-            List<Expense> yearlyExpenses = userExpenses.stream()
-                    .filter(e -> e.getDate() != null && e.getDate().getYear() == year)
-                    .toList();
-
-            // Aggregate by category
-            Map<String, Double> categoryTotals = new HashMap<>();
-            double total = 0;
-            for (Expense e : yearlyExpenses) {
-                categoryTotals.put(e.getCategory(), categoryTotals.getOrDefault(e.getCategory(), 0.0) + e.getAmount());
-                total += e.getAmount();
+            writer.generate(response.getOutputStream());
+        } catch (Exception e) {
+            e.printStackTrace();
+            if (!response.isCommitted()) {
+                response.reset();
+                writeError(response, HttpStatus.INTERNAL_SERVER_ERROR, errorMessage);
+            } else {
+                throw new IOException("PDF generation failed mid-stream", e);
             }
+        }
+    }
 
-            // Generate PDF
-            byte[] pdfBytes = generateCategorySpendingPdf(year, categoryTotals, total);
+    /**
+     * ZIP holding the expense report, every receipt and a manifest for expenses dated
+     * between {@code from} and {@code to} (yyyy-MM-dd, both optional). Receipts are
+     * fetched and written one by one while the archive streams out.
+     */
+    @GetMapping("/export/bundle")
+    public void exportReceiptBundle(@RequestParam(required = false) String from,
+                                    @RequestParam(required = false) String to,
+                                    @RequestParam(defaultValue = "user") String scope,
+                                    @CurrentUser UserIdentity user,
+                                    HttpServletResponse response) throws IOException {
+        if (user == null) {
+            writeError(response, HttpStatus.UNAUTHORIZED, "User not found");
+            return;
+        }
+        if (!scope.equals("user") && !scope.equals("company")) {
+            writeError(response, HttpStatus.BAD_REQUEST, "scope must be user or company");
+            return;
+        }
+        if (scope.equals("company") && !canExportAll(user)) {
+            writeError(response, HttpStatus.FORBIDDEN, "Access denied. Manager, Admin, or Finance role required.");
+            return;
+        }
+        LocalDate fromDate;
+        LocalDate toDate;
+        try {
+            fromDate = from == null || from.isBlank() ? null : LocalDate.parse(from);
+            toDate = to == null || to.isBlank() ? null : LocalDate.parse(to);
+        } catch (DateTimeParseException e) {
+            writeError(response, HttpStatus.BAD_REQUEST, "Dates must be formatted as yyyy-MM-dd");
+            return;
+        }
 
-            return ResponseEntity.ok()
-                    .header("Content-Disposition", "attachment; filename=category_spending_report_" + year + ".pdf")
-                    .contentType(MediaType.APPLICATION_PDF)
-                    .body(pdfBytes);
-        } catch (Exception e) {
+        boolean company = scope.equals("company");
+        String fileName = "expense_bundle" + (fromDate != null ? "_" + fromDate : "") + (toDate != null ? "_" + toDate : "");
+        response.setContentType("application/zip");
+        response.setHeader("Content-Disposition", "attachment; filename=" + fileName + ".zip");
+        try {
+            receiptBundleService.writeBundle(company ? null : user.getId(), fromDate, toDate,
+                    company ? ExpenseReportTemplates.allExpenses() : ExpenseReportTemplates.userExpenses(),
+                    response.getOutputStream());
+        } catch (DocumentException e) {
             e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error generating category spending report".getBytes());
+            if (!response.isCommitted()) {
+                response.reset();
+                writeError(response, HttpStatus.INTERNAL_SERVER_ERROR, "Error generating bundle");
+            } else {
+                throw new IOException("Bundle generation failed mid-stream", e);
+            }
         }
     }
 
-    private byte[] generateCategorySpendingPdf(int year, Map<String, Double> categoryTotals, double total)
-            throws com.itextpdf.text.DocumentException {
-        java.io.ByteArrayOutputStream baos = new java.io.ByteArrayOutputStream();
-        com.itextpdf.text.Document document = new com.itextpdf.text.Document();
-        com.itextpdf.text.pdf.PdfWriter.getInstance(document, baos);
-
-        document.open();
-
-        com.itextpdf.text.Font titleFont = com.itextpdf.text.FontFactory
-                .getFont(com.itextpdf.text.FontFactory.HELVETICA_BOLD, 18);
-        com.itextpdf.text.Paragraph title = new com.itextpdf.text.Paragraph("Category Spending Report - " + year,
-                titleFont);
-        title.setAlignment(com.itextpdf.text.Element.ALIGN_CENTER);
-        document.add(title);
-        document.add(new com.itextpdf.text.Paragraph(" "));
-
-        com.itextpdf.text.pdf.PdfPTable table = new com.itextpdf.text.pdf.PdfPTable(3);
-        table.setWidthPercentage(80);
-        table.setHorizontalAlignment(com.itextpdf.text.Element.ALIGN_CENTER);
-
-        com.itextpdf.text.Font headerFont = com.itextpdf.text.FontFactory
-                .getFont(com.itextpdf.text.FontFactory.HELVETICA_BOLD, 12);
-        String[] headers = { "Category", "Total Spent", "Percent" };
-        for (String header : headers) {
-            com.itextpdf.text.pdf.PdfPCell cell = new com.itextpdf.text.pdf.PdfPCell(
-                    new com.itextpdf.text.Phrase(header, headerFont));
-            cell.setHorizontalAlignment(com.itextpdf.text.Element.ALIGN_CENTER);
-            cell.setPadding(5);
-            table.addCell(cell);
+    // true when the user may see the requested scope, otherwise writes the error response
+    private boolean checkReportScope(UserIdentity user, String scope, HttpServletResponse response) throws IOException {
+        if (scope.equals("user")) {
+            return true;
         }
-
-        com.itextpdf.text.Font dataFont = com.itextpdf.text.FontFactory.getFont(com.itextpdf.text.FontFactory.HELVETICA,
-                11);
-        for (Map.Entry<String, Double> entry : categoryTotals.entrySet()) {
-            table.addCell(new com.itextpdf.text.pdf.PdfPCell(new com.itextpdf.text.Phrase(entry.getKey(), dataFont)));
-            table.addCell(new com.itextpdf.text.pdf.PdfPCell(
-                    new com.itextpdf.text.Phrase("$" + String.format("%.2f", entry.getValue()), dataFont)));
-            double percent = total > 0 ? (entry.getValue() / total) * 100 : 0;
-            table.addCell(new com.itextpdf.text.pdf.PdfPCell(
-                    new com.itextpdf.text.Phrase(String.format("%.2f%%", percent), dataFont)));
+        if (!scope.equals("company")) {
+            writeError(response, HttpStatus.BAD_REQUEST, "scope must be user or company");
+            return false;
+        }
+        if (!canExportAll(user)) {
+            writeError(response, HttpStatus.FORBIDDEN, "Access denied. Manager, Admin, or Finance role required.");
+            return false;
         }
-        document.add(table);
-        document.add(new com.itextpdf.text.Paragraph(" "));
-
-        com.itextpdf.text.Font totalFont = com.itextpdf.text.FontFactory
-                .getFont(com.itextpdf.text.FontFactory.HELVETICA_BOLD, 14);
-        com.itextpdf.text.Paragraph totalPara = new com.itextpdf.text.Paragraph(
-                "Yearly Total: $" + String.format("%.2f", total), totalFont);
-        totalPara.setAlignment(com.itextpdf.text.Element.ALIGN_CENTER);
-        document.add(totalPara);
-
-        document.close();
-        return baos.toByteArray();
+        return true;
     }
 
     /**
      * Export all expenses (for managers and admins)
      */
     @GetMapping("/export-all/{format}")
-    public ResponseEntity<byte[]> exportAllExpenses(@PathVariable String format) {
-        try {
-            // Get current user
-            String userEmail = SecurityContextHolder.getContext().getAuthentication().getName();
-            com.expense.management.model.User user = userRepository.findByEmail(userEmail).orElse(null);
-            if (user == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("User not found".getBytes());
-            }
-            
-            // Check if user has manager, admin, or finance role
-            if (user.getRole() == null || (!user.getRole().getName().equals("ROLE_MANAGER") && 
-                !user.getRole().getName().equals("ROLE_ADMIN") && 
-                !user.getRole().getName().equals("ROLE_FINANCE"))) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied. Manager, Admin, or Finance role required.".getBytes());
-            }
-            
-            // Get all expenses from all users
-            List<Expense> allExpenses = expenseService.getAll();
-            // Only include PENDING, APPROVED, or REJECTED
-            allExpenses = allExpenses.stream()
-                .filter(e -> Arrays.asList(ExpenseStatus.PENDING, ExpenseStatus.APPROVED, ExpenseStatus.REJECTED)
-                    .contains(e.getApprovalStatus()))
-                .collect(Collectors.toList());
-            
-            if (format.equalsIgnoreCase("pdf")) {
-                byte[] pdfBytes = generateAllExpensesPdfReport(allExpenses);
-                return ResponseEntity.ok()
-                        .header("Content-Disposition", "attachment; filename=all_expenses_report.pdf")
-                        .contentType(MediaType.APPLICATION_PDF)
-                        .body(pdfBytes);
-            } else if (format.equalsIgnoreCase("xlsx")) {
-                byte[] excelBytes = generateAllExpensesExcelReport(allExpenses);
-                return ResponseEntity.ok()
-                        .header("Content-Disposition", "attachment; filename=all_expenses_report.xlsx")
-                        .contentType(MediaType
-                                .parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
-                        .body(excelBytes);
-            } else {
-                return ResponseEntity.badRequest().body("Unsupported format".getBytes());
+    public void exportAllExpenses(@PathVariable String format,
+                                  @RequestParam(defaultValue = "false") boolean parallel,
+                                  @CurrentUser UserIdentity user,
+                                  HttpServletResponse response) throws IOException {
+        if (user == null) {
+            writeError(response, HttpStatus.UNAUTHORIZED, "User not found");
+            return;
+        }
+        // Check if user has manager, admin, or finance role
+        if (!canExportAll(user)) {
+            writeError(response, HttpStatus.FORBIDDEN, "Access denied. Manager, Admin, or Finance role required.");
+            return;
+        }
+        if (!format.equalsIgnoreCase("pdf")) {
+            writeError(response, HttpStatus.BAD_REQUEST, "Unsupported format");
+            return;
+        }
+        response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+        response.setHeader("Content-Disposition", "attachment; filename=all_expenses_report.pdf");
+        if (parallel) {
+            // Date-partitioned rendering on all cores, with a running total column
+            try {
+                partitionedPdfRenderer.write(null, ExpenseReportTemplates.allExpenses(), response.getOutputStream());
+            } catch (DocumentException e) {
+                throw new IOException("PDF generation failed", e);
             }
-        } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error generating report".getBytes());
+            return;
         }
+        streamPdf(response, null, null, null, ExpenseReportTemplates.allExpenses());
     }
 
-    private byte[] generateAllExpensesPdfReport(List<Expense> expenses) throws DocumentException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        Document document = new Document();
-        PdfWriter.getInstance(document, baos);
-        
-        document.open();
-        
-        // Add title
-        Font titleFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 18);
-        Paragraph title = new Paragraph("All Expenses Report", titleFont);
-        title.setAlignment(Element.ALIGN_CENTER);
-        document.add(title);
-        document.add(new Paragraph(" ")); // Spacing
-        
-        // Add date
-        Font dateFont = FontFactory.getFont(FontFactory.HELVETICA, 12);
-        Paragraph date = new Paragraph(
-                "Generated on: " + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd")), dateFont);
-        document.add(date);
-        document.add(new Paragraph(" ")); // Spacing
-        
-        // Create table with user information
-        PdfPTable table = new PdfPTable(6);
-        table.setWidthPercentage(100);
-        
-        // Add headers
-        Font headerFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 10);
-        String[] headers = { "Date", "Employee", "Category", "Description", "Amount", "Status" };
-        for (String header : headers) {
-            PdfPCell cell = new PdfPCell(new Phrase(header, headerFont));
-            cell.setHorizontalAlignment(Element.ALIGN_CENTER);
-            cell.setPadding(5);
-            table.addCell(cell);
+    @GetMapping("/export/csv")
+    public void exportExpensesCsv(@RequestParam(defaultValue = "false") boolean gzip,
+                                  @CurrentUser UserIdentity user,
+                                  HttpServletResponse response) throws IOException {
+        if (user == null) {
+            writeError(response, HttpStatus.UNAUTHORIZED, "User not found");
+            return;
         }
-        
-        // Add data
-        Font dataFont = FontFactory.getFont(FontFactory.HELVETICA, 9);
-        double totalAmount = 0;
-        for (Expense expense : expenses) {
-            String employeeName = expense.getUser() != null ? expense.getUser().getFullName() : "Unknown";
-            table.addCell(new PdfPCell(new Phrase(expense.getDate().toString(), dataFont)));
-            table.addCell(new PdfPCell(new Phrase(employeeName, dataFont)));
-            table.addCell(new PdfPCell(new Phrase(expense.getCategory(), dataFont)));
-            table.addCell(new PdfPCell(new Phrase(expense.getDescription(), dataFont)));
-            table.addCell(new PdfPCell(new Phrase("$" + String.format("%.2f", expense.getAmount()), dataFont)));
-            table.addCell(new PdfPCell(new Phrase(expense.getApprovalStatus().toString(), dataFont)));
-            totalAmount += expense.getAmount();
+        startCsvResponse(response, "expenses_report", gzip);
+        reportService.writeCsv(user.getId(), ExpenseReportTemplates.userExpenses(), gzip, response.getOutputStream());
+    }
+
+    @GetMapping("/export-all/csv")
+    public void exportAllExpensesCsv(@RequestParam(defaultValue = "false") boolean gzip,
+                                     @CurrentUser UserIdentity user,
+                                     HttpServletResponse response) throws IOException {
+        if (user == null) {
+            writeError(response, HttpStatus.UNAUTHORIZED, "User not found");
+            return;
         }
-        
-        document.add(table);
-        document.add(new Paragraph(" ")); // Spacing
-        
-        // Add total
-        Font totalFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 12);
-        Paragraph total = new Paragraph("Total Amount: $" + String.format("%.2f", totalAmount), totalFont);
-        document.add(total);
-        
-        document.close();
-        return baos.toByteArray();
+        if (!canExportAll(user)) {
+            writeError(response, HttpStatus.FORBIDDEN, "Access denied. Manager, Admin, or Finance role required.");
+            return;
+        }
+        startCsvResponse(response, "all_expenses_report", gzip);
+        reportService.writeCsv(null, ExpenseReportTemplates.allExpenses(), gzip, response.getOutputStream());
     }
 
-    private byte[] generateAllExpensesExcelReport(List<Expense> expenses) throws Exception {
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("All Expenses");
-            int rowIdx = 0;
-            // Header
-            Row header = sheet.createRow(rowIdx++);
-            String[] columns = { "Date", "Employee", "Category", "Description", "Amount", "Status" };
-            for (int i = 0; i < columns.length; i++) {
-                Cell cell = header.createCell(i);
-                cell.setCellValue(columns[i]);
-            }
-            // Data
-            for (Expense expense : expenses) {
-                Row row = sheet.createRow(rowIdx++);
-                row.createCell(0).setCellValue(expense.getDate() != null ? expense.getDate().toString() : "");
-                row.createCell(1).setCellValue(expense.getUser() != null ? expense.getUser().getFullName() : "Unknown");
-                row.createCell(2).setCellValue(expense.getCategory() != null ? expense.getCategory() : "");
-                row.createCell(3).setCellValue(expense.getDescription() != null ? expense.getDescription() : "");
-                row.createCell(4).setCellValue(expense.getAmount());
-                row.createCell(5).setCellValue(
-                        expense.getApprovalStatus() != null ? expense.getApprovalStatus().toString() : "");
-            }
-            // Autosize columns
-            for (int i = 0; i < columns.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
-            // Write to byte array
-            try (java.io.ByteArrayOutputStream bos = new java.io.ByteArrayOutputStream()) {
-                workbook.write(bos);
-                return bos.toByteArray();
+    // gzip=true sends a .csv.gz file rather than using Content-Encoding, so clients save the compressed bytes as-is
+    private void startCsvResponse(HttpServletResponse response, String baseName, boolean gzip) {
+        if (gzip) {
+            response.setContentType("application/gzip");
+            response.setHeader("Content-Disposition", "attachment; filename=" + baseName + ".csv.gz");
+        } else {
+            response.setContentType("text/csv; charset=UTF-8");
+            response.setHeader("Content-Disposition", "attachment; filename=" + baseName + ".csv");
+        }
+    }
+
+    @GetMapping("/export-all/xlsx")
+    public void exportAllExpensesXlsx(@CurrentUser UserIdentity user, HttpServletResponse response) throws IOException {
+        if (user == null) {
+            writeError(response, HttpStatus.UNAUTHORIZED, "User not found");
+            return;
+        }
+        if (!canExportAll(user)) {
+            writeError(response, HttpStatus.FORBIDDEN, "Access denied. Manager, Admin, or Finance role required.");
+            return;
+        }
+        response.setContentType(XLSX_CONTENT_TYPE);
+        response.setHeader("Content-Disposition", "attachment; filename=all_expenses_report.xlsx");
+        reportService.writeExcel(null, ExpenseReportTemplates.allExpenses(), response.getOutputStream());
+    }
+
+    private boolean canExportAll(UserIdentity user) {
+        return user.hasAnyRole("ROLE_MANAGER", "ROLE_ADMIN", "ROLE_FINANCE");
+    }
+
+    // Headers are already set; once the first page is written an error can only abort the response
+    private void streamPdf(HttpServletResponse response, Long userId, LocalDate from, LocalDate to,
+                           ReportTemplate<ExpenseReportRow> template) throws IOException {
+        try {
+            reportService.writePdf(userId, from, to, template, response.getOutputStream());
+        } catch (DocumentException e) {
+            e.printStackTrace();
+            if (!response.isCommitted()) {
+                response.reset();
+                writeError(response, HttpStatus.INTERNAL_SERVER_ERROR, "Error generating report");
+            } else {
+                throw new IOException("PDF generation failed mid-stream", e);
             }
         }
     }
 
+    private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getOutputStream().write(message.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+    }
+
     @GetMapping("/rejected")
     public ResponseEntity<?> getRejectedExpenses() {
         List<Expense> rejectedExpenses = expenseService.getRejectedExpenses();
@@ -1,12 +1,11 @@
 package com.expense.management.controller;
 
+import com.expense.management.dto.UserIdentity;
 import com.expense.management.model.Notification;
-import com.expense.management.model.User;
 import com.expense.management.repository.NotificationRepository;
-import com.expense.management.repository.UserRepository;
+import com.expense.management.security.CurrentUser;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
@@ -22,23 +21,17 @@ public class NotificationController {
     @Autowired
     private NotificationRepository notificationRepository;
 
-    @Autowired
-    private UserRepository userRepository;
-
     /**
      * Get all notifications for the current user
      */
     @GetMapping
-    public ResponseEntity<?> getUserNotifications() {
+    public ResponseEntity<?> getUserNotifications(@CurrentUser UserIdentity user) {
         try {
-            String userEmail = SecurityContextHolder.getContext().getAuthentication().getName();
-            User user = userRepository.findByEmail(userEmail).orElse(null);
-            
             if (user == null) {
                 return ResponseEntity.status(401).body(Map.of("error", "User not found"));
             }
 
-            List<Notification> notifications = notificationRepository.findByUserOrderByCreatedAtDesc(user);
+            List<Notification> notifications = notificationRepository.findByUserIdOrderByCreatedAtDesc(user.getId());
             
             // Convert to clean format without circular references
             List<Map<String, Object>> cleanNotifications = notifications.stream()
@@ -64,11 +57,8 @@ public class NotificationController {
      * Mark a notification as read
      */
     @PutMapping("/{id}/read")
-    public ResponseEntity<?> markAsRead(@PathVariable Long id) {
+    public ResponseEntity<?> markAsRead(@PathVariable Long id, @CurrentUser UserIdentity user) {
         try {
-            String userEmail = SecurityContextHolder.getContext().getAuthentication().getName();
-            User user = userRepository.findByEmail(userEmail).orElse(null);
-            
             if (user == null) {
                 return ResponseEntity.status(401).body(Map.of("error", "User not found"));
             }
@@ -97,20 +87,14 @@ public class NotificationController {
      * Mark all notifications as read for the current user
      */
     @PutMapping("/read-all")
-    public ResponseEntity<?> markAllAsRead() {
+    public ResponseEntity<?> markAllAsRead(@CurrentUser UserIdentity user) {
         try {
-            String userEmail = SecurityContextHolder.getContext().getAuthentication().getName();
-            User user = userRepository.findByEmail(userEmail).orElse(null);
-            
             if (user == null) {
                 return ResponseEntity.status(401).body(Map.of("error", "User not found"));
             }
 
-            List<Notification> notifications = notificationRepository.findByUserOrderByCreatedAtDesc(user);
-            for (Notification notification : notifications) {
-                notification.setRead(true);
-            }
-            notificationRepository.saveAll(notifications);
+            // One UPDATE instead of loading and saving every notification
+            notificationRepository.markAllReadByUserId(user.getId());
 
             return ResponseEntity.ok(Map.of("message", "All notifications marked as read"));
         } catch (Exception e) {
@@ -123,11 +107,8 @@ public class NotificationController {
      * Delete a notification
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deleteNotification(@PathVariable Long id) {
+    public ResponseEntity<?> deleteNotification(@PathVariable Long id, @CurrentUser UserIdentity user) {
         try {
-            String userEmail = SecurityContextHolder.getContext().getAuthentication().getName();
-            User user = userRepository.findByEmail(userEmail).orElse(null);
-            
             if (user == null) {
                 return ResponseEntity.status(401).body(Map.of("error", "User not found"));
             }
@@ -155,17 +136,13 @@ public class NotificationController {
      * Get unread notification count for the current user
      */
     @GetMapping("/unread-count")
-    public ResponseEntity<?> getUnreadCount() {
+    public ResponseEntity<?> getUnreadCount(@CurrentUser UserIdentity user) {
         try {
-            String userEmail = SecurityContextHolder.getContext().getAuthentication().getName();
-            User user = userRepository.findByEmail(userEmail).orElse(null);
-            
             if (user == null) {
                 return ResponseEntity.status(401).body(Map.of("error", "User not found"));
             }
 
-            List<Notification> notifications = notificationRepository.findByUserOrderByCreatedAtDesc(user);
-            long unreadCount = notifications.stream().filter(n -> !n.isRead()).count();
+            long unreadCount = notificationRepository.countByUserIdAndReadFalse(user.getId());
 
             return ResponseEntity.ok(Map.of("unreadCount", unreadCount));
         } catch (Exception e) {
@@ -0,0 +1,115 @@
+package com.expense.management.controller;
+
+import com.expense.management.dto.ReportJobRequest;
+import com.expense.management.dto.UserIdentity;
+import com.expense.management.security.CurrentUser;
+import com.expense.management.services.ReportJob;
+import com.expense.management.services.ReportJobService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Background report jobs: submit, poll, download (with HTTP Range support so
+ * interrupted downloads can resume) and cancel.
+ */
+@RestController
+@RequestMapping("/api/reports/jobs")
+@CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
+public class ReportJobController {
+
+    @Autowired
+    private ReportJobService reportJobService;
+
+    @PostMapping
+    public ResponseEntity<?> submit(@RequestBody ReportJobRequest request, @CurrentUser UserIdentity user) {
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "User not found"));
+        }
+        try {
+            ReportJob job = reportJobService.submit(user, request);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/reports/jobs/" + job.getId()))
+                    .body(job.toStatus());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("message", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<?> list(@CurrentUser UserIdentity user) {
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "User not found"));
+        }
+        return ResponseEntity.ok(reportJobService.listJobs(user.getId()).stream()
+                .map(ReportJob::toStatus)
+                .collect(Collectors.toList()));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> status(@PathVariable String id, @CurrentUser UserIdentity user) {
+        Optional<ReportJob> job = findJob(id, user);
+        if (job.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", "Report job not found"));
+        }
+        return ResponseEntity.ok(job.get().toStatus());
+    }
+
+    /**
+     * Returns the finished file. Spring answers Range requests on a Resource body
+     * with 206 Partial Content, and the ETag lets clients resume with If-Range.
+     */
+    @GetMapping("/{id}/download")
+    public ResponseEntity<?> download(@PathVariable String id, @CurrentUser UserIdentity user) {
+        Optional<ReportJob> found = findJob(id, user);
+        if (found.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", "Report job not found"));
+        }
+        ReportJob job = found.get();
+        FileSystemResource file = job.getStatus() == ReportJob.Status.COMPLETED ? new FileSystemResource(job.getFile()) : null;
+        if (file == null || !file.exists()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("message", "Report is not available (status " + job.getStatus() + ")"));
+        }
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + job.getFileName())
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .eTag("\"" + job.getId() + "\"")
+                .lastModified(job.getFinishedAt())
+                .contentType(MediaType.parseMediaType(job.getContentType()))
+                .body(file);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> cancel(@PathVariable String id, @CurrentUser UserIdentity user) {
+        if (user == null || !reportJobService.cancel(id, user.getId())) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", "Report job not found"));
+        }
+        return ResponseEntity.ok(Map.of("message", "Report job cancelled"));
+    }
+
+    private Optional<ReportJob> findJob(String id, UserIdentity user) {
+        return user == null ? Optional.empty() : reportJobService.getJob(id, user.getId());
+    }
+}
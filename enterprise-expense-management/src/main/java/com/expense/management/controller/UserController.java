@@ -17,9 +17,15 @@ import com.expense.management.model.Role;
 import com.expense.management.repository.RoleRepository;
 import com.expense.management.services.AuditService;
 import com.expense.management.security.JwtTokenProvider;
+import com.expense.management.security.LoginAttemptLimiter;
+import com.expense.management.security.PasswordHashingExecutor;
+import com.expense.management.security.TokenVersionCache;
+import com.expense.management.security.UserIdentityCache;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -29,6 +35,9 @@ import java.util.HashMap;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 @CrossOrigin(origins = "http://localhost:3000")
 @RestController
@@ -55,6 +64,18 @@ public class UserController {
     @Autowired
     private JwtTokenProvider jwtTokenProvider;
 
+    @Autowired
+    private TokenVersionCache tokenVersions;
+
+    @Autowired
+    private UserIdentityCache identityCache;
+
+    @Autowired
+    private PasswordHashingExecutor passwordHashing;
+
+    @Autowired
+    private LoginAttemptLimiter loginAttempts;
+
     private static final Logger logger = LoggerFactory.getLogger(UserController.class);
 
     UserController(UserService userService) {
@@ -81,93 +102,137 @@ public class UserController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest request) {
-        try {
-            // Validate request
-            if (request.getEmail() == null || request.getEmail().trim().isEmpty()) {
-                return ResponseEntity.badRequest().body(Map.of("message", "Email is required"));
-            }
-            if (request.getPassword() == null || request.getPassword().trim().isEmpty()) {
-                return ResponseEntity.badRequest().body(Map.of("message", "Password is required"));
-            }
-
-            logger.debug("Attempting to authenticate user with email: {}", request.getEmail());
-
-            // Attempt authentication
-            Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                    request.getEmail(),
-                    request.getPassword()
-                )
-            );
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody LoginRequest request,
+                                                      HttpServletRequest httpRequest) {
+        // Validate request
+        if (request.getEmail() == null || request.getEmail().trim().isEmpty()) {
+            return CompletableFuture.completedFuture(
+                ResponseEntity.badRequest().body(Map.of("message", "Email is required")));
+        }
+        if (request.getPassword() == null || request.getPassword().trim().isEmpty()) {
+            return CompletableFuture.completedFuture(
+                ResponseEntity.badRequest().body(Map.of("message", "Password is required")));
+        }
 
-            logger.debug("Authentication successful for user: {}", request.getEmail());
-
-            SecurityContextHolder.getContext().setAuthentication(authentication);
-
-            // Generate JWT token
-            String jwt = jwtTokenProvider.generateToken(authentication);
-            
-            // Get user details
-            Optional<User> userOpt = userRepository.findByEmail(request.getEmail());
-            User user = userOpt.orElseThrow(() -> {
-                logger.error("User not found after successful authentication: {}", request.getEmail());
-                return new RuntimeException("User not found after authentication.");
-            });
-
-            logger.debug("User details retrieved successfully: {}", user.getEmail());
-
-            // Prepare response
-            Map<String, Object> response = new HashMap<>();
-            response.put("token", jwt);
-            response.put("user", Map.of(
-                "id", user.getId(),
-                "email", user.getEmail(),
-                "fullName", user.getFullName(),
-                "role", user.getRole().getName(),
-                "isAuthenticated", true
-            ));
+        String ip = httpRequest.getRemoteAddr();
+        LoginAttemptLimiter.Attempt attempt = loginAttempts.tryAcquire(request.getEmail(), ip);
+        if (attempt == null) {
+            logger.warn("Login for {} from {} refused after repeated failures", request.getEmail(), ip);
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .body(Map.of(
+                    "message", "Too many failed login attempts, please try again later",
+                    "isAuthenticated", false
+                )));
+        }
 
-            return ResponseEntity.ok()
-                .header("Authorization", "Bearer " + jwt)
-                .body(response);
+        logger.debug("Attempting to authenticate user with email: {}", request.getEmail());
 
-        } catch (Exception e) {
-            logger.error("Authentication failed for user: {}, error: {}", request.getEmail(), e.getMessage());
-            String errorMessage = "Authentication failed";
-            if (e.getMessage() != null && e.getMessage().contains("Bad credentials")) {
-                errorMessage = "Invalid email or password";
-            }
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+        try {
+            // bcrypt runs on the hashing pool and the rest on its completion pool; the request thread is released meanwhile
+            return CompletableFuture.supplyAsync(() -> authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())),
+                    passwordHashing)
+                .<ResponseEntity<?>>handleAsync((authentication, error) -> {
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                        if (cause instanceof AuthenticationException) {
+                            attempt.failed();
+                        } else {
+                            attempt.abandoned();
+                        }
+                        return loginFailed(request, cause);
+                    }
+                    attempt.succeeded();
+                    try {
+                        return loginSucceeded(request, authentication);
+                    } catch (Exception e) {
+                        return loginFailed(request, e);
+                    }
+                }, passwordHashing.completions());
+        } catch (RejectedExecutionException e) {
+            attempt.abandoned();
+            logger.warn("Password hashing queue is full, refusing login for {}", request.getEmail());
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
                 .body(Map.of(
-                    "message", errorMessage,
-                    "error", e.getMessage(),
+                    "message", "The server is busy, please try again shortly",
                     "isAuthenticated", false
-                ));
+                )));
+        }
+    }
+
+    private ResponseEntity<?> loginSucceeded(LoginRequest request, Authentication authentication) {
+        logger.debug("Authentication successful for user: {}", request.getEmail());
+
+        // Generate JWT token
+        String jwt = jwtTokenProvider.generateToken(authentication);
+
+        // Get user details
+        Optional<User> userOpt = userRepository.findByEmail(request.getEmail());
+        User user = userOpt.orElseThrow(() -> {
+            logger.error("User not found after successful authentication: {}", request.getEmail());
+            return new RuntimeException("User not found after authentication.");
+        });
+
+        logger.debug("User details retrieved successfully: {}", user.getEmail());
+
+        // Prepare response
+        Map<String, Object> response = new HashMap<>();
+        response.put("token", jwt);
+        response.put("user", Map.of(
+            "id", user.getId(),
+            "email", user.getEmail(),
+            "fullName", user.getFullName(),
+            "role", user.getRole().getName(),
+            "isAuthenticated", true
+        ));
+
+        return ResponseEntity.ok()
+            .header("Authorization", "Bearer " + jwt)
+            .body(response);
+    }
+
+    private ResponseEntity<?> loginFailed(LoginRequest request, Throwable e) {
+        logger.error("Authentication failed for user: {}, error: {}", request.getEmail(), e.getMessage());
+        String errorMessage = "Authentication failed";
+        if (e.getMessage() != null && e.getMessage().contains("Bad credentials")) {
+            errorMessage = "Invalid email or password";
         }
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+            .body(Map.of(
+                "message", errorMessage,
+                "error", String.valueOf(e.getMessage()),
+                "isAuthenticated", false
+            ));
     }
 
     @PostMapping("/signup")
-    public ResponseEntity<Map<String, String>> signup(@RequestBody SignupRequest request) {
+    public CompletableFuture<ResponseEntity<Map<String, String>>> signup(@RequestBody SignupRequest request) {
         if (userRepository.findByEmail(request.getEmail()).isPresent()) {
-            return ResponseEntity.status(400).body(Map.of("message", "Email already registered."));
+            return CompletableFuture.completedFuture(
+                ResponseEntity.status(400).body(Map.of("message", "Email already registered.")));
         }
 
-        String encodedPassword = passwordEncoder.encode(request.getPassword());
-
-        // Get the default ROLE_EMPLOYEE role
-        Role defaultRole = roleRepository.findByName("ROLE_EMPLOYEE")
-            .orElseThrow(() -> new RuntimeException("Default role not found"));
-
-        User newUser = new User();
-        newUser.setFullName(request.getFullName());
-        newUser.setEmail(request.getEmail());
-        newUser.setPassword(encodedPassword);
-        newUser.setRole(defaultRole); // Set default role
-
-        userRepository.save(newUser);
-
-        return ResponseEntity.ok(Map.of("message", "User registered successfully"));
+        try {
+            return CompletableFuture.supplyAsync(() -> passwordEncoder.encode(request.getPassword()), passwordHashing)
+                .thenApplyAsync(encodedPassword -> {
+                    // Get the default ROLE_EMPLOYEE role
+                    Role defaultRole = roleRepository.findByName("ROLE_EMPLOYEE")
+                        .orElseThrow(() -> new RuntimeException("Default role not found"));
+
+                    User newUser = new User();
+                    newUser.setFullName(request.getFullName());
+                    newUser.setEmail(request.getEmail());
+                    newUser.setPassword(encodedPassword);
+                    newUser.setRole(defaultRole); // Set default role
+
+                    userRepository.save(newUser);
+
+                    return ResponseEntity.ok(Map.of("message", "User registered successfully"));
+                }, passwordHashing.completions());
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Map.of("message", "The server is busy, please try again shortly")));
+        }
     }
 
     @PutMapping("/users/{userId}/role")
@@ -201,7 +266,11 @@ public class UserController {
             );
 
             user.setRole(newRole);
+            // Tokens carry the role, so the ones issued before this change must stop working
+            user.setTokenVersion(user.getTokenVersion() + 1);
             user = userRepository.save(user);
+            tokenVersions.invalidate(user.getId());
+            identityCache.invalidate(user.getEmail());
 
             return ResponseEntity.ok(Map.of(
                 "message", "User role updated successfully",
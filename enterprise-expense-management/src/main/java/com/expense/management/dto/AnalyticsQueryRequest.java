@@ -0,0 +1,56 @@
+package com.expense.management.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Body of POST /api/analytics/query. Every filter is optional; list filters
+ * match any of the given values.
+ */
+public class AnalyticsQueryRequest {
+
+    private List<String> groupBy;
+    private LocalDate from;
+    private LocalDate to;
+    private Double minAmount;
+    private Double maxAmount;
+    private List<String> categories;
+    private List<String> statuses;
+    private List<String> levels;
+    private List<Long> userIds;
+    private List<String> priorities;
+    private Integer limit;
+
+    public List<String> getGroupBy() { return groupBy; }
+    public void setGroupBy(List<String> groupBy) { this.groupBy = groupBy; }
+
+    public LocalDate getFrom() { return from; }
+    public void setFrom(LocalDate from) { this.from = from; }
+
+    public LocalDate getTo() { return to; }
+    public void setTo(LocalDate to) { this.to = to; }
+
+    public Double getMinAmount() { return minAmount; }
+    public void setMinAmount(Double minAmount) { this.minAmount = minAmount; }
+
+    public Double getMaxAmount() { return maxAmount; }
+    public void setMaxAmount(Double maxAmount) { this.maxAmount = maxAmount; }
+
+    public List<String> getCategories() { return categories; }
+    public void setCategories(List<String> categories) { this.categories = categories; }
+
+    public List<String> getStatuses() { return statuses; }
+    public void setStatuses(List<String> statuses) { this.statuses = statuses; }
+
+    public List<String> getLevels() { return levels; }
+    public void setLevels(List<String> levels) { this.levels = levels; }
+
+    public List<Long> getUserIds() { return userIds; }
+    public void setUserIds(List<Long> userIds) { this.userIds = userIds; }
+
+    public List<String> getPriorities() { return priorities; }
+    public void setPriorities(List<String> priorities) { this.priorities = priorities; }
+
+    public Integer getLimit() { return limit; }
+    public void setLimit(Integer limit) { this.limit = limit; }
+}
@@ -0,0 +1,51 @@
+package com.expense.management.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public class AnalyticsQueryResponse {
+
+    private List<GroupRow> rows;
+    private long matchedRows;
+    private int scannedRows;
+    private long elapsedMicros;
+
+    public List<GroupRow> getRows() { return rows; }
+    public void setRows(List<GroupRow> rows) { this.rows = rows; }
+
+    public long getMatchedRows() { return matchedRows; }
+    public void setMatchedRows(long matchedRows) { this.matchedRows = matchedRows; }
+
+    public int getScannedRows() { return scannedRows; }
+    public void setScannedRows(int scannedRows) { this.scannedRows = scannedRows; }
+
+    public long getElapsedMicros() { return elapsedMicros; }
+    public void setElapsedMicros(long elapsedMicros) { this.elapsedMicros = elapsedMicros; }
+
+    public static class GroupRow {
+        private Map<String, Object> group;
+        private long count;
+        private double sum;
+        private double min;
+        private double max;
+        private double avg;
+
+        public Map<String, Object> getGroup() { return group; }
+        public void setGroup(Map<String, Object> group) { this.group = group; }
+
+        public long getCount() { return count; }
+        public void setCount(long count) { this.count = count; }
+
+        public double getSum() { return sum; }
+        public void setSum(double sum) { this.sum = sum; }
+
+        public double getMin() { return min; }
+        public void setMin(double min) { this.min = min; }
+
+        public double getMax() { return max; }
+        public void setMax(double max) { this.max = max; }
+
+        public double getAvg() { return avg; }
+        public void setAvg(double avg) { this.avg = avg; }
+    }
+}
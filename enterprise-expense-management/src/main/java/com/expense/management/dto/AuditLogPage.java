@@ -0,0 +1,24 @@
+package com.expense.management.dto;
+
+import com.expense.management.model.AuditLog;
+
+import java.util.List;
+
+/**
+ * One page of audit logs, newest first. {@code nextCursor} fetches the following
+ * (older) page and is null on the last one.
+ */
+public class AuditLogPage {
+
+    private final List<AuditLog> logs;
+    private final String nextCursor;
+
+    public AuditLogPage(List<AuditLog> logs, String nextCursor) {
+        this.logs = logs;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<AuditLog> getLogs() { return logs; }
+
+    public String getNextCursor() { return nextCursor; }
+}
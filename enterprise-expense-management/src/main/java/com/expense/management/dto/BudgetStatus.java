@@ -0,0 +1,42 @@
+package com.expense.management.dto;
+
+/**
+ * Approved spend of one month against its budget, for the whole company
+ * ({@code category} null) or a single category. {@code limit} and
+ * {@code utilization} are null when no budget applies.
+ */
+public class BudgetStatus {
+
+    private final String month;
+    private final String category;
+    private final Double limit;
+    private final double spent;
+
+    public BudgetStatus(String month, String category, Double limit, double spent) {
+        this.month = month;
+        this.category = category;
+        this.limit = limit;
+        this.spent = spent;
+    }
+
+    public String getMonth() { return month; }
+
+    public String getCategory() { return category; }
+
+    public Double getLimit() { return limit; }
+
+    public double getSpent() { return spent; }
+
+    public Double getRemaining() {
+        return limit != null ? limit - spent : null;
+    }
+
+    /** Spent as a fraction of the limit, e.g. 0.8 for 80%. */
+    public Double getUtilization() {
+        return limit != null && limit > 0 ? spent / limit : null;
+    }
+
+    public boolean isOverBudget() {
+        return limit != null && spent > limit;
+    }
+}
@@ -0,0 +1,77 @@
+package com.expense.management.dto;
+
+import com.expense.management.enums.ApprovalLevel;
+import com.expense.management.model.ExpenseStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One expense joined with its owner and the owner's role, as written to the
+ * bulk analytics extract. Attachments are left out.
+ */
+public class ExpenseExtractRow {
+
+    private final Long id;
+    private final LocalDate date;
+    private final LocalDateTime createdAt;
+    private final double amount;
+    private final String category;
+    private final String description;
+    private final ExpenseStatus status;
+    private final ApprovalLevel level;
+    private final String priority;
+    private final Long approvedByManagerId;
+    private final Long userId;
+    private final String userName;
+    private final String userEmail;
+    private final String roleName;
+
+    public ExpenseExtractRow(Long id, LocalDate date, LocalDateTime createdAt, double amount, String category,
+                             String description, ExpenseStatus status, ApprovalLevel level, String priority,
+                             Long approvedByManagerId, Long userId, String userName, String userEmail,
+                             String roleName) {
+        this.id = id;
+        this.date = date;
+        this.createdAt = createdAt;
+        this.amount = amount;
+        this.category = category;
+        this.description = description;
+        this.status = status;
+        this.level = level;
+        this.priority = priority;
+        this.approvedByManagerId = approvedByManagerId;
+        this.userId = userId;
+        this.userName = userName;
+        this.userEmail = userEmail;
+        this.roleName = roleName;
+    }
+
+    public Long getId() { return id; }
+
+    public LocalDate getDate() { return date; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+
+    public double getAmount() { return amount; }
+
+    public String getCategory() { return category; }
+
+    public String getDescription() { return description; }
+
+    public ExpenseStatus getStatus() { return status; }
+
+    public ApprovalLevel getLevel() { return level; }
+
+    public String getPriority() { return priority; }
+
+    public Long getApprovedByManagerId() { return approvedByManagerId; }
+
+    public Long getUserId() { return userId; }
+
+    public String getUserName() { return userName; }
+
+    public String getUserEmail() { return userEmail; }
+
+    public String getRoleName() { return roleName; }
+}
@@ -0,0 +1,45 @@
+package com.expense.management.dto;
+
+import com.expense.management.model.ExpenseStatus;
+
+import java.time.LocalDate;
+
+/**
+ * Flat projection of the columns printed in expense exports. Loaded page by page
+ * instead of whole {@code Expense} entities so attachments and users are never hydrated.
+ */
+public class ExpenseReportRow {
+
+    private final Long id;
+    private final LocalDate date;
+    private final String employeeName;
+    private final String category;
+    private final String description;
+    private final double amount;
+    private final ExpenseStatus status;
+
+    public ExpenseReportRow(Long id, LocalDate date, String employeeName, String category,
+                            String description, double amount, ExpenseStatus status) {
+        this.id = id;
+        this.date = date;
+        this.employeeName = employeeName;
+        this.category = category;
+        this.description = description;
+        this.amount = amount;
+        this.status = status;
+    }
+
+    public Long getId() { return id; }
+
+    public LocalDate getDate() { return date; }
+
+    public String getEmployeeName() { return employeeName; }
+
+    public String getCategory() { return category; }
+
+    public String getDescription() { return description; }
+
+    public double getAmount() { return amount; }
+
+    public ExpenseStatus getStatus() { return status; }
+}
@@ -0,0 +1,39 @@
+package com.expense.management.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Where the receipt of one expense can be found: a stored URL, the legacy
+ * attachment blob, or both. The blob itself is loaded separately when needed.
+ */
+public class ReceiptRef {
+
+    private final Long expenseId;
+    private final LocalDate date;
+    private final String category;
+    private final String receiptUrl;
+    private final String attachmentType;
+    private final boolean hasAttachment;
+
+    public ReceiptRef(Long expenseId, LocalDate date, String category, String receiptUrl,
+                      String attachmentType, boolean hasAttachment) {
+        this.expenseId = expenseId;
+        this.date = date;
+        this.category = category;
+        this.receiptUrl = receiptUrl;
+        this.attachmentType = attachmentType;
+        this.hasAttachment = hasAttachment;
+    }
+
+    public Long getExpenseId() { return expenseId; }
+
+    public LocalDate getDate() { return date; }
+
+    public String getCategory() { return category; }
+
+    public String getReceiptUrl() { return receiptUrl; }
+
+    public String getAttachmentType() { return attachmentType; }
+
+    public boolean hasAttachment() { return hasAttachment; }
+}
@@ -0,0 +1,35 @@
+package com.expense.management.dto;
+
+/**
+ * Body of a report job submission, e.g.
+ * {"type": "all-expenses", "format": "xlsx"},
+ * {"type": "all-expenses", "format": "pdf", "parallel": true} or
+ * {"type": "monthly-detailed", "format": "pdf", "year": 2024, "month": 3}.
+ */
+public class ReportJobRequest {
+
+    private String type;
+    private String format;
+    private Integer year;
+    private Integer month;
+    private boolean gzip;
+    private boolean parallel;
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public String getFormat() { return format; }
+    public void setFormat(String format) { this.format = format; }
+
+    public Integer getYear() { return year; }
+    public void setYear(Integer year) { this.year = year; }
+
+    public Integer getMonth() { return month; }
+    public void setMonth(Integer month) { this.month = month; }
+
+    public boolean isGzip() { return gzip; }
+    public void setGzip(boolean gzip) { this.gzip = gzip; }
+
+    public boolean isParallel() { return parallel; }
+    public void setParallel(boolean parallel) { this.parallel = parallel; }
+}
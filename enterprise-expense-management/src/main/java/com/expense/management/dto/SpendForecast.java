@@ -0,0 +1,52 @@
+package com.expense.management.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Projected month-end approved spend of one category. {@code budget} and
+ * {@code breachProbability} are null when the category has no budget.
+ */
+public class SpendForecast {
+
+    private final String category;
+    private final String month;
+    private final LocalDate asOf;
+    private final double monthToDate;
+    private final double expectedDailySpend;
+    private final double projectedMonthEnd;
+    private final double projectedStdDev;
+    private final Double budget;
+    private final Double breachProbability;
+
+    public SpendForecast(String category, String month, LocalDate asOf, double monthToDate,
+                         double expectedDailySpend, double projectedMonthEnd, double projectedStdDev,
+                         Double budget, Double breachProbability) {
+        this.category = category;
+        this.month = month;
+        this.asOf = asOf;
+        this.monthToDate = monthToDate;
+        this.expectedDailySpend = expectedDailySpend;
+        this.projectedMonthEnd = projectedMonthEnd;
+        this.projectedStdDev = projectedStdDev;
+        this.budget = budget;
+        this.breachProbability = breachProbability;
+    }
+
+    public String getCategory() { return category; }
+
+    public String getMonth() { return month; }
+
+    public LocalDate getAsOf() { return asOf; }
+
+    public double getMonthToDate() { return monthToDate; }
+
+    public double getExpectedDailySpend() { return expectedDailySpend; }
+
+    public double getProjectedMonthEnd() { return projectedMonthEnd; }
+
+    public double getProjectedStdDev() { return projectedStdDev; }
+
+    public Double getBudget() { return budget; }
+
+    public Double getBreachProbability() { return breachProbability; }
+}
@@ -0,0 +1,27 @@
+package com.expense.management.dto;
+
+/**
+ * The user fields a JWT is minted from, loaded without the rest of the user row.
+ */
+public class TokenSubject {
+
+    private final Long id;
+    private final String email;
+    private final String role;
+    private final long tokenVersion;
+
+    public TokenSubject(Long id, String email, String role, long tokenVersion) {
+        this.id = id;
+        this.email = email;
+        this.role = role;
+        this.tokenVersion = tokenVersion;
+    }
+
+    public Long getId() { return id; }
+
+    public String getEmail() { return email; }
+
+    public String getRole() { return role; }
+
+    public long getTokenVersion() { return tokenVersion; }
+}
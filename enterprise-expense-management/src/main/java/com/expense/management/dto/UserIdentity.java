@@ -0,0 +1,38 @@
+package com.expense.management.dto;
+
+/**
+ * Who is making the request: the user fields handlers need, without the entity,
+ * its expenses or its profile image. Injected with {@code @CurrentUser}.
+ */
+public class UserIdentity {
+
+    private final Long id;
+    private final String email;
+    private final String fullName;
+    private final String role;
+
+    public UserIdentity(Long id, String email, String fullName, String role) {
+        this.id = id;
+        this.email = email;
+        this.fullName = fullName;
+        this.role = role;
+    }
+
+    public Long getId() { return id; }
+
+    public String getEmail() { return email; }
+
+    public String getFullName() { return fullName; }
+
+    /** Role name, e.g. ROLE_MANAGER; null if the user has none. */
+    public String getRole() { return role; }
+
+    public boolean hasAnyRole(String... roles) {
+        for (String candidate : roles) {
+            if (candidate.equals(role)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
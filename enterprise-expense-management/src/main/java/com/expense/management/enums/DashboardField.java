@@ -0,0 +1,84 @@
+package com.expense.management.enums;
+
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import com.expense.management.dto.DashboardDTO;
+
+/**
+ * Sections of the dashboard response that can be requested individually via
+ * the {@code fields} query parameter (e.g. {@code ?fields=statusCounts,recentExpenses}).
+ * Without {@code fields} the full DashboardDTO is returned unchanged.
+ */
+public enum DashboardField {
+    TOTAL_USERS("totalUsers", DashboardDTO::getTotalUsers),
+    TOTAL_EXPENSES("totalExpenses", DashboardDTO::getTotalExpenses),
+    PENDING_EXPENSES("pendingExpenses", DashboardDTO::getPendingExpenses),
+    APPROVED_EXPENSES("approvedExpenses", DashboardDTO::getApprovedExpenses),
+    REJECTED_EXPENSES("rejectedExpenses", DashboardDTO::getRejectedExpenses),
+    EXPENSES_BY_CATEGORY("expensesByCategory", DashboardDTO::getExpensesByCategory),
+    RECENT_EXPENSES("recentExpenses", DashboardDTO::getRecentExpenses),
+    MONTHLY_EXPENSES("monthlyExpenses", DashboardDTO::getMonthlyExpenses),
+    STATUS_COUNTS("statusCounts", DashboardDTO::getStatusCounts);
+
+    private final String fieldName;
+    private final Function<DashboardDTO, Object> getter;
+
+    DashboardField(String fieldName, Function<DashboardDTO, Object> getter) {
+        this.fieldName = fieldName;
+        this.getter = getter;
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    /**
+     * Parse a comma separated list of DashboardDTO property names.
+     * A missing or blank value selects every section.
+     * @throws IllegalArgumentException if a name does not match any section
+     */
+    public static EnumSet<DashboardField> parse(String fields) {
+        if (fields == null || fields.trim().isEmpty()) {
+            return EnumSet.allOf(DashboardField.class);
+        }
+        EnumSet<DashboardField> selected = EnumSet.noneOf(DashboardField.class);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            selected.add(fromFieldName(trimmed));
+        }
+        return selected;
+    }
+
+    /**
+     * The response body for a dashboard built with {@code fields}: the DTO itself when
+     * every section is selected, otherwise only the selected properties, in DTO order.
+     */
+    public static Object view(DashboardDTO dashboard, Set<DashboardField> fields) {
+        if (fields.size() == values().length) {
+            return dashboard;
+        }
+        Map<String, Object> view = new LinkedHashMap<>();
+        for (DashboardField field : values()) {
+            if (fields.contains(field)) {
+                view.put(field.fieldName, field.getter.apply(dashboard));
+            }
+        }
+        return view;
+    }
+
+    private static DashboardField fromFieldName(String name) {
+        for (DashboardField field : values()) {
+            if (field.fieldName.equalsIgnoreCase(name)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown dashboard field: " + name);
+    }
+}
@@ -0,0 +1,52 @@
+package com.expense.management.events;
+
+/**
+ * Published by ExpenseService after an expense row has been written.
+ * {@code before} is null for creations and {@code after} is null for deletions.
+ */
+public class ExpenseChangedEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final Type type;
+    private final ExpenseFact before;
+    private final ExpenseFact after;
+
+    private ExpenseChangedEvent(Type type, ExpenseFact before, ExpenseFact after) {
+        this.type = type;
+        this.before = before;
+        this.after = after;
+    }
+
+    public static ExpenseChangedEvent created(ExpenseFact after) {
+        return new ExpenseChangedEvent(Type.CREATED, null, after);
+    }
+
+    public static ExpenseChangedEvent updated(ExpenseFact before, ExpenseFact after) {
+        return new ExpenseChangedEvent(Type.UPDATED, before, after);
+    }
+
+    public static ExpenseChangedEvent deleted(ExpenseFact before) {
+        return new ExpenseChangedEvent(Type.DELETED, before, null);
+    }
+
+    public Type getType() { return type; }
+
+    public ExpenseFact getBefore() { return before; }
+
+    public ExpenseFact getAfter() { return after; }
+
+    /** The most recent known state: {@code after}, or {@code before} for deletions. */
+    public ExpenseFact getCurrent() {
+        return after != null ? after : before;
+    }
+
+    /** True if this change moved the expense into the APPROVED status. */
+    public boolean becameApproved() {
+        return after != null && after.isApproved() && (before == null || !before.isApproved());
+    }
+}
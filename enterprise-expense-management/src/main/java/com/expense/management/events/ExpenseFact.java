@@ -0,0 +1,44 @@
+package com.expense.management.events;
+
+import java.time.LocalDate;
+
+import com.expense.management.enums.ApprovalLevel;
+import com.expense.management.model.Expense;
+import com.expense.management.model.ExpenseStatus;
+
+/**
+ * Immutable snapshot of the analytic fields of an expense (no description,
+ * attachment or user entity), used in change events and bulk projections.
+ */
+public record ExpenseFact(
+        Long id,
+        double amount,
+        LocalDate date,
+        String category,
+        Long userId,
+        ExpenseStatus status,
+        ApprovalLevel level,
+        String priority,
+        Long approvedByManagerId) {
+
+    public static ExpenseFact of(Expense expense) {
+        return new ExpenseFact(
+                expense.getId(),
+                expense.getAmount(),
+                expense.getDate(),
+                expense.getCategory(),
+                expense.getUser() != null ? expense.getUser().getId() : null,
+                expense.getApprovalStatus(),
+                expense.getApprovalLevel(),
+                expense.getPriority(),
+                expense.getApprovedByManagerId());
+    }
+
+    public boolean isPending() {
+        return status == ExpenseStatus.PENDING;
+    }
+
+    public boolean isApproved() {
+        return status == ExpenseStatus.APPROVED;
+    }
+}
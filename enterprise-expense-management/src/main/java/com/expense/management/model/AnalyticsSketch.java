@@ -0,0 +1,77 @@
+package com.expense.management.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "analytics_sketches")
+public class AnalyticsSketch {
+
+    @Id
+    @Column(name = "sketch_key", length = 191)
+    private String sketchKey;
+
+    @Column(name = "sketch_type", nullable = false, length = 20)
+    private String sketchType;
+
+    @Lob
+    @Column(nullable = false, columnDefinition = "MEDIUMBLOB")
+    private byte[] data;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public AnalyticsSketch() {
+    }
+
+    public AnalyticsSketch(String sketchKey, String sketchType, byte[] data) {
+        this.sketchKey = sketchKey;
+        this.sketchType = sketchType;
+        this.data = data;
+    }
+
+    public String getSketchKey() {
+        return sketchKey;
+    }
+
+    public void setSketchKey(String sketchKey) {
+        this.sketchKey = sketchKey;
+    }
+
+    public String getSketchType() {
+        return sketchType;
+    }
+
+    public void setSketchType(String sketchType) {
+        this.sketchType = sketchType;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public void setData(byte[] data) {
+        this.data = data;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
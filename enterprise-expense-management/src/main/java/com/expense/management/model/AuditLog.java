@@ -9,6 +9,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import lombok.Data;
 
 @Entity
@@ -16,8 +17,10 @@ import lombok.Data;
 @Table(name = "audit_logs")
 public class AuditLog {
 
+    // Not IDENTITY, so the batched audit writer's inserts can go out as one JDBC batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "audit_logs_seq")
+    @SequenceGenerator(name = "audit_logs_seq", sequenceName = "audit_logs_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -37,7 +40,9 @@ public class AuditLog {
 
     @PrePersist
     protected void onCreate() {
-        timestamp = LocalDateTime.now();
+        if (timestamp == null) {
+            timestamp = LocalDateTime.now();
+        }
     }
 
     // Constructors
@@ -49,6 +54,8 @@ public class AuditLog {
         this.action = action;
         this.details = details;
         this.status = status;
+        // Stamped when the event happens, not when the audit writer gets to it
+        this.timestamp = LocalDateTime.now();
     }
 
     // Getters and Setters
@@ -3,6 +3,8 @@ package com.expense.management.model;
 
 import jakarta.persistence.*;
 
+// Legacy per-category limits, superseded by MonthlyBudget. The table is kept only as the
+// source of the V11 data copy; the class is still the request body of POST /api/expenses/budget.
 @Entity
 @Table(name = "budget")
 public class Budget {
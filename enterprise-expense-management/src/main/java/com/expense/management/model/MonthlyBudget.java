@@ -0,0 +1,89 @@
+package com.expense.management.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/**
+ * Spending limit of one calendar month ({@code yyyy-MM}), either for the whole
+ * company ({@link #COMPANY_WIDE} category) or for a single category.
+ */
+@Entity
+@Table(name = "monthly_budgets",
+       uniqueConstraints = @UniqueConstraint(name = "uk_monthly_budgets_month_category",
+                                             columnNames = {"budget_month", "category"}))
+public class MonthlyBudget {
+
+    public static final String COMPANY_WIDE = "";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "budget_month", nullable = false, length = 7)
+    private String budgetMonth;
+
+    @Column(nullable = false, length = 191)
+    private String category;
+
+    @Column(name = "budget_limit", nullable = false)
+    private double budgetLimit;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public MonthlyBudget() {
+    }
+
+    public MonthlyBudget(String budgetMonth, String category, double budgetLimit) {
+        this.budgetMonth = budgetMonth;
+        this.category = category;
+        this.budgetLimit = budgetLimit;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getBudgetMonth() {
+        return budgetMonth;
+    }
+
+    public void setBudgetMonth(String budgetMonth) {
+        this.budgetMonth = budgetMonth;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public double getBudgetLimit() {
+        return budgetLimit;
+    }
+
+    public void setBudgetLimit(double budgetLimit) {
+        this.budgetLimit = budgetLimit;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
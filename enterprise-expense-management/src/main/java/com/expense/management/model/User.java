@@ -6,18 +6,25 @@ import lombok.Data;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.hibernate.annotations.UpdateTimestamp;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
 @Data
 @Table(name = "users")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
+@NaturalIdCache(region = "users-by-email")
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @NaturalId(mutable = true)
     @Column(nullable = false, unique = true)
     private String email;
 
@@ -58,6 +65,11 @@ public class User {
     @Column(name = "profile_image_type")
     private String profileImageType;
 
+    // Carried in every JWT; bumping it invalidates the user's outstanding tokens
+    @Column(name = "token_version", nullable = false)
+    @JsonIgnore
+    private long tokenVersion;
+
     // // Getters and Setters for all fields
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -89,4 +101,7 @@ public class User {
     public String getProfileImageType() { return profileImageType; }
     public void setProfileImageType(String profileImageType) { this.profileImageType = profileImageType; }
 
+    public long getTokenVersion() { return tokenVersion; }
+    public void setTokenVersion(long tokenVersion) { this.tokenVersion = tokenVersion; }
+
 }
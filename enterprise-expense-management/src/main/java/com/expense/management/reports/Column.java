@@ -0,0 +1,53 @@
+package com.expense.management.reports;
+
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * One column of a {@link ReportTemplate}: a header and how to read the cell from a row.
+ * Money and percent columns keep the raw number so each backend can render it its own
+ * way (a formatted string in PDF, a numeric cell in XLSX, a plain two-decimal number in CSV).
+ */
+public final class Column<T> {
+
+    public enum Kind { TEXT, MONEY, PERCENT }
+
+    private final String header;
+    private final Kind kind;
+    private final Function<T, String> text;
+    private final ToDoubleFunction<T> number;
+
+    private Column(String header, Kind kind, Function<T, String> text, ToDoubleFunction<T> number) {
+        this.header = header;
+        this.kind = kind;
+        this.text = text;
+        this.number = number;
+    }
+
+    public static <T> Column<T> text(String header, Function<T, String> value) {
+        return new Column<>(header, Kind.TEXT, value, null);
+    }
+
+    public static <T> Column<T> money(String header, ToDoubleFunction<T> value) {
+        return new Column<>(header, Kind.MONEY, null, value);
+    }
+
+    public static <T> Column<T> percent(String header, ToDoubleFunction<T> value) {
+        return new Column<>(header, Kind.PERCENT, null, value);
+    }
+
+    public String header() { return header; }
+
+    public Kind kind() { return kind; }
+
+    /** Cell text of a TEXT column; null values become "". */
+    String text(T row) {
+        String value = text.apply(row);
+        return value != null ? value : "";
+    }
+
+    /** Cell value of a MONEY or PERCENT column. */
+    double number(T row) {
+        return number.applyAsDouble(row);
+    }
+}
@@ -0,0 +1,120 @@
+package com.expense.management.reports;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Renders a template as an RFC 4180 CSV (UTF-8, CRLF line endings), optionally gzip
+ * compressed. Each record is assembled in one reused buffer and handed to a buffered
+ * writer. Amounts and percentages are written as plain numbers with two decimals and
+ * no currency sign, so the file stays machine-readable.
+ */
+public class CsvReportBackend implements ReportBackend {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final boolean gzip;
+
+    public CsvReportBackend(boolean gzip) {
+        this.gzip = gzip;
+    }
+
+    @Override
+    public String contentType() {
+        return gzip ? "application/gzip" : "text/csv";
+    }
+
+    @Override
+    public String fileExtension() {
+        return gzip ? "csv.gz" : "csv";
+    }
+
+    @Override
+    public <T> RowSink<T> open(ReportTemplate<T> template, OutputStream out) throws IOException {
+        return new CsvSink<>(template, out, gzip);
+    }
+
+    private static final class CsvSink<T> implements RowSink<T> {
+        private final OutputStream out;
+        private final GZIPOutputStream gzipStream;
+        private final Writer writer;
+        private final List<Column<T>> columns;
+        private final StringBuilder line = new StringBuilder(256);
+
+        CsvSink(ReportTemplate<T> template, OutputStream out, boolean gzip) throws IOException {
+            this.out = out;
+            this.columns = template.columns();
+            this.gzipStream = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+            this.writer = new BufferedWriter(
+                    new OutputStreamWriter(gzip ? gzipStream : out, StandardCharsets.UTF_8), BUFFER_SIZE);
+
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    line.append(',');
+                }
+                appendField(line, columns.get(i).header());
+            }
+            line.append("\r\n");
+            writer.append(line);
+        }
+
+        @Override
+        public void accept(T row) throws IOException {
+            line.setLength(0);
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    line.append(',');
+                }
+                Column<T> column = columns.get(i);
+                if (column.kind() == Column.Kind.TEXT) {
+                    appendField(line, column.text(row));
+                } else {
+                    // Not Double.toString, which gives 1.0E7 and 12.5
+                    TextFormat.appendFixed2(line, column.number(row));
+                }
+            }
+            line.append("\r\n");
+            writer.append(line);
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+            if (gzipStream != null) {
+                gzipStream.finish();
+            }
+            out.flush();
+        }
+    }
+
+    // Quote only when needed: fields containing a comma, quote, CR or LF, with quotes doubled
+    static void appendField(StringBuilder line, String value) {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+}
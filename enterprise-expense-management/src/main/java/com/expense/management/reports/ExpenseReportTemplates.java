@@ -0,0 +1,104 @@
+package com.expense.management.reports;
+
+import com.expense.management.dto.ExpenseReportRow;
+import com.itextpdf.text.Element;
+
+import java.time.Month;
+
+/**
+ * Templates of the expense reports offered for download.
+ */
+public final class ExpenseReportTemplates {
+
+    /** Row of the yearly trend report. */
+    public record MonthTotal(Month month, double total) {
+    }
+
+    /** Row of the category spending report; {@code percent} is the share of the year's total. */
+    public record CategoryTotal(String category, double total, double percent) {
+    }
+
+    private static final ReportTemplate<ExpenseReportRow> USER_EXPENSES =
+            expenseColumns(ReportTemplate.<ExpenseReportRow>builder("Expense Report"), false)
+                    .showGeneratedOn()
+                    .sheetName("Expenses")
+                    .total(ExpenseReportRow::getAmount, "Total Amount: $", 12, Element.ALIGN_LEFT)
+                    .build();
+
+    private static final ReportTemplate<ExpenseReportRow> ALL_EXPENSES =
+            expenseColumns(ReportTemplate.<ExpenseReportRow>builder("All Expenses Report"), true)
+                    .showGeneratedOn()
+                    .sheetName("All Expenses")
+                    .total(ExpenseReportRow::getAmount, "Total Amount: $", 12, Element.ALIGN_LEFT)
+                    .build();
+
+    private ExpenseReportTemplates() {
+    }
+
+    /** A user's own expenses. */
+    public static ReportTemplate<ExpenseReportRow> userExpenses() {
+        return USER_EXPENSES;
+    }
+
+    /** Every user's expenses, with an Employee column. */
+    public static ReportTemplate<ExpenseReportRow> allExpenses() {
+        return ALL_EXPENSES;
+    }
+
+    public static ReportTemplate<ExpenseReportRow> monthlyDetailed(int year, int month) {
+        return monthlyDetailed("Detailed Monthly Expense Report - ", year, month, false);
+    }
+
+    /** Every user's expenses for one month, with an Employee column. */
+    public static ReportTemplate<ExpenseReportRow> companyMonthlyDetailed(int year, int month) {
+        return monthlyDetailed("Company Monthly Expense Report - ", year, month, true);
+    }
+
+    private static ReportTemplate<ExpenseReportRow> monthlyDetailed(String title, int year, int month,
+                                                                    boolean includeEmployee) {
+        return expenseColumns(ReportTemplate.<ExpenseReportRow>builder(
+                        title + year + "-" + (month < 10 ? "0" : "") + month), includeEmployee)
+                .sheetName("Monthly Expenses")
+                .fontSizes(12, 10)
+                .total(ExpenseReportRow::getAmount, "Monthly Total: $", 14, Element.ALIGN_RIGHT)
+                .build();
+    }
+
+    public static ReportTemplate<MonthTotal> yearlyTrend(int year) {
+        return ReportTemplate.<MonthTotal>builder("Yearly Expense Trend Report - " + year)
+                .sheetName("Yearly Trend")
+                .column(Column.text("Month", row -> row.month().name()))
+                .column(Column.money("Total Spent", MonthTotal::total))
+                .tableWidth(60, true)
+                .fontSizes(12, 11)
+                .headerPadding(2)
+                .total(MonthTotal::total, "Yearly Total: $", 14, Element.ALIGN_CENTER)
+                .build();
+    }
+
+    public static ReportTemplate<CategoryTotal> categorySpending(int year) {
+        return ReportTemplate.<CategoryTotal>builder("Category Spending Report - " + year)
+                .sheetName("Category Spending")
+                .column(Column.text("Category", CategoryTotal::category))
+                .column(Column.money("Total Spent", CategoryTotal::total))
+                .column(Column.percent("Percent", CategoryTotal::percent))
+                .tableWidth(80, true)
+                .fontSizes(12, 11)
+                .total(CategoryTotal::total, "Yearly Total: $", 14, Element.ALIGN_CENTER)
+                .build();
+    }
+
+    private static ReportTemplate.Builder<ExpenseReportRow> expenseColumns(
+            ReportTemplate.Builder<ExpenseReportRow> builder, boolean includeEmployee) {
+        builder.column(Column.text("Date", row -> TextFormat.date(row.getDate())));
+        if (includeEmployee) {
+            builder.column(Column.text("Employee",
+                    row -> row.getEmployeeName() != null ? row.getEmployeeName() : "Unknown"));
+        }
+        return builder
+                .column(Column.text("Category", ExpenseReportRow::getCategory))
+                .column(Column.text("Description", ExpenseReportRow::getDescription))
+                .column(Column.money("Amount", ExpenseReportRow::getAmount))
+                .column(Column.text("Status", row -> row.getStatus() != null ? row.getStatus().name() : ""));
+    }
+}
@@ -0,0 +1,182 @@
+package com.expense.management.reports;
+
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Element;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.Phrase;
+import com.itextpdf.text.pdf.PdfPCell;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Renders a template as a PDF table. The table runs in incomplete mode and is added to
+ * the document every {@value #TABLE_CHUNK} rows, which lays those rows out, writes the
+ * finished pages and drops them from memory. Cells take their style from the table's
+ * default cell and their fonts from {@link ReportFonts}, so nothing is resolved per row.
+ *
+ * {@link DocumentException}s are reported as the cause of an {@link IOException}.
+ */
+public class PdfReportBackend implements ReportBackend {
+
+    private static final int TABLE_CHUNK = 500;
+
+    // Padding iText gives a new PdfPCell
+    private static final float DEFAULT_PADDING = 2;
+
+    /**
+     * Which slice of a report a document holds when one report is rendered as several
+     * documents that are concatenated afterwards. Only the first part prints the title
+     * and only the last one the total, which is then {@code total} rather than the sum
+     * of the part's own rows. The running total starts at {@code runningOffset}.
+     */
+    public record Part(boolean first, boolean last, double runningOffset, double total) {
+    }
+
+    @Override
+    public String contentType() {
+        return "application/pdf";
+    }
+
+    @Override
+    public String fileExtension() {
+        return "pdf";
+    }
+
+    @Override
+    public <T> RowSink<T> open(ReportTemplate<T> template, OutputStream out) throws IOException {
+        return new PdfSink<>(template, out, null);
+    }
+
+    public <T> RowSink<T> openPart(ReportTemplate<T> template, OutputStream out, Part part) throws IOException {
+        return new PdfSink<>(template, out, part);
+    }
+
+    private static final class PdfSink<T> implements RowSink<T> {
+        private final ReportTemplate<T> template;
+        private final OutputStream out;
+        private final Part part;
+        private final List<Column<T>> columns;
+        private final ToDoubleFunction<T> amount;
+        private final boolean runningTotal;
+        private final Font dataFont;
+        private final Document document;
+        private final PdfPTable table;
+        private double total;
+        private double running;
+        private int pending;
+
+        PdfSink(ReportTemplate<T> template, OutputStream out, Part part) throws IOException {
+            this.template = template;
+            this.out = out;
+            this.part = part;
+            this.columns = template.columns();
+            this.amount = template.amount();
+            this.runningTotal = template.runningTotalHeader() != null;
+            this.dataFont = ReportFonts.regular(template.dataFontSize());
+            this.running = part != null ? part.runningOffset() : 0;
+
+            document = new Document();
+            try {
+                PdfWriter writer = PdfWriter.getInstance(document, out);
+                writer.setCloseStream(false);
+                document.open();
+                if (part == null || part.first()) {
+                    addTitle();
+                }
+            } catch (DocumentException e) {
+                throw new IOException(e);
+            }
+
+            table = new PdfPTable(columns.size() + (runningTotal ? 1 : 0));
+            table.setWidthPercentage(template.tableWidth());
+            if (template.centerTable()) {
+                table.setHorizontalAlignment(Element.ALIGN_CENTER);
+            }
+            table.setComplete(false);
+            table.setHeaderRows(1);
+
+            PdfPCell style = table.getDefaultCell();
+            style.setHorizontalAlignment(Element.ALIGN_CENTER);
+            style.setPadding(template.headerPadding());
+            Font headerFont = ReportFonts.bold(template.headerFontSize());
+            for (Column<T> column : columns) {
+                table.addCell(new Phrase(column.header(), headerFont));
+            }
+            if (runningTotal) {
+                table.addCell(new Phrase(template.runningTotalHeader(), headerFont));
+            }
+            style.setHorizontalAlignment(Element.ALIGN_LEFT);
+            style.setPadding(DEFAULT_PADDING);
+        }
+
+        private void addTitle() throws DocumentException {
+            Paragraph title = new Paragraph(template.title(), ReportFonts.bold(18));
+            title.setAlignment(Element.ALIGN_CENTER);
+            document.add(title);
+            document.add(new Paragraph(" "));
+            if (template.showGeneratedOn()) {
+                document.add(new Paragraph("Generated on: " + TextFormat.date(LocalDate.now()), ReportFonts.regular(12)));
+                document.add(new Paragraph(" "));
+            }
+        }
+
+        @Override
+        public void accept(T row) throws IOException {
+            for (Column<T> column : columns) {
+                switch (column.kind()) {
+                    case MONEY -> cell(TextFormat.money(column.number(row)));
+                    case PERCENT -> cell(TextFormat.percent(column.number(row)));
+                    default -> cell(column.text(row));
+                }
+            }
+            if (amount != null) {
+                double value = amount.applyAsDouble(row);
+                total += value;
+                if (runningTotal) {
+                    running += value;
+                    cell(TextFormat.money(running));
+                }
+            }
+            if (++pending == TABLE_CHUNK) {
+                pending = 0;
+                try {
+                    document.add(table);
+                } catch (DocumentException e) {
+                    throw new IOException(e);
+                }
+            }
+        }
+
+        private void cell(String text) {
+            table.addCell(new Phrase(text, dataFont));
+        }
+
+        @Override
+        public void finish() throws IOException {
+            try {
+                table.setComplete(true);
+                document.add(table);
+                if (template.totalLabel() != null && (part == null || part.last())) {
+                    document.add(new Paragraph(" "));
+                    StringBuilder line = new StringBuilder(template.totalLabel());
+                    TextFormat.appendFixed2(line, part != null ? part.total() : total);
+                    Paragraph totalLine = new Paragraph(line.toString(), ReportFonts.bold(template.totalFontSize()));
+                    totalLine.setAlignment(template.totalAlignment());
+                    document.add(totalLine);
+                }
+                document.close();
+            } catch (DocumentException e) {
+                throw new IOException(e);
+            }
+            out.flush();
+        }
+    }
+}
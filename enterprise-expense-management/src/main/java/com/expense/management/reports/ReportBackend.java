@@ -0,0 +1,26 @@
+package com.expense.management.reports;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An output format for {@link ReportTemplate}s.
+ */
+public interface ReportBackend {
+
+    String contentType();
+
+    String fileExtension();
+
+    <T> RowSink<T> open(ReportTemplate<T> template, OutputStream out) throws IOException;
+
+    /** Render a report whose rows are already in memory. */
+    default <T> void write(ReportTemplate<T> template, Iterable<T> rows, OutputStream out) throws IOException {
+        try (RowSink<T> sink = open(template, out)) {
+            for (T row : rows) {
+                sink.accept(row);
+            }
+            sink.finish();
+        }
+    }
+}
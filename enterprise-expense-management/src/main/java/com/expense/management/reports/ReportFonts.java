@@ -0,0 +1,34 @@
+package com.expense.management.reports;
+
+import com.itextpdf.text.Font;
+import com.itextpdf.text.FontFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fonts used by the PDF reports, resolved through {@link FontFactory} once per
+ * family and size and shared afterwards. Callers must not modify the returned fonts.
+ */
+public final class ReportFonts {
+
+    private record Key(String family, float size) {
+    }
+
+    private static final Map<Key, Font> FONTS = new ConcurrentHashMap<>();
+
+    private ReportFonts() {
+    }
+
+    public static Font regular(float size) {
+        return get(FontFactory.HELVETICA, size);
+    }
+
+    public static Font bold(float size) {
+        return get(FontFactory.HELVETICA_BOLD, size);
+    }
+
+    public static Font get(String family, float size) {
+        return FONTS.computeIfAbsent(new Key(family, size), key -> FontFactory.getFont(key.family(), key.size()));
+    }
+}
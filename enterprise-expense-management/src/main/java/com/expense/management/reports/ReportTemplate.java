@@ -0,0 +1,185 @@
+package com.expense.management.reports;
+
+import com.itextpdf.text.Element;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Declarative description of a tabular report: its columns plus the title, fonts and
+ * total line used by the PDF backend and the sheet name used by the XLSX backend.
+ * Templates are immutable and can be shared between threads.
+ */
+public final class ReportTemplate<T> {
+
+    private final String title;
+    private final boolean showGeneratedOn;
+    private final String sheetName;
+    private final List<Column<T>> columns;
+    private final float tableWidth;
+    private final boolean centerTable;
+    private final float headerFontSize;
+    private final float dataFontSize;
+    private final float headerPadding;
+    private final ToDoubleFunction<T> amount;
+    private final String totalLabel;
+    private final float totalFontSize;
+    private final int totalAlignment;
+    private final String runningTotalHeader;
+
+    private ReportTemplate(Builder<T> builder) {
+        this.title = builder.title;
+        this.showGeneratedOn = builder.showGeneratedOn;
+        this.sheetName = builder.sheetName;
+        this.columns = List.copyOf(builder.columns);
+        this.tableWidth = builder.tableWidth;
+        this.centerTable = builder.centerTable;
+        this.headerFontSize = builder.headerFontSize;
+        this.dataFontSize = builder.dataFontSize;
+        this.headerPadding = builder.headerPadding;
+        this.amount = builder.amount;
+        this.totalLabel = builder.totalLabel;
+        this.totalFontSize = builder.totalFontSize;
+        this.totalAlignment = builder.totalAlignment;
+        this.runningTotalHeader = builder.runningTotalHeader;
+    }
+
+    public static <T> Builder<T> builder(String title) {
+        return new Builder<>(title);
+    }
+
+    /**
+     * A copy of this template with an extra trailing column holding the running sum of
+     * the total amount. Requires {@link Builder#total}.
+     */
+    public ReportTemplate<T> withRunningTotal(String header) {
+        if (amount == null) {
+            throw new IllegalStateException("A running total needs the template's total amount");
+        }
+        Builder<T> builder = new Builder<>(this);
+        builder.runningTotalHeader = header;
+        return builder.build();
+    }
+
+    public String title() { return title; }
+
+    public boolean showGeneratedOn() { return showGeneratedOn; }
+
+    public String sheetName() { return sheetName; }
+
+    public List<Column<T>> columns() { return columns; }
+
+    public float tableWidth() { return tableWidth; }
+
+    public boolean centerTable() { return centerTable; }
+
+    public float headerFontSize() { return headerFontSize; }
+
+    public float dataFontSize() { return dataFontSize; }
+
+    public float headerPadding() { return headerPadding; }
+
+    /** Amount summed into the total line, or null for a report without one. */
+    public ToDoubleFunction<T> amount() { return amount; }
+
+    public String totalLabel() { return totalLabel; }
+
+    public float totalFontSize() { return totalFontSize; }
+
+    public int totalAlignment() { return totalAlignment; }
+
+    /** Header of the running total column, or null when there is none. */
+    public String runningTotalHeader() { return runningTotalHeader; }
+
+    public static final class Builder<T> {
+        private String title;
+        private boolean showGeneratedOn;
+        private String sheetName = "Report";
+        private final List<Column<T>> columns = new ArrayList<>();
+        private float tableWidth = 100;
+        private boolean centerTable;
+        private float headerFontSize = 10;
+        private float dataFontSize = 9;
+        private float headerPadding = 5;
+        private ToDoubleFunction<T> amount;
+        private String totalLabel;
+        private float totalFontSize = 12;
+        private int totalAlignment = Element.ALIGN_LEFT;
+        private String runningTotalHeader;
+
+        private Builder(String title) {
+            this.title = title;
+        }
+
+        private Builder(ReportTemplate<T> template) {
+            this.title = template.title;
+            this.showGeneratedOn = template.showGeneratedOn;
+            this.sheetName = template.sheetName;
+            this.columns.addAll(template.columns);
+            this.tableWidth = template.tableWidth;
+            this.centerTable = template.centerTable;
+            this.headerFontSize = template.headerFontSize;
+            this.dataFontSize = template.dataFontSize;
+            this.headerPadding = template.headerPadding;
+            this.amount = template.amount;
+            this.totalLabel = template.totalLabel;
+            this.totalFontSize = template.totalFontSize;
+            this.totalAlignment = template.totalAlignment;
+            this.runningTotalHeader = template.runningTotalHeader;
+        }
+
+        /** Print "Generated on: yyyy-MM-dd" under the title. */
+        public Builder<T> showGeneratedOn() {
+            this.showGeneratedOn = true;
+            return this;
+        }
+
+        public Builder<T> sheetName(String sheetName) {
+            this.sheetName = sheetName;
+            return this;
+        }
+
+        public Builder<T> column(Column<T> column) {
+            this.columns.add(column);
+            return this;
+        }
+
+        /** Table width in percent of the page, optionally centered. */
+        public Builder<T> tableWidth(float percent, boolean centered) {
+            this.tableWidth = percent;
+            this.centerTable = centered;
+            return this;
+        }
+
+        public Builder<T> fontSizes(float header, float data) {
+            this.headerFontSize = header;
+            this.dataFontSize = data;
+            return this;
+        }
+
+        public Builder<T> headerPadding(float padding) {
+            this.headerPadding = padding;
+            return this;
+        }
+
+        /**
+         * Sum {@code amount} over all rows and print it after the table as
+         * {@code label} followed by the sum with two decimals.
+         */
+        public Builder<T> total(ToDoubleFunction<T> amount, String label, float fontSize, int alignment) {
+            this.amount = amount;
+            this.totalLabel = label;
+            this.totalFontSize = fontSize;
+            this.totalAlignment = alignment;
+            return this;
+        }
+
+        public ReportTemplate<T> build() {
+            if (columns.isEmpty()) {
+                throw new IllegalStateException("A report template needs at least one column");
+            }
+            return new ReportTemplate<>(this);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.expense.management.reports;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Receives the rows of one report as they are produced. {@link #finish()} writes
+ * whatever follows the last row and flushes; {@link #close()} only releases resources,
+ * so closing without finishing abandons the report. Neither closes the target stream.
+ */
+public interface RowSink<T> extends Closeable {
+
+    void accept(T row) throws IOException;
+
+    void finish() throws IOException;
+
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,102 @@
+package com.expense.management.reports;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Number and date formatting for report cells without {@code String.format}, which
+ * parses its pattern and builds a {@code Formatter} on every call. Amounts are turned
+ * into whole cents and appended digit by digit, giving what {@code "%.2f"} prints
+ * (HALF_UP on the shortest decimal form of the double), except that a negative value
+ * rounding to zero prints as "0.00" rather than "-0.00".
+ */
+public final class TextFormat {
+
+    // Beyond this the cents no longer fit the 53-bit mantissa, so String.format is used
+    private static final double MAX_FAST = 1.0e13;
+
+    // Rounding error of abs * 100, in units in the last place of the product: half an ulp
+    // from the multiplication plus up to 100 half-ulps of abs carried over from parsing
+    private static final double HALF_CENT_ULPS = 64;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(32));
+
+    private TextFormat() {
+    }
+
+    /** Append {@code value} with two decimals, as {@code String.format("%.2f", value)} would. */
+    public static StringBuilder appendFixed2(StringBuilder sb, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value) || Math.abs(value) >= MAX_FAST) {
+            return sb.append(String.format(Locale.ROOT, "%.2f", value));
+        }
+        long cents = toCents(Math.abs(value));
+        if (value < 0 && cents != 0) {
+            sb.append('-');
+        }
+        sb.append(cents / 100).append('.');
+        int fraction = (int) (cents % 100);
+        if (fraction < 10) {
+            sb.append('0');
+        }
+        return sb.append(fraction);
+    }
+
+    /** Append a {@link LocalDate} as yyyy-MM-dd. */
+    public static StringBuilder appendDate(StringBuilder sb, LocalDate date) {
+        int year = date.getYear();
+        if (year < 1000 || year > 9999) {
+            return sb.append(date);
+        }
+        sb.append(year).append('-');
+        appendTwoDigits(sb, date.getMonthValue()).append('-');
+        return appendTwoDigits(sb, date.getDayOfMonth());
+    }
+
+    /** "$1234.50" */
+    public static String money(double value) {
+        StringBuilder sb = buffer().append('$');
+        return appendFixed2(sb, value).toString();
+    }
+
+    /** "1234.50" */
+    public static String fixed2(double value) {
+        return appendFixed2(buffer(), value).toString();
+    }
+
+    /** "12.50%" */
+    public static String percent(double value) {
+        return appendFixed2(buffer(), value).append('%').toString();
+    }
+
+    /** yyyy-MM-dd, or "" for a missing date. */
+    public static String date(LocalDate date) {
+        return date != null ? appendDate(buffer(), date).toString() : "";
+    }
+
+    private static long toCents(double abs) {
+        double scaled = abs * 100;
+        long floor = (long) scaled;
+        double fraction = scaled - floor;
+        // Close to a half cent the binary product can land on either side; decide on the decimal form.
+        // The window grows with the magnitude, since the product's error does
+        if (Math.abs(fraction - 0.5) <= HALF_CENT_ULPS * Math.ulp(scaled)) {
+            return BigDecimal.valueOf(abs).setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+        }
+        return fraction > 0.5 ? floor + 1 : floor;
+    }
+
+    private static StringBuilder appendTwoDigits(StringBuilder sb, int value) {
+        if (value < 10) {
+            sb.append('0');
+        }
+        return sb.append(value);
+    }
+
+    private static StringBuilder buffer() {
+        StringBuilder sb = BUFFER.get();
+        sb.setLength(0);
+        return sb;
+    }
+}
@@ -0,0 +1,114 @@
+package com.expense.management.reports;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Renders a template as an XLSX sheet with a streaming (SXSSF) workbook: only the last
+ * {@value #ROW_WINDOW} rows stay in memory. Column widths are estimated from the header
+ * and the first {@value #WIDTH_SAMPLE_ROWS} rows instead of autosizing every cell, and
+ * the number formats are created once per workbook and shared by all cells.
+ */
+public class XlsxReportBackend implements ReportBackend {
+
+    // Rows kept in memory by SXSSF before older ones are flushed to a temp file
+    private static final int ROW_WINDOW = 200;
+
+    private static final int WIDTH_SAMPLE_ROWS = 500;
+    private static final int MAX_COLUMN_CHARS = 60;
+
+    @Override
+    public String contentType() {
+        return "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+    }
+
+    @Override
+    public String fileExtension() {
+        return "xlsx";
+    }
+
+    @Override
+    public <T> RowSink<T> open(ReportTemplate<T> template, OutputStream out) {
+        return new XlsxSink<>(template, out);
+    }
+
+    private static final class XlsxSink<T> implements RowSink<T> {
+        private final OutputStream out;
+        private final List<Column<T>> columns;
+        private final SXSSFWorkbook workbook;
+        private final SXSSFSheet sheet;
+        private final CellStyle moneyStyle;
+        private final CellStyle percentStyle;
+        private final int[] maxChars;
+        private int rowIdx = 1;
+
+        XlsxSink(ReportTemplate<T> template, OutputStream out) {
+            this.out = out;
+            this.columns = template.columns();
+            this.maxChars = new int[columns.size()];
+
+            workbook = new SXSSFWorkbook(ROW_WINDOW);
+            workbook.setCompressTempFiles(true);
+            sheet = workbook.createSheet(template.sheetName());
+            moneyStyle = workbook.createCellStyle();
+            moneyStyle.setDataFormat(workbook.createDataFormat().getFormat("0.00"));
+            percentStyle = workbook.createCellStyle();
+            percentStyle.setDataFormat(workbook.createDataFormat().getFormat("0.00\"%\""));
+
+            Row header = sheet.createRow(0);
+            for (int i = 0; i < columns.size(); i++) {
+                String name = columns.get(i).header();
+                header.createCell(i).setCellValue(name);
+                maxChars[i] = name.length();
+            }
+        }
+
+        @Override
+        public void accept(T row) {
+            Row sheetRow = sheet.createRow(rowIdx);
+            boolean sample = rowIdx <= WIDTH_SAMPLE_ROWS;
+            rowIdx++;
+            for (int i = 0; i < columns.size(); i++) {
+                Column<T> column = columns.get(i);
+                Cell cell = sheetRow.createCell(i);
+                int chars;
+                if (column.kind() == Column.Kind.TEXT) {
+                    String value = column.text(row);
+                    cell.setCellValue(value);
+                    chars = sample ? value.length() : 0;
+                } else {
+                    double value = column.number(row);
+                    cell.setCellValue(value);
+                    cell.setCellStyle(column.kind() == Column.Kind.MONEY ? moneyStyle : percentStyle);
+                    chars = sample ? TextFormat.fixed2(value).length() + 1 : 0;
+                }
+                if (chars > maxChars[i]) {
+                    maxChars[i] = chars;
+                }
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            for (int i = 0; i < maxChars.length; i++) {
+                sheet.setColumnWidth(i, Math.min(maxChars[i] + 2, MAX_COLUMN_CHARS) * 256);
+            }
+            workbook.write(out);
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            // Deletes the temp files backing flushed rows
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.expense.management.repository;
+
+import com.expense.management.model.AnalyticsSketch;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface AnalyticsSketchRepository extends JpaRepository<AnalyticsSketch, String> {
+}
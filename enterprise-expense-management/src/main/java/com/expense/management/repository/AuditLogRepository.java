@@ -1,8 +1,30 @@
 package com.expense.management.repository;
 
 import com.expense.management.model.AuditLog;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
-}
 
+    // Newest first, keyset paged by (timestamp, id); null filters and a null afterTimestamp (first page) are left off
+    @Query("SELECT a FROM AuditLog a "
+            + "WHERE (:fromTime IS NULL OR a.timestamp >= :fromTime) AND (:toTime IS NULL OR a.timestamp < :toTime) "
+            + "AND (:user IS NULL OR a.user = :user) AND (:action IS NULL OR a.action = :action) "
+            + "AND (:status IS NULL OR a.status = :status) "
+            + "AND (:afterTimestamp IS NULL OR a.timestamp < :afterTimestamp "
+            + "OR (a.timestamp = :afterTimestamp AND a.id < :afterId)) "
+            + "ORDER BY a.timestamp DESC, a.id DESC")
+    List<AuditLog> findPage(@Param("fromTime") LocalDateTime fromTime,
+                            @Param("toTime") LocalDateTime toTime,
+                            @Param("user") String user,
+                            @Param("action") String action,
+                            @Param("status") String status,
+                            @Param("afterTimestamp") LocalDateTime afterTimestamp,
+                            @Param("afterId") Long afterId,
+                            Pageable pageable);
+}
@@ -1,16 +1,23 @@
 package com.expense.management.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.expense.management.dto.ExpenseExtractRow;
+import com.expense.management.dto.ExpenseReportRow;
+import com.expense.management.dto.ReceiptRef;
 import com.expense.management.model.Expense;
 import com.expense.management.model.ExpenseStatus;
 import com.expense.management.model.User;
 import com.expense.management.enums.ApprovalLevel;
+import com.expense.management.events.ExpenseFact;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -33,6 +40,13 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long> {
     
     // Methods for 3-level approval workflow
     List<Expense> findByApprovalLevelAndApprovalStatus(ApprovalLevel approvalLevel, ExpenseStatus approvalStatus);
+
+    long countByApprovalLevelAndApprovalStatus(ApprovalLevel approvalLevel, ExpenseStatus approvalStatus);
+
+    // [Long approvedByManagerId, Long count] rows for expenses a manager has passed on
+    @Query("SELECT e.approvedByManagerId, COUNT(e) FROM Expense e "
+            + "WHERE e.approvalStatus = :status AND e.approvedByManagerId IS NOT NULL GROUP BY e.approvedByManagerId")
+    List<Object[]> countByApproverAndStatus(@Param("status") ExpenseStatus status);
     
     List<Expense> findByApprovalStatus(ExpenseStatus approvalStatus);
 
@@ -43,4 +57,114 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long> {
     @Query("SELECT e FROM Expense e LEFT JOIN FETCH e.user WHERE e.id = :id")
     Optional<Expense> findByIdWithUser(@Param("id") Long id);
 
+    // Lightweight projection (no description/attachment) for bulk loads, keyset paged by id
+    @Query("SELECT new com.expense.management.events.ExpenseFact(e.id, e.amount, e.date, e.category, u.id, "
+            + "e.approvalStatus, e.approvalLevel, e.priority, e.approvedByManagerId) "
+            + "FROM Expense e LEFT JOIN e.user u WHERE e.id > :afterId ORDER BY e.id")
+    List<ExpenseFact> findFactsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Export rows keyset paged by id; null userId/from/to leave that filter off
+    @Query("SELECT new com.expense.management.dto.ExpenseReportRow(e.id, e.date, u.fullName, e.category, "
+            + "e.description, e.amount, e.approvalStatus) "
+            + "FROM Expense e LEFT JOIN e.user u "
+            + "WHERE e.id > :afterId AND e.approvalStatus IN :statuses AND (:userId IS NULL OR u.id = :userId) "
+            + "AND (:fromDate IS NULL OR e.date >= :fromDate) AND (:toDate IS NULL OR e.date <= :toDate) "
+            + "ORDER BY e.id")
+    List<ExpenseReportRow> findReportRowsAfter(@Param("afterId") Long afterId,
+                                               @Param("userId") Long userId,
+                                               @Param("statuses") Collection<ExpenseStatus> statuses,
+                                               @Param("fromDate") LocalDate fromDate,
+                                               @Param("toDate") LocalDate toDate,
+                                               Pageable pageable);
+
+    // [LocalDate date, Double sum, Long count] per date (including a null-date group) for partitioning exports
+    @Query("SELECT e.date, SUM(e.amount), COUNT(e) FROM Expense e LEFT JOIN e.user u "
+            + "WHERE e.approvalStatus IN :statuses AND (:userId IS NULL OR u.id = :userId) "
+            + "GROUP BY e.date ORDER BY e.date")
+    List<Object[]> summarizeReportRowsByDate(@Param("userId") Long userId,
+                                             @Param("statuses") Collection<ExpenseStatus> statuses);
+
+    // Export rows within [fromDate, toDate], keyset paged by (date, id)
+    @Query("SELECT new com.expense.management.dto.ExpenseReportRow(e.id, e.date, u.fullName, e.category, "
+            + "e.description, e.amount, e.approvalStatus) "
+            + "FROM Expense e LEFT JOIN e.user u "
+            + "WHERE e.approvalStatus IN :statuses AND (:userId IS NULL OR u.id = :userId) "
+            + "AND e.date BETWEEN :fromDate AND :toDate "
+            + "AND (e.date > :afterDate OR (e.date = :afterDate AND e.id > :afterId)) "
+            + "ORDER BY e.date, e.id")
+    List<ExpenseReportRow> findReportRowsBetween(@Param("userId") Long userId,
+                                                 @Param("statuses") Collection<ExpenseStatus> statuses,
+                                                 @Param("fromDate") LocalDate fromDate,
+                                                 @Param("toDate") LocalDate toDate,
+                                                 @Param("afterDate") LocalDate afterDate,
+                                                 @Param("afterId") Long afterId,
+                                                 Pageable pageable);
+
+    @Query("SELECT new com.expense.management.dto.ExpenseReportRow(e.id, e.date, u.fullName, e.category, "
+            + "e.description, e.amount, e.approvalStatus) "
+            + "FROM Expense e LEFT JOIN e.user u "
+            + "WHERE e.date IS NULL AND e.id > :afterId AND e.approvalStatus IN :statuses "
+            + "AND (:userId IS NULL OR u.id = :userId) ORDER BY e.id")
+    List<ExpenseReportRow> findUndatedReportRowsAfter(@Param("afterId") Long afterId,
+                                                      @Param("userId") Long userId,
+                                                      @Param("statuses") Collection<ExpenseStatus> statuses,
+                                                      Pageable pageable);
+
+    // Per-day totals as [LocalDate date, Double sum, Long count] rows
+    @Query("SELECT e.date, SUM(e.amount), COUNT(e) FROM Expense e "
+            + "WHERE e.approvalStatus = :status AND e.date IS NOT NULL GROUP BY e.date")
+    List<Object[]> sumAmountByDate(@Param("status") ExpenseStatus status);
+
+    // Owners of at least one expense dated within [fromDate, toDate]
+    @Query("SELECT DISTINCT u.id FROM Expense e JOIN e.user u WHERE e.date BETWEEN :fromDate AND :toDate")
+    List<Long> findUserIdsWithExpensesBetween(@Param("fromDate") LocalDate fromDate,
+                                              @Param("toDate") LocalDate toDate);
+
+    // [String category, Double sum] rows within [fromDate, toDate]; null userId covers every user
+    @Query("SELECT e.category, SUM(e.amount) FROM Expense e LEFT JOIN e.user u "
+            + "WHERE (:userId IS NULL OR u.id = :userId) AND e.date BETWEEN :fromDate AND :toDate "
+            + "GROUP BY e.category ORDER BY e.category")
+    List<Object[]> sumAmountByCategory(@Param("userId") Long userId,
+                                       @Param("fromDate") LocalDate fromDate,
+                                       @Param("toDate") LocalDate toDate);
+
+    // [LocalDate date, String category, Double sum] rows of expenses in one status within [fromDate, toDate], oldest first
+    @Query("SELECT e.date, e.category, SUM(e.amount) FROM Expense e "
+            + "WHERE e.approvalStatus = :status AND e.category IS NOT NULL AND e.date BETWEEN :fromDate AND :toDate "
+            + "GROUP BY e.date, e.category ORDER BY e.date")
+    List<Object[]> sumAmountByDateAndCategory(@Param("status") ExpenseStatus status,
+                                              @Param("fromDate") LocalDate fromDate,
+                                              @Param("toDate") LocalDate toDate);
+
+    // [Integer year, Integer month, String category, Double sum] rows of expenses in one status within [fromDate, toDate]
+    @Query("SELECT YEAR(e.date), MONTH(e.date), e.category, SUM(e.amount) FROM Expense e "
+            + "WHERE e.approvalStatus = :status AND e.date BETWEEN :fromDate AND :toDate "
+            + "GROUP BY YEAR(e.date), MONTH(e.date), e.category")
+    List<Object[]> sumAmountByMonthAndCategory(@Param("status") ExpenseStatus status,
+                                               @Param("fromDate") LocalDate fromDate,
+                                               @Param("toDate") LocalDate toDate);
+
+    // Expenses with a receipt URL or attachment, keyset paged by id; null userId/from/to leave that filter off
+    @Query("SELECT new com.expense.management.dto.ReceiptRef(e.id, e.date, e.category, e.receiptUrl, "
+            + "e.attachmentType, CASE WHEN e.attachment IS NULL THEN false ELSE true END) "
+            + "FROM Expense e LEFT JOIN e.user u "
+            + "WHERE e.id > :afterId AND (:userId IS NULL OR u.id = :userId) "
+            + "AND (:fromDate IS NULL OR e.date >= :fromDate) AND (:toDate IS NULL OR e.date <= :toDate) "
+            + "AND (e.receiptUrl IS NOT NULL OR e.attachment IS NOT NULL) ORDER BY e.id")
+    List<ReceiptRef> findReceiptRefsAfter(@Param("afterId") Long afterId,
+                                          @Param("userId") Long userId,
+                                          @Param("fromDate") LocalDate fromDate,
+                                          @Param("toDate") LocalDate toDate,
+                                          Pageable pageable);
+
+    @Query("SELECT e.attachment FROM Expense e WHERE e.id = :id")
+    byte[] findAttachmentById(@Param("id") Long id);
+
+    // Analytics extract rows keyset paged by id, joined with the owner and role
+    @Query("SELECT new com.expense.management.dto.ExpenseExtractRow(e.id, e.date, e.createdAt, e.amount, e.category, "
+            + "e.description, e.approvalStatus, e.approvalLevel, e.priority, e.approvedByManagerId, "
+            + "u.id, u.fullName, u.email, r.name) "
+            + "FROM Expense e LEFT JOIN e.user u LEFT JOIN u.role r WHERE e.id > :afterId ORDER BY e.id")
+    List<ExpenseExtractRow> findExtractRowsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
 }
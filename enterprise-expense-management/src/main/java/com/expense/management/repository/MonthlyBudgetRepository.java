@@ -0,0 +1,13 @@
+package com.expense.management.repository;
+
+import com.expense.management.model.MonthlyBudget;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface MonthlyBudgetRepository extends JpaRepository<MonthlyBudget, Long> {
+
+    Optional<MonthlyBudget> findByBudgetMonthAndCategory(String budgetMonth, String category);
+}
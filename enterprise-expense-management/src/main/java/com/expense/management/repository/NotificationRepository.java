@@ -3,8 +3,22 @@ package com.expense.management.repository;
 import com.expense.management.model.Notification;
 import com.expense.management.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
 import java.util.List;
 
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
     List<Notification> findByUserOrderByCreatedAtDesc(User user);
+
+    List<Notification> findByUserIdOrderByCreatedAtDesc(Long userId);
+
+    long countByUserIdAndReadFalse(Long userId);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Notification n SET n.read = true WHERE n.user.id = :userId AND n.read = false")
+    int markAllReadByUserId(@Param("userId") Long userId);
 } 
\ No newline at end of file
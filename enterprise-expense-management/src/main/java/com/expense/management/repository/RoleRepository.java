@@ -4,9 +4,6 @@ import com.expense.management.model.Role;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
-import java.util.Optional;
-
 @Repository
-public interface RoleRepository extends JpaRepository<Role, Long> {
-    Optional<Role> findByName(String name);
+public interface RoleRepository extends JpaRepository<Role, Long>, RoleRepositoryCustom {
 } 
\ No newline at end of file
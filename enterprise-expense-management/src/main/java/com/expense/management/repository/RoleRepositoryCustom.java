@@ -0,0 +1,12 @@
+package com.expense.management.repository;
+
+import com.expense.management.model.Role;
+
+import java.util.Optional;
+
+/**
+ * Lookups by the role's natural id (name), answered from the second-level cache.
+ */
+public interface RoleRepositoryCustom {
+    Optional<Role> findByName(String name);
+}
@@ -1,13 +1,35 @@
 package com.expense.management.repository;
 
+import com.expense.management.dto.TokenSubject;
+import com.expense.management.dto.UserIdentity;
 import com.expense.management.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> findByEmail(String email);
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
     boolean existsByEmail(String email);
+
+    @Query("SELECT new com.expense.management.dto.TokenSubject(u.id, u.email, r.name, u.tokenVersion) "
+            + "FROM User u JOIN u.role r WHERE u.email = :email")
+    Optional<TokenSubject> findTokenSubjectByEmail(@Param("email") String email);
+
+    @Query("SELECT new com.expense.management.dto.UserIdentity(u.id, u.email, u.fullName, r.name) "
+            + "FROM User u LEFT JOIN u.role r WHERE u.email = :email")
+    Optional<UserIdentity> findIdentityByEmail(@Param("email") String email);
+
+    @Query("SELECT u.tokenVersion FROM User u WHERE u.id = :id")
+    Optional<Long> findTokenVersionById(@Param("id") Long id);
+
+    // The email as stored; pending changes to a managed User are not flushed first
+    @QueryHints(@QueryHint(name = "org.hibernate.flushMode", value = "COMMIT"))
+    @Query("SELECT u.email FROM User u WHERE u.id = :id")
+    Optional<String> findStoredEmailById(@Param("id") Long id);
 }
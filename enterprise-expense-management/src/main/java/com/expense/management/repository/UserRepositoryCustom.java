@@ -0,0 +1,13 @@
+package com.expense.management.repository;
+
+import com.expense.management.model.User;
+
+import java.util.Optional;
+
+/**
+ * Lookups by the user's natural id (email), answered from the second-level cache
+ * when the user is cached instead of running a query.
+ */
+public interface UserRepositoryCustom {
+    Optional<User> findByEmail(String email);
+}
@@ -0,0 +1,18 @@
+package com.expense.management.security;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Injects the authenticated user into a handler parameter of type
+ * {@link com.expense.management.dto.UserIdentity}. The parameter is null when the
+ * request is anonymous or the user no longer exists.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CurrentUser {
+}
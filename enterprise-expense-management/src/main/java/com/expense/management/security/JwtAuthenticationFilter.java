@@ -1,11 +1,13 @@
 package com.expense.management.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -16,17 +18,21 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collections;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider tokenProvider;
     private final UserDetailsService userDetailsService;
+    private final TokenVersionCache tokenVersions;
 
     @Autowired
-    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, UserDetailsService userDetailsService,
+                                   TokenVersionCache tokenVersions) {
         this.tokenProvider = tokenProvider;
         this.userDetailsService = userDetailsService;
+        this.tokenVersions = tokenVersions;
     }
 
     @Override
@@ -36,23 +42,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             String jwt = getJwtFromRequest(request);
             logger.debug("JWT token from request: " + (jwt != null ? "present" : "not present"));
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String username = tokenProvider.getUsernameFromToken(jwt);
+            Claims claims = StringUtils.hasText(jwt) ? tokenProvider.getClaims(jwt) : null;
+            if (claims != null) {
+                String username = claims.getSubject();
                 logger.debug("Username from token: " + username);
-                
-                try {
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                    logger.debug("User details loaded: " + userDetails.getUsername());
-                    
-                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
-                    logger.debug("Authentication set in SecurityContext");
-                } catch (UsernameNotFoundException ex) {
-                    logger.warn("User not found: " + username + ". Token will be ignored.");
-                    // Don't set 401 status, let the request continue so frontend can handle redirect
+
+                Long userId = claims.get(JwtTokenProvider.USER_ID_CLAIM, Long.class);
+                if (userId != null) {
+                    authenticateFromClaims(claims, userId, request);
+                } else {
+                    // Tokens minted before the claims were added still need the user loaded
+                    authenticateFromUserDetails(username, request);
                 }
             } else {
                 logger.debug("JWT token validation failed or token is empty");
@@ -65,6 +65,40 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private void authenticateFromClaims(Claims claims, Long userId, HttpServletRequest request) {
+        Long tokenVersion = claims.get(JwtTokenProvider.VERSION_CLAIM, Long.class);
+        String role = claims.get(JwtTokenProvider.ROLE_CLAIM, String.class);
+        if (tokenVersion == null || role == null || tokenVersion != tokenVersions.current(userId)) {
+            logger.debug("Token of user " + userId + " has been revoked. Token will be ignored.");
+            return;
+        }
+
+        JwtPrincipal principal = new JwtPrincipal(userId, claims.getSubject(), role);
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+            principal, null, Collections.singletonList(new SimpleGrantedAuthority(role)));
+        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        logger.debug("Authentication set in SecurityContext from token claims");
+    }
+
+    private void authenticateFromUserDetails(String username, HttpServletRequest request) {
+        try {
+            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            logger.debug("User details loaded: " + userDetails.getUsername());
+
+            UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                userDetails, null, userDetails.getAuthorities());
+            authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+            logger.debug("Authentication set in SecurityContext");
+        } catch (UsernameNotFoundException ex) {
+            logger.warn("User not found: " + username + ". Token will be ignored.");
+            // Don't set 401 status, let the request continue so frontend can handle redirect
+        }
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         // Try to get token from Authorization header
         String bearerToken = request.getHeader("Authorization");
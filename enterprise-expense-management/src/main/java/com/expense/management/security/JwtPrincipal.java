@@ -0,0 +1,16 @@
+package com.expense.management.security;
+
+import java.security.Principal;
+
+/**
+ * The authenticated user as described by the claims of their JWT. {@link #getName()}
+ * is the email, so {@code Authentication.getName()} keeps returning the email as it
+ * did when the principal was a loaded {@code UserDetails}.
+ */
+public record JwtPrincipal(Long id, String email, String role) implements Principal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
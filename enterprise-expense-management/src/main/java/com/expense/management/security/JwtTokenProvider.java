@@ -1,7 +1,14 @@
 package com.expense.management.security;
 
+import com.expense.management.dto.TokenSubject;
+import com.expense.management.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -10,19 +17,78 @@ import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtTokenProvider {
 
+    // Claims that let a request be authenticated without loading the user
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ROLE_CLAIM = "role";
+    public static final String VERSION_CLAIM = "ver";
+
+    @Autowired
+    private UserRepository userRepository;
+
     @Value("${app.jwtSecret}")
     private String jwtSecret;
 
     @Value("${app.jwtExpirationInMs}")
     private long jwtExpirationInMs;
 
+    // Recently verified tokens, keyed by SHA-256 of the token; 0 disables the cache
+    @Value("${app.jwt.verified-cache-size:10000}")
+    private int verifiedCacheSize;
+
+    // The key and the parser are immutable and thread-safe, so they are built once
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    private record Verified(Claims claims, long expiresAt) {
+    }
+
+    // Lock-free reads on the request path; each entry expires with its token
+    private Cache<ByteBuffer, Verified> verified;
+
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        if (verifiedCacheSize > 0) {
+            verified = Caffeine.newBuilder()
+                    .maximumSize(verifiedCacheSize)
+                    .expireAfter(new Expiry<ByteBuffer, Verified>() {
+                        @Override
+                        public long expireAfterCreate(ByteBuffer key, Verified value, long currentTime) {
+                            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, value.expiresAt() - System.currentTimeMillis()));
+                        }
+
+                        @Override
+                        public long expireAfterUpdate(ByteBuffer key, Verified value, long currentTime,
+                                                      long currentDuration) {
+                            return expireAfterCreate(key, value, currentTime);
+                        }
+
+                        @Override
+                        public long expireAfterRead(ByteBuffer key, Verified value, long currentTime,
+                                                    long currentDuration) {
+                            return currentDuration;
+                        }
+                    })
+                    .build();
+        }
+    }
+
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        return signingKey;
     }
 
     public String generateToken(Authentication authentication) {
@@ -45,46 +111,70 @@ public class JwtTokenProvider {
             username = principal.toString();
         }
 
-        Date expiryDate = new Date(System.currentTimeMillis() + jwtExpirationInMs);
-
-        return Jwts.builder()
-                .setSubject(username)
-                .setIssuedAt(new Date())
-                .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
-                .compact();
+        return generateToken(username);
     }
 
     public String generateToken(String username) {
         Date expiryDate = new Date(System.currentTimeMillis() + jwtExpirationInMs);
 
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .setSubject(username)
                 .setIssuedAt(new Date())
-                .setExpiration(expiryDate)
+                .setExpiration(expiryDate);
+        Optional<TokenSubject> subject = userRepository.findTokenSubjectByEmail(username);
+        if (subject.isPresent()) {
+            builder.claim(USER_ID_CLAIM, subject.get().getId())
+                    .claim(ROLE_CLAIM, subject.get().getRole())
+                    .claim(VERSION_CLAIM, subject.get().getTokenVersion());
+        }
+        return builder
                 .signWith(getSigningKey(), SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * Verify the token and return its claims, or null if it is malformed, expired or
+     * not signed with our key. A token verified before is answered from the cache
+     * until it expires, without checking the signature or decoding it again. Callers
+     * must treat the returned claims as read-only since they may be shared.
+     */
+    public Claims getClaims(String token) {
+        if (verified == null) {
+            return parse(token);
+        }
+        ByteBuffer key = ByteBuffer.wrap(sha256(token));
+        Verified hit = verified.getIfPresent(key);
+        // Expiry is enforced here too, as the cache only evicts expired entries eventually
+        if (hit != null && hit.expiresAt() > System.currentTimeMillis()) {
+            return hit.claims();
+        }
 
-        return claims.getSubject();
+        Claims claims = parse(token);
+        // Tokens without an expiry are verified every time rather than cached forever
+        if (claims != null && claims.getExpiration() != null) {
+            verified.put(key, new Verified(claims, claims.getExpiration().getTime()));
+        }
+        return claims;
     }
 
     public boolean validateToken(String token) {
+        return getClaims(token) != null;
+    }
+
+    private Claims parse(String token) {
         try {
-            Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token);
-            return true;
+            return parser.parseClaimsJws(token).getBody();
         } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            return null;
+        }
+    }
+
+    private static byte[] sha256(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to provide SHA-256
+            throw new IllegalStateException(e);
         }
     }
-}
\ No newline at end of file
+}
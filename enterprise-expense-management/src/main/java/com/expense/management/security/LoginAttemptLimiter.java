@@ -0,0 +1,225 @@
+package com.expense.management.security;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+/**
+ * Counts failed logins per account and per client IP so brute-force traffic is
+ * turned away before any bcrypt work is done for it.
+ *
+ * Counters live in a fixed array of stripes rather than a map, so an attacker cycling
+ * through emails or addresses cannot grow memory. Each key is counted in two stripes
+ * and the lower count is used, which keeps an unrelated account that shares one
+ * stripe with an attacked one from being locked out. A stripe's count is cleared once
+ * {@code failure-window-ms} has passed since its first failure.
+ *
+ * An attempt is reserved before its password is checked and counts as a failure until
+ * it is settled, so concurrent guesses at one account cannot all slip past the limit
+ * while bcrypt is still running for the earlier ones.
+ *
+ * Stripes are picked with a hash keyed by a secret drawn at startup. Signup is open,
+ * so with a predictable hash an attacker could register an account landing in one of
+ * a victim's stripes and clear the victim's lockout by logging into it.
+ */
+@Component
+public class LoginAttemptLimiter {
+
+    @Value("${app.auth.max-failures-per-account:10}")
+    private int maxAccountFailures;
+
+    @Value("${app.auth.max-failures-per-ip:50}")
+    private int maxIpFailures;
+
+    @Value("${app.auth.failure-window-ms:900000}")
+    private long windowMillis;
+
+    // Rounded up to a power of two
+    @Value("${app.auth.failure-stripes:4096}")
+    private int stripeCount;
+
+    private Stripe[] accounts;
+    private Stripe[] addresses;
+    private int mask;
+    private byte[] hashKey;
+
+    private static final class Stripe {
+        private int failures;
+        private long windowStart;
+        // Attempts reserved but not yet settled
+        private int pending;
+    }
+
+    /** A login whose password is being checked, counted against its account and address until settled once. */
+    public final class Attempt {
+        private final String account;
+        private final String ip;
+        private boolean settled;
+
+        private Attempt(String account, String ip) {
+            this.account = account;
+            this.ip = ip;
+        }
+
+        /** Wrong password: the reservation becomes a failure. */
+        public void failed() {
+            if (settle()) {
+                long now = System.currentTimeMillis();
+                finish(accounts, account, now, true, false);
+                finish(addresses, ip, now, true, false);
+            }
+        }
+
+        /** Right password: the account's count is cleared; the address keeps its own. */
+        public void succeeded() {
+            if (settle()) {
+                long now = System.currentTimeMillis();
+                finish(accounts, account, now, false, true);
+                finish(addresses, ip, now, false, false);
+            }
+        }
+
+        /** The password was never checked (busy, or an unrelated error): nothing is counted. */
+        public void abandoned() {
+            if (settle()) {
+                long now = System.currentTimeMillis();
+                finish(accounts, account, now, false, false);
+                finish(addresses, ip, now, false, false);
+            }
+        }
+
+        private synchronized boolean settle() {
+            boolean first = !settled;
+            settled = true;
+            return first;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        int size = Integer.highestOneBit(Math.max(2, stripeCount - 1)) << 1;
+        mask = size - 1;
+        accounts = newStripes(size);
+        addresses = newStripes(size);
+        hashKey = new byte[16];
+        new SecureRandom().nextBytes(hashKey);
+    }
+
+    /**
+     * Reserve a login attempt, or return null if the account or the address has failed
+     * too often recently, counting attempts still in progress as failures.
+     */
+    public Attempt tryAcquire(String email, String ip) {
+        long now = System.currentTimeMillis();
+        String account = email != null ? normalize(email) : null;
+        if (account != null && !reserve(accounts, account, maxAccountFailures, now)) {
+            return null;
+        }
+        if (ip != null && !reserve(addresses, ip, maxIpFailures, now)) {
+            finish(accounts, account, now, false, false);
+            return null;
+        }
+        return new Attempt(account, ip);
+    }
+
+    /** True if {@link #tryAcquire} would refuse the account or the address right now. */
+    public boolean isBlocked(String email, String ip) {
+        long now = System.currentTimeMillis();
+        return (email != null && count(accounts, normalize(email), now) >= maxAccountFailures)
+                || (ip != null && count(addresses, ip, now) >= maxIpFailures);
+    }
+
+    private int count(Stripe[] table, String key, long now) {
+        int lowest = Integer.MAX_VALUE;
+        for (Stripe stripe : stripesOf(table, key)) {
+            synchronized (stripe) {
+                lowest = Math.min(lowest, attempts(stripe, now));
+            }
+        }
+        return lowest;
+    }
+
+    // Both stripes are locked, lower index first, so the check and the reservation are one step
+    private boolean reserve(Stripe[] table, String key, int max, long now) {
+        Stripe[] pair = stripesOf(table, key);
+        synchronized (pair[0]) {
+            synchronized (pair[1]) {
+                if (Math.min(attempts(pair[0], now), attempts(pair[1], now)) >= max) {
+                    return false;
+                }
+                pair[0].pending++;
+                pair[1].pending++;
+                return true;
+            }
+        }
+    }
+
+    private void finish(Stripe[] table, String key, long now, boolean failed, boolean clear) {
+        if (key == null) {
+            return;
+        }
+        for (Stripe stripe : stripesOf(table, key)) {
+            synchronized (stripe) {
+                stripe.pending--;
+                if (clear) {
+                    stripe.failures = 0;
+                } else if (failed) {
+                    if (now - stripe.windowStart >= windowMillis) {
+                        stripe.failures = 0;
+                        stripe.windowStart = now;
+                    }
+                    stripe.failures++;
+                }
+            }
+        }
+    }
+
+    // Caller holds the stripe's lock
+    private int attempts(Stripe stripe, long now) {
+        return (now - stripe.windowStart >= windowMillis ? 0 : stripe.failures) + stripe.pending;
+    }
+
+    private Stripe[] stripesOf(Stripe[] table, String key) {
+        byte[] hash = keyedHash(key);
+        int first = toInt(hash, 0) & mask;
+        int second = toInt(hash, 4) & mask;
+        if (second == first) {
+            second = (first + 1) & mask;
+        }
+        return new Stripe[] { table[Math.min(first, second)], table[Math.max(first, second)] };
+    }
+
+    // SHA-256 of the secret and the key; negligible next to the bcrypt check it guards
+    private byte[] keyedHash(String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(hashKey);
+            return digest.digest(key.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to provide SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static int toInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF) << 24 | (bytes[offset + 1] & 0xFF) << 16
+                | (bytes[offset + 2] & 0xFF) << 8 | (bytes[offset + 3] & 0xFF);
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase();
+    }
+
+    private static Stripe[] newStripes(int size) {
+        Stripe[] stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe();
+        }
+        return stripes;
+    }
+}
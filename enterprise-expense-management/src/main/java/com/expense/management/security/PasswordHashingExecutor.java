@@ -0,0 +1,82 @@
+package com.expense.management.security;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs password hashing and verification (login, signup) on its own bounded pool so a
+ * burst of logins cannot occupy every Tomcat thread with bcrypt. Controllers hand the
+ * work over and return a {@code CompletableFuture}, releasing the request thread.
+ *
+ * When all workers are busy and the queue is full, {@link #execute} throws
+ * {@link RejectedExecutionException}; callers answer 503 instead of queueing more.
+ *
+ * The pool is sized for CPU-bound hashing, so what follows a hash (user lookups, saves,
+ * issuing the token) goes to {@link #completions()}, sized like the connection pool,
+ * and database latency does not eat into login capacity. Its queue is unbounded, but
+ * only work admitted here ever reaches it.
+ */
+@Component
+public class PasswordHashingExecutor implements Executor {
+
+    // 0 = one per core
+    @Value("${app.auth.hashing-threads:0}")
+    private int threads;
+
+    @Value("${app.auth.hashing-queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${app.auth.completion-threads:${spring.datasource.hikari.maximum-pool-size:10}}")
+    private int completionThreads;
+
+    private ThreadPoolExecutor executor;
+    private ThreadPoolExecutor completions;
+
+    @PostConstruct
+    public void init() {
+        int workers = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        AtomicInteger completionCount = new AtomicInteger();
+        completions = new ThreadPoolExecutor(completionThreads, completionThreads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-completion-" + completionCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        completions.shutdown();
+    }
+
+    /** Where to continue once a hash is done, off the hashing threads. */
+    public Executor completions() {
+        return completions;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        executor.execute(command);
+    }
+}
@@ -0,0 +1,56 @@
+package com.expense.management.security;
+
+import com.expense.management.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Current token version per user id, so a request can check its JWT has not been
+ * revoked without loading the user. At most {@code version-cache-size} users are
+ * cached, and an entry is reloaded {@code version-cache-ttl-ms} after it was loaded
+ * so a change made by another instance is picked up within that time. Changes made
+ * here are seen at once through {@link #invalidate}.
+ */
+@Component
+public class TokenVersionCache {
+
+    /** Returned for a user id that no longer exists; never matches a token. */
+    public static final long UNKNOWN_USER = -1L;
+
+    @Value("${app.jwt.version-cache-size:10000}")
+    private int maxEntries;
+
+    @Value("${app.jwt.version-cache-ttl-ms:30000}")
+    private long ttlMillis;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    // Read on every authenticated request, so lookups must not serialize on a lock
+    private Cache<Long, Long> versions;
+
+    @PostConstruct
+    public void init() {
+        versions = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttlMillis, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /** The user's token version, or {@link #UNKNOWN_USER} if there is no such user. */
+    public long current(Long userId) {
+        // A miss loads under the entry's lock, so an invalidate during the load waits
+        // for it and then removes the possibly stale value
+        return versions.get(userId, id -> userRepository.findTokenVersionById(id).orElse(UNKNOWN_USER));
+    }
+
+    public void invalidate(Long userId) {
+        versions.invalidate(userId);
+    }
+}
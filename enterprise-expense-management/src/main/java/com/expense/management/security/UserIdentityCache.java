@@ -0,0 +1,58 @@
+package com.expense.management.security;
+
+import com.expense.management.dto.UserIdentity;
+import com.expense.management.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Identities of recently active users by email, so handlers resolving the caller do
+ * not query the users table on every request. At most {@code identity-cache-size}
+ * identities are cached, each reloaded {@code identity-cache-ttl-ms} after it was
+ * loaded; code changing a user's email, name or role calls {@link #invalidate} so this
+ * instance sees the change at once. Unknown emails are not cached.
+ */
+@Component
+public class UserIdentityCache {
+
+    @Value("${app.users.identity-cache-size:10000}")
+    private int maxEntries;
+
+    @Value("${app.users.identity-cache-ttl-ms:60000}")
+    private long ttlMillis;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Cache<String, UserIdentity> identities;
+
+    @PostConstruct
+    public void init() {
+        identities = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttlMillis, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /** The identity of the user with this email, or null if there is none. */
+    public UserIdentity get(String email) {
+        if (email == null) {
+            return null;
+        }
+        // A null from the loader is not cached. An invalidate during the load waits for
+        // it and then removes the possibly stale identity.
+        return identities.get(email, key -> userRepository.findIdentityByEmail(key).orElse(null));
+    }
+
+    public void invalidate(String email) {
+        if (email != null) {
+            identities.invalidate(email);
+        }
+    }
+}
@@ -1,24 +1,73 @@
 package com.expense.management.services;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import com.expense.management.audit.AuditAppender;
+import com.expense.management.dto.AuditLogPage;
 import com.expense.management.model.AuditLog;
 import com.expense.management.repository.AuditLogRepository;
 
 @Service
 public class AuditService {
 
+    public static final int MAX_PAGE_SIZE = 500;
+
     @Autowired
     private AuditLogRepository auditLogRepository;
 
-    public List<AuditLog> getAllLogs() {
-        return auditLogRepository.findAll();
+    @Autowired
+    private AuditAppender auditAppender;
+
+    /**
+     * A page of audit logs, newest first, within [from, to) and matching the given
+     * user, action and status; null arguments are not filtered on.
+     * @param cursor the {@code nextCursor} of the previous page, or null for the most recent page
+     * @throws IllegalArgumentException for a malformed cursor or a limit outside 1..{@value #MAX_PAGE_SIZE}
+     */
+    public AuditLogPage findLogs(LocalDateTime from, LocalDateTime to, String user, String action, String status,
+                                 String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        LocalDateTime afterTimestamp = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8)
+                        .split("\\|", 2);
+                afterTimestamp = LocalDateTime.parse(parts[0]);
+                afterId = Long.parseLong(parts[1]);
+            } catch (IllegalArgumentException | DateTimeParseException | ArrayIndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+
+        // One extra row tells whether there is a next page
+        List<AuditLog> logs = auditLogRepository.findPage(from, to, user, action, status, afterTimestamp, afterId,
+                PageRequest.of(0, limit + 1));
+        if (logs.size() <= limit) {
+            return new AuditLogPage(logs, null);
+        }
+        logs = logs.subList(0, limit);
+        AuditLog last = logs.get(limit - 1);
+        String next = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((last.getTimestamp() + "|" + last.getId()).getBytes(StandardCharsets.UTF_8));
+        return new AuditLogPage(logs, next);
     }
 
+    /**
+     * Record an audit event through the batched {@link AuditAppender}. The returned
+     * log gets its id once the writer has inserted it.
+     */
     public AuditLog logEvent(String user, String action, String details, String status) {
         AuditLog log = new AuditLog(user, action, details, status);
-        return auditLogRepository.save(log);
+        auditAppender.append(log);
+        return log;
     }
 }
-
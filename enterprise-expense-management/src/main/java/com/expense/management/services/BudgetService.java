@@ -0,0 +1,275 @@
+package com.expense.management.services;
+
+import com.expense.management.dto.BudgetStatus;
+import com.expense.management.events.ExpenseChangedEvent;
+import com.expense.management.events.ExpenseFact;
+import com.expense.management.model.ExpenseStatus;
+import com.expense.management.model.MonthlyBudget;
+import com.expense.management.repository.ExpenseRepository;
+import com.expense.management.repository.MonthlyBudgetRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Monthly budgets, company-wide and per category, and the approved spend against
+ * them.
+ *
+ * Limits live in {@code monthly_budgets}; a month without its own row inherits the
+ * latest earlier one, and a company budget that was never set falls back to
+ * {@code app.budgets.default-company-monthly}. All limits are held in memory.
+ *
+ * Approved spend is kept in cents per month and category in {@link LongAdder}s that
+ * move with every {@link ExpenseChangedEvent}, so utilization and over-budget checks
+ * never query the database. Only months from {@code tracked-months} ago onwards are
+ * counted; older ones are summed on demand. Each node counts only its own writes, so
+ * a periodic reconcile reloads limits and spend from the database, which is what
+ * brings the nodes of a cluster back in line.
+ */
+@Service
+public class BudgetService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BudgetService.class);
+
+    // Counted months reach this far ahead so future-dated expenses are tracked too
+    private static final int MONTHS_AHEAD = 12;
+
+    @Value("${app.budgets.default-company-monthly:50000}")
+    private double defaultCompanyBudget;
+
+    @Value("${app.budgets.tracked-months:3}")
+    private int trackedMonths;
+
+    @Autowired
+    private MonthlyBudgetRepository budgetRepository;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    // category (COMPANY_WIDE for the company) -> month -> limit
+    private volatile Map<String, NavigableMap<YearMonth, Double>> limits = new ConcurrentHashMap<>();
+
+    // month -> category (COMPANY_WIDE for the month total) -> approved cents
+    private volatile Map<YearMonth, Map<String, LongAdder>> spent = new ConcurrentHashMap<>();
+
+    // Null until the first reconcile, so nothing is counted before there is a baseline
+    private volatile YearMonth oldestTracked;
+
+    // Event updates and budget writes share the read lock; a reconcile takes the write lock so none land between its load and swap
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile Instant lastReconciled;
+
+    @EventListener
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        lock.readLock().lock();
+        try {
+            apply(event.getBefore(), -1);
+            apply(event.getAfter(), 1);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(ExpenseFact fact, int sign) {
+        if (fact == null || !fact.isApproved() || fact.date() == null) {
+            return;
+        }
+        YearMonth month = YearMonth.from(fact.date());
+        if (!isTracked(month)) {
+            return;
+        }
+        long cents = sign * toCents(fact.amount());
+        Map<String, LongAdder> byCategory = spent.computeIfAbsent(month, m -> new ConcurrentHashMap<>());
+        byCategory.computeIfAbsent(MonthlyBudget.COMPANY_WIDE, c -> new LongAdder()).add(cents);
+        if (fact.category() != null) {
+            byCategory.computeIfAbsent(fact.category(), c -> new LongAdder()).add(cents);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            logger.error("Could not load budgets", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.budgets.reconcile-interval-ms:60000}",
+               initialDelayString = "${app.budgets.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        lock.writeLock().lock();
+        try {
+            Map<String, NavigableMap<YearMonth, Double>> loadedLimits = new ConcurrentHashMap<>();
+            for (MonthlyBudget budget : budgetRepository.findAll()) {
+                loadedLimits.computeIfAbsent(budget.getCategory(), c -> new ConcurrentSkipListMap<>())
+                        .put(YearMonth.parse(budget.getBudgetMonth()), budget.getBudgetLimit());
+            }
+
+            YearMonth oldest = YearMonth.now().minusMonths(Math.max(1, trackedMonths) - 1L);
+            Map<YearMonth, Map<String, LongAdder>> loadedSpent = new ConcurrentHashMap<>();
+            for (Object[] row : expenseRepository.sumAmountByMonthAndCategory(ExpenseStatus.APPROVED,
+                    oldest.atDay(1), oldest.plusMonths(MONTHS_AHEAD).atEndOfMonth())) {
+                YearMonth month = YearMonth.of(((Number) row[0]).intValue(), ((Number) row[1]).intValue());
+                long cents = toCents(((Number) row[3]).doubleValue());
+                Map<String, LongAdder> byCategory = loadedSpent.computeIfAbsent(month, m -> new ConcurrentHashMap<>());
+                byCategory.computeIfAbsent(MonthlyBudget.COMPANY_WIDE, c -> new LongAdder()).add(cents);
+                if (row[2] != null) {
+                    byCategory.computeIfAbsent((String) row[2], c -> new LongAdder()).add(cents);
+                }
+            }
+
+            if (lastReconciled != null) {
+                YearMonth current = YearMonth.now();
+                long previous = sum(spent, current, MonthlyBudget.COMPANY_WIDE);
+                long actual = sum(loadedSpent, current, MonthlyBudget.COMPANY_WIDE);
+                if (previous != actual) {
+                    logger.info("Approved spend for {} moved outside this node: counter {} vs database {} cents",
+                            current, previous, actual);
+                }
+            }
+            limits = loadedLimits;
+            spent = loadedSpent;
+            oldestTracked = oldest;
+            lastReconciled = Instant.now();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Set the limit of {@code month} for the company ({@code category} null or blank)
+     * or one category. Later months without their own row inherit it.
+     */
+    public void setBudget(YearMonth month, String category, double limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Budget must not be negative");
+        }
+        String key = normalize(category);
+        lock.readLock().lock();
+        try {
+            MonthlyBudget budget = budgetRepository.findByBudgetMonthAndCategory(month.toString(), key)
+                    .orElseGet(() -> new MonthlyBudget(month.toString(), key, limit));
+            budget.setBudgetLimit(limit);
+            budgetRepository.save(budget);
+            limits.computeIfAbsent(key, c -> new ConcurrentSkipListMap<>()).put(month, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** The limit in force for {@code month}, or null if a category has no budget. */
+    public Double getLimit(YearMonth month, String category) {
+        String key = normalize(category);
+        NavigableMap<YearMonth, Double> history = limits.get(key);
+        Map.Entry<YearMonth, Double> inForce = history != null ? history.floorEntry(month) : null;
+        if (inForce != null) {
+            return inForce.getValue();
+        }
+        return key.equals(MonthlyBudget.COMPANY_WIDE) ? defaultCompanyBudget : null;
+    }
+
+    /** Approved spend of {@code month}, for the company ({@code category} null) or one category. */
+    public double getSpent(YearMonth month, String category) {
+        String key = normalize(category);
+        if (isTracked(month)) {
+            return sum(spent, month, key) / 100.0;
+        }
+        double total = 0;
+        for (Object[] row : expenseRepository.sumAmountByMonthAndCategory(ExpenseStatus.APPROVED,
+                month.atDay(1), month.atEndOfMonth())) {
+            if (key.equals(MonthlyBudget.COMPANY_WIDE) || key.equals(row[2])) {
+                total += ((Number) row[3]).doubleValue();
+            }
+        }
+        return total;
+    }
+
+    public BudgetStatus getStatus(YearMonth month, String category) {
+        String key = normalize(category);
+        return new BudgetStatus(month.toString(), key.isEmpty() ? null : key, getLimit(month, key), getSpent(month, key));
+    }
+
+    /** The company status followed by every category that has a budget or spend in {@code month}. */
+    public List<BudgetStatus> getStatuses(YearMonth month) {
+        TreeSet<String> categories = new TreeSet<>();
+        limits.forEach((category, history) -> {
+            if (history.floorEntry(month) != null) {
+                categories.add(category);
+            }
+        });
+        if (isTracked(month)) {
+            categories.addAll(spent.getOrDefault(month, Map.of()).keySet());
+        } else {
+            for (Object[] row : expenseRepository.sumAmountByMonthAndCategory(ExpenseStatus.APPROVED,
+                    month.atDay(1), month.atEndOfMonth())) {
+                if (row[2] != null) {
+                    categories.add((String) row[2]);
+                }
+            }
+        }
+        categories.remove(MonthlyBudget.COMPANY_WIDE);
+
+        List<BudgetStatus> statuses = new ArrayList<>();
+        statuses.add(getStatus(month, null));
+        for (String category : categories) {
+            statuses.add(getStatus(month, category));
+        }
+        return statuses;
+    }
+
+    /**
+     * True if approving {@code amount} on {@code date} would take the company or the
+     * category past its budget for that month.
+     */
+    public boolean wouldExceed(LocalDate date, String category, double amount) {
+        YearMonth month = YearMonth.from(date);
+        return exceeds(month, null, amount) || (category != null && exceeds(month, category, amount));
+    }
+
+    private boolean exceeds(YearMonth month, String category, double amount) {
+        Double limit = getLimit(month, category);
+        return limit != null && getSpent(month, category) + amount > limit;
+    }
+
+    public Instant getLastReconciled() {
+        return lastReconciled;
+    }
+
+    private boolean isTracked(YearMonth month) {
+        YearMonth oldest = oldestTracked;
+        return oldest != null && !month.isBefore(oldest) && !month.isAfter(oldest.plusMonths(MONTHS_AHEAD));
+    }
+
+    private static long sum(Map<YearMonth, Map<String, LongAdder>> counters, YearMonth month, String category) {
+        LongAdder adder = counters.getOrDefault(month, Map.of()).get(category);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    private static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    private static String normalize(String category) {
+        return category == null || category.isBlank() ? MonthlyBudget.COMPANY_WIDE : category.trim();
+    }
+}
@@ -3,10 +3,19 @@ package com.expense.management.services;
 import com.cloudinary.Cloudinary;
 import com.cloudinary.utils.ObjectUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -15,6 +24,18 @@ public class CloudinaryService {
     @Autowired
     private Cloudinary cloudinary;
 
+    // Receipt URLs are only fetched from these prefixes, so a stored URL cannot point the server elsewhere
+    @Value("${app.receipts.allowed-url-prefixes:https://res.cloudinary.com/}")
+    private List<String> allowedUrlPrefixes;
+
+    @Value("${app.receipts.fetch-timeout-ms:15000}")
+    private long fetchTimeoutMillis;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+
     /**
      * Upload a receipt file to Cloudinary
      * @param file The file to upload (image or PDF)
@@ -107,4 +128,31 @@ public class CloudinaryService {
         
         return afterUpload.split("\\.")[0]; // Remove file extension
     }
-} 
\ No newline at end of file
+
+    /**
+     * Open the receipt stored at {@code receiptUrl} for reading. The caller closes the stream.
+     * @throws IllegalArgumentException if the URL is not under an allowed prefix
+     * @throws IOException if the request fails or does not answer 200
+     */
+    public InputStream openReceipt(String receiptUrl) throws IOException {
+        if (receiptUrl == null || allowedUrlPrefixes.stream().noneMatch(receiptUrl::startsWith)) {
+            throw new IllegalArgumentException("Receipt URL is not on an allowed host");
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(receiptUrl))
+                .timeout(Duration.ofMillis(fetchTimeoutMillis))
+                .GET()
+                .build();
+        HttpResponse<InputStream> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Receipt download interrupted");
+        }
+        if (response.statusCode() != 200) {
+            response.body().close();
+            throw new IOException("Receipt download failed with HTTP " + response.statusCode());
+        }
+        return response.body();
+    }
+}
@@ -2,9 +2,12 @@ package com.expense.management.services;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,6 +15,7 @@ import org.springframework.stereotype.Service;
 
 import com.expense.management.dto.DashboardDTO;
 import com.expense.management.dto.DashboardDTO.ExpenseSummaryDTO;
+import com.expense.management.enums.DashboardField;
 import com.expense.management.model.Expense;
 import com.expense.management.model.ExpenseStatus;
 import com.expense.management.repository.ExpenseRepository;
@@ -27,75 +31,98 @@ public class DashboardService {
     private UserRepository userRepository;
 
     public DashboardDTO getDashboardData() {
-        List<Expense> allExpenses = expenseRepository.findAll();
-        DashboardDTO dashboard = new DashboardDTO();
+        return getDashboardData(EnumSet.allOf(DashboardField.class));
+    }
 
-        // set total users
-        dashboard.setTotalUsers(userRepository.count());
+    /**
+     * Company-wide dashboard restricted to the selected sections. Expenses are only
+     * loaded if at least one selected section needs them.
+     */
+    public DashboardDTO getDashboardData(Set<DashboardField> fields) {
+        DashboardDTO dashboard = getDashboardData(expenseRepository::findAll, fields);
 
-        // Calculate total expenses
-        dashboard.setTotalExpenses(allExpenses.stream()
-                .mapToDouble(Expense::getAmount)
-                .sum());
+        // set total users
+        if (fields.contains(DashboardField.TOTAL_USERS)) {
+            dashboard.setTotalUsers(userRepository.count());
+        }
+        return dashboard;
+    }
 
-        // Calculate expenses by status
-        dashboard.setPendingExpenses(calculateExpensesByStatus(allExpenses, ExpenseStatus.PENDING));
-        dashboard.setApprovedExpenses(calculateExpensesByStatus(allExpenses, ExpenseStatus.APPROVED));
-        dashboard.setRejectedExpenses(calculateExpensesByStatus(allExpenses, ExpenseStatus.REJECTED));
+    public DashboardDTO getDashboardData(List<Expense> expenses) {
+        return getDashboardData(() -> expenses, EnumSet.allOf(DashboardField.class));
+    }
 
+    /**
+     * Build the dashboard sections that were requested. The expense source and the
+     * derived approved-only list are evaluated lazily and at most once, so a request
+     * for e.g. only {@code statusCounts} never runs the category or monthly aggregations.
+     */
+    public DashboardDTO getDashboardData(Supplier<List<Expense>> expenseSource, Set<DashboardField> fields) {
+        Supplier<List<Expense>> expenses = memoize(expenseSource);
         // Only use approved expenses for graphs
-        List<Expense> approvedExpenses = allExpenses.stream()
+        Supplier<List<Expense>> approvedExpenses = memoize(() -> expenses.get().stream()
             .filter(e -> e.getApprovalStatus() == ExpenseStatus.APPROVED)
-            .collect(Collectors.toList());
-
-        // Calculate expenses by category (approved only)
-        dashboard.setExpensesByCategory(calculateExpensesByCategory(approvedExpenses));
-
-        // Get recent expenses (all)
-        dashboard.setRecentExpenses(getRecentExpenses(allExpenses));
-
-        // Calculate monthly expenses (approved only)
-        dashboard.setMonthlyExpenses(calculateMonthlyExpenses(approvedExpenses));
-
-        // Calculate status counts (all)
-        dashboard.setStatusCounts(calculateStatusCounts(allExpenses));
+            .collect(Collectors.toList()));
 
-        return dashboard;
-    }
-
-    public DashboardDTO getDashboardData(List<Expense> expenses) {
         DashboardDTO dashboard = new DashboardDTO();
 
         // Calculate total expenses
-        dashboard.setTotalExpenses(expenses.stream()
-                .mapToDouble(Expense::getAmount)
-                .sum());
+        if (fields.contains(DashboardField.TOTAL_EXPENSES)) {
+            dashboard.setTotalExpenses(expenses.get().stream()
+                    .mapToDouble(Expense::getAmount)
+                    .sum());
+        }
 
         // Calculate expenses by status
-        dashboard.setPendingExpenses(calculateExpensesByStatus(expenses, ExpenseStatus.PENDING));
-        dashboard.setApprovedExpenses(calculateExpensesByStatus(expenses, ExpenseStatus.APPROVED));
-        dashboard.setRejectedExpenses(calculateExpensesByStatus(expenses, ExpenseStatus.REJECTED));
-
-        // Only use approved expenses for graphs
-        List<Expense> approvedExpenses = expenses.stream()
-            .filter(e -> e.getApprovalStatus() == ExpenseStatus.APPROVED)
-            .collect(Collectors.toList());
+        if (fields.contains(DashboardField.PENDING_EXPENSES)) {
+            dashboard.setPendingExpenses(calculateExpensesByStatus(expenses.get(), ExpenseStatus.PENDING));
+        }
+        if (fields.contains(DashboardField.APPROVED_EXPENSES)) {
+            dashboard.setApprovedExpenses(calculateExpensesByStatus(expenses.get(), ExpenseStatus.APPROVED));
+        }
+        if (fields.contains(DashboardField.REJECTED_EXPENSES)) {
+            dashboard.setRejectedExpenses(calculateExpensesByStatus(expenses.get(), ExpenseStatus.REJECTED));
+        }
 
         // Calculate expenses by category (approved only)
-        dashboard.setExpensesByCategory(calculateExpensesByCategory(approvedExpenses));
+        if (fields.contains(DashboardField.EXPENSES_BY_CATEGORY)) {
+            dashboard.setExpensesByCategory(calculateExpensesByCategory(approvedExpenses.get()));
+        }
 
         // Get recent expenses (all)
-        dashboard.setRecentExpenses(getRecentExpenses(expenses));
+        if (fields.contains(DashboardField.RECENT_EXPENSES)) {
+            dashboard.setRecentExpenses(getRecentExpenses(expenses.get()));
+        }
 
         // Calculate monthly expenses (approved only)
-        dashboard.setMonthlyExpenses(calculateMonthlyExpenses(approvedExpenses));
+        if (fields.contains(DashboardField.MONTHLY_EXPENSES)) {
+            dashboard.setMonthlyExpenses(calculateMonthlyExpenses(approvedExpenses.get()));
+        }
 
         // Calculate status counts (all)
-        dashboard.setStatusCounts(calculateStatusCounts(expenses));
+        if (fields.contains(DashboardField.STATUS_COUNTS)) {
+            dashboard.setStatusCounts(calculateStatusCounts(expenses.get()));
+        }
 
         return dashboard;
     }
 
+    private static <T> Supplier<T> memoize(Supplier<T> delegate) {
+        return new Supplier<T>() {
+            private T value;
+            private boolean evaluated;
+
+            @Override
+            public T get() {
+                if (!evaluated) {
+                    value = delegate.get();
+                    evaluated = true;
+                }
+                return value;
+            }
+        };
+    }
+
     private double calculateExpensesByStatus(List<Expense> expenses, ExpenseStatus status) {
         return expenses.stream()
                 .filter(e -> e.getApprovalStatus() == status)
@@ -0,0 +1,170 @@
+package com.expense.management.services;
+
+import com.expense.management.dto.ExpenseReportRow;
+import com.expense.management.model.ExpenseStatus;
+import com.expense.management.reports.CsvReportBackend;
+import com.expense.management.reports.ExpenseReportTemplates;
+import com.expense.management.reports.PdfReportBackend;
+import com.expense.management.reports.ReportBackend;
+import com.expense.management.reports.ReportTemplate;
+import com.expense.management.reports.RowSink;
+import com.expense.management.reports.XlsxReportBackend;
+import com.expense.management.repository.ExpenseRepository;
+import com.itextpdf.text.DocumentException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Builds expense exports straight onto an output stream. Rows are read in keyset
+ * pages of {@link ExpenseReportRow} and written as they arrive, so memory use does
+ * not grow with the number of expenses exported. Layout and formatting live in the
+ * {@code reports} package; this service only feeds it rows.
+ */
+@Service
+public class ExpenseReportService {
+
+    static final int PAGE_SIZE = 1000;
+
+    private static final PdfReportBackend PDF = new PdfReportBackend();
+    private static final XlsxReportBackend XLSX = new XlsxReportBackend();
+
+    static final Set<ExpenseStatus> EXPORTED_STATUSES =
+            EnumSet.of(ExpenseStatus.PENDING, ExpenseStatus.APPROVED, ExpenseStatus.REJECTED);
+
+    @FunctionalInterface
+    public interface RowHandler {
+        void accept(ExpenseReportRow row) throws IOException;
+    }
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    /**
+     * Feed every exportable expense, ordered by id, to {@code handler}.
+     * @param userId owner to restrict to, or null for all users
+     * @return the number of rows visited
+     */
+    public long forEachRow(Long userId, RowHandler handler) throws IOException {
+        return forEachRow(userId, null, null, handler);
+    }
+
+    /**
+     * As {@link #forEachRow(Long, RowHandler)}, limited to expenses dated between
+     * {@code from} and {@code to} inclusive (either may be null).
+     */
+    public long forEachRow(Long userId, LocalDate from, LocalDate to, RowHandler handler) throws IOException {
+        long count = 0;
+        long afterId = 0L;
+        List<ExpenseReportRow> page;
+        do {
+            // Lets a cancelled background report job stop between pages
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Report generation cancelled");
+            }
+            page = expenseRepository.findReportRowsAfter(afterId, userId, EXPORTED_STATUSES, from, to,
+                    PageRequest.of(0, PAGE_SIZE));
+            for (ExpenseReportRow row : page) {
+                handler.accept(row);
+            }
+            count += page.size();
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == PAGE_SIZE);
+        return count;
+    }
+
+    /**
+     * Render {@code template} over the user's exportable expenses dated between
+     * {@code from} and {@code to} (either may be null) onto {@code out}.
+     * The stream is flushed but not closed.
+     * @return the number of data rows written
+     */
+    public long write(ReportBackend backend, ReportTemplate<ExpenseReportRow> template, Long userId,
+                      LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        try (RowSink<ExpenseReportRow> sink = backend.open(template, out)) {
+            long rows = forEachRow(userId, from, to, sink::accept);
+            sink.finish();
+            return rows;
+        }
+    }
+
+    /**
+     * Write an XLSX workbook with one row per expense using a streaming (SXSSF) workbook.
+     */
+    public void writeExcel(Long userId, ReportTemplate<ExpenseReportRow> template, OutputStream out) throws IOException {
+        write(XLSX, template, userId, null, null, out);
+    }
+
+    /**
+     * Write a PDF expense table directly to {@code out}; see {@link PdfReportBackend}.
+     * The stream is flushed but not closed.
+     */
+    public void writePdf(Long userId, LocalDate from, LocalDate to, ReportTemplate<ExpenseReportRow> template,
+                         OutputStream out) throws IOException, DocumentException {
+        try {
+            write(PDF, template, userId, from, to, out);
+        } catch (IOException e) {
+            // Let callers tell a broken layout from a broken connection
+            if (e.getCause() instanceof DocumentException) {
+                throw (DocumentException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Write an RFC 4180 CSV to {@code out}, optionally gzip compressed.
+     * The stream is flushed but not closed.
+     * @return the number of data rows written
+     */
+    public long writeCsv(Long userId, ReportTemplate<ExpenseReportRow> template, boolean gzip, OutputStream out)
+            throws IOException {
+        return write(new CsvReportBackend(gzip), template, userId, null, null, out);
+    }
+
+    /**
+     * Write the detailed report of one month's expenses as a PDF to {@code out}.
+     * The stream is flushed but not closed.
+     * @param userId owner to restrict to, or null for every user
+     */
+    public void writeMonthlyDetailedPdf(Long userId, int year, int month, OutputStream out)
+            throws IOException, DocumentException {
+        LocalDate from = LocalDate.of(year, month, 1);
+        ReportTemplate<ExpenseReportRow> template = userId != null
+                ? ExpenseReportTemplates.monthlyDetailed(year, month)
+                : ExpenseReportTemplates.companyMonthlyDetailed(year, month);
+        writePdf(userId, from, from.withDayOfMonth(from.lengthOfMonth()), template, out);
+    }
+
+    /**
+     * Write spending per category over one year as a PDF to {@code out}, aggregated in
+     * the database. The stream is flushed but not closed.
+     * @param userId owner to restrict to, or null for every user
+     */
+    public void writeCategorySpendingPdf(Long userId, int year, OutputStream out) throws IOException {
+        List<Object[]> sums = expenseRepository.sumAmountByCategory(userId,
+                LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31));
+        double total = 0;
+        for (Object[] sum : sums) {
+            total += ((Number) sum[1]).doubleValue();
+        }
+        List<ExpenseReportTemplates.CategoryTotal> rows = new ArrayList<>(sums.size());
+        for (Object[] sum : sums) {
+            double amount = ((Number) sum[1]).doubleValue();
+            double percent = total > 0 ? (amount / total) * 100 : 0;
+            rows.add(new ExpenseReportTemplates.CategoryTotal((String) sum[0], amount, percent));
+        }
+        PDF.write(ExpenseReportTemplates.categorySpending(year), rows, out);
+    }
+}
@@ -3,9 +3,12 @@ package com.expense.management.services;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import com.expense.management.enums.ApprovalLevel;
+import com.expense.management.events.ExpenseChangedEvent;
+import com.expense.management.events.ExpenseFact;
 import com.expense.management.model.Expense;
 import com.expense.management.model.ExpenseStatus;
 import com.expense.management.repository.ExpenseRepository;
@@ -21,6 +24,8 @@ public class ExpenseService {
 	NotificationRepository notificationRepository;
 	@Autowired
 	EmailService emailService;
+	@Autowired
+	ApplicationEventPublisher eventPublisher;
 
 	ExpenseService(ExpenseRepository expenseRepository) {
 		this.expenseRepository = expenseRepository;
@@ -41,13 +46,32 @@ public class ExpenseService {
 			expense.setPriority("High");
 			expense.setApprovalLevel(ApprovalLevel.ADMIN);
 		}
-		return expenseRepository.save(expense);
+		Expense saved = expenseRepository.save(expense);
+		eventPublisher.publishEvent(ExpenseChangedEvent.created(ExpenseFact.of(saved)));
+		return saved;
+	}
+
+	/**
+	 * Persist changes to an existing expense.
+	 * @param previous snapshot taken before the caller modified the entity
+	 */
+	public Expense update(Expense expense, ExpenseFact previous) {
+		Expense saved = expenseRepository.save(expense);
+		eventPublisher.publishEvent(ExpenseChangedEvent.updated(previous, ExpenseFact.of(saved)));
+		return saved;
+	}
+
+	public void delete(Expense expense) {
+		ExpenseFact previous = ExpenseFact.of(expense);
+		expenseRepository.delete(expense);
+		eventPublisher.publishEvent(ExpenseChangedEvent.deleted(previous));
 	}
 
 	public boolean approve(long id, Long managerId) {
 		Expense expense = expenseRepository.findByIdWithUser(id)
 			.orElseThrow(() -> new RuntimeException("expense not found!"));
 		User expenseUser = expense.getUser();
+		ExpenseFact before = ExpenseFact.of(expense);
 		
 		// Debug logging
 		System.out.println("=== EXPENSE APPROVAL DEBUG ===");
@@ -62,6 +86,7 @@ public class ExpenseService {
 			expense.setApprovalLevel(ApprovalLevel.FINANCE);
 			expense.setApprovedByManagerId(managerId);
 			expenseRepository.save(expense);
+			eventPublisher.publishEvent(ExpenseChangedEvent.updated(before, ExpenseFact.of(expense)));
 			
 			// Create notification for the expense submitter
 			if (expenseUser != null) {
@@ -85,6 +110,7 @@ public class ExpenseService {
 		} else if (expense.getApprovalLevel() == ApprovalLevel.FINANCE) {
 			expense.setApprovalLevel(ApprovalLevel.ADMIN);
 			expenseRepository.save(expense);
+			eventPublisher.publishEvent(ExpenseChangedEvent.updated(before, ExpenseFact.of(expense)));
 			
 			// Create notification for the expense submitter
 			if (expenseUser != null) {
@@ -108,6 +134,7 @@ public class ExpenseService {
 		} else if (expense.getApprovalLevel() == ApprovalLevel.ADMIN) {
 			expense.setApprovalStatus(ExpenseStatus.APPROVED);
 			expenseRepository.save(expense);
+			eventPublisher.publishEvent(ExpenseChangedEvent.updated(before, ExpenseFact.of(expense)));
 			
 			// Create notification for the expense submitter
 			if (expenseUser != null) {
@@ -139,6 +166,7 @@ public class ExpenseService {
 		Expense expense = expenseRepository.findByIdWithUser(id)
 			.orElseThrow(() -> new RuntimeException("expense not found!"));
 		User expenseUser = expense.getUser();
+		ExpenseFact before = ExpenseFact.of(expense);
 		
 		// Debug logging
 		System.out.println("=== EXPENSE REJECTION DEBUG ===");
@@ -153,6 +181,7 @@ public class ExpenseService {
 			expense.setApprovalStatus(ExpenseStatus.REJECTED);
 			expense.setApprovedByManagerId(managerId);
 			expenseRepository.save(expense);
+			eventPublisher.publishEvent(ExpenseChangedEvent.updated(before, ExpenseFact.of(expense)));
 			
 			// Create notification for the expense submitter
 			if (expenseUser != null) {
@@ -169,6 +198,7 @@ public class ExpenseService {
 		}
 		expense.setApprovalStatus(ExpenseStatus.REJECTED);
 		expenseRepository.save(expense);
+		eventPublisher.publishEvent(ExpenseChangedEvent.updated(before, ExpenseFact.of(expense)));
 		
 		// Create notification for the expense submitter
 		if (expenseUser != null) {
@@ -0,0 +1,187 @@
+package com.expense.management.services;
+
+import com.expense.management.repository.ExpenseRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Month-end reports (detailed monthly and category spending) served through
+ * {@link ReportCache}, plus a scheduler that renders them ahead of time.
+ *
+ * Everyone downloads these in the first hours after a month closes, so once a month
+ * has ended every user with expenses in it gets both reports rendered off-peak,
+ * together with the company-wide versions managers and finance use. Rendering runs
+ * on a small low-priority pool that pauses between reports so it does not compete
+ * with live traffic. Reports already cached for the current data version are skipped.
+ */
+@Service
+public class MonthEndReportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MonthEndReportService.class);
+
+    @Value("${app.reports.month-end.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.reports.month-end.workers:1}")
+    private int workers;
+
+    @Value("${app.reports.month-end.pause-ms:250}")
+    private long pauseMillis;
+
+    // The cache starts empty, so a restart within this many days of month end warms it again
+    @Value("${app.reports.month-end.warm-on-startup-days:3}")
+    private int warmOnStartupDays;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private ExpenseReportService reportService;
+
+    @Autowired
+    private ReportCache reportCache;
+
+    @Autowired
+    private ReportDataVersions dataVersions;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "month-end-report-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Cache key of a detailed monthly report.
+     * @param userId owner, or null for the company-wide report
+     */
+    public String monthlyDetailedKey(Long userId, int year, int month) {
+        return ReportCache.key("monthly-detailed", scope(userId), "year=" + year + ",month=" + month, version(userId));
+    }
+
+    /**
+     * Cache key of a category spending report.
+     * @param userId owner, or null for the company-wide report
+     */
+    public String categorySpendingKey(Long userId, int year) {
+        return ReportCache.key("category-spending", scope(userId), "year=" + year, version(userId));
+    }
+
+    /** Write the PDF stored under {@code key} to {@code out}, rendering it onto the stream on a miss. */
+    public void writeMonthlyDetailed(String key, Long userId, int year, int month, OutputStream out) throws Exception {
+        reportCache.writeTo(key, monthlyDetailedGenerator(userId, year, month), out);
+    }
+
+    /** Write the PDF stored under {@code key} to {@code out}, rendering it onto the stream on a miss. */
+    public void writeCategorySpending(String key, Long userId, int year, OutputStream out) throws Exception {
+        reportCache.writeTo(key, categorySpendingGenerator(userId, year), out);
+    }
+
+    private ReportCache.Generator monthlyDetailedGenerator(Long userId, int year, int month) {
+        return out -> reportService.writeMonthlyDetailedPdf(userId, year, month, out);
+    }
+
+    private ReportCache.Generator categorySpendingGenerator(Long userId, int year) {
+        return out -> reportService.writeCategorySpendingPdf(userId, year, out);
+    }
+
+    // Shortly after midnight on the 1st, for the month that just closed
+    @Scheduled(cron = "${app.reports.month-end.cron:0 30 1 1 * *}")
+    public void preGenerateClosedMonth() {
+        if (enabled) {
+            preGenerate(YearMonth.now().minusMonths(1));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmAfterRestart() {
+        if (enabled && LocalDate.now().getDayOfMonth() <= warmOnStartupDays) {
+            preGenerate(YearMonth.now().minusMonths(1));
+        }
+    }
+
+    /**
+     * Queue the reports of {@code month} for every user with expenses in it, and the
+     * company-wide ones. Returns immediately with the number of reports queued.
+     */
+    public int preGenerate(YearMonth month) {
+        int year = month.getYear();
+        int monthValue = month.getMonthValue();
+        List<Long> userIds = expenseRepository.findUserIdsWithExpensesBetween(month.atDay(1), month.atEndOfMonth());
+
+        int queued = 0;
+        queued += queue(null, year, monthValue);
+        for (Long userId : userIds) {
+            queued += queue(userId, year, monthValue);
+        }
+        logger.info("Queued {} month-end reports for {} ({} users)", queued, month, userIds.size());
+        return queued;
+    }
+
+    private int queue(Long userId, int year, int month) {
+        executor.execute(() -> {
+            try {
+                // Keys are taken when the task runs so they match what a request would compute then
+                String monthly = monthlyDetailedKey(userId, year, month);
+                if (!reportCache.contains(monthly)) {
+                    reportCache.populate(monthly, monthlyDetailedGenerator(userId, year, month));
+                    pause();
+                }
+                String category = categorySpendingKey(userId, year);
+                if (!reportCache.contains(category)) {
+                    reportCache.populate(category, categorySpendingGenerator(userId, year));
+                    pause();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                logger.warn("Pre-generating month-end reports for {} failed", scope(userId), e);
+            }
+        });
+        return 2;
+    }
+
+    private void pause() throws InterruptedException {
+        if (pauseMillis > 0) {
+            Thread.sleep(pauseMillis);
+        }
+    }
+
+    private static String scope(Long userId) {
+        return userId != null ? "user:" + userId : "company";
+    }
+
+    private String version(Long userId) {
+        return userId != null ? dataVersions.forUser(userId) : dataVersions.forCompany();
+    }
+}
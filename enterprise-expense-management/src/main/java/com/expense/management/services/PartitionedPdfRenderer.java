@@ -0,0 +1,357 @@
+package com.expense.management.services;
+
+import com.expense.management.dto.ExpenseReportRow;
+import com.expense.management.reports.PdfReportBackend;
+import com.expense.management.reports.ReportTemplate;
+import com.expense.management.reports.RowSink;
+import com.expense.management.repository.ExpenseRepository;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.io.RandomAccessSourceFactory;
+import com.itextpdf.text.pdf.PdfCopy;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.RandomAccessFileOrArray;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Stream;
+
+/**
+ * Parallel variant of {@link ExpenseReportService#writePdf}: the rows are split into
+ * contiguous date ranges of roughly equal size, each range is rendered into its own
+ * temporary PDF on a fork-join pool, and the parts are concatenated page by page
+ * with {@link PdfCopy}.
+ *
+ * Rows are ordered by date, then id, and carry a running-total column. Each part starts
+ * its running total at the sum of all earlier ranges, taken from one GROUP BY date
+ * query run before rendering, so the totals carry across part boundaries. Undated
+ * expenses come last.
+ *
+ * The parts read on their own connections, so an expense written meanwhile could make
+ * a part disagree with the summary its offsets and grand total came from. Each part
+ * therefore reports the rows and sum it rendered; if any differs from the plan the
+ * report is planned and rendered again, and after {@value #PARALLEL_ATTEMPTS} such
+ * attempts it is rendered part by part on the calling thread inside one read-only
+ * REPEATABLE READ transaction, where every query sees the same snapshot.
+ *
+ * Every part holds a JDBC connection while it pages, so the pool is capped at a
+ * quarter of the connection pool however many cores there are.
+ */
+@Service
+public class PartitionedPdfRenderer {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartitionedPdfRenderer.class);
+
+    private static final PdfReportBackend PDF = new PdfReportBackend();
+
+    private static final int PARALLEL_ATTEMPTS = 2;
+
+    // Half a cent: SQL and Java sum the same doubles in different orders
+    private static final double SUM_TOLERANCE = 0.005;
+
+    @Value("${app.reports.pdf-parallelism:0}")
+    private int configuredParallelism;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int connectionPoolSize;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ForkJoinPool pool;
+    private TransactionTemplate snapshot;
+
+    private record Partition(int index, LocalDate from, LocalDate to, boolean undated,
+                             long rows, double sum, double offset, boolean first, boolean last) {
+    }
+
+    private record RenderedPart(Path file, long rows, double sum) {
+    }
+
+    @PostConstruct
+    public void init() {
+        int requested = configuredParallelism > 0 ? configuredParallelism : Runtime.getRuntime().availableProcessors();
+        int parallelism = Math.min(requested, Math.max(1, connectionPoolSize / 4));
+        pool = new ForkJoinPool(parallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, false);
+
+        snapshot = new TransactionTemplate(transactionManager);
+        snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        snapshot.setReadOnly(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Render the report for {@code userId} (null for every user) and write the merged
+     * document to {@code out}. The stream is flushed but not closed.
+     */
+    public void write(Long userId, ReportTemplate<ExpenseReportRow> template, OutputStream out)
+            throws IOException, DocumentException {
+        ReportTemplate<ExpenseReportRow> withRunningTotal = template.withRunningTotal("Running Total");
+        for (int attempt = 1; attempt <= PARALLEL_ATTEMPTS; attempt++) {
+            Path workDir = Files.createTempDirectory("expense-pdf-parts");
+            try {
+                List<Path> parts = renderParallel(userId, withRunningTotal, workDir);
+                if (parts != null) {
+                    merge(parts, out);
+                    return;
+                }
+            } finally {
+                deleteRecursively(workDir);
+            }
+            logger.info("Expenses changed while rendering a partitioned PDF (attempt {}), planning again", attempt);
+        }
+        writeFromSnapshot(userId, withRunningTotal, out);
+    }
+
+    // The part files in order, or null if a part did not render the rows it was planned with
+    private List<Path> renderParallel(Long userId, ReportTemplate<ExpenseReportRow> template, Path workDir)
+            throws IOException {
+        List<Object[]> summary = expenseRepository.summarizeReportRowsByDate(userId, ExpenseReportService.EXPORTED_STATUSES);
+        double grandTotal = grandTotal(summary);
+        List<Partition> partitions = plan(summary, pool.getParallelism() * 2);
+
+        List<ForkJoinTask<RenderedPart>> tasks = new ArrayList<>();
+        try {
+            for (Partition partition : partitions) {
+                tasks.add(pool.submit(() -> renderPart(partition, userId, template, grandTotal, workDir)));
+            }
+            List<Path> parts = new ArrayList<>(tasks.size());
+            for (int i = 0; i < tasks.size(); i++) {
+                RenderedPart rendered = tasks.get(i).get();
+                if (!matches(partitions.get(i), rendered)) {
+                    return null;
+                }
+                parts.add(rendered.file());
+            }
+            return parts;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Report generation cancelled");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Rendering a report part failed", cause);
+        } finally {
+            // On failure stop parts that have not started and let running ones finish before deleting their files
+            for (ForkJoinTask<RenderedPart> task : tasks) {
+                task.cancel(true);
+            }
+            for (ForkJoinTask<RenderedPart> task : tasks) {
+                task.quietlyJoin();
+            }
+        }
+    }
+
+    // Same plan and parts, rendered one after another on this thread from a single snapshot
+    private void writeFromSnapshot(Long userId, ReportTemplate<ExpenseReportRow> template, OutputStream out)
+            throws IOException, DocumentException {
+        Path workDir = Files.createTempDirectory("expense-pdf-parts");
+        try {
+            List<Path> parts = snapshot.execute(status -> {
+                List<Object[]> summary = expenseRepository.summarizeReportRowsByDate(userId,
+                        ExpenseReportService.EXPORTED_STATUSES);
+                double grandTotal = grandTotal(summary);
+                List<Path> files = new ArrayList<>();
+                try {
+                    for (Partition partition : plan(summary, pool.getParallelism() * 2)) {
+                        files.add(renderPart(partition, userId, template, grandTotal, workDir).file());
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return files;
+            });
+            merge(parts, out);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            deleteRecursively(workDir);
+        }
+    }
+
+    private static double grandTotal(List<Object[]> summary) {
+        double total = 0;
+        for (Object[] row : summary) {
+            total += ((Number) row[1]).doubleValue();
+        }
+        return total;
+    }
+
+    private static boolean matches(Partition planned, RenderedPart rendered) {
+        return planned.rows() == rendered.rows() && Math.abs(planned.sum() - rendered.sum()) < SUM_TOLERANCE;
+    }
+
+    // Cut the per-date counts into about targetParts contiguous ranges; a single date is never split
+    private static List<Partition> plan(List<Object[]> summary, int targetParts) {
+        long datedRows = 0;
+        long undatedRows = 0;
+        double undatedSum = 0;
+        for (Object[] row : summary) {
+            long count = ((Number) row[2]).longValue();
+            if (row[0] == null) {
+                undatedRows += count;
+                undatedSum += ((Number) row[1]).doubleValue();
+            } else {
+                datedRows += count;
+            }
+        }
+
+        List<Partition> partitions = new ArrayList<>();
+        long perPart = Math.max(1, (datedRows + targetParts - 1) / targetParts);
+        double offset = 0;
+        LocalDate start = null;
+        LocalDate end = null;
+        long rows = 0;
+        double sum = 0;
+        for (Object[] row : summary) {
+            if (row[0] == null) {
+                continue;
+            }
+            end = (LocalDate) row[0];
+            if (start == null) {
+                start = end;
+            }
+            rows += ((Number) row[2]).longValue();
+            sum += ((Number) row[1]).doubleValue();
+            if (rows >= perPart) {
+                partitions.add(new Partition(partitions.size(), start, end, false, rows, sum, offset, false, false));
+                offset += sum;
+                start = null;
+                rows = 0;
+                sum = 0;
+            }
+        }
+        if (start != null) {
+            partitions.add(new Partition(partitions.size(), start, end, false, rows, sum, offset, false, false));
+            offset += sum;
+        }
+        if (undatedRows > 0) {
+            partitions.add(new Partition(partitions.size(), null, null, true, undatedRows, undatedSum, offset,
+                    false, false));
+        }
+        if (partitions.isEmpty()) {
+            partitions.add(new Partition(0, null, null, false, 0, 0, 0, true, true));
+            return partitions;
+        }
+
+        int lastIndex = partitions.size() - 1;
+        List<Partition> marked = new ArrayList<>(partitions.size());
+        for (Partition p : partitions) {
+            marked.add(new Partition(p.index(), p.from(), p.to(), p.undated(), p.rows(), p.sum(), p.offset(),
+                    p.index() == 0, p.index() == lastIndex));
+        }
+        return marked;
+    }
+
+    private RenderedPart renderPart(Partition partition, Long userId, ReportTemplate<ExpenseReportRow> template,
+                                    double grandTotal, Path workDir) throws IOException {
+        Path file = workDir.resolve(String.format("part-%05d.pdf", partition.index()));
+        PdfReportBackend.Part part = new PdfReportBackend.Part(partition.first(), partition.last(),
+                partition.offset(), grandTotal);
+        long rows = 0;
+        double sum = 0;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file));
+             RowSink<ExpenseReportRow> sink = PDF.openPart(template, out, part)) {
+            for (List<ExpenseReportRow> page = firstPage(partition, userId); !page.isEmpty();
+                 page = nextPage(partition, userId, page)) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedIOException("Report generation cancelled");
+                }
+                for (ExpenseReportRow expense : page) {
+                    sink.accept(expense);
+                    rows++;
+                    sum += expense.getAmount();
+                }
+            }
+            sink.finish();
+        }
+        return new RenderedPart(file, rows, sum);
+    }
+
+    private List<ExpenseReportRow> firstPage(Partition partition, Long userId) {
+        if (partition.rows() == 0) {
+            return List.of();
+        }
+        if (partition.undated()) {
+            return expenseRepository.findUndatedReportRowsAfter(0L, userId, ExpenseReportService.EXPORTED_STATUSES,
+                    PageRequest.of(0, ExpenseReportService.PAGE_SIZE));
+        }
+        return expenseRepository.findReportRowsBetween(userId, ExpenseReportService.EXPORTED_STATUSES,
+                partition.from(), partition.to(), partition.from().minusDays(1), 0L,
+                PageRequest.of(0, ExpenseReportService.PAGE_SIZE));
+    }
+
+    private List<ExpenseReportRow> nextPage(Partition partition, Long userId, List<ExpenseReportRow> previous) {
+        if (previous.size() < ExpenseReportService.PAGE_SIZE) {
+            return List.of();
+        }
+        ExpenseReportRow last = previous.get(previous.size() - 1);
+        if (partition.undated()) {
+            return expenseRepository.findUndatedReportRowsAfter(last.getId(), userId,
+                    ExpenseReportService.EXPORTED_STATUSES, PageRequest.of(0, ExpenseReportService.PAGE_SIZE));
+        }
+        return expenseRepository.findReportRowsBetween(userId, ExpenseReportService.EXPORTED_STATUSES,
+                partition.from(), partition.to(), last.getDate(), last.getId(),
+                PageRequest.of(0, ExpenseReportService.PAGE_SIZE));
+    }
+
+    // Page-level copy; parts are opened with partial reads so only the current page is in memory
+    private static void merge(List<Path> parts, OutputStream out) throws IOException, DocumentException {
+        Document document = new Document();
+        PdfCopy copy = new PdfCopy(document, out);
+        copy.setCloseStream(false);
+        document.open();
+        RandomAccessSourceFactory sources = new RandomAccessSourceFactory();
+        for (Path part : parts) {
+            PdfReader reader = new PdfReader(new RandomAccessFileOrArray(sources.createBestSource(part.toString())), null);
+            try {
+                for (int page = 1; page <= reader.getNumberOfPages(); page++) {
+                    copy.addPage(copy.getImportedPage(reader, page));
+                }
+                copy.freeReader(reader);
+            } finally {
+                reader.close();
+            }
+        }
+        document.close();
+        out.flush();
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.expense.management.services;
+
+import com.expense.management.enums.ApprovalLevel;
+import com.expense.management.events.ExpenseChangedEvent;
+import com.expense.management.events.ExpenseFact;
+import com.expense.management.model.ExpenseStatus;
+import com.expense.management.repository.ExpenseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Live counts of pending expenses per approval level, and per manager of the
+ * pending expenses they have already passed on to finance/admin. Counters move with
+ * the before/after snapshots of every {@link ExpenseChangedEvent} published by
+ * {@link ExpenseService}, so reading them costs nothing; a periodic COUNT query
+ * resets them in case an update happened outside the service.
+ */
+@Service
+public class PendingApprovalCounters {
+
+    private static final Logger logger = LoggerFactory.getLogger(PendingApprovalCounters.class);
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    private final Map<ApprovalLevel, AtomicLong> byLevel = new EnumMap<>(ApprovalLevel.class);
+    private final Map<Long, AtomicLong> byApprover = new ConcurrentHashMap<>();
+
+    // Event updates share the read lock; a reconcile takes the write lock so no delta lands between its count and reset
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile Instant lastReconciled;
+
+    public PendingApprovalCounters() {
+        for (ApprovalLevel level : ApprovalLevel.values()) {
+            byLevel.put(level, new AtomicLong());
+        }
+    }
+
+    @EventListener
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        lock.readLock().lock();
+        try {
+            apply(event.getBefore(), -1);
+            apply(event.getAfter(), 1);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(ExpenseFact fact, long delta) {
+        if (fact == null || !fact.isPending() || fact.level() == null) {
+            return;
+        }
+        byLevel.get(fact.level()).addAndGet(delta);
+        if (fact.approvedByManagerId() != null) {
+            byApprover.computeIfAbsent(fact.approvedByManagerId(), id -> new AtomicLong()).addAndGet(delta);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            logger.error("Could not load pending approval counts", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.pending-counts.reconcile-interval-ms:300000}",
+               initialDelayString = "${app.pending-counts.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        lock.writeLock().lock();
+        try {
+            for (ApprovalLevel level : ApprovalLevel.values()) {
+                long actual = expenseRepository.countByApprovalLevelAndApprovalStatus(level, ExpenseStatus.PENDING);
+                long previous = byLevel.get(level).getAndSet(actual);
+                if (lastReconciled != null && previous != actual) {
+                    logger.warn("Pending count for {} drifted: counter {} vs database {}", level, previous, actual);
+                }
+            }
+            List<Object[]> rows = expenseRepository.countByApproverAndStatus(ExpenseStatus.PENDING);
+            byApprover.clear();
+            for (Object[] row : rows) {
+                byApprover.put((Long) row[0], new AtomicLong(((Number) row[1]).longValue()));
+            }
+            lastReconciled = Instant.now();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long pendingAt(ApprovalLevel level) {
+        return Math.max(0, byLevel.get(level).get());
+    }
+
+    /** Pending expenses this manager approved that are still waiting on finance or admin. */
+    public long inFlightFor(Long approverId) {
+        AtomicLong count = approverId == null ? null : byApprover.get(approverId);
+        return count == null ? 0 : Math.max(0, count.get());
+    }
+
+    public Map<ApprovalLevel, Long> snapshot() {
+        Map<ApprovalLevel, Long> counts = new EnumMap<>(ApprovalLevel.class);
+        for (ApprovalLevel level : ApprovalLevel.values()) {
+            counts.put(level, pendingAt(level));
+        }
+        return counts;
+    }
+
+    public Instant getLastReconciled() {
+        return lastReconciled;
+    }
+}
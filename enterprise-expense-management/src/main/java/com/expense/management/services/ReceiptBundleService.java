@@ -0,0 +1,264 @@
+package com.expense.management.services;
+
+import com.expense.management.dto.ExpenseReportRow;
+import com.expense.management.dto.ReceiptRef;
+import com.expense.management.reports.Column;
+import com.expense.management.reports.CsvReportBackend;
+import com.expense.management.reports.ReportTemplate;
+import com.expense.management.reports.TextFormat;
+import com.expense.management.repository.ExpenseRepository;
+import com.itextpdf.text.DocumentException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams a ZIP holding an expense report, every receipt it refers to and a
+ * manifest.csv recording where each receipt came from.
+ *
+ * Receipts are fetched on a shared pool, either from their receipt URL or from the
+ * legacy attachment blob. Each one is spooled to a temporary file and written to the
+ * archive in expense id order. At most {@code fetch-window} receipts are fetched ahead
+ * of the writer, so neither memory nor temp space grows with the size of the bundle.
+ * A receipt that cannot be fetched is listed as failed in the manifest and does not
+ * abort the bundle.
+ */
+@Service
+public class ReceiptBundleService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReceiptBundleService.class);
+
+    private static final int PAGE_SIZE = 500;
+
+    @Value("${app.receipts.fetch-parallelism:4}")
+    private int fetchParallelism;
+
+    @Value("${app.receipts.fetch-window:16}")
+    private int fetchWindow;
+
+    @Value("${app.receipts.max-bytes:20971520}")
+    private long maxReceiptBytes;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private ExpenseReportService reportService;
+
+    @Autowired
+    private CloudinaryService cloudinaryService;
+
+    private ExecutorService fetchPool;
+
+    private record Fetched(Path file, String extension, String source) {
+    }
+
+    private record Pending(ReceiptRef ref, Future<Fetched> fetch) {
+    }
+
+    private record ManifestRow(Long expenseId, LocalDate date, String category, String file, String source,
+                               String status) {
+    }
+
+    private static final ReportTemplate<ManifestRow> MANIFEST = ReportTemplate.<ManifestRow>builder("Receipts")
+            .column(Column.text("Expense ID", row -> String.valueOf(row.expenseId())))
+            .column(Column.text("Date", row -> TextFormat.date(row.date())))
+            .column(Column.text("Category", ManifestRow::category))
+            .column(Column.text("File", ManifestRow::file))
+            .column(Column.text("Source", ManifestRow::source))
+            .column(Column.text("Status", ManifestRow::status))
+            .build();
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        fetchPool = Executors.newFixedThreadPool(fetchParallelism, runnable -> {
+            Thread thread = new Thread(runnable, "receipt-fetch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fetchPool.shutdownNow();
+    }
+
+    /**
+     * Write the bundle for expenses dated between {@code from} and {@code to} (either may
+     * be null) to {@code out}. The stream is finished but not closed.
+     * @param userId owner to restrict to, or null for every user
+     */
+    public void writeBundle(Long userId, LocalDate from, LocalDate to, ReportTemplate<ExpenseReportRow> template,
+                            OutputStream out) throws IOException, DocumentException {
+        ZipOutputStream zip = new ZipOutputStream(out);
+        zip.putNextEntry(new ZipEntry("expense_report.pdf"));
+        reportService.writePdf(userId, from, to, template, zip);
+        zip.closeEntry();
+
+        List<ManifestRow> manifest = new ArrayList<>();
+        Path workDir = Files.createTempDirectory("receipt-bundle");
+        Deque<Pending> window = new ArrayDeque<>();
+        try {
+            // Receipts are already compressed images or PDFs; deflating them again only costs CPU
+            zip.setLevel(Deflater.NO_COMPRESSION);
+            long afterId = 0L;
+            List<ReceiptRef> page;
+            do {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedIOException("Bundle generation cancelled");
+                }
+                page = expenseRepository.findReceiptRefsAfter(afterId, userId, from, to, PageRequest.of(0, PAGE_SIZE));
+                for (ReceiptRef ref : page) {
+                    window.add(new Pending(ref, fetchPool.submit(() -> fetch(ref, workDir))));
+                    if (window.size() >= fetchWindow) {
+                        manifest.add(writeReceipt(window.poll(), zip));
+                    }
+                }
+                if (!page.isEmpty()) {
+                    afterId = page.get(page.size() - 1).getExpenseId();
+                }
+            } while (page.size() == PAGE_SIZE);
+            while (!window.isEmpty()) {
+                manifest.add(writeReceipt(window.poll(), zip));
+            }
+
+            zip.setLevel(Deflater.DEFAULT_COMPRESSION);
+            zip.putNextEntry(new ZipEntry("manifest.csv"));
+            new CsvReportBackend(false).write(MANIFEST, manifest, zip);
+            zip.closeEntry();
+            zip.finish();
+            out.flush();
+        } finally {
+            for (Pending pending : window) {
+                pending.fetch().cancel(true);
+            }
+            try (Stream<Path> files = Files.walk(workDir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private ManifestRow writeReceipt(Pending pending, ZipOutputStream zip) throws IOException {
+        ReceiptRef ref = pending.ref();
+        Fetched fetched;
+        try {
+            fetched = pending.fetch().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Bundle generation cancelled");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            logger.warn("Could not fetch the receipt of expense {}: {}", ref.getExpenseId(), cause.getMessage());
+            String source = ref.getReceiptUrl() != null ? "url" : "attachment";
+            return new ManifestRow(ref.getExpenseId(), ref.getDate(), ref.getCategory(), "", source,
+                    "failed: " + cause.getMessage());
+        }
+
+        String name = "receipts/" + ref.getExpenseId()
+                + (ref.getDate() != null ? "_" + TextFormat.date(ref.getDate()) : "")
+                + (ref.getCategory() != null ? "_" + safeName(ref.getCategory()) : "")
+                + "." + fetched.extension();
+        try {
+            zip.putNextEntry(new ZipEntry(name));
+            Files.copy(fetched.file(), zip);
+            zip.closeEntry();
+        } finally {
+            Files.deleteIfExists(fetched.file());
+        }
+        return new ManifestRow(ref.getExpenseId(), ref.getDate(), ref.getCategory(), name, fetched.source(), "ok");
+    }
+
+    // Runs on the fetch pool
+    private Fetched fetch(ReceiptRef ref, Path workDir) throws IOException {
+        Path file = workDir.resolve(ref.getExpenseId() + ".part");
+        if (ref.getReceiptUrl() != null) {
+            try (InputStream in = cloudinaryService.openReceipt(ref.getReceiptUrl());
+                 OutputStream target = Files.newOutputStream(file)) {
+                copyLimited(in, target);
+            }
+            return new Fetched(file, extension(ref.getReceiptUrl(), ref.getAttachmentType()), "url");
+        }
+        byte[] attachment = expenseRepository.findAttachmentById(ref.getExpenseId());
+        if (attachment == null) {
+            throw new IOException("Attachment no longer exists");
+        }
+        Files.write(file, attachment);
+        return new Fetched(file, extension(null, ref.getAttachmentType()), "attachment");
+    }
+
+    private void copyLimited(InputStream in, OutputStream target) throws IOException {
+        byte[] buffer = new byte[16 * 1024];
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            total += read;
+            if (total > maxReceiptBytes) {
+                throw new IOException("Receipt is larger than " + maxReceiptBytes + " bytes");
+            }
+            target.write(buffer, 0, read);
+        }
+    }
+
+    // Extension from the URL's last path segment, else from the stored content type
+    static String extension(String url, String contentType) {
+        if (url != null) {
+            int query = url.indexOf('?');
+            String path = query >= 0 ? url.substring(0, query) : url;
+            int dot = path.lastIndexOf('.');
+            if (dot > path.lastIndexOf('/')) {
+                String ext = path.substring(dot + 1).toLowerCase();
+                if (ext.matches("[a-z0-9]{1,5}")) {
+                    return ext;
+                }
+            }
+        }
+        if (contentType == null) {
+            return "bin";
+        }
+        switch (contentType.toLowerCase()) {
+            case "image/jpeg":
+            case "image/jpg":
+                return "jpg";
+            case "image/png":
+                return "png";
+            case "image/gif":
+                return "gif";
+            case "application/pdf":
+                return "pdf";
+            default:
+                return "bin";
+        }
+    }
+
+    private static String safeName(String value) {
+        return value.replaceAll("[^A-Za-z0-9-]+", "_");
+    }
+}
@@ -0,0 +1,289 @@
+package com.expense.management.services;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Disk-backed LRU cache of generated report files. Entries are addressed by the
+ * SHA-256 of (report type, scope, parameters, data version), so a key also works as a
+ * strong ETag: when the scope's data version moves, the key changes.
+ *
+ * Nothing is buffered in memory. A hit is copied from its file onto the caller's
+ * stream; a miss is rendered straight onto the caller's stream while a copy is
+ * written to a temporary file, which becomes the entry once the report is complete.
+ * Only one caller at a time fills a given key; others missing it meanwhile render
+ * for themselves without caching.
+ *
+ * The directory is emptied at startup: data versions carry a per-process epoch, so
+ * nothing cached by an earlier run can be addressed again.
+ */
+@Service
+public class ReportCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportCache.class);
+
+    @FunctionalInterface
+    public interface Generator {
+        void generate(OutputStream out) throws Exception;
+    }
+
+    @Value("${app.reports.cache-dir:${java.io.tmpdir}/expense-report-cache}")
+    private String cacheDir;
+
+    @Value("${app.reports.cache-max-mb:256}")
+    private long maxMegabytes;
+
+    private Path dir;
+    private long maxBytes;
+
+    // key -> file size, in access order; guarded by this
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @PostConstruct
+    public void init() throws IOException {
+        dir = Paths.get(cacheDir).toAbsolutePath();
+        maxBytes = maxMegabytes * 1024 * 1024;
+        Files.createDirectories(dir);
+        try (DirectoryStream<Path> stale = Files.newDirectoryStream(dir)) {
+            for (Path file : stale) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    public static String key(String type, String scope, String params, String dataVersion) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            String material = type + '\u001f' + scope + '\u001f' + params + '\u001f' + dataVersion;
+            return HexFormat.of().formatHex(digest.digest(material.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static String etag(String key) {
+        return "\"" + key + "\"";
+    }
+
+    /**
+     * Write the report stored under {@code key} to {@code out}, or run {@code generator}
+     * onto {@code out} and store what it wrote. The stream is flushed but not closed.
+     */
+    public void writeTo(String key, Generator generator, OutputStream out) throws Exception {
+        if (copyCached(key, out)) {
+            hits.incrementAndGet();
+            return;
+        }
+        misses.incrementAndGet();
+        generate(key, generator, out);
+    }
+
+    /** Render {@code key} into the cache unless it is already there or being rendered. */
+    public void populate(String key, Generator generator) throws Exception {
+        if (!contains(key) && inFlight.add(key)) {
+            spool(key, generator, OutputStream.nullOutputStream());
+        }
+    }
+
+    public synchronized boolean contains(String key) {
+        return entries.containsKey(key);
+    }
+
+    public Map<String, Object> stats() {
+        synchronized (this) {
+            return Map.of(
+                "entries", entries.size(),
+                "bytes", totalBytes,
+                "maxBytes", maxBytes,
+                "hits", hits.get(),
+                "misses", misses.get()
+            );
+        }
+    }
+
+    private boolean copyCached(String key, OutputStream out) throws IOException {
+        synchronized (this) {
+            // get() also moves the entry to the most recently used end
+            if (entries.get(key) == null) {
+                return false;
+            }
+        }
+        try {
+            // Once open, the file stays readable even if it is evicted while being copied
+            Files.copy(dir.resolve(key), out);
+            out.flush();
+            return true;
+        } catch (NoSuchFileException e) {
+            // Evicted between the lookup and the open
+            return false;
+        }
+    }
+
+    private void generate(String key, Generator generator, OutputStream out) throws Exception {
+        if (!inFlight.add(key)) {
+            generator.generate(out);
+            out.flush();
+            return;
+        }
+        spool(key, generator, out);
+    }
+
+    // Caller holds the in-flight claim on key
+    private void spool(String key, Generator generator, OutputStream out) throws Exception {
+        Path temp = dir.resolve(key + ".tmp-" + Thread.currentThread().getId());
+        try (SpoolingOutputStream spool = new SpoolingOutputStream(out, temp, maxBytes)) {
+            generator.generate(spool);
+            spool.flush();
+            keep(key, temp, spool);
+        } finally {
+            inFlight.remove(key);
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException e) {
+                logger.warn("Could not delete temporary report {}", temp, e);
+            }
+        }
+    }
+
+    // The report has already reached the caller, so failing to keep the copy is only logged
+    private void keep(String key, Path temp, SpoolingOutputStream spool) {
+        try {
+            if (spool.finishSpool()) {
+                Files.move(temp, dir.resolve(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                admit(key, spool.spooled());
+            }
+        } catch (IOException e) {
+            logger.warn("Could not cache report {}", key, e);
+        }
+    }
+
+    private synchronized void admit(String key, long size) {
+        Long previous = entries.put(key, size);
+        totalBytes += size - (previous == null ? 0 : previous);
+        Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            if (entry.getKey().equals(key)) {
+                continue;
+            }
+            eldest.remove();
+            totalBytes -= entry.getValue();
+            try {
+                Files.deleteIfExists(dir.resolve(entry.getKey()));
+            } catch (IOException e) {
+                logger.warn("Could not evict cached report {}", entry.getKey(), e);
+            }
+        }
+    }
+
+    // Passes everything to the caller's stream and keeps a copy in a file. The copy is given up past
+    // maxBytes, and a failure writing it is held until finishSpool so it never fails the caller's stream
+    private static final class SpoolingOutputStream extends FilterOutputStream {
+        private final long maxBytes;
+        private OutputStream file;
+        private long spooled;
+        private IOException spoolFailure;
+
+        SpoolingOutputStream(OutputStream out, Path temp, long maxBytes) {
+            super(out);
+            this.maxBytes = maxBytes;
+            try {
+                this.file = Files.newOutputStream(temp);
+            } catch (IOException e) {
+                this.spoolFailure = e;
+            }
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            spool(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            spool(b, off, len);
+        }
+
+        private void spool(byte[] b, int off, int len) {
+            if (file == null) {
+                return;
+            }
+            spooled += len;
+            try {
+                if (spooled > maxBytes) {
+                    abandon();
+                } else {
+                    file.write(b, off, len);
+                }
+            } catch (IOException e) {
+                spoolFailure = e;
+                abandon();
+            }
+        }
+
+        private void abandon() {
+            try {
+                file.close();
+            } catch (IOException ignored) {
+                // the copy is discarded anyway
+            }
+            file = null;
+        }
+
+        long spooled() {
+            return spooled;
+        }
+
+        /** Close the copy; true if it holds everything written. */
+        boolean finishSpool() throws IOException {
+            if (spoolFailure != null) {
+                throw spoolFailure;
+            }
+            if (file == null) {
+                return false;
+            }
+            OutputStream finished = file;
+            file = null;
+            finished.close();
+            return true;
+        }
+
+        @Override
+        public void close() {
+            // The caller's stream stays open; only an unfinished copy is closed here
+            if (file != null) {
+                abandon();
+            }
+        }
+    }
+}
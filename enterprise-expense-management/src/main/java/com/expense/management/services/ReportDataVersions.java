@@ -0,0 +1,55 @@
+package com.expense.management.services;
+
+import com.expense.management.events.ExpenseChangedEvent;
+import com.expense.management.events.ExpenseFact;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Data versions for report caching: one per submitting user and one for the whole
+ * company, bumped on every expense write. A cached report built at version V is
+ * still valid as long as its scope's version is V.
+ *
+ * The counters live in memory and restart at zero, so each version is prefixed with
+ * a random epoch chosen at startup. An ETag handed out before a restart, or by
+ * another node, therefore never matches a version issued here, even once the
+ * counter reaches the same number again.
+ */
+@Component
+public class ReportDataVersions {
+
+    private final String epoch = UUID.randomUUID().toString();
+    private final AtomicLong company = new AtomicLong();
+    private final Map<Long, AtomicLong> perUser = new ConcurrentHashMap<>();
+
+    @EventListener
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        bump(event.getBefore());
+        if (event.getAfter() != null && (event.getBefore() == null
+                || !Objects.equals(event.getAfter().userId(), event.getBefore().userId()))) {
+            bump(event.getAfter());
+        }
+        company.incrementAndGet();
+    }
+
+    private void bump(ExpenseFact fact) {
+        if (fact != null && fact.userId() != null) {
+            perUser.computeIfAbsent(fact.userId(), id -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    public String forUser(Long userId) {
+        AtomicLong version = perUser.get(userId);
+        return epoch + '.' + (version == null ? 0 : version.get());
+    }
+
+    public String forCompany() {
+        return epoch + '.' + company.get();
+    }
+}
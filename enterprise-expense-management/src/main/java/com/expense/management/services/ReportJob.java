@@ -0,0 +1,152 @@
+package com.expense.management.services;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-memory state of one background report: who asked for it, where it is in its
+ * lifecycle and, once finished, the spooled file it produced.
+ */
+public class ReportJob {
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED;
+
+        public boolean isFinished() {
+            return this == COMPLETED || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    private final String id;
+    private final Long ownerId;
+    private final String type;
+    private final String format;
+    private final String fileName;
+    private final String contentType;
+    private final Instant createdAt = Instant.now();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile long bytesWritten;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile Instant expiresAt;
+    private volatile String error;
+    private volatile Path file;
+    private volatile Future<?> future;
+    private final AtomicBoolean slotReleased = new AtomicBoolean();
+
+    ReportJob(String id, Long ownerId, String type, String format, String fileName, String contentType) {
+        this.id = id;
+        this.ownerId = ownerId;
+        this.type = type;
+        this.format = format;
+        this.fileName = fileName;
+        this.contentType = contentType;
+    }
+
+    public String getId() { return id; }
+
+    public Long getOwnerId() { return ownerId; }
+
+    public String getType() { return type; }
+
+    public String getFormat() { return format; }
+
+    public String getFileName() { return fileName; }
+
+    public String getContentType() { return contentType; }
+
+    public Status getStatus() { return status; }
+
+    public Instant getCreatedAt() { return createdAt; }
+
+    public Path getFile() { return file; }
+
+    public Instant getFinishedAt() { return finishedAt; }
+
+    public Instant getExpiresAt() { return expiresAt; }
+
+    Future<?> getFuture() { return future; }
+
+    void setFuture(Future<?> future) { this.future = future; }
+
+    // Only the worker thread writes, so the non-atomic increment is safe
+    void addBytesWritten(long count) { bytesWritten += count; }
+
+    /** @return true the first time only, so the owner's job slot is given back exactly once */
+    boolean releaseSlot() {
+        return slotReleased.compareAndSet(false, true);
+    }
+
+    // Transitions are synchronized so a cancel cannot race a worker picking the job up or finishing it
+
+    synchronized boolean start() {
+        if (status != Status.QUEUED) {
+            return false;
+        }
+        status = Status.RUNNING;
+        startedAt = Instant.now();
+        return true;
+    }
+
+    /** True once a worker has picked the job up, even if it was cancelled since. */
+    synchronized boolean hasStarted() {
+        return startedAt != null;
+    }
+
+    synchronized boolean complete(Path file, Instant expiresAt) {
+        if (status != Status.RUNNING) {
+            return false;
+        }
+        this.file = file;
+        finish(Status.COMPLETED, expiresAt);
+        return true;
+    }
+
+    synchronized void fail(String error, Instant expiresAt) {
+        if (!status.isFinished()) {
+            this.error = error;
+            finish(Status.FAILED, expiresAt);
+        }
+    }
+
+    /** @return false if the job had already finished */
+    synchronized boolean cancel(Instant expiresAt) {
+        if (status.isFinished()) {
+            return false;
+        }
+        finish(Status.CANCELLED, expiresAt);
+        return true;
+    }
+
+    private void finish(Status status, Instant expiresAt) {
+        this.status = status;
+        this.finishedAt = Instant.now();
+        this.expiresAt = expiresAt;
+    }
+
+    public Map<String, Object> toStatus() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("jobId", id);
+        result.put("type", type);
+        result.put("format", format);
+        result.put("status", status);
+        result.put("bytesWritten", bytesWritten);
+        result.put("createdAt", createdAt.toString());
+        result.put("startedAt", startedAt != null ? startedAt.toString() : null);
+        result.put("finishedAt", finishedAt != null ? finishedAt.toString() : null);
+        result.put("expiresAt", expiresAt != null ? expiresAt.toString() : null);
+        if (error != null) {
+            result.put("error", error);
+        }
+        if (status == Status.COMPLETED) {
+            result.put("fileName", fileName);
+            result.put("downloadUrl", "/api/reports/jobs/" + id + "/download");
+        }
+        return result;
+    }
+}
@@ -0,0 +1,343 @@
+package com.expense.management.services;
+
+import com.expense.management.dto.ReportJobRequest;
+import com.expense.management.dto.UserIdentity;
+import com.expense.management.reports.ExpenseReportTemplates;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Runs expense exports in the background so large reports do not hold a Tomcat
+ * thread. Jobs go to a bounded worker pool with a bounded queue, each user may only
+ * have a few jobs queued or running, and finished files are spooled to a local
+ * directory and removed again once their TTL has passed.
+ *
+ * Job state lives in memory; spooled files left over from a previous run are
+ * deleted at startup. Only files named like this service's own spool files (the job id,
+ * plus {@code .part} while it is written) are touched, as the spool directory may hold
+ * other files. Instances sharing a host should each be given their own spool directory.
+ */
+@Service
+public class ReportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportJobService.class);
+
+    private static final String XLSX_CONTENT_TYPE =
+            "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
+    private static final String PART_SUFFIX = ".part";
+
+    // Job ids are random UUIDs, which is what the spool files are named after
+    private static final Pattern SPOOL_FILE = Pattern.compile(
+            "[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}(" + Pattern.quote(PART_SUFFIX) + ")?");
+
+    @Value("${app.reports.workers:2}")
+    private int workers;
+
+    @Value("${app.reports.queue-capacity:20}")
+    private int queueCapacity;
+
+    @Value("${app.reports.max-active-per-user:2}")
+    private int maxActivePerUser;
+
+    @Value("${app.reports.spool-dir:${java.io.tmpdir}/expense-reports}")
+    private String spoolDir;
+
+    @Value("${app.reports.result-ttl-minutes:60}")
+    private long resultTtlMinutes;
+
+    @Autowired
+    private ExpenseReportService reportService;
+
+    @Autowired
+    private PartitionedPdfRenderer partitionedPdfRenderer;
+
+    private ThreadPoolExecutor executor;
+    private Path spool;
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicInteger> activePerUser = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() throws IOException {
+        spool = Paths.get(spoolDir).toAbsolutePath();
+        Files.createDirectories(spool);
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(spool,
+                file -> SPOOL_FILE.matcher(file.getFileName().toString()).matches() && Files.isRegularFile(file))) {
+            for (Path file : leftovers) {
+                Files.deleteIfExists(file);
+            }
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "report-worker-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Validate and queue a report for {@code user}.
+     * @throws IllegalArgumentException for an unknown type/format or missing parameters
+     * @throws AccessDeniedException if the report needs a role the user lacks
+     * @throws IllegalStateException if the user's job limit or the queue is full
+     */
+    public ReportJob submit(UserIdentity user, ReportJobRequest request) {
+        String type = request.getType() == null ? "" : request.getType().trim().toLowerCase();
+        String format = request.getFormat() == null ? "" : request.getFormat().trim().toLowerCase();
+        ReportTask task = createTask(user, type, format, request);
+
+        AtomicInteger active = activePerUser.computeIfAbsent(user.getId(), id -> new AtomicInteger());
+        if (active.incrementAndGet() > maxActivePerUser) {
+            active.decrementAndGet();
+            throw new IllegalStateException("You already have " + maxActivePerUser
+                    + " reports in progress; wait for one to finish or cancel it");
+        }
+
+        String id = UUID.randomUUID().toString();
+        String fileName = task.fileName + (format.equals("csv") && request.isGzip() ? ".csv.gz" : "." + format);
+        String contentType = format.equals("pdf") ? "application/pdf"
+                : format.equals("xlsx") ? XLSX_CONTENT_TYPE
+                : request.isGzip() ? "application/gzip" : "text/csv; charset=UTF-8";
+        ReportJob job = new ReportJob(id, user.getId(), type, format, fileName, contentType);
+        jobs.put(id, job);
+        try {
+            job.setFuture(executor.submit(() -> run(job, task)));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(id);
+            active.decrementAndGet();
+            throw new IllegalStateException("The report queue is full, please try again later");
+        }
+        return job;
+    }
+
+    public Optional<ReportJob> getJob(String id, Long ownerId) {
+        ReportJob job = jobs.get(id);
+        return job != null && job.getOwnerId().equals(ownerId) ? Optional.of(job) : Optional.empty();
+    }
+
+    public List<ReportJob> listJobs(Long ownerId) {
+        return jobs.values().stream()
+                .filter(job -> job.getOwnerId().equals(ownerId))
+                .sorted(Comparator.comparing(ReportJob::getCreatedAt))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Cancel a queued or running job, or discard the file of a finished one.
+     * @return false if no such job belongs to the owner
+     */
+    public boolean cancel(String id, Long ownerId) {
+        Optional<ReportJob> found = getJob(id, ownerId);
+        if (found.isEmpty()) {
+            return false;
+        }
+        ReportJob job = found.get();
+        if (job.cancel(expiry())) {
+            Optional.ofNullable(job.getFuture()).ifPresent(future -> future.cancel(true));
+            // A job cancelled while queued never reaches run(), so free its slot and queue space
+            // here. A running one keeps its slot until run() has returned, however long the
+            // interrupted writer takes to stop.
+            if (!job.hasStarted()) {
+                releaseSlot(job);
+            }
+            executor.purge();
+        } else {
+            jobs.remove(id);
+            deleteQuietly(job.getFile());
+        }
+        return true;
+    }
+
+    /** Drop finished jobs and their files once their TTL has passed. */
+    @Scheduled(fixedDelayString = "${app.reports.cleanup-interval-ms:300000}")
+    public void cleanupExpired() {
+        Instant now = Instant.now();
+        for (ReportJob job : jobs.values()) {
+            if (job.getStatus().isFinished() && job.getExpiresAt() != null && job.getExpiresAt().isBefore(now)) {
+                jobs.remove(job.getId());
+                deleteQuietly(job.getFile());
+            }
+        }
+    }
+
+    private void run(ReportJob job, ReportTask task) {
+        Path part = spool.resolve(job.getId() + PART_SUFFIX);
+        try {
+            if (!job.start()) {
+                return;
+            }
+            try (OutputStream out = new CountingOutputStream(Files.newOutputStream(part), job)) {
+                task.writer.write(out);
+            }
+            Path result = spool.resolve(job.getId());
+            Files.move(part, result, StandardCopyOption.REPLACE_EXISTING);
+            if (!job.complete(result, expiry())) {
+                // Cancelled while the last bytes were written
+                deleteQuietly(result);
+            }
+        } catch (InterruptedIOException e) {
+            job.cancel(expiry());
+        } catch (Exception e) {
+            logger.error("Report job {} ({} {}) failed", job.getId(), job.getType(), job.getFormat(), e);
+            job.fail("Error generating report", expiry());
+        } finally {
+            deleteQuietly(part);
+            releaseSlot(job);
+        }
+    }
+
+    private void releaseSlot(ReportJob job) {
+        AtomicInteger active = activePerUser.get(job.getOwnerId());
+        if (active != null && job.releaseSlot()) {
+            active.decrementAndGet();
+        }
+    }
+
+    private ReportTask createTask(UserIdentity user, String type, String format, ReportJobRequest request) {
+        Long userId = user.getId();
+        switch (type) {
+            case "expenses":
+                return forFormat(format, "expenses_report",
+                        out -> reportService.writePdf(userId, null, null, ExpenseReportTemplates.userExpenses(), out),
+                        out -> reportService.writeExcel(userId, ExpenseReportTemplates.userExpenses(), out),
+                        out -> reportService.writeCsv(userId, ExpenseReportTemplates.userExpenses(), request.isGzip(), out));
+            case "all-expenses":
+                if (!user.hasAnyRole("ROLE_MANAGER", "ROLE_ADMIN", "ROLE_FINANCE")) {
+                    throw new AccessDeniedException("Access denied. Manager, Admin, or Finance role required.");
+                }
+                return forFormat(format, "all_expenses_report",
+                        out -> {
+                            if (request.isParallel()) {
+                                partitionedPdfRenderer.write(null, ExpenseReportTemplates.allExpenses(), out);
+                            } else {
+                                reportService.writePdf(null, null, null, ExpenseReportTemplates.allExpenses(), out);
+                            }
+                        },
+                        out -> reportService.writeExcel(null, ExpenseReportTemplates.allExpenses(), out),
+                        out -> reportService.writeCsv(null, ExpenseReportTemplates.allExpenses(), request.isGzip(), out));
+            case "monthly-detailed":
+                if (!format.equals("pdf")) {
+                    throw new IllegalArgumentException("The monthly detailed report is only available as pdf");
+                }
+                Integer year = request.getYear();
+                Integer month = request.getMonth();
+                if (year == null || month == null || month < 1 || month > 12) {
+                    throw new IllegalArgumentException("year and month (1-12) are required");
+                }
+                LocalDate from = LocalDate.of(year, month, 1);
+                return new ReportTask("monthly_detailed_report_" + year + "_" + month,
+                        out -> reportService.writePdf(userId, from, from.withDayOfMonth(from.lengthOfMonth()),
+                                ExpenseReportTemplates.monthlyDetailed(year, month), out));
+            default:
+                throw new IllegalArgumentException("Unknown report type: " + type
+                        + " (expected expenses, all-expenses or monthly-detailed)");
+        }
+    }
+
+    private static ReportTask forFormat(String format, String fileName, ReportWriter pdf, ReportWriter xlsx, ReportWriter csv) {
+        switch (format) {
+            case "pdf":
+                return new ReportTask(fileName, pdf);
+            case "xlsx":
+                return new ReportTask(fileName, xlsx);
+            case "csv":
+                return new ReportTask(fileName, csv);
+            default:
+                throw new IllegalArgumentException("Unsupported format: " + format + " (expected pdf, xlsx or csv)");
+        }
+    }
+
+    private Instant expiry() {
+        return Instant.now().plus(Duration.ofMinutes(resultTtlMinutes));
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete spooled report {}", file, e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ReportWriter {
+        void write(OutputStream out) throws Exception;
+    }
+
+    private static final class ReportTask {
+        private final String fileName;
+        private final ReportWriter writer;
+
+        private ReportTask(String fileName, ReportWriter writer) {
+            this.fileName = fileName;
+            this.writer = writer;
+        }
+    }
+
+    // Reports progress as bytes reach the spool file
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private final ReportJob job;
+
+        private CountingOutputStream(OutputStream out, ReportJob job) {
+            super(out);
+            this.job = job;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            job.addBytesWritten(1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            job.addBytesWritten(len);
+        }
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.stereotype.Service;
 
 import com.expense.management.model.User;
 import com.expense.management.repository.UserRepository;
+import com.expense.management.security.UserIdentityCache;
 
 // In service/UserService.java
 @Service
@@ -18,8 +19,18 @@ public class UserService {
     @Autowired
     private AuditService auditService;
 
+    @Autowired
+    private UserIdentityCache identityCache;
+
     public User updateUser(User user, String performedBy) {
+        // The caller may have changed the email, so the entry under the old one goes too
+        String previousEmail = user.getId() == null ? null
+                : userRepository.findStoredEmailById(user.getId()).orElse(null);
         User updatedUser = userRepository.save(user);
+        identityCache.invalidate(updatedUser.getEmail());
+        if (previousEmail != null && !previousEmail.equals(updatedUser.getEmail())) {
+            identityCache.invalidate(previousEmail);
+        }
 
         // Using the new logEvent method with appropriate parameters
         auditService.logEvent(
@@ -0,0 +1,2 @@
+-- Bumped whenever a user's role changes so JWTs minted before the change stop being accepted
+ALTER TABLE users ADD COLUMN token_version BIGINT NOT NULL DEFAULT 0;
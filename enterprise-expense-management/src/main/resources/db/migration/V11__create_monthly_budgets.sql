@@ -0,0 +1,14 @@
+-- Company-wide (empty category) and per-category spending limits per calendar month.
+-- A month without its own row inherits the latest earlier one.
+CREATE TABLE IF NOT EXISTS monthly_budgets (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    budget_month CHAR(7) NOT NULL,
+    category VARCHAR(191) NOT NULL DEFAULT '',
+    budget_limit DECIMAL(15, 2) NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    UNIQUE KEY uk_monthly_budgets_month_category (budget_month, category)
+);
+
+-- Carry the existing per-category limits forward from the current month
+INSERT INTO monthly_budgets (budget_month, category, budget_limit)
+SELECT DATE_FORMAT(CURDATE(), '%Y-%m'), category, budget_limit FROM budget;
@@ -0,0 +1,10 @@
+-- Sequence table for audit_logs ids (MySQL has no sequences, so Hibernate emulates one
+-- with a single-row table). Ids come from it in blocks of 50, letting audit inserts be
+-- batched; the pooled optimizer hands out [next_val - 49, next_val] first, so start far
+-- enough above the existing ids.
+CREATE TABLE IF NOT EXISTS audit_logs_seq (
+    next_val BIGINT NOT NULL
+);
+
+INSERT INTO audit_logs_seq (next_val)
+SELECT COALESCE(MAX(id), 0) + 51 FROM audit_logs;
@@ -0,0 +1,5 @@
+-- Keyset pages of the audit log run newest first, optionally for one user or action.
+-- InnoDB appends the primary key to each index, which covers the (timestamp, id) tiebreak.
+CREATE INDEX idx_audit_logs_timestamp ON audit_logs (`timestamp`);
+CREATE INDEX idx_audit_logs_user_timestamp ON audit_logs (`user`, `timestamp`);
+CREATE INDEX idx_audit_logs_action_timestamp ON audit_logs (action, `timestamp`);
@@ -0,0 +1,7 @@
+-- Serialized KLL / HyperLogLog sketches backing the approximate spend analytics
+CREATE TABLE IF NOT EXISTS analytics_sketches (
+    sketch_key VARCHAR(191) NOT NULL PRIMARY KEY,
+    sketch_type VARCHAR(20) NOT NULL,
+    data MEDIUMBLOB NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
@@ -0,0 +1,133 @@
+package com.expense.management.analytics;
+
+import com.expense.management.dto.ExpenseExtractRow;
+import com.expense.management.enums.ApprovalLevel;
+import com.expense.management.model.ExpenseStatus;
+import com.expense.management.repository.ExpenseRepository;
+import org.apache.arrow.compression.CommonsCompressionFactory;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.dictionary.DictionaryEncoder;
+import org.apache.arrow.vector.ipc.ArrowFileReader;
+import org.apache.arrow.vector.ipc.SeekableReadChannel;
+import org.apache.arrow.vector.util.ByteArrayReadableSeekableByteChannel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// Arrow's memory module needs --add-opens=java.base/java.nio=ALL-UNNAMED
+class ArrowExpenseExporterTest {
+
+    private final TreeMap<Long, ExpenseExtractRow> rows = new TreeMap<>();
+    private final List<Long> pagedAfter = new ArrayList<>();
+    private ArrowExpenseExporter exporter;
+
+    @BeforeEach
+    void setUp() {
+        ExpenseRepository repository = (ExpenseRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {ExpenseRepository.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("findExtractRowsAfter")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    pagedAfter.add((Long) args[0]);
+                    int size = ((Pageable) args[1]).getPageSize();
+                    return rows.tailMap((Long) args[0], false).values().stream().limit(size)
+                            .collect(Collectors.toList());
+                });
+        exporter = new ArrowExpenseExporter();
+        ReflectionTestUtils.setField(exporter, "batchRows", 4);
+        ReflectionTestUtils.setField(exporter, "compression", "zstd");
+        ReflectionTestUtils.setField(exporter, "expenseRepository", repository);
+    }
+
+    private void row(long id, String category, String priority, String role, ExpenseStatus status) {
+        rows.put(id, new ExpenseExtractRow(id, LocalDate.of(2024, 3, (int) (id % 28) + 1),
+                LocalDateTime.of(2024, 3, 1, 9, 30), id * 1.5, category, "Expense " + id, status,
+                status == ExpenseStatus.APPROVED ? ApprovalLevel.MANAGER : null, priority, null, 7L, "Ana",
+                "ana@example.com", role));
+    }
+
+    // Column name to values, in row order, with dictionary columns decoded
+    private Map<String, List<Object>> read(byte[] file) throws Exception {
+        Map<String, List<Object>> columns = new TreeMap<>();
+        try (BufferAllocator allocator = new RootAllocator();
+             SeekableReadChannel channel = new SeekableReadChannel(new ByteArrayReadableSeekableByteChannel(file));
+             ArrowFileReader reader = new ArrowFileReader(channel, allocator, CommonsCompressionFactory.INSTANCE)) {
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            while (reader.loadNextBatch()) {
+                for (FieldVector vector : root.getFieldVectors()) {
+                    List<Object> values = columns.computeIfAbsent(vector.getName(), name -> new ArrayList<>());
+                    if (vector.getField().getDictionary() != null) {
+                        long id = vector.getField().getDictionary().getId();
+                        try (ValueVector decoded = DictionaryEncoder.decode(vector, reader.lookup(id))) {
+                            for (int i = 0; i < root.getRowCount(); i++) {
+                                values.add(decoded.getObject(i) != null ? decoded.getObject(i).toString() : null);
+                            }
+                        }
+                    } else {
+                        for (int i = 0; i < root.getRowCount(); i++) {
+                            Object value = vector.getObject(i);
+                            values.add(value != null && !(value instanceof Number) && !(value instanceof LocalDateTime)
+                                    ? value.toString() : value);
+                        }
+                    }
+                }
+            }
+        }
+        return columns;
+    }
+
+    @Test
+    void valuesFirstSeenMidExtractAreWritten() throws Exception {
+        for (long id = 1; id <= 6; id++) {
+            row(id, "Travel", "LOW", "EMPLOYEE", ExpenseStatus.APPROVED);
+        }
+        // Added after the first batch was written
+        row(7, "Training", "URGENT", "AUDITOR", ExpenseStatus.PENDING);
+        row(8, null, null, null, null);
+        row(9, "Meals", "HIGH", "MANAGER", ExpenseStatus.REJECTED);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(9, exporter.write(out));
+
+        Map<String, List<Object>> columns = read(out.toByteArray());
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L), columns.get("id"));
+        assertEquals("Training", columns.get("category").get(6));
+        assertEquals("URGENT", columns.get("priority").get(6));
+        assertEquals("AUDITOR", columns.get("user_role").get(6));
+        assertEquals("PENDING", columns.get("status").get(6));
+        assertNull(columns.get("approval_level").get(6));
+        assertNull(columns.get("category").get(7));
+        assertNull(columns.get("status").get(7));
+        assertEquals("Meals", columns.get("category").get(8));
+        assertEquals("REJECTED", columns.get("status").get(8));
+        assertEquals("MANAGER", columns.get("approval_level").get(0));
+        assertEquals(13.5, columns.get("amount").get(8));
+        assertEquals("ana@example.com", columns.get("user_email").get(8));
+    }
+
+    @Test
+    void emptyTableWritesAnEmptyBatch() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(0, exporter.write(out));
+        assertEquals(List.of(0L), pagedAfter);
+        assertEquals(List.of(), read(out.toByteArray()).get("id"));
+    }
+}
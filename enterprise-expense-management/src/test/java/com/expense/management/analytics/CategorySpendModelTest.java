@@ -0,0 +1,150 @@
+package com.expense.management.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CategorySpendModelTest {
+
+    // A half-life of 14 days, as configured by default
+    private static final double ALPHA = 1 - Math.pow(0.5, 1 / 14.0);
+    private static final double SEASONALITY = 0.25;
+
+    private static CategorySpendModel model(LocalDate start) {
+        return new CategorySpendModel(start, ALPHA, SEASONALITY);
+    }
+
+    // Records spend on every day of [from, to) and folds through to
+    private static void spendDaily(CategorySpendModel model, LocalDate from, LocalDate to, double amount) {
+        for (LocalDate day = from; day.isBefore(to); day = day.plusDays(1)) {
+            model.add(day, amount, day);
+        }
+        model.advanceTo(to);
+    }
+
+    @Test
+    void dailyMeanHalvesTheGapToANewLevelEveryHalfLife() {
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        CategorySpendModel model = model(start);
+        // Sixty days without spend still fold in, as zeros
+        model.advanceTo(start.plusDays(60));
+        assertEquals(0.0, model.dailyMean(), 1e-12);
+
+        spendDaily(model, start.plusDays(60), start.plusDays(74), 100);
+        assertEquals(50.0, model.dailyMean(), 1e-9);
+        spendDaily(model, start.plusDays(74), start.plusDays(88), 100);
+        assertEquals(75.0, model.dailyMean(), 1e-9);
+    }
+
+    @Test
+    void dailyVarianceTracksTheSpreadOfDailySpend() {
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        CategorySpendModel steady = model(start);
+        spendDaily(steady, start, start.plusDays(200), 80);
+        assertEquals(80.0, steady.dailyMean(), 1e-9);
+        assertEquals(0.0, steady.dailyVariance(), 1e-9);
+
+        // 0 and 200 on alternate days: mean 100, variance 100^2
+        CategorySpendModel alternating = model(start);
+        for (int i = 0; i < 400; i++) {
+            LocalDate day = start.plusDays(i);
+            alternating.add(day, i % 2 == 0 ? 0 : 200, day);
+        }
+        alternating.advanceTo(start.plusDays(400));
+        assertEquals(100.0, alternating.dailyMean(), 100 * ALPHA);
+        assertEquals(10_000.0, alternating.dailyVariance(), 10_000 * 0.05);
+    }
+
+    @Test
+    void backdatedAmountCorrectsTheMeanAsIfItHadArrivedOnTime() {
+        LocalDate start = LocalDate.of(2024, 5, 1);
+        LocalDate today = LocalDate.of(2024, 5, 20);
+        LocalDate backdated = LocalDate.of(2024, 5, 6);
+
+        CategorySpendModel onTime = model(start);
+        CategorySpendModel late = model(start);
+        for (LocalDate day = start; day.isBefore(today); day = day.plusDays(1)) {
+            double spend = 10 + day.getDayOfMonth() % 7;
+            onTime.add(day, spend + (day.equals(backdated) ? 250 : 0), day);
+            late.add(day, spend, day);
+        }
+        onTime.advanceTo(today);
+        late.advanceTo(today);
+        late.add(backdated, 250, today);
+
+        assertEquals(onTime.dailyMean(), late.dailyMean(), 1e-9);
+        assertEquals(onTime.monthToDate(), late.monthToDate(), 1e-9);
+
+        // Taking it back again undoes it
+        late.add(backdated, -250, today);
+        onTime.add(backdated, -250, today);
+        assertEquals(onTime.dailyMean(), late.dailyMean(), 1e-9);
+    }
+
+    @Test
+    void amountsForTodayOrLaterWaitUntilTheirDayIsFolded() {
+        LocalDate start = LocalDate.of(2024, 5, 1);
+        LocalDate today = LocalDate.of(2024, 5, 10);
+        CategorySpendModel model = model(start);
+        spendDaily(model, start, today, 10);
+        double mean = model.dailyMean();
+
+        model.add(today, 90, today);
+        model.add(LocalDate.of(2024, 5, 25), 300, today);
+        assertEquals(mean, model.dailyMean(), 1e-12);
+        assertEquals(90 + 90 + 300, model.monthToDate(), 1e-9);
+
+        model.advanceTo(today.plusDays(1));
+        assertEquals(mean + ALPHA * (90 - mean), model.dailyMean(), 1e-9);
+    }
+
+    @Test
+    void closedMonthsOnlyChangeThroughARebuild() {
+        LocalDate start = LocalDate.of(2024, 4, 1);
+        LocalDate today = LocalDate.of(2024, 5, 3);
+        CategorySpendModel model = model(start);
+        spendDaily(model, start, today, 10);
+        double mean = model.dailyMean();
+        double monthToDate = model.monthToDate();
+
+        model.add(LocalDate.of(2024, 4, 29), 500, today);
+        assertEquals(mean, model.dailyMean(), 1e-12);
+        assertEquals(monthToDate, model.monthToDate(), 1e-12);
+    }
+
+    @Test
+    void monthRolloverFoldsTheClosedMonthIntoTheProfile() {
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        CategorySpendModel model = model(start);
+        // Without a closed month the remaining share is spread evenly
+        assertEquals(21.0 / 31, model.remainingShare(10, 31), 1e-12);
+
+        // January spends only in its first ten days
+        for (int day = 1; day <= 10; day++) {
+            LocalDate date = LocalDate.of(2024, 1, day);
+            model.add(date, 31, date);
+        }
+        assertEquals(YearMonth.of(2024, 1), model.getMonth());
+        model.advanceTo(LocalDate.of(2024, 2, 1));
+        assertEquals(YearMonth.of(2024, 2), model.getMonth());
+        assertEquals(0.0, model.monthToDate(), 1e-12);
+        assertEquals(0.0, model.remainingShare(10, 29), 1e-12);
+        assertEquals(0.5, model.remainingShare(5, 29), 1e-12);
+
+        // February spends evenly; it moves the profile a quarter of the way there
+        for (int day = 1; day <= 29; day++) {
+            LocalDate date = LocalDate.of(2024, 2, day);
+            model.add(date, 29, date);
+        }
+        model.advanceTo(LocalDate.of(2024, 3, 1));
+        double firstTen = 0.75 * 1.0 + 0.25 * 10 / 29.0;
+        assertEquals(1 - firstTen, model.remainingShare(10, 31), 1e-12);
+
+        // A month without spend leaves the profile alone
+        model.advanceTo(LocalDate.of(2024, 4, 1));
+        assertEquals(1 - firstTen, model.remainingShare(10, 30), 1e-12);
+    }
+}
@@ -0,0 +1,105 @@
+package com.expense.management.analytics;
+
+import com.expense.management.analytics.DailySpendIndex.Bucket;
+import com.expense.management.events.ExpenseChangedEvent;
+import com.expense.management.events.ExpenseFact;
+import com.expense.management.model.ExpenseStatus;
+import com.expense.management.repository.ExpenseRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class DailySpendIndexTest {
+
+    private static final LocalDate FIRST = LocalDate.of(2024, 1, 1);
+    private static final int DAYS = 2_000;
+
+    // Every day from FIRST has 10.00 of approved spend over two expenses
+    private static DailySpendIndex index() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < DAYS; i++) {
+            rows.add(new Object[] {FIRST.plusDays(i), 10.0, 2L});
+        }
+        ExpenseRepository repository = (ExpenseRepository) Proxy.newProxyInstance(
+                DailySpendIndexTest.class.getClassLoader(), new Class<?>[] {ExpenseRepository.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("sumAmountByDate")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    return rows;
+                });
+        DailySpendIndex index = new DailySpendIndex();
+        ReflectionTestUtils.setField(index, "expenseRepository", repository);
+        return index;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static double total(Map<String, Object> series) {
+        double total = 0;
+        for (Map<String, Object> point : (List<Map<String, Object>>) series.get("points")) {
+            total += (Double) point.get("amount");
+        }
+        return total;
+    }
+
+    private static ExpenseFact approved(long id, LocalDate date, double amount) {
+        return new ExpenseFact(id, amount, date, "Travel", 1L, ExpenseStatus.APPROVED, null, null, null);
+    }
+
+    @Test
+    void readersNeverSeeAHalfRebuiltIndex() throws Exception {
+        DailySpendIndex index = index();
+        assertEquals(DAYS, index.rebuildFromDatabase());
+        LocalDate last = FIRST.plusDays(DAYS - 1);
+
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            while (!done.get() && failure.get() == null) {
+                double total = total(index.series(FIRST, last, Bucket.MONTH, DailySpendIndex.MAX_POINTS));
+                if (Math.abs(total - DAYS * 10.0) > 1e-6) {
+                    failure.set("read a total of " + total);
+                }
+            }
+        });
+        reader.start();
+        for (int i = 0; i < 200 && failure.get() == null; i++) {
+            index.rebuildFromDatabase();
+        }
+        done.set(true);
+        reader.join();
+        assertNull(failure.get());
+    }
+
+    @Test
+    void changesMoveAmountsBetweenDays() {
+        DailySpendIndex index = index();
+        index.rebuildFromDatabase();
+        LocalDate day = FIRST.plusDays(3);
+        ExpenseFact pending = new ExpenseFact(1L, 25, day, "Travel", 1L, ExpenseStatus.PENDING, null, null, null);
+
+        index.onExpenseChanged(ExpenseChangedEvent.created(pending));
+        assertEquals(10.0, total(index.series(day, day, Bucket.DAY, 3)));
+
+        index.onExpenseChanged(ExpenseChangedEvent.updated(pending, approved(1L, day, 25)));
+        assertEquals(35.0, total(index.series(day, day, Bucket.DAY, 3)));
+
+        LocalDate moved = day.plusDays(1);
+        index.onExpenseChanged(ExpenseChangedEvent.updated(approved(1L, day, 25), approved(1L, moved, 30)));
+        assertEquals(10.0, total(index.series(day, day, Bucket.DAY, 3)));
+        assertEquals(40.0, total(index.series(moved, moved, Bucket.DAY, 3)));
+
+        index.onExpenseChanged(ExpenseChangedEvent.deleted(approved(1L, moved, 30)));
+        assertEquals(10.0, total(index.series(moved, moved, Bucket.DAY, 3)));
+    }
+}
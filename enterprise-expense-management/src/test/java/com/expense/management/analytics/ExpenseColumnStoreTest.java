@@ -0,0 +1,295 @@
+package com.expense.management.analytics;
+
+import com.expense.management.dto.AnalyticsQueryRequest;
+import com.expense.management.dto.AnalyticsQueryResponse;
+import com.expense.management.dto.AnalyticsQueryResponse.GroupRow;
+import com.expense.management.enums.ApprovalLevel;
+import com.expense.management.events.ExpenseChangedEvent;
+import com.expense.management.events.ExpenseFact;
+import com.expense.management.model.ExpenseStatus;
+import com.expense.management.repository.ExpenseRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExpenseColumnStoreTest {
+
+    private static final String[] CATEGORIES = {"Travel", "Meals", "Software", "Office", "Training", null};
+    private static final String[] PRIORITIES = {"LOW", "MEDIUM", "HIGH", null};
+    private static final Dimension[] DIMENSIONS = Dimension.values();
+
+    private final Random random = new Random(7);
+    private final Map<Long, ExpenseFact> expected = new TreeMap<>();
+    private ExpenseColumnStore store;
+
+    @AfterEach
+    void tearDown() {
+        if (store != null) {
+            store.shutdown();
+        }
+    }
+
+    // Serves findFactsAfter from the expected rows, keyset paged like the real query
+    private ExpenseRepository repository() {
+        return (ExpenseRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {ExpenseRepository.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("findFactsAfter")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    long afterId = (Long) args[0];
+                    int size = ((Pageable) args[1]).getPageSize();
+                    return expected.values().stream().filter(fact -> fact.id() > afterId).limit(size)
+                            .collect(Collectors.toList());
+                });
+    }
+
+    private ExpenseFact randomFact(long id, int users) {
+        LocalDate date = random.nextInt(50) == 0 ? null : LocalDate.of(2023, 1, 1).plusDays(random.nextInt(730));
+        ExpenseStatus status = random.nextInt(20) == 0 ? null : ExpenseStatus.values()[random.nextInt(3)];
+        ApprovalLevel level = random.nextInt(4) == 0 ? null : ApprovalLevel.values()[random.nextInt(3)];
+        double amount = Math.round(random.nextDouble() * 5_000_000) / 100.0;
+        return new ExpenseFact(id, amount, date, CATEGORIES[random.nextInt(CATEGORIES.length)],
+                (long) (1 + random.nextInt(users)), status, level, PRIORITIES[random.nextInt(PRIORITIES.length)], null);
+    }
+
+    // Inserts in shuffled id order, then updates and deletes some, all through change events
+    private void loadThroughEvents(int rows, int users) {
+        store = new ExpenseColumnStore(null);
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= rows; id++) {
+            ids.add(id * 3);
+        }
+        Collections.shuffle(ids.subList(0, rows / 10), random);
+        for (long id : ids) {
+            ExpenseFact fact = randomFact(id, users);
+            expected.put(id, fact);
+            store.onExpenseChanged(ExpenseChangedEvent.created(fact));
+        }
+        for (int i = 0; i < rows / 5; i++) {
+            long id = ids.get(random.nextInt(ids.size()));
+            ExpenseFact before = expected.get(id);
+            if (random.nextInt(3) == 0) {
+                if (before != null) {
+                    expected.remove(id);
+                    store.onExpenseChanged(ExpenseChangedEvent.deleted(before));
+                }
+            } else {
+                ExpenseFact after = randomFact(id, users);
+                expected.put(id, after);
+                store.onExpenseChanged(before == null
+                        ? ExpenseChangedEvent.created(after)
+                        : ExpenseChangedEvent.updated(before, after));
+            }
+        }
+    }
+
+    private AnalyticsQueryRequest randomRequest() {
+        AnalyticsQueryRequest request = new AnalyticsQueryRequest();
+        List<String> groupBy = new ArrayList<>();
+        for (Dimension dimension : DIMENSIONS) {
+            if (random.nextInt(3) == 0) {
+                groupBy.add(dimension.name().toLowerCase());
+            }
+        }
+        Collections.shuffle(groupBy, random);
+        request.setGroupBy(groupBy);
+        if (random.nextBoolean()) {
+            request.setMinAmount(random.nextDouble() * 20_000);
+        }
+        if (random.nextBoolean()) {
+            request.setMaxAmount(20_000 + random.nextDouble() * 30_000);
+        }
+        if (random.nextBoolean()) {
+            request.setFrom(LocalDate.of(2023, 1, 1).plusDays(random.nextInt(400)));
+        }
+        if (random.nextBoolean()) {
+            request.setTo(LocalDate.of(2023, 6, 1).plusDays(random.nextInt(400)));
+        }
+        if (random.nextInt(3) == 0) {
+            request.setCategories(Arrays.asList("Travel", "Software", "Unknown"));
+        }
+        if (random.nextInt(4) == 0) {
+            request.setUserIds(List.of(1L, 2L, 3L, 5L, 8L, 13L));
+        }
+        if (random.nextInt(4) == 0) {
+            request.setPriorities(Arrays.asList("HIGH"));
+        }
+        if (random.nextInt(3) == 0) {
+            request.setStatuses(List.of("approved", "PENDING"));
+        }
+        if (random.nextInt(4) == 0) {
+            request.setLevels(List.of("FINANCE"));
+        }
+        request.setLimit(100_000);
+        return request;
+    }
+
+    private static boolean matches(ExpenseFact fact, AnalyticsQueryRequest request) {
+        if (request.getMinAmount() != null && fact.amount() < request.getMinAmount()
+                || request.getMaxAmount() != null && fact.amount() > request.getMaxAmount()) {
+            return false;
+        }
+        if (request.getFrom() != null || request.getTo() != null) {
+            if (fact.date() == null
+                    || request.getFrom() != null && fact.date().isBefore(request.getFrom())
+                    || request.getTo() != null && fact.date().isAfter(request.getTo())) {
+                return false;
+            }
+        }
+        return (request.getCategories() == null || request.getCategories().contains(fact.category()))
+                && (request.getUserIds() == null || request.getUserIds().contains(fact.userId()))
+                && (request.getPriorities() == null || request.getPriorities().contains(fact.priority()))
+                && (request.getStatuses() == null || fact.status() != null
+                        && request.getStatuses().stream().anyMatch(s -> s.equalsIgnoreCase(fact.status().name())))
+                && (request.getLevels() == null || fact.level() != null
+                        && request.getLevels().contains(fact.level().name()));
+    }
+
+    private static Object label(ExpenseFact fact, Dimension dimension) {
+        switch (dimension) {
+            case CATEGORY:
+                return fact.category();
+            case USER:
+                return fact.userId();
+            case PRIORITY:
+                return fact.priority();
+            case MONTH:
+                return fact.date() == null ? null : YearMonth.from(fact.date()).toString();
+            case STATUS:
+                return fact.status() == null ? null : fact.status().name();
+            case LEVEL:
+                return fact.level() == null ? null : fact.level().name();
+            default:
+                throw new IllegalStateException();
+        }
+    }
+
+    // count, sum, min, max per group, computed row by row
+    private Map<List<Object>, double[]> bruteForce(AnalyticsQueryRequest request) {
+        List<Dimension> dims = request.getGroupBy().stream().map(Dimension::fromName).collect(Collectors.toList());
+        Map<List<Object>, double[]> groups = new HashMap<>();
+        for (ExpenseFact fact : expected.values()) {
+            if (!matches(fact, request)) {
+                continue;
+            }
+            List<Object> key = new ArrayList<>();
+            for (Dimension dimension : dims) {
+                key.add(label(fact, dimension));
+            }
+            double[] agg = groups.computeIfAbsent(key,
+                    k -> new double[] {0, 0, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY});
+            agg[0]++;
+            agg[1] += fact.amount();
+            agg[2] = Math.min(agg[2], fact.amount());
+            agg[3] = Math.max(agg[3], fact.amount());
+        }
+        return groups;
+    }
+
+    private void assertMatchesBruteForce(AnalyticsQueryRequest request) {
+        Map<List<Object>, double[]> want = bruteForce(request);
+        AnalyticsQueryResponse response = store.query(request);
+        String context = "groupBy=" + request.getGroupBy() + " min=" + request.getMinAmount()
+                + " max=" + request.getMaxAmount() + " from=" + request.getFrom() + " to=" + request.getTo();
+
+        assertEquals(want.values().stream().mapToLong(agg -> (long) agg[0]).sum(), response.getMatchedRows(), context);
+        assertEquals(want.size(), response.getRows().size(), context);
+        double previousSum = Double.POSITIVE_INFINITY;
+        for (GroupRow row : response.getRows()) {
+            List<Object> key = new ArrayList<>();
+            for (String dimension : request.getGroupBy()) {
+                key.add(row.getGroup().get(dimension.toLowerCase()));
+            }
+            double[] agg = want.get(key);
+            assertNotNull(agg, () -> context + ": unexpected group " + key);
+            assertEquals((long) agg[0], row.getCount(), context);
+            assertEquals(agg[1], row.getSum(), 1e-6 * Math.max(1, Math.abs(agg[1])), context);
+            assertEquals(agg[2], row.getMin(), 0.0, context);
+            assertEquals(agg[3], row.getMax(), 0.0, context);
+            assertEquals(agg[1] / agg[0], row.getAvg(), 1e-6 * Math.max(1, Math.abs(agg[1] / agg[0])), context);
+            // Largest sums first
+            assertTrue(row.getSum() <= previousSum, context);
+            previousSum = row.getSum();
+        }
+    }
+
+    @Test
+    void parallelScanMatchesBruteForceAcrossGroupingsAndFilters() {
+        // Several fork-join splits, and enough users that user x month takes the hash-map path
+        loadThroughEvents(200_000, 2_000);
+        for (int i = 0; i < 40; i++) {
+            assertMatchesBruteForce(randomRequest());
+        }
+
+        AnalyticsQueryRequest sparse = new AnalyticsQueryRequest();
+        sparse.setGroupBy(List.of("user", "month"));
+        sparse.setLimit(100_000);
+        assertMatchesBruteForce(sparse);
+
+        AnalyticsQueryRequest total = new AnalyticsQueryRequest();
+        total.setGroupBy(List.of());
+        assertMatchesBruteForce(total);
+    }
+
+    @Test
+    void rebuildLoadsEveryPageFromTheDatabase() {
+        loadThroughEvents(12_345, 50);
+        ExpenseColumnStore rebuilt = new ExpenseColumnStore(repository());
+        try {
+            assertEquals(expected.size(), rebuilt.rebuildFromDatabase());
+            ExpenseColumnStore events = store;
+            store = rebuilt;
+            for (int i = 0; i < 20; i++) {
+                assertMatchesBruteForce(randomRequest());
+            }
+            store = events;
+        } finally {
+            rebuilt.shutdown();
+        }
+    }
+
+    @Test
+    void limitKeepsTheLargestGroups() {
+        loadThroughEvents(5_000, 100);
+        AnalyticsQueryRequest request = new AnalyticsQueryRequest();
+        request.setGroupBy(List.of("user"));
+        request.setLimit(10);
+        List<GroupRow> rows = store.query(request).getRows();
+        assertEquals(10, rows.size());
+
+        request.setLimit(100_000);
+        List<GroupRow> all = store.query(request).getRows();
+        assertEquals(all.subList(0, 10).stream().map(GroupRow::getGroup).collect(Collectors.toList()),
+                rows.stream().map(GroupRow::getGroup).collect(Collectors.toList()));
+    }
+
+    @Test
+    void rejectsUnknownDimensionsAndEnumValues() {
+        loadThroughEvents(100, 5);
+        AnalyticsQueryRequest request = new AnalyticsQueryRequest();
+        request.setGroupBy(List.of("department"));
+        assertThrows(IllegalArgumentException.class, () -> store.query(request));
+
+        AnalyticsQueryRequest status = new AnalyticsQueryRequest();
+        status.setStatuses(List.of("ARCHIVED"));
+        assertThrows(IllegalArgumentException.class, () -> store.query(status));
+    }
+}
@@ -0,0 +1,89 @@
+package com.expense.management.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HyperLogLogTest {
+
+    private static final int PRECISION = SpendSketchService.HLL_PRECISION;
+
+    // Three standard errors: the sketch is deterministic, so this only has to hold for these inputs
+    private static void assertWithinError(HyperLogLog sketch, long exact) {
+        double error = Math.abs(sketch.estimate() - exact) / (double) exact;
+        double allowed = 3 * sketch.relativeStandardError();
+        assertTrue(error <= allowed, "estimate " + sketch.estimate() + " for " + exact
+                + " is off by " + error + ", allowed " + allowed);
+    }
+
+    @Test
+    void estimatesStayWithinThreeStandardErrors() {
+        // Below, around and well above the switch from linear counting at 2.5 * 2^precision
+        for (int cardinality : new int[] {1, 10, 1_000, 20_000, 40_960, 60_000, 250_000, 2_000_000}) {
+            HyperLogLog sketch = new HyperLogLog(PRECISION);
+            for (long id = 1; id <= cardinality; id++) {
+                sketch.add(id);
+                // Repeats must not count
+                if (id % 3 == 0) {
+                    sketch.add(id / 3);
+                }
+            }
+            assertWithinError(sketch, cardinality);
+        }
+    }
+
+    @Test
+    void randomIdsStayWithinThreeStandardErrors() {
+        Random random = new Random(11);
+        Set<Long> exact = new HashSet<>();
+        HyperLogLog sketch = new HyperLogLog(PRECISION);
+        for (int i = 0; i < 300_000; i++) {
+            long id = random.nextLong();
+            exact.add(id);
+            sketch.add(id);
+        }
+        assertWithinError(sketch, exact.size());
+    }
+
+    @Test
+    void mergeEstimatesTheUnion() {
+        // Three months with overlapping submitters
+        HyperLogLog merged = new HyperLogLog(PRECISION);
+        Set<Long> exact = new HashSet<>();
+        for (int month = 0; month < 3; month++) {
+            HyperLogLog sketch = new HyperLogLog(PRECISION);
+            for (long id = month * 30_000L; id < month * 30_000L + 50_000; id++) {
+                sketch.add(id);
+                exact.add(id);
+            }
+            merged.merge(HyperLogLog.fromBytes(sketch.toBytes()));
+        }
+        assertWithinError(merged, exact.size());
+    }
+
+    @Test
+    void roundTripsThroughBytes() {
+        HyperLogLog sketch = new HyperLogLog(PRECISION);
+        for (long id = 0; id < 5_000; id++) {
+            sketch.add(id * 7919);
+        }
+        assertEquals(sketch.estimate(), HyperLogLog.fromBytes(sketch.toBytes()).estimate());
+    }
+
+    @Test
+    void emptySketchEstimatesZero() {
+        assertEquals(0L, new HyperLogLog(PRECISION).estimate());
+    }
+
+    @Test
+    void refusesToMergeDifferentPrecisions() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new HyperLogLog(PRECISION).merge(new HyperLogLog(PRECISION - 1)));
+    }
+}
@@ -0,0 +1,124 @@
+package com.expense.management.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KllSketchTest {
+
+    private static final int K = SpendSketchService.KLL_K;
+    private static final double[] PERCENTILES = new double[99];
+
+    static {
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            PERCENTILES[i] = (i + 1) / 100.0;
+        }
+    }
+
+    // Log-normal, like expense amounts, rounded to cents so there are ties
+    private static double[] amounts(long seed, int count) {
+        Random random = new Random(seed);
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = Math.round(Math.exp(4 + 1.5 * random.nextGaussian()) * 100) / 100.0;
+        }
+        return values;
+    }
+
+    // How far the rank of the returned value is from the requested one, given the sorted input
+    private static double rankError(double[] sorted, double rank, double value) {
+        int below = 0;
+        while (below < sorted.length && sorted[below] < value) {
+            below++;
+        }
+        int atOrBelow = below;
+        while (atOrBelow < sorted.length && sorted[atOrBelow] == value) {
+            atOrBelow++;
+        }
+        assertTrue(atOrBelow > below, "quantile " + value + " is not one of the inputs");
+        double lowest = (double) below / sorted.length;
+        double highest = (double) atOrBelow / sorted.length;
+        return Math.max(0, Math.max(lowest - rank, rank - highest));
+    }
+
+    private static void assertRanksWithinError(KllSketch sketch, double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        double[] quantiles = sketch.quantiles(PERCENTILES);
+        double epsilon = sketch.normalizedRankError();
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            double error = rankError(sorted, PERCENTILES[i], quantiles[i]);
+            assertTrue(error <= epsilon, "rank " + PERCENTILES[i] + " off by " + error + ", epsilon " + epsilon);
+        }
+        assertEquals(sorted[0], sketch.getMin(), 0.0);
+        assertEquals(sorted[sorted.length - 1], sketch.getMax(), 0.0);
+    }
+
+    @Test
+    void smallInputsAreExact() {
+        double[] values = amounts(1, K);
+        KllSketch sketch = new KllSketch(K);
+        for (double value : values) {
+            sketch.update(value);
+        }
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        double[] quantiles = sketch.quantiles(new double[] {0.0, 0.5, 1.0});
+        assertEquals(sorted[0], quantiles[0], 0.0);
+        assertEquals(sorted[K / 2 - 1], quantiles[1], 0.0);
+        assertEquals(sorted[K - 1], quantiles[2], 0.0);
+    }
+
+    @Test
+    void ranksStayWithinTheNormalizedRankError() {
+        for (long seed = 1; seed <= 20; seed++) {
+            double[] values = amounts(seed, 100_000);
+            KllSketch sketch = new KllSketch(K);
+            for (double value : values) {
+                sketch.update(value);
+            }
+            assertEquals(values.length, sketch.getCount());
+            assertRanksWithinError(sketch, values);
+        }
+    }
+
+    @Test
+    void mergedSketchesStayWithinTheNormalizedRankError() {
+        for (long seed = 1; seed <= 10; seed++) {
+            double[] values = amounts(seed, 120_000);
+            // Uneven parts, as months of different sizes would be
+            KllSketch[] parts = {new KllSketch(K), new KllSketch(K), new KllSketch(K)};
+            for (int i = 0; i < values.length; i++) {
+                parts[i % 7 == 0 ? 0 : i % 2 + 1].update(values[i]);
+            }
+            KllSketch merged = new KllSketch(K);
+            for (KllSketch part : parts) {
+                merged.merge(KllSketch.fromBytes(part.toBytes()));
+            }
+            assertEquals(values.length, merged.getCount());
+            assertRanksWithinError(merged, values);
+        }
+    }
+
+    @Test
+    void roundTripsThroughBytes() {
+        KllSketch sketch = new KllSketch(K);
+        for (double value : amounts(3, 50_000)) {
+            sketch.update(value);
+        }
+        KllSketch copy = KllSketch.fromBytes(sketch.toBytes());
+        assertEquals(sketch.getCount(), copy.getCount());
+        assertArrayEquals(sketch.quantiles(PERCENTILES), copy.quantiles(PERCENTILES));
+    }
+
+    @Test
+    void emptySketchHasNoQuantiles() {
+        double[] quantiles = new KllSketch(K).quantiles(new double[] {0.5});
+        assertTrue(Double.isNaN(quantiles[0]));
+    }
+}
@@ -0,0 +1,222 @@
+package com.expense.management.analytics;
+
+import com.expense.management.dto.BudgetStatus;
+import com.expense.management.dto.SpendForecast;
+import com.expense.management.events.ExpenseChangedEvent;
+import com.expense.management.events.ExpenseFact;
+import com.expense.management.model.ExpenseStatus;
+import com.expense.management.repository.ExpenseRepository;
+import com.expense.management.services.BudgetService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SpendForecasterTest {
+
+    private static final double ALPHA = 1 - Math.pow(0.5, 1 / 14.0);
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 10);
+
+    private final List<Object[]> history = new ArrayList<>();
+    private final Map<String, Double> budgets = new HashMap<>();
+    private SpendForecaster forecaster;
+
+    @BeforeEach
+    void setUp() {
+        ExpenseRepository repository = (ExpenseRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {ExpenseRepository.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("sumAmountByDateAndCategory")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    LocalDate from = (LocalDate) args[1];
+                    LocalDate to = (LocalDate) args[2];
+                    List<Object[]> rows = new ArrayList<>();
+                    for (Object[] row : history) {
+                        LocalDate date = (LocalDate) row[0];
+                        if (!date.isBefore(from) && !date.isAfter(to)) {
+                            rows.add(row);
+                        }
+                    }
+                    return rows;
+                });
+        BudgetService budgetService = new BudgetService() {
+            @Override
+            public Double getLimit(YearMonth month, String category) {
+                return budgets.get(category);
+            }
+
+            @Override
+            public List<BudgetStatus> getStatuses(YearMonth month) {
+                return List.of();
+            }
+        };
+
+        forecaster = new SpendForecaster();
+        ReflectionTestUtils.setField(forecaster, "historyMonths", 12);
+        ReflectionTestUtils.setField(forecaster, "dailyHalfLifeDays", 14.0);
+        ReflectionTestUtils.setField(forecaster, "seasonalityWeight", 0.25);
+        ReflectionTestUtils.setField(forecaster, "expenseRepository", repository);
+        ReflectionTestUtils.setField(forecaster, "budgetService", budgetService);
+        setToday(TODAY);
+    }
+
+    private void setToday(LocalDate today) {
+        ReflectionTestUtils.setField(forecaster, "clock",
+                Clock.fixed(today.atTime(12, 0).toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+    }
+
+    // Approved spend of {@code amount} on every day of [from, to)
+    private void daily(String category, LocalDate from, LocalDate to, double amount) {
+        for (LocalDate day = from; day.isBefore(to); day = day.plusDays(1)) {
+            history.add(new Object[] {day, category, amount});
+        }
+    }
+
+    private static ExpenseFact approved(long id, LocalDate date, double amount) {
+        return new ExpenseFact(id, amount, date, "Travel", 1L, ExpenseStatus.APPROVED, null, null, null);
+    }
+
+    // Share of the month after day 10 in a profile built the way closed months fold in
+    private static double remainingShareAfterSteadyYear() {
+        double[] profile = null;
+        for (YearMonth month = YearMonth.of(2023, 3); month.isBefore(YearMonth.of(2024, 3)); month = month.plusMonths(1)) {
+            double[] shares = new double[31];
+            for (int i = 0; i < month.lengthOfMonth(); i++) {
+                shares[i] = 1.0 / month.lengthOfMonth();
+            }
+            if (profile == null) {
+                profile = shares;
+            } else {
+                for (int i = 0; i < 31; i++) {
+                    profile[i] += 0.25 * (shares[i] - profile[i]);
+                }
+            }
+        }
+        double total = 0;
+        double remaining = 0;
+        for (int i = 0; i < 31; i++) {
+            total += profile[i];
+            remaining += i >= 10 ? profile[i] : 0;
+        }
+        return remaining / total;
+    }
+
+    @Test
+    void steadySpendIsProjectedAtItsDailyRate() {
+        daily("Travel", LocalDate.of(2023, 3, 1), TODAY, 100);
+        assertEquals(history.size(), forecaster.rebuildFromDatabase());
+        budgets.put("Travel", 2_500.0);
+
+        SpendForecast forecast = forecaster.forecast("Travel");
+        assertEquals("2024-03", forecast.getMonth());
+        assertEquals(TODAY, forecast.getAsOf());
+        assertEquals(900.0, forecast.getMonthToDate(), 1e-9);
+        assertEquals(100.0, forecast.getExpectedDailySpend(), 1e-9);
+        double projected = 900 + 100 * 31 * remainingShareAfterSteadyYear();
+        assertEquals(Math.round(projected * 100) / 100.0, forecast.getProjectedMonthEnd(), 1e-9);
+        assertEquals(0.0, forecast.getProjectedStdDev(), 1e-9);
+        assertEquals(1.0, forecast.getBreachProbability(), 0.0);
+
+        budgets.put("Travel", 3_500.0);
+        assertEquals(0.0, forecaster.forecast("Travel").getBreachProbability(), 0.0);
+        assertNull(forecaster.forecast("Meals").getBreachProbability());
+        assertEquals(0.0, forecaster.forecast("Meals").getProjectedMonthEnd(), 0.0);
+    }
+
+    @Test
+    void spreadGrowsWithTheDailyVariance() {
+        // Alternating 0 and 200 a day
+        for (LocalDate day = LocalDate.of(2023, 3, 1); day.isBefore(TODAY); day = day.plusDays(1)) {
+            history.add(new Object[] {day, "Travel", day.toEpochDay() % 2 == 0 ? 0.0 : 200.0});
+        }
+        forecaster.rebuildFromDatabase();
+        CategorySpendModel model = new CategorySpendModel(LocalDate.of(2023, 3, 1), ALPHA, 0.25);
+        for (Object[] row : history) {
+            model.add((LocalDate) row[0], (Double) row[2], (LocalDate) row[0]);
+        }
+        model.advanceTo(TODAY);
+
+        double share = model.remainingShare(10, 31);
+        double stdDev = Math.sqrt(model.dailyVariance() * 21) * share * 31 / 21;
+        double projected = model.monthToDate() + model.dailyMean() * 31 * share;
+        budgets.put("Travel", projected + stdDev);
+
+        SpendForecast forecast = forecaster.forecast("Travel");
+        assertEquals(Math.round(stdDev * 100) / 100.0, forecast.getProjectedStdDev(), 1e-9);
+        assertEquals(Math.round(projected * 100) / 100.0, forecast.getProjectedMonthEnd(), 1e-9);
+        // One standard deviation above the projection
+        assertEquals(1 - 0.8413447, forecast.getBreachProbability(), 1e-6);
+    }
+
+    @Test
+    void approvalsUpdateTheForecastIncludingBackdatedOnes() {
+        daily("Travel", LocalDate.of(2023, 3, 1), TODAY, 100);
+        forecaster.rebuildFromDatabase();
+        SpendForecast before = forecaster.forecast("Travel");
+
+        forecaster.onExpenseChanged(ExpenseChangedEvent.created(approved(1L, LocalDate.of(2024, 3, 4), 60)));
+        SpendForecast after = forecaster.forecast("Travel");
+        assertEquals(before.getMonthToDate() + 60, after.getMonthToDate(), 1e-9);
+        // Five days old on a mean folded through yesterday
+        assertEquals(100 + ALPHA * 60 * Math.pow(1 - ALPHA, 5), after.getExpectedDailySpend(), 0.005);
+
+        // Rejecting it again takes it back
+        ExpenseFact rejected = new ExpenseFact(1L, 60, LocalDate.of(2024, 3, 4), "Travel", 1L,
+                ExpenseStatus.REJECTED, null, null, null);
+        forecaster.onExpenseChanged(ExpenseChangedEvent.updated(approved(1L, LocalDate.of(2024, 3, 4), 60), rejected));
+        assertEquals(before.getMonthToDate(), forecaster.forecast("Travel").getMonthToDate(), 1e-9);
+
+        // Last month is closed until the nightly rebuild
+        forecaster.onExpenseChanged(ExpenseChangedEvent.created(approved(2L, LocalDate.of(2024, 2, 20), 500)));
+        assertEquals(before.getMonthToDate(), forecaster.forecast("Travel").getMonthToDate(), 1e-9);
+    }
+
+    @Test
+    void forecastsRollOverToTheNewMonth() {
+        daily("Travel", LocalDate.of(2023, 3, 1), LocalDate.of(2024, 4, 1), 100);
+        setToday(LocalDate.of(2024, 3, 31));
+        forecaster.rebuildFromDatabase();
+        assertEquals(3_100.0, forecaster.forecast("Travel").getMonthToDate(), 1e-9);
+
+        setToday(LocalDate.of(2024, 4, 1));
+        SpendForecast april = forecaster.forecast("Travel");
+        assertEquals("2024-04", april.getMonth());
+        assertEquals(0.0, april.getMonthToDate(), 0.0);
+        assertEquals(100.0, april.getExpectedDailySpend(), 1e-9);
+
+        // An approval dated in the new month counts towards it
+        forecaster.onExpenseChanged(ExpenseChangedEvent.created(approved(1L, LocalDate.of(2024, 4, 1), 40)));
+        assertEquals(40.0, forecaster.forecast("Travel").getMonthToDate(), 1e-9);
+    }
+
+    @Test
+    void normalCdfMatchesTabulatedValues() {
+        double[][] table = {{0, 0.5}, {1, 0.8413447}, {-1, 0.1586553}, {1.96, 0.9750021}, {-2.5, 0.0062097},
+            {3, 0.9986501}};
+        for (double[] row : table) {
+            assertEquals(row[1], SpendForecaster.normalCdf(row[0]), 2e-7);
+        }
+    }
+
+    @Test
+    void breachProbabilityIsTheUpperTailAboveTheBudget() {
+        assertEquals(0.5, SpendForecaster.breachProbability(1_000, 100, 1_000), 1e-7);
+        assertEquals(1 - 0.9750021, SpendForecaster.breachProbability(1_000, 100, 1_196), 1e-6);
+        assertEquals(0.9750021, SpendForecaster.breachProbability(1_196, 100, 1_000), 1e-6);
+        // Without spread it is certain either way
+        assertEquals(1.0, SpendForecaster.breachProbability(1_000.01, 0, 1_000), 0.0);
+        assertEquals(0.0, SpendForecaster.breachProbability(1_000, 0, 1_000), 0.0);
+    }
+}
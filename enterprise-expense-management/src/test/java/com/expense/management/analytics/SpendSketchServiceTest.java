@@ -0,0 +1,90 @@
+package com.expense.management.analytics;
+
+import com.expense.management.analytics.SpendSketchService.Basis;
+import com.expense.management.events.ExpenseChangedEvent;
+import com.expense.management.events.ExpenseFact;
+import com.expense.management.model.ExpenseStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SpendSketchServiceTest {
+
+    private static final double[] MEDIAN = {0.5};
+
+    private final SpendSketchService service = new SpendSketchService();
+    private long nextId = 1;
+
+    private void submit(String category, LocalDate date, double amount, ExpenseStatus status) {
+        service.onExpenseChanged(ExpenseChangedEvent.created(
+                new ExpenseFact(nextId++, amount, date, category, 1L, status, null, null, null)));
+    }
+
+    private static Object median(Map<String, Object> result) {
+        return ((Map<?, ?>) result.get("quantiles")).get("0.5");
+    }
+
+    @Test
+    void quantilesCanBeScopedToAMonth() {
+        // January is all small travel, February all large; one undated expense
+        for (int i = 0; i < 100; i++) {
+            submit("Travel", LocalDate.of(2024, 1, 1 + i % 28), 10 + i % 5, ExpenseStatus.APPROVED);
+            submit("travel", LocalDate.of(2024, 2, 1 + i % 28), 1_000 + i % 5, ExpenseStatus.PENDING);
+        }
+        submit("Travel", null, 5, ExpenseStatus.PENDING);
+        submit("Meals", LocalDate.of(2024, 1, 15), 50, ExpenseStatus.PENDING);
+
+        YearMonth january = YearMonth.of(2024, 1);
+        YearMonth february = YearMonth.of(2024, 2);
+
+        Map<String, Object> jan = service.quantiles("TRAVEL", Basis.SUBMITTED, january, january, MEDIAN);
+        assertEquals(100L, jan.get("count"));
+        assertEquals(12.0, median(jan));
+        assertEquals("2024-01", jan.get("from"));
+
+        Map<String, Object> feb = service.quantiles("Travel", Basis.SUBMITTED, february, february, MEDIAN);
+        assertEquals(100L, feb.get("count"));
+        assertEquals(1_000.0, feb.get("min"));
+
+        // Merged across both months, without the undated one
+        Map<String, Object> both = service.quantiles("Travel", Basis.SUBMITTED, january, february, MEDIAN);
+        assertEquals(200L, both.get("count"));
+        assertEquals(10.0, both.get("min"));
+
+        Map<String, Object> all = service.quantiles("Travel", Basis.SUBMITTED, null, null, MEDIAN);
+        assertEquals(201L, all.get("count"));
+        assertEquals(5.0, all.get("min"));
+
+        Map<String, Object> everyCategory = service.quantiles(null, Basis.SUBMITTED, january, january, MEDIAN);
+        assertEquals(101L, everyCategory.get("count"));
+
+        Map<String, Object> approved = service.quantiles(null, Basis.APPROVED, february, february, MEDIAN);
+        assertEquals(0L, approved.get("count"));
+        assertEquals(100L, service.quantiles(null, Basis.APPROVED, null, null, MEDIAN).get("count"));
+    }
+
+    @Test
+    void monthRangeMustBeComplete() {
+        YearMonth month = YearMonth.of(2024, 3);
+        assertThrows(IllegalArgumentException.class,
+                () -> service.quantiles(null, Basis.SUBMITTED, month, null, MEDIAN));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.quantiles(null, Basis.SUBMITTED, month, month.minusMonths(1), MEDIAN));
+    }
+
+    @Test
+    void distinctSubmittersMergeAcrossMonths() {
+        for (long user = 1; user <= 300; user++) {
+            LocalDate date = LocalDate.of(2024, 1 + (int) (user % 3), 10);
+            service.onExpenseChanged(ExpenseChangedEvent.created(
+                    new ExpenseFact(nextId++, 20, date, "Meals", user, ExpenseStatus.PENDING, null, null, null)));
+        }
+        Map<String, Object> result = service.distinctSubmitters(YearMonth.of(2024, 1), YearMonth.of(2024, 2));
+        assertEquals(200L, result.get("estimate"));
+    }
+}
@@ -0,0 +1,187 @@
+package com.expense.management.audit;
+
+import com.expense.management.model.AuditLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuditSegmentStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private AuditSegmentStore open() throws IOException {
+        AuditSegmentStore store = new AuditSegmentStore();
+        ReflectionTestUtils.setField(store, "sinkName", "segments");
+        ReflectionTestUtils.setField(store, "dirName", dir.toString());
+        ReflectionTestUtils.setField(store, "maxBytes", 8192L);
+        ReflectionTestUtils.setField(store, "maxAgeMinutes", 1440L);
+        ReflectionTestUtils.setField(store, "indexInterval", 4);
+        ReflectionTestUtils.setField(store, "fsync", true);
+        store.init();
+        return store;
+    }
+
+    private static void append(AuditSegmentStore store, int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            store.append(List.of(new AuditLog("user" + i + "@example.com", "EXPENSE_APPROVED", "expense " + i, "SUCCESS")));
+        }
+    }
+
+    private Path segment(long firstSeq) {
+        return dir.resolve(AuditSegmentFormat.baseName(firstSeq) + AuditSegmentFormat.SEGMENT_SUFFIX);
+    }
+
+    // Offset of the index-th record (from 0), going by the length prefixes
+    private static long recordOffset(Path segment, int index) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            long offset = AuditSegmentFormat.HEADER_BYTES;
+            for (int i = 0; i < index; i++) {
+                ByteBuffer length = ByteBuffer.allocate(4);
+                channel.read(length, offset);
+                offset += 4 + length.flip().getInt() + AuditSegmentFormat.HASH_BYTES;
+            }
+            return offset;
+        }
+    }
+
+    private static void overwrite(Path file, long offset, byte[] bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(bytes), offset);
+        }
+    }
+
+    private static void flipByte(Path file, long offset) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        overwrite(file, offset, new byte[] {(byte) (bytes[(int) offset] ^ 1)});
+    }
+
+    private long damagedCopies() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.getFileName().toString().contains(".damaged-")).count();
+        }
+    }
+
+    @Test
+    void tamperedRecordWithRecordsAfterItIsLeftInPlaceAndReported() throws Exception {
+        AuditSegmentStore store = open();
+        append(store, 10);
+        store.close();
+        assertTrue(AuditChainVerifier.verify(dir, Map.of()).valid());
+
+        // One byte inside the details of seq 4
+        flipByte(segment(1), recordOffset(segment(1), 3) + 40);
+        byte[] tampered = Files.readAllBytes(segment(1));
+
+        store = open();
+        AuditChainVerifier.Result result = store.verify();
+        assertFalse(result.valid());
+        assertTrue(result.error().contains("seq 4"), result.error());
+        assertNotNull(store.stats().get("chainBreak"));
+        assertArrayEquals(tampered, Files.readAllBytes(segment(1)));
+        assertEquals(0, damagedCopies());
+
+        // Later records keep their numbers; new ones go to a segment after them
+        append(store, 1);
+        assertEquals(Long.valueOf(12), store.stats().get("nextSeq"));
+        assertTrue(Files.exists(segment(11)));
+        assertArrayEquals(tampered, Files.readAllBytes(segment(1)));
+        assertFalse(store.verify().valid());
+        store.close();
+
+        // Still broken once the tampered segment has been gzipped on the next start
+        store = open();
+        store.close();
+        assertTrue(Files.exists(dir.resolve(AuditSegmentFormat.baseName(1) + AuditSegmentFormat.COMPRESSED_SUFFIX)));
+        assertFalse(Files.exists(segment(1)));
+        result = AuditChainVerifier.verify(dir, Map.of());
+        assertFalse(result.valid());
+        assertEquals(Long.valueOf(3), result.lastSeq());
+    }
+
+    @Test
+    void zeroedLengthWithRecordsAfterItIsNotTakenForTheEnd() throws Exception {
+        AuditSegmentStore store = open();
+        append(store, 10);
+        store.close();
+
+        overwrite(segment(1), recordOffset(segment(1), 5), new byte[4]);
+        byte[] tampered = Files.readAllBytes(segment(1));
+
+        store = open();
+        AuditChainVerifier.Result result = store.verify();
+        assertFalse(result.valid());
+        assertArrayEquals(tampered, Files.readAllBytes(segment(1)));
+
+        append(store, 1);
+        assertTrue(Files.exists(segment(11)));
+        result = store.verify();
+        assertFalse(result.valid());
+        assertTrue(result.error().contains("expected it to start at seq 6"), result.error());
+        store.close();
+    }
+
+    @Test
+    void damagedLastRecordIsCutOffAsATornWrite() throws Exception {
+        AuditSegmentStore store = open();
+        append(store, 5);
+        store.close();
+
+        // A bad hash on the last record, with only zeros after it
+        flipByte(segment(1), recordOffset(segment(1), 5) - 1);
+
+        store = open();
+        AuditChainVerifier.Result result = store.verify();
+        assertTrue(result.valid(), result.error());
+        assertEquals(4, result.records());
+        assertEquals(Long.valueOf(5), store.stats().get("nextSeq"));
+        assertEquals(1, damagedCopies());
+        assertFalse(store.stats().containsKey("chainBreak"));
+
+        append(store, 1);
+        result = store.verify();
+        assertTrue(result.valid(), result.error());
+        assertEquals(Long.valueOf(5), result.lastSeq());
+        store.close();
+    }
+
+    @Test
+    void recordWhoseLengthNeverReachedTheDiskIsCutOff() throws Exception {
+        AuditSegmentStore store = open();
+        append(store, 5);
+        store.close();
+
+        // The length goes in last, so a crash can leave a complete payload and hash behind a zero length
+        long last = recordOffset(segment(1), 4);
+        overwrite(segment(1), last, new byte[4]);
+
+        store = open();
+        append(store, 2);
+        AuditChainVerifier.Result result = store.verify();
+        assertTrue(result.valid(), result.error());
+        assertEquals(6, result.records());
+        assertEquals(0, damagedCopies());
+        assertFalse(store.stats().containsKey("chainBreak"));
+        store.close();
+
+        store = open();
+        assertTrue(store.verify().valid());
+        store.close();
+    }
+}
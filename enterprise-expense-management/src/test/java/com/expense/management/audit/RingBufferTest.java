@@ -0,0 +1,113 @@
+package com.expense.management.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RingBufferTest {
+
+    @Test
+    void keepsFifoOrderAndRejectsOffersWhenFull() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(5);
+        assertEquals(8, buffer.capacity());
+        for (int i = 0; i < 8; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(8));
+        assertEquals(8, buffer.size());
+
+        for (int lap = 0; lap < 3; lap++) {
+            for (int i = 0; i < 8; i++) {
+                assertEquals(Integer.valueOf(lap * 8 + i), buffer.poll());
+                assertTrue(buffer.offer(lap * 8 + i + 8));
+            }
+        }
+        List<Integer> rest = new ArrayList<>();
+        assertEquals(8, buffer.drainTo(rest, 100));
+        assertEquals(List.of(24, 25, 26, 27, 28, 29, 30, 31), rest);
+        assertNull(buffer.poll());
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    void concurrentProducersAndConsumersSeeEveryItemExactlyOnceInOrder() throws Exception {
+        int producers = 4;
+        int consumers = 3;
+        int perProducer = 200_000;
+        // Small enough that producers keep finding it full and slots are reused many times over
+        RingBuffer<long[]> buffer = new RingBuffer<>(64);
+        AtomicIntegerArray seen = new AtomicIntegerArray(producers * perProducer);
+        AtomicBoolean producing = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(producers + consumers);
+        try {
+            List<Future<?>> producerTasks = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                int producer = p;
+                producerTasks.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perProducer; i++) {
+                        long[] item = {producer, i};
+                        while (!buffer.offer(item)) {
+                            Thread.yield();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            List<Future<?>> consumerTasks = new ArrayList<>();
+            for (int c = 0; c < consumers; c++) {
+                consumerTasks.add(pool.submit(() -> {
+                    start.await();
+                    // Each consumer takes items in queue order, so a producer's items reach it in increasing order
+                    long[] last = new long[producers];
+                    Arrays.fill(last, -1);
+                    while (true) {
+                        long[] item = buffer.poll();
+                        if (item == null) {
+                            if (!producing.get() && buffer.isEmpty()) {
+                                return null;
+                            }
+                            Thread.yield();
+                            continue;
+                        }
+                        int producer = (int) item[0];
+                        assertTrue(item[1] > last[producer], "out of order for producer " + producer);
+                        last[producer] = item[1];
+                        seen.incrementAndGet(producer * perProducer + (int) item[1]);
+                    }
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> task : producerTasks) {
+                task.get(60, TimeUnit.SECONDS);
+            }
+            producing.set(false);
+            for (Future<?> task : consumerTasks) {
+                task.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        for (int i = 0; i < seen.length(); i++) {
+            assertEquals(1, seen.get(i), "item " + i);
+        }
+        assertTrue(buffer.isEmpty());
+    }
+}
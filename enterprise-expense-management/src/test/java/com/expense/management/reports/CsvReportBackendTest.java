@@ -0,0 +1,51 @@
+package com.expense.management.reports;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CsvReportBackendTest {
+
+    private record Row(String description, double amount, double share) {
+    }
+
+    private static final ReportTemplate<Row> TEMPLATE = ReportTemplate.<Row>builder("Expenses")
+            .column(Column.text("Description", Row::description))
+            .column(Column.money("Amount", Row::amount))
+            .column(Column.percent("Share", Row::share))
+            .build();
+
+    private static String render(List<Row> rows) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (RowSink<Row> sink = new CsvReportBackend(false).open(TEMPLATE, out)) {
+            for (Row row : rows) {
+                sink.accept(row);
+            }
+            sink.finish();
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void writesAmountsWithTwoDecimalsAndNoExponent() throws IOException {
+        String csv = render(List.of(
+                new Row("Fleet renewal", 12_345_678.9, 12.5),
+                new Row("Coffee, \"large\"", 3.0, 0.0),
+                new Row("Refund", -0.1, 100.0)));
+        assertEquals("Description,Amount,Share\r\n"
+                + "Fleet renewal,12345678.90,12.50\r\n"
+                + "\"Coffee, \"\"large\"\"\",3.00,0.00\r\n"
+                + "Refund,-0.10,100.00\r\n", csv);
+    }
+
+    @Test
+    void writesAmountsBeyondTheFastPathInFull() throws IOException {
+        assertEquals("Description,Amount,Share\r\nBond,25000000000000.00,1.00\r\n",
+                render(List.of(new Row("Bond", 2.5e13, 1.0))));
+    }
+}
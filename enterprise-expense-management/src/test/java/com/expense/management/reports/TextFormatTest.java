@@ -0,0 +1,61 @@
+package com.expense.management.reports;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TextFormatTest {
+
+    private static String expected(double value) {
+        String formatted = String.format("%.2f", value);
+        return formatted.equals("-0.00") ? "0.00" : formatted;
+    }
+
+    @Test
+    void halfCentsRoundLikeStringFormat() {
+        double[] values = {0.005, 1.005, 2.675, 1.115, 123456789.005, 543962990.045, 9191139738.505,
+                2305951209502.385, -4871326494581.645, 1.0e8 + 0.125};
+        for (double value : values) {
+            assertEquals(expected(value), TextFormat.fixed2(value), () -> "fixed2(" + value + ")");
+        }
+    }
+
+    @Test
+    void matchesStringFormatAcrossMagnitudes() {
+        Random random = new Random(42);
+        for (int i = 0; i < 2_000_000; i++) {
+            double magnitude = Math.pow(10, random.nextInt(14));
+            double value = i % 2 == 0
+                    // an exact half cent in decimal, the hardest case for the binary product
+                    ? (random.nextLong(Math.max(1, (long) (magnitude * 100))) + 0.5) / 100.0
+                    : random.nextDouble() * magnitude;
+            if (random.nextBoolean()) {
+                value = -value;
+            }
+            double v = value;
+            assertEquals(expected(v), TextFormat.fixed2(v), () -> "fixed2(" + v + ")");
+        }
+    }
+
+    @Test
+    void largeAndNonFiniteValuesFallBackToStringFormat() {
+        for (double value : new double[] {1.0e13, -3.5e15, Double.NaN, Double.POSITIVE_INFINITY}) {
+            assertEquals(String.format("%.2f", value), TextFormat.fixed2(value));
+        }
+    }
+
+    @Test
+    void negativeValuesRoundingToZeroHaveNoSign() {
+        assertEquals("0.00", TextFormat.fixed2(-0.001));
+        assertEquals("-0.01", TextFormat.fixed2(-0.005));
+    }
+
+    @Test
+    void formatsDates() {
+        assertEquals("2024-03-07", TextFormat.date(LocalDate.of(2024, 3, 7)));
+        assertEquals("", TextFormat.date(null));
+    }
+}
@@ -0,0 +1,93 @@
+package com.expense.management.security;
+
+import com.expense.management.dto.TokenSubject;
+import com.expense.management.repository.UserRepository;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class JwtTokenProviderTest {
+
+    private static final String SECRET = "a-test-secret-that-is-at-least-thirty-two-bytes-long";
+
+    private static JwtTokenProvider provider(String secret, long expirationMs, int cacheSize) {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        UserRepository users = (UserRepository) Proxy.newProxyInstance(JwtTokenProviderTest.class.getClassLoader(),
+                new Class<?>[] {UserRepository.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("findTokenSubjectByEmail")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    return Optional.of(new TokenSubject(42L, (String) args[0], "MANAGER", 3L));
+                });
+        ReflectionTestUtils.setField(provider, "userRepository", users);
+        ReflectionTestUtils.setField(provider, "jwtSecret", secret);
+        ReflectionTestUtils.setField(provider, "jwtExpirationInMs", expirationMs);
+        ReflectionTestUtils.setField(provider, "verifiedCacheSize", cacheSize);
+        provider.init();
+        return provider;
+    }
+
+    @Test
+    void verifiedTokensAreAnsweredFromTheCache() {
+        JwtTokenProvider provider = provider(SECRET, 60_000, 100);
+        String token = provider.generateToken("ana@example.com");
+
+        Claims claims = provider.getClaims(token);
+        assertNotNull(claims);
+        assertEquals("ana@example.com", claims.getSubject());
+        assertEquals(42, ((Number) claims.get(JwtTokenProvider.USER_ID_CLAIM)).intValue());
+        assertEquals("MANAGER", claims.get(JwtTokenProvider.ROLE_CLAIM));
+        assertEquals(3, ((Number) claims.get(JwtTokenProvider.VERSION_CLAIM)).intValue());
+        assertSame(claims, provider.getClaims(token));
+    }
+
+    @Test
+    void disabledCacheVerifiesEveryTime() {
+        JwtTokenProvider provider = provider(SECRET, 60_000, 0);
+        String token = provider.generateToken("ana@example.com");
+        Claims first = provider.getClaims(token);
+        assertNotNull(first);
+        assertNotSame(first, provider.getClaims(token));
+    }
+
+    @Test
+    void tamperedTokensAreRejectedEvenAfterTheOriginalWasCached() {
+        JwtTokenProvider provider = provider(SECRET, 60_000, 100);
+        String token = provider.generateToken("ana@example.com");
+        assertNotNull(provider.getClaims(token));
+
+        String[] parts = token.split("\\.");
+        String forgedPayload = parts[0] + "." + provider(SECRET, 60_000, 0).generateToken("root@example.com")
+                .split("\\.")[1] + "." + parts[2];
+        assertNull(provider.getClaims(forgedPayload));
+
+        char last = parts[2].charAt(parts[2].length() - 2);
+        String badSignature = parts[0] + "." + parts[1] + "." + parts[2].substring(0, parts[2].length() - 2)
+                + (last == 'A' ? 'B' : 'A') + parts[2].charAt(parts[2].length() - 1);
+        assertNull(provider.getClaims(badSignature));
+
+        String otherKey = provider("another-secret-that-is-at-least-thirty-two-bytes", 60_000, 100)
+                .generateToken("ana@example.com");
+        assertNull(provider.getClaims(otherKey));
+        assertNull(provider.getClaims("not-a-token"));
+    }
+
+    @Test
+    void expiredTokensAreNotServedFromTheCache() throws InterruptedException {
+        JwtTokenProvider provider = provider(SECRET, 1_500, 100);
+        String token = provider.generateToken("ana@example.com");
+        assertNotNull(provider.getClaims(token));
+        // Token expiry has one-second resolution
+        Thread.sleep(2_100);
+        assertNull(provider.getClaims(token));
+    }
+}
@@ -0,0 +1,135 @@
+package com.expense.management.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoginAttemptLimiterTest {
+
+    private LoginAttemptLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new LoginAttemptLimiter();
+        ReflectionTestUtils.setField(limiter, "maxAccountFailures", 3);
+        ReflectionTestUtils.setField(limiter, "maxIpFailures", 5);
+        ReflectionTestUtils.setField(limiter, "windowMillis", 60_000L);
+        ReflectionTestUtils.setField(limiter, "stripeCount", 4096);
+        limiter.init();
+    }
+
+    @Test
+    void blocksAnAccountAfterTooManyFailures() {
+        for (int i = 0; i < 3; i++) {
+            assertFalse(limiter.isBlocked("victim@example.com", null));
+            limiter.tryAcquire("victim@example.com", null).failed();
+        }
+        assertTrue(limiter.isBlocked(" Victim@Example.com ", null));
+        assertNull(limiter.tryAcquire("victim@example.com", null));
+        assertFalse(limiter.isBlocked("someone.else@example.com", null));
+    }
+
+    @Test
+    void loggingInClearsTheAccountsFailures() {
+        for (int i = 0; i < 2; i++) {
+            limiter.tryAcquire("victim@example.com", null).failed();
+        }
+        limiter.tryAcquire("victim@example.com", null).succeeded();
+        for (int i = 0; i < 2; i++) {
+            limiter.tryAcquire("victim@example.com", null).failed();
+        }
+        assertFalse(limiter.isBlocked("victim@example.com", null));
+    }
+
+    @Test
+    void blocksAnAddressIndependentlyOfAccounts() {
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("user" + i + "@example.com", "203.0.113.7").failed();
+        }
+        assertTrue(limiter.isBlocked("fresh@example.com", "203.0.113.7"));
+        assertFalse(limiter.isBlocked("fresh@example.com", "203.0.113.8"));
+    }
+
+    @Test
+    void loggingIntoACollidingAccountDoesNotClearAVictimsLockout() {
+        // Same String.hashCode, so these land in the same stripes under any scheme built on it
+        String victim = "aan@example.com";
+        String attacker = "ac0@example.com";
+        assertEquals(victim.hashCode(), attacker.hashCode());
+        // A fixed key keeps the test deterministic; a random one separates them just as well
+        ReflectionTestUtils.setField(limiter, "hashKey", new byte[16]);
+
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire(victim, null).failed();
+        }
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire(attacker, null).succeeded();
+        }
+        assertTrue(limiter.isBlocked(victim, null));
+    }
+
+    @Test
+    void attemptsInProgressCountAgainstTheLimit() {
+        List<LoginAttemptLimiter.Attempt> inProgress = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            LoginAttemptLimiter.Attempt attempt = limiter.tryAcquire("victim@example.com", "203.0.113.7");
+            assertNotNull(attempt);
+            inProgress.add(attempt);
+        }
+        // Nothing has failed yet, but a fourth guess is not let through to bcrypt
+        assertNull(limiter.tryAcquire("victim@example.com", "203.0.113.8"));
+        assertTrue(limiter.isBlocked("victim@example.com", null));
+
+        inProgress.get(0).abandoned();
+        inProgress.get(0).abandoned();
+        LoginAttemptLimiter.Attempt next = limiter.tryAcquire("victim@example.com", "203.0.113.7");
+        assertNotNull(next);
+        assertNull(limiter.tryAcquire("victim@example.com", "203.0.113.7"));
+
+        next.succeeded();
+        inProgress.get(1).failed();
+        inProgress.get(2).failed();
+        assertFalse(limiter.isBlocked("victim@example.com", null));
+    }
+
+    @Test
+    void concurrentGuessesAreCappedAtTheLimit() throws Exception {
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger admitted = new AtomicInteger();
+        List<Thread> guessers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread guesser = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 100; i++) {
+                    // Never settled, like guesses still waiting for bcrypt
+                    if (limiter.tryAcquire("victim@example.com", null) != null) {
+                        admitted.incrementAndGet();
+                    }
+                }
+            });
+            guesser.start();
+            guessers.add(guesser);
+        }
+        start.countDown();
+        for (Thread guesser : guessers) {
+            guesser.join();
+        }
+        assertEquals(3, admitted.get());
+    }
+}
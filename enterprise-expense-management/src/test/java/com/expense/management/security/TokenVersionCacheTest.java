@@ -0,0 +1,94 @@
+package com.expense.management.security;
+
+import com.expense.management.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenVersionCacheTest {
+
+    private final Map<Long, Long> stored = new ConcurrentHashMap<>();
+    private final AtomicInteger loads = new AtomicInteger();
+    private volatile CountDownLatch loading;
+    private volatile CountDownLatch release;
+
+    private TokenVersionCache cache(int size, long ttlMillis) {
+        UserRepository users = (UserRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {UserRepository.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("findTokenVersionById")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    loads.incrementAndGet();
+                    Long version = stored.get((Long) args[0]);
+                    if (loading != null) {
+                        loading.countDown();
+                        release.await();
+                    }
+                    return Optional.ofNullable(version);
+                });
+        TokenVersionCache cache = new TokenVersionCache();
+        ReflectionTestUtils.setField(cache, "userRepository", users);
+        ReflectionTestUtils.setField(cache, "maxEntries", size);
+        ReflectionTestUtils.setField(cache, "ttlMillis", ttlMillis);
+        cache.init();
+        return cache;
+    }
+
+    @Test
+    void versionsAreCachedUntilInvalidated() {
+        TokenVersionCache cache = cache(100, 60_000);
+        stored.put(1L, 4L);
+        assertEquals(4L, cache.current(1L));
+        stored.put(1L, 5L);
+        assertEquals(4L, cache.current(1L));
+        assertEquals(1, loads.get());
+
+        cache.invalidate(1L);
+        assertEquals(5L, cache.current(1L));
+        assertEquals(TokenVersionCache.UNKNOWN_USER, cache.current(2L));
+    }
+
+    @Test
+    void entriesAreReloadedAfterTheTtl() throws InterruptedException {
+        TokenVersionCache cache = cache(100, 50);
+        stored.put(1L, 4L);
+        assertEquals(4L, cache.current(1L));
+        stored.put(1L, 5L);
+        Thread.sleep(100);
+        assertEquals(5L, cache.current(1L));
+    }
+
+    @Test
+    void invalidationDuringALoadDropsTheLoadedValue() throws Exception {
+        TokenVersionCache cache = cache(100, 60_000);
+        stored.put(1L, 4L);
+        loading = new CountDownLatch(1);
+        release = new CountDownLatch(1);
+        CompletableFuture<Long> reader = CompletableFuture.supplyAsync(() -> cache.current(1L));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        // The row changes after the reader read it, and the change invalidates the cache
+        stored.put(1L, 5L);
+        CompletableFuture<Void> invalidation = CompletableFuture.runAsync(() -> cache.invalidate(1L));
+        Thread.sleep(100);
+        assertFalse(invalidation.isDone());
+        release.countDown();
+        assertEquals(4L, (long) reader.get(5, TimeUnit.SECONDS));
+        invalidation.get(5, TimeUnit.SECONDS);
+
+        loading = null;
+        assertEquals(5L, cache.current(1L));
+    }
+}
@@ -0,0 +1,76 @@
+package com.expense.management.security;
+
+import com.expense.management.dto.UserIdentity;
+import com.expense.management.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class UserIdentityCacheTest {
+
+    private final Map<String, UserIdentity> stored = new ConcurrentHashMap<>();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private UserIdentityCache cache(long ttlMillis) {
+        UserRepository users = (UserRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {UserRepository.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("findIdentityByEmail")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    loads.incrementAndGet();
+                    return Optional.ofNullable(stored.get((String) args[0]));
+                });
+        UserIdentityCache cache = new UserIdentityCache();
+        ReflectionTestUtils.setField(cache, "userRepository", users);
+        ReflectionTestUtils.setField(cache, "maxEntries", 100);
+        ReflectionTestUtils.setField(cache, "ttlMillis", ttlMillis);
+        cache.init();
+        return cache;
+    }
+
+    @Test
+    void identitiesAreCachedUntilInvalidated() {
+        UserIdentityCache cache = cache(60_000);
+        UserIdentity before = new UserIdentity(1L, "ana@example.com", "Ana", "ROLE_EMPLOYEE");
+        stored.put("ana@example.com", before);
+        assertSame(before, cache.get("ana@example.com"));
+
+        UserIdentity promoted = new UserIdentity(1L, "ana@example.com", "Ana", "ROLE_MANAGER");
+        stored.put("ana@example.com", promoted);
+        assertSame(before, cache.get("ana@example.com"));
+        assertEquals(1, loads.get());
+
+        cache.invalidate("ana@example.com");
+        assertSame(promoted, cache.get("ana@example.com"));
+    }
+
+    @Test
+    void unknownEmailsAreNotCached() {
+        UserIdentityCache cache = cache(60_000);
+        assertNull(cache.get("new@example.com"));
+        UserIdentity created = new UserIdentity(2L, "new@example.com", "New", "ROLE_EMPLOYEE");
+        stored.put("new@example.com", created);
+        assertSame(created, cache.get("new@example.com"));
+        assertNull(cache.get(null));
+    }
+
+    @Test
+    void entriesAreReloadedAfterTheTtl() throws InterruptedException {
+        UserIdentityCache cache = cache(50);
+        stored.put("ana@example.com", new UserIdentity(1L, "ana@example.com", "Ana", "ROLE_EMPLOYEE"));
+        cache.get("ana@example.com");
+        UserIdentity renamed = new UserIdentity(1L, "ana@example.com", "Ana B", "ROLE_EMPLOYEE");
+        stored.put("ana@example.com", renamed);
+        Thread.sleep(100);
+        assertSame(renamed, cache.get("ana@example.com"));
+    }
+}
@@ -0,0 +1,90 @@
+package com.expense.management.services;
+
+import com.expense.management.dto.DashboardDTO;
+import com.expense.management.enums.DashboardField;
+import com.expense.management.model.Expense;
+import com.expense.management.model.ExpenseStatus;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DashboardServiceTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final DashboardService service = new DashboardService();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private static Expense expense(long id, double amount, String category, LocalDate date, ExpenseStatus status) {
+        Expense expense = new Expense();
+        expense.setId(id);
+        expense.setAmount(amount);
+        expense.setCategory(category);
+        expense.setDescription("Expense " + id);
+        expense.setDate(date);
+        expense.setApprovalStatus(status);
+        expense.setPriority("LOW");
+        return expense;
+    }
+
+    private List<Expense> expenses() {
+        loads.incrementAndGet();
+        return List.of(
+                expense(1, 120, "Travel", LocalDate.of(2024, 3, 4), ExpenseStatus.APPROVED),
+                expense(2, 30, "Meals", LocalDate.of(2024, 3, 9), ExpenseStatus.PENDING),
+                expense(3, 45, "Travel", LocalDate.of(2024, 2, 20), ExpenseStatus.REJECTED));
+    }
+
+    private JsonNode json(Object body) throws Exception {
+        return mapper.readTree(mapper.writeValueAsString(body));
+    }
+
+    private static List<String> names(JsonNode node) {
+        List<String> names = new ArrayList<>();
+        node.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+
+    @Test
+    void defaultResponseKeepsEverySection() throws Exception {
+        // The employee dashboard never sets totalUsers; it is still sent, as 0
+        EnumSet<DashboardField> all = DashboardField.parse(null);
+        DashboardDTO dashboard = service.getDashboardData(this::expenses, all);
+        Object body = DashboardField.view(dashboard, all);
+        assertEquals(mapper.writeValueAsString(dashboard), mapper.writeValueAsString(body));
+
+        JsonNode node = json(body);
+        assertEquals(List.of("totalUsers", "totalExpenses", "pendingExpenses", "approvedExpenses", "rejectedExpenses",
+                "expensesByCategory", "recentExpenses", "monthlyExpenses", "statusCounts"), names(node));
+        assertEquals(0, node.get("totalUsers").asLong());
+        assertEquals(195.0, node.get("totalExpenses").asDouble(), 0.0);
+        assertEquals(30.0, node.get("pendingExpenses").asDouble(), 0.0);
+        assertEquals(120.0, node.get("expensesByCategory").get("Travel").asDouble(), 0.0);
+        assertEquals(3, node.get("recentExpenses").size());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void selectedSectionsAreTheOnlyOnesSent() throws Exception {
+        EnumSet<DashboardField> selected = DashboardField.parse("statusCounts, pendingExpenses");
+        DashboardDTO dashboard = service.getDashboardData(this::expenses, selected);
+        JsonNode node = json(DashboardField.view(dashboard, selected));
+        assertEquals(List.of("pendingExpenses", "statusCounts"), names(node));
+        assertEquals(30.0, node.get("pendingExpenses").asDouble(), 0.0);
+        assertEquals(1, node.get("statusCounts").get("REJECTED").asInt());
+
+        // A zero valued section is sent when selected
+        selected = DashboardField.parse("totalUsers");
+        node = json(DashboardField.view(service.getDashboardData(this::expenses, selected), selected));
+        assertEquals(List.of("totalUsers"), names(node));
+        assertEquals(0, node.get("totalUsers").asLong());
+        assertEquals(1, loads.get());
+    }
+}
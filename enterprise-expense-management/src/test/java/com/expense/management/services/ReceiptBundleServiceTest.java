@@ -0,0 +1,256 @@
+package com.expense.management.services;
+
+import com.expense.management.dto.ExpenseReportRow;
+import com.expense.management.dto.ReceiptRef;
+import com.expense.management.reports.ExpenseReportTemplates;
+import com.expense.management.reports.ReportTemplate;
+import com.expense.management.repository.ExpenseRepository;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReceiptBundleServiceTest {
+
+    private static final byte[] PDF = "%PDF-stub".getBytes(StandardCharsets.US_ASCII);
+    private static final long MAX_BYTES = 64 * 1024;
+    private static final LocalDate DATE = LocalDate.of(2024, 3, 9);
+
+    private HttpServer server;
+    private String base;
+    private final Map<String, AtomicInteger> hits = new ConcurrentHashMap<>();
+
+    private final TreeMap<Long, ReceiptRef> refs = new TreeMap<>();
+    private final Map<Long, byte[]> attachments = new ConcurrentHashMap<>();
+    private CloudinaryService cloudinary;
+    private ReceiptBundleService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Random delays = new Random(5);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            hits.computeIfAbsent(path, p -> new AtomicInteger()).incrementAndGet();
+            try {
+                // Out of order completions, so the writer has to restore id order
+                Thread.sleep(delays.nextInt(8));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (path.startsWith("/receipts/missing")) {
+                exchange.sendResponseHeaders(404, -1);
+            } else if (path.startsWith("/receipts/moved")) {
+                exchange.getResponseHeaders().add("Location", base + "/private/secret.jpg");
+                exchange.sendResponseHeaders(302, -1);
+            } else if (path.startsWith("/receipts/huge")) {
+                exchange.sendResponseHeaders(200, 0);
+                try (OutputStream body = exchange.getResponseBody()) {
+                    body.write(new byte[(int) MAX_BYTES + 1]);
+                }
+            } else {
+                byte[] body = path.getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+            exchange.close();
+        });
+        server.setExecutor(Executors.newFixedThreadPool(4));
+        server.start();
+        base = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        cloudinary = new CloudinaryService();
+        ReflectionTestUtils.setField(cloudinary, "allowedUrlPrefixes", List.of(base + "/receipts/"));
+        ReflectionTestUtils.setField(cloudinary, "fetchTimeoutMillis", 5000L);
+
+        ExpenseRepository repository = (ExpenseRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {ExpenseRepository.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "findReceiptRefsAfter":
+                            int size = ((Pageable) args[4]).getPageSize();
+                            return refs.tailMap((Long) args[0], false).values().stream().limit(size)
+                                    .collect(Collectors.toList());
+                        case "findAttachmentById":
+                            return attachments.get((Long) args[0]);
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        ExpenseReportService reports = new ExpenseReportService() {
+            @Override
+            public void writePdf(Long userId, LocalDate from, LocalDate to, ReportTemplate<ExpenseReportRow> template,
+                                 OutputStream out) throws IOException {
+                out.write(PDF);
+            }
+        };
+
+        service = new ReceiptBundleService();
+        ReflectionTestUtils.setField(service, "fetchParallelism", 4);
+        ReflectionTestUtils.setField(service, "fetchWindow", 8);
+        ReflectionTestUtils.setField(service, "maxReceiptBytes", MAX_BYTES);
+        ReflectionTestUtils.setField(service, "expenseRepository", repository);
+        ReflectionTestUtils.setField(service, "reportService", reports);
+        ReflectionTestUtils.setField(service, "cloudinaryService", cloudinary);
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+        server.stop(0);
+    }
+
+    private void url(long id, String path) {
+        refs.put(id, new ReceiptRef(id, DATE, "Travel, Air", base + path, null, false));
+    }
+
+    private void attachment(long id, byte[] data) {
+        refs.put(id, new ReceiptRef(id, DATE, "Meals", null, "image/png", data != null));
+        if (data != null) {
+            attachments.put(id, data);
+        }
+    }
+
+    // Entry name to contents, in archive order
+    private Map<String, byte[]> bundle() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.writeBundle(null, null, null, ExpenseReportTemplates.allExpenses(), out);
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                entries.put(entry.getName(), zip.readAllBytes());
+            }
+        }
+        return entries;
+    }
+
+    // Manifest rows keyed by expense id: file, source, status
+    private static Map<Long, String[]> manifest(byte[] csv) {
+        String[] lines = new String(csv, StandardCharsets.UTF_8).split("\r\n");
+        assertEquals("Expense ID,Date,Category,File,Source,Status", lines[0]);
+        Map<Long, String[]> rows = new LinkedHashMap<>();
+        for (int i = 1; i < lines.length; i++) {
+            // The category is quoted as it holds a comma
+            String[] parts = lines[i].replace("\"Travel, Air\"", "Travel/Air").split(",", -1);
+            assertEquals(6, parts.length, lines[i]);
+            rows.put(Long.valueOf(parts[0]), new String[] {parts[3], parts[4], parts[5]});
+        }
+        return rows;
+    }
+
+    @Test
+    void receiptsAreWrittenInExpenseOrderWithAManifest() throws Exception {
+        // More than one page of refs, mostly URLs so fetches finish out of order
+        for (long id = 1; id <= 600; id++) {
+            if (id % 4 == 0) {
+                attachment(id, ("attachment " + id).getBytes(StandardCharsets.UTF_8));
+            } else {
+                url(id, "/receipts/" + id + ".jpg");
+            }
+        }
+
+        Map<String, byte[]> entries = bundle();
+        List<String> names = new ArrayList<>(entries.keySet());
+        assertEquals(602, names.size());
+        assertEquals("expense_report.pdf", names.get(0));
+        assertArrayEquals(PDF, entries.get("expense_report.pdf"));
+        assertEquals("manifest.csv", names.get(names.size() - 1));
+
+        for (int id = 1; id <= 600; id++) {
+            String name = names.get(id);
+            if (id % 4 == 0) {
+                assertEquals("receipts/" + id + "_2024-03-09_Meals.png", name);
+                assertArrayEquals(("attachment " + id).getBytes(StandardCharsets.UTF_8), entries.get(name));
+            } else {
+                assertEquals("receipts/" + id + "_2024-03-09_Travel_Air.jpg", name);
+                assertArrayEquals(("/receipts/" + id + ".jpg").getBytes(StandardCharsets.UTF_8), entries.get(name));
+            }
+        }
+
+        Map<Long, String[]> manifest = manifest(entries.get("manifest.csv"));
+        assertEquals(new ArrayList<>(refs.keySet()), new ArrayList<>(manifest.keySet()));
+        assertEquals(Arrays.asList("receipts/4_2024-03-09_Meals.png", "attachment", "ok"),
+                Arrays.asList(manifest.get(4L)));
+        assertEquals(Arrays.asList("receipts/5_2024-03-09_Travel_Air.jpg", "url", "ok"),
+                Arrays.asList(manifest.get(5L)));
+    }
+
+    @Test
+    void failedFetchesAreListedWithoutAbortingTheBundle() throws Exception {
+        url(1, "/receipts/1.jpg");
+        url(2, "/receipts/missing.jpg");
+        url(3, "/receipts/huge.pdf");
+        refs.put(4L, new ReceiptRef(4L, DATE, "Travel", "http://127.0.0.1:1/receipts/4.jpg", null, false));
+        url(5, "/other/5.jpg");
+        url(6, "/receipts/moved.jpg");
+        attachment(7, null);
+        url(8, "/receipts/8.png");
+
+        Map<String, byte[]> entries = bundle();
+        assertEquals(List.of("expense_report.pdf", "receipts/1_2024-03-09_Travel_Air.jpg",
+                "receipts/8_2024-03-09_Travel_Air.png", "manifest.csv"), new ArrayList<>(entries.keySet()));
+
+        Map<Long, String[]> manifest = manifest(entries.get("manifest.csv"));
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L), new ArrayList<>(manifest.keySet()));
+        assertEquals("ok", manifest.get(1L)[2]);
+        assertEquals(Arrays.asList("", "url", "failed: Receipt download failed with HTTP 404"),
+                Arrays.asList(manifest.get(2L)));
+        assertEquals("failed: Receipt is larger than " + MAX_BYTES + " bytes", manifest.get(3L)[2]);
+        assertEquals("failed: Receipt URL is not on an allowed host", manifest.get(4L)[2]);
+        assertEquals("failed: Receipt URL is not on an allowed host", manifest.get(5L)[2]);
+        assertEquals("failed: Receipt download failed with HTTP 302", manifest.get(6L)[2]);
+        assertEquals(Arrays.asList("", "attachment", "failed: Attachment no longer exists"),
+                Arrays.asList(manifest.get(7L)));
+        assertEquals("ok", manifest.get(8L)[2]);
+
+        // Neither the rejected URL nor the redirect target was requested
+        assertNull(hits.get("/other/5.jpg"));
+        assertNull(hits.get("/private/secret.jpg"));
+    }
+
+    @Test
+    void openReceiptOnlyFetchesAllowedPrefixes() throws IOException {
+        for (String url : new String[] {base + "/other/1.jpg", base + "/receipts", "http://127.0.0.1:1/receipts/1.jpg",
+                "http://localhost:" + server.getAddress().getPort() + "/receipts/1.jpg", null}) {
+            assertThrows(IllegalArgumentException.class, () -> cloudinary.openReceipt(url), url);
+        }
+        assertTrue(hits.isEmpty());
+        try (InputStream in = cloudinary.openReceipt(base + "/receipts/1.jpg")) {
+            assertArrayEquals("/receipts/1.jpg".getBytes(StandardCharsets.UTF_8), in.readAllBytes());
+        }
+    }
+}
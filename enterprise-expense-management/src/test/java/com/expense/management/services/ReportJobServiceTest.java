@@ -0,0 +1,151 @@
+package com.expense.management.services;
+
+import com.expense.management.dto.ExpenseReportRow;
+import com.expense.management.dto.ReportJobRequest;
+import com.expense.management.dto.UserIdentity;
+import com.expense.management.reports.ReportTemplate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReportJobServiceTest {
+
+    private static final UserIdentity USER = new UserIdentity(7L, "ana@example.com", "Ana", "ROLE_EMPLOYEE");
+
+    @TempDir
+    Path spool;
+
+    private final CountDownLatch writing = new CountDownLatch(1);
+    private final CountDownLatch finishWriting = new CountDownLatch(1);
+    private ReportJobService service;
+
+    // Writes one byte, then keeps going through interrupts until released, like a slow export
+    private final ExpenseReportService reports = new ExpenseReportService() {
+        @Override
+        public long writeCsv(Long userId, ReportTemplate<ExpenseReportRow> template, boolean gzip, OutputStream out)
+                throws IOException {
+            out.write('x');
+            writing.countDown();
+            boolean released = false;
+            while (!released) {
+                try {
+                    released = finishWriting.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    // Ignored on purpose
+                }
+            }
+            return 1;
+        }
+    };
+
+    private ReportJobService start(int workers, int maxActivePerUser) throws IOException {
+        service = new ReportJobService();
+        ReflectionTestUtils.setField(service, "workers", workers);
+        ReflectionTestUtils.setField(service, "queueCapacity", 10);
+        ReflectionTestUtils.setField(service, "maxActivePerUser", maxActivePerUser);
+        ReflectionTestUtils.setField(service, "spoolDir", spool.toString());
+        ReflectionTestUtils.setField(service, "resultTtlMinutes", 60L);
+        ReflectionTestUtils.setField(service, "reportService", reports);
+        service.init();
+        return service;
+    }
+
+    @AfterEach
+    void tearDown() {
+        finishWriting.countDown();
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    private static ReportJobRequest csv() {
+        ReportJobRequest request = new ReportJobRequest();
+        request.setType("expenses");
+        request.setFormat("csv");
+        return request;
+    }
+
+    private static void awaitStatus(ReportJob job, ReportJob.Status status) throws InterruptedException {
+        for (int i = 0; i < 500 && job.getStatus() != status; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(status, job.getStatus());
+    }
+
+    @Test
+    void startupDeletesOnlyItsOwnSpoolFiles() throws IOException {
+        String id = UUID.randomUUID().toString();
+        Path result = Files.write(spool.resolve(id), new byte[] {1});
+        Path part = Files.write(spool.resolve(UUID.randomUUID() + ".part"), new byte[] {1});
+        Path unrelated = Files.write(spool.resolve("hsperfdata.lock"), new byte[] {1});
+        Path lookalike = Files.write(spool.resolve(id + ".xlsx"), new byte[] {1});
+        Path directory = Files.createDirectory(spool.resolve(UUID.randomUUID().toString()));
+
+        start(1, 2);
+
+        assertFalse(Files.exists(result));
+        assertFalse(Files.exists(part));
+        assertTrue(Files.exists(unrelated));
+        assertTrue(Files.exists(lookalike));
+        assertTrue(Files.isDirectory(directory));
+    }
+
+    @Test
+    void cancellingARunningJobKeepsItsSlotUntilTheWorkerStops() throws Exception {
+        start(2, 1);
+        ReportJob running = service.submit(USER, csv());
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+        assertTrue(service.cancel(running.getId(), USER.getId()));
+        assertEquals(ReportJob.Status.CANCELLED, running.getStatus());
+        // The worker is still writing, so the user cannot start another job yet
+        assertThrows(IllegalStateException.class, () -> service.submit(USER, csv()));
+
+        finishWriting.countDown();
+        ReportJob next = null;
+        for (int i = 0; i < 500 && next == null; i++) {
+            try {
+                next = service.submit(USER, csv());
+            } catch (IllegalStateException e) {
+                Thread.sleep(10);
+            }
+        }
+        assertNotNull(next);
+        assertEquals(ReportJob.Status.CANCELLED, running.getStatus());
+        assertFalse(Files.exists(spool.resolve(running.getId())));
+    }
+
+    @Test
+    void cancellingAQueuedJobFreesItsSlotAtOnce() throws Exception {
+        start(1, 2);
+        ReportJob running = service.submit(USER, csv());
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        ReportJob queued = service.submit(USER, csv());
+        assertEquals(ReportJob.Status.QUEUED, queued.getStatus());
+        assertThrows(IllegalStateException.class, () -> service.submit(USER, csv()));
+
+        assertTrue(service.cancel(queued.getId(), USER.getId()));
+        ReportJob replacement = service.submit(USER, csv());
+
+        finishWriting.countDown();
+        awaitStatus(running, ReportJob.Status.COMPLETED);
+        awaitStatus(replacement, ReportJob.Status.COMPLETED);
+        assertEquals(ReportJob.Status.CANCELLED, queued.getStatus());
+        assertTrue(Files.exists(spool.resolve(running.getId())));
+    }
+}